@@ -26,17 +26,17 @@
 import htsjdk.variant.vcf.VCFFileReader;
 import htsjdk.variant.vcf.VCFHeader;
 import org.monarchinitiative.exomiser.core.analysis.util.*;
-import org.monarchinitiative.exomiser.core.filters.GeneFilter;
-import org.monarchinitiative.exomiser.core.filters.GeneFilterRunner;
-import org.monarchinitiative.exomiser.core.filters.VariantFilter;
-import org.monarchinitiative.exomiser.core.filters.VariantFilterRunner;
+import org.monarchinitiative.exomiser.core.filters.*;
 import org.monarchinitiative.exomiser.core.genome.GeneFactory;
 import org.monarchinitiative.exomiser.core.genome.VariantDataService;
 import org.monarchinitiative.exomiser.core.genome.VariantFactory;
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.model.RegulatoryFeature;
 import org.monarchinitiative.exomiser.core.model.TopologicalDomain;
+import org.monarchinitiative.exomiser.core.model.TranscriptAnnotation;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
 import org.monarchinitiative.exomiser.core.prioritisers.Prioritiser;
 import org.monarchinitiative.exomiser.core.prioritisers.PriorityType;
 import org.slf4j.Logger;
@@ -45,14 +45,15 @@
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.stream.Collectors.toConcurrentMap;
 import static java.util.stream.Collectors.toList;
@@ -70,13 +71,20 @@ abstract class AbstractAnalysisRunner implements AnalysisRunner {
     private final VariantDataService variantDataService;
     final VariantFilterRunner variantFilterRunner;
     private final GeneFilterRunner geneFilterRunner;
+    //optional - when null the inheritance modes are analysed on the calling thread
+    private final ForkJoinPool geneAnalysisPool;
 
     public AbstractAnalysisRunner(GeneFactory geneFactory, VariantFactory variantFactory, VariantDataService variantDataService, VariantFilterRunner variantFilterRunner, GeneFilterRunner geneFilterRunner) {
+        this(geneFactory, variantFactory, variantDataService, variantFilterRunner, geneFilterRunner, null);
+    }
+
+    public AbstractAnalysisRunner(GeneFactory geneFactory, VariantFactory variantFactory, VariantDataService variantDataService, VariantFilterRunner variantFilterRunner, GeneFilterRunner geneFilterRunner, ForkJoinPool geneAnalysisPool) {
         this.geneFactory = geneFactory;
         this.variantFactory = variantFactory;
         this.variantDataService = variantDataService;
         this.variantFilterRunner = variantFilterRunner;
         this.geneFilterRunner = geneFilterRunner;
+        this.geneAnalysisPool = geneAnalysisPool;
     }
 
     @Override
@@ -97,9 +105,13 @@ public AnalysisResults run(Analysis analysis) {
 
         logger.info("Running analysis for proband {} (sample {} in VCF) from samples: {}", probandSampleName, probandSampleId + 1, sampleNames);
         Instant timeStart = Instant.now();
+        variantFilterRunner.getFilterStats().clear();
+        geneFilterRunner.getFilterStats().clear();
         List<String> hpoIds = analysis.getHpoIds();
         //soo many comments - this is a bad sign that this is too complicated.
         Map<String, Gene> allGenes = makeKnownGenes();
+        HeapUsageTracker heapUsageTracker = new HeapUsageTracker(getClass().getSimpleName());
+        heapUsageTracker.addGenes(allGenes.values());
         List<VariantEvaluation> variantEvaluations = new ArrayList<>();
 //        some kind of multi-map with ordered duplicate keys would allow for easy grouping of steps for running the groups together.
         List<List<AnalysisStep>> analysisStepGroups = analysis.getAnalysisStepsGroupedByFunction();
@@ -112,7 +124,7 @@ public AnalysisResults run(Analysis analysis) {
             if (firstStep.isVariantFilter() && !variantsLoaded) {
                 //variants take up 99% of all the memory in an analysis - this scales approximately linearly with the sample size
                 //so for whole genomes this is best run as a stream to filter out the unwanted variants with as many filters as possible in one go
-                variantEvaluations = loadAndFilterVariants(vcfPath, allGenes, analysisGroup, analysis);
+                variantEvaluations = loadAndFilterVariants(vcfPath, allGenes, analysisGroup, analysis, heapUsageTracker);
                 //this is done here as there are GeneFilter steps which may require Variants in the genes, or the InheritanceModeDependent steps which definitely need them...
                 assignVariantsToGenes(variantEvaluations, allGenes);
                 variantsLoaded = true;
@@ -127,7 +139,11 @@ public AnalysisResults run(Analysis analysis) {
         //this would fit well with a lot of people's pipelines where they only want the phenotype score as they are using VEP or ANNOVAR for variant analysis.
         if (!variantsLoaded) {
             try(Stream<VariantEvaluation> variantStream = loadVariants(vcfPath)) {
-                variantEvaluations = variantStream.collect(toList());
+                variantEvaluations = variantStream
+                        .peek(heapUsageTracker::countLoadedVariant)
+                        .peek(formatHgvs())
+                        .peek(heapUsageTracker::addVariant)
+                        .collect(toList());
             }
             assignVariantsToGenes(variantEvaluations, allGenes);
         }
@@ -137,6 +153,13 @@ public AnalysisResults run(Analysis analysis) {
         List<Gene> genes = geneScorer.scoreGenes(getGenesWithVariants(allGenes).collect(toList()));
         List<VariantEvaluation> variants = getFinalVariantList(variantEvaluations);
         logger.info("Analysed {} genes containing {} filtered variants", genes.size(), variants.size());
+        heapUsageTracker.finish(allGenes.values(), variantEvaluations);
+        heapUsageTracker.logReport();
+
+        FilterStats filterStats = new FilterStats();
+        filterStats.addAll(variantFilterRunner.getFilterStats());
+        filterStats.addAll(geneFilterRunner.getFilterStats());
+        logger.debug("{}", filterStats);
 
         logger.info("Creating analysis results from VCF and PED files: {}, {}", vcfPath, pedigreeFilePath);
         AnalysisResults analysisResults = AnalysisResults.builder()
@@ -148,6 +171,7 @@ public AnalysisResults run(Analysis analysis) {
                 .pedigree(pedigree)
                 .genes(genes)
                 .variantEvaluations(variants)
+                .filterStats(filterStats)
                 .build();
 
         Duration duration = Duration.between(timeStart, Instant.now());
@@ -156,26 +180,88 @@ public AnalysisResults run(Analysis analysis) {
         return analysisResults;
     }
 
-    private List<VariantEvaluation> loadAndFilterVariants(Path vcfPath, Map<String, Gene> allGenes, List<AnalysisStep> analysisGroup, Analysis analysis) {
+    private List<VariantEvaluation> loadAndFilterVariants(Path vcfPath, Map<String, Gene> allGenes, List<AnalysisStep> analysisGroup, Analysis analysis, HeapUsageTracker heapUsageTracker) {
         GeneReassigner geneReassigner = createNonCodingVariantGeneReassigner(analysis, allGenes);
         List<VariantFilter> variantFilters = getVariantFilterSteps(analysisGroup);
 
         List<VariantEvaluation> filteredVariants;
         VariantLogger variantLogger = new VariantLogger();
-        try (Stream<VariantEvaluation> variantStream = loadVariants(vcfPath)) {
-            filteredVariants = variantStream
+        try (Stream<VariantEvaluation> variantStream = loadVariants(vcfPath, variantFilters)) {
+            Stream<VariantEvaluation> knownGeneVariants = variantStream
                     .peek(variantLogger.logLoadedAndPassedVariants())
+                    .peek(heapUsageTracker::countLoadedVariant)
                     .map(reassignNonCodingVariantToBestGeneInJannovarAnnotations(geneReassigner))
                     .map(reassignNonCodingVariantToBestGeneInTad(geneReassigner))
-                    .filter(isAssociatedWithKnownGene(allGenes))
-                    .filter(runVariantFilters(variantFilters))
+                    .filter(isAssociatedWithKnownGene(allGenes));
+            //batches match the data service chunk size so that each batch is filtered using a single chunk of prefetched data
+            int batchSize = Math.max(1, variantDataService.getChunkSize());
+            filteredVariants = batch(prefetchVariantData(knownGeneVariants, variantFilters), batchSize)
+                    .flatMap(variantBatch -> runVariantFilters(variantFilters, variantBatch).stream())
+                    .peek(formatHgvs())
                     .peek(variantLogger.countPassedVariant())
+                    .peek(heapUsageTracker::addVariant)
                     .collect(toList());
         }
         variantLogger.logResults();
         return filteredVariants;
     }
 
+    /**
+     * Formats the HGVS strings of the variants kept by the analysis so that their Jannovar Annotations are released
+     * rather than held until the results are written.
+     */
+    private static Consumer<VariantEvaluation> formatHgvs() {
+        return variantEvaluation -> variantEvaluation.getAnnotations().forEach(TranscriptAnnotation::formatHgvs);
+    }
+
+    /**
+     * Lets the VariantDataService fetch the frequency and pathogenicity data required by the variant filters ahead of
+     * the filters running. This is only done once the variant effects and genes are final, as the pathogenicity data
+     * depends on the variant effect.
+     */
+    private Stream<VariantEvaluation> prefetchVariantData(Stream<VariantEvaluation> variants, List<VariantFilter> variantFilters) {
+        Set<FrequencySource> frequencySources = EnumSet.noneOf(FrequencySource.class);
+        Set<PathogenicitySource> pathogenicitySources = EnumSet.noneOf(PathogenicitySource.class);
+        for (VariantFilter variantFilter : variantFilters) {
+            if (variantFilter instanceof FrequencyDataProvider && frequencySources.isEmpty()) {
+                frequencySources = ((FrequencyDataProvider) variantFilter).getFrequencySources();
+            }
+            if (variantFilter instanceof PathogenicityDataProvider && pathogenicitySources.isEmpty()) {
+                pathogenicitySources = ((PathogenicityDataProvider) variantFilter).getPathogenicitySources();
+            }
+        }
+        return variantDataService.prefetchVariantData(variants, frequencySources, pathogenicitySources);
+    }
+
+    /**
+     * Groups the stream into lists of up to batchSize variants so that the variant filters can
+     * fetch the data for a whole batch at once. Each batch is only read from the input once the previous batch has been
+     * filtered.
+     */
+    private static Stream<List<VariantEvaluation>> batch(Stream<VariantEvaluation> variants, int batchSize) {
+        Iterator<VariantEvaluation> source = variants.iterator();
+        Iterator<List<VariantEvaluation>> batches = new Iterator<List<VariantEvaluation>>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public List<VariantEvaluation> next() {
+                if (!source.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<VariantEvaluation> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && source.hasNext()) {
+                    batch.add(source.next());
+                }
+                return batch;
+            }
+        };
+        Spliterator<List<VariantEvaluation>> spliterator = Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(variants::close);
+    }
+
     private GeneReassigner createNonCodingVariantGeneReassigner(Analysis analysis, Map<String, Gene> allGenes) {
         ChromosomalRegionIndex<TopologicalDomain> tadIndex = new ChromosomalRegionIndex<>(variantDataService.getTopologicallyAssociatedDomains());
         PriorityType mainPriorityType = analysis.getMainPrioritiserType();
@@ -222,20 +308,81 @@ private Function<VariantEvaluation, VariantEvaluation> reassignNonCodingVariantT
 
     /**
      * Defines the filtering behaviour of the runner when performing the initial load and filter of variants. Allows the
-     * concrete runner to define whether a variant should pass or fail when running the variant through the variant
+     * concrete runner to define which variants of a batch are kept after running the batch through the variant
      * filters defined in the variant filter group, or the initial group if there are more than one.
      *
      * @param variantFilters
-     * @return
+     * @param variantEvaluations a batch of variants from the VCF file
+     * @return the variants of the batch to be kept
+     */
+    abstract List<VariantEvaluation> runVariantFilters(List<VariantFilter> variantFilters, List<VariantEvaluation> variantEvaluations);
+
+    /**
+     * Defines whether the variants failing the variant filters are kept in the results. Runners which do not keep them
+     * can check the {@link VcfRecordFilter} against the VCF records before they are annotated, so that the records
+     * which cannot pass are never annotated. The variants from the remaining records are filtered as normal, so the
+     * results are the same either way.
+     *
+     * @return true if the failed variants are part of the results.
      */
-    abstract Predicate<VariantEvaluation> runVariantFilters(List<VariantFilter> variantFilters);
+    boolean keepsFailedVariants() {
+        return true;
+    }
+
+    private Stream<VariantEvaluation> loadVariants(Path vcfPath, List<VariantFilter> variantFilters) {
+        if (keepsFailedVariants()) {
+            return loadVariants(vcfPath);
+        }
+        List<VcfRecordFilter> recordFilters = getVcfRecordFilters(variantFilters);
+        if (recordFilters.isEmpty()) {
+            return loadVariants(vcfPath);
+        }
+        logger.info("Checking VCF records against {} before annotation", recordFilters);
+        AtomicLong skippedRecords = new AtomicLong();
+        FilterStats filterStats = variantFilterRunner.getFilterStats();
+        Stream<VariantEvaluation> variantEvaluations = variantFactory.streamVariantEvaluations(vcfPath, (chromosome, variantContext) -> {
+            for (VcfRecordFilter recordFilter : recordFilters) {
+                if (!recordFilter.mayPassRecord(chromosome, variantContext)) {
+                    skippedRecords.incrementAndGet();
+                    //count a failure for each allele as would have happened had the record been annotated and filtered.
+                    //As with sparse filtering this is only counted against the first filter to reject the record.
+                    FilterResult failed = FilterResult.fail(recordFilter.getFilterType());
+                    for (int i = 0; i < variantContext.getAlternateAlleles().size(); i++) {
+                        filterStats.addResult(failed);
+                    }
+                    return false;
+                }
+            }
+            return true;
+        });
+        return setRegulatoryRegionVariantEffects(variantEvaluations)
+                .onClose(() -> logger.info("Skipped annotating {} VCF records which failed the record filters", skippedRecords.get()));
+    }
+
+    private List<VcfRecordFilter> getVcfRecordFilters(List<VariantFilter> variantFilters) {
+        List<VcfRecordFilter> recordFilters = new ArrayList<>();
+        for (VariantFilter variantFilter : variantFilters) {
+            VariantFilter baseFilter = variantFilter;
+            if (variantFilter instanceof VariantFilterDataProvider) {
+                baseFilter = ((VariantFilterDataProvider) variantFilter).getDecoratedFilter();
+            }
+            if (baseFilter instanceof VcfRecordFilter) {
+                recordFilters.add((VcfRecordFilter) baseFilter);
+            }
+        }
+        return recordFilters;
+    }
 
     private Stream<VariantEvaluation> loadVariants(Path vcfPath) {
+        return setRegulatoryRegionVariantEffects(variantFactory.streamVariantEvaluations(vcfPath));
+    }
+
+    private Stream<VariantEvaluation> setRegulatoryRegionVariantEffects(Stream<VariantEvaluation> variantEvaluations) {
         List<RegulatoryFeature> regulatoryFeatures = variantDataService.getRegulatoryFeatures();
         ChromosomalRegionIndex<RegulatoryFeature> regulatoryRegionIndex = new ChromosomalRegionIndex<>(regulatoryFeatures);
         logger.info("Loaded {} regulatory regions", regulatoryFeatures.size());
         //WARNING!!! THIS IS NOT THREADSAFE DO NOT USE PARALLEL STREAMS
-        return variantFactory.streamVariantEvaluations(vcfPath).map(setRegulatoryRegionVariantEffect(regulatoryRegionIndex));
+        return variantEvaluations.map(setRegulatoryRegionVariantEffect(regulatoryRegionIndex));
     }
 
     //Adds the missing REGULATORY_REGION_VARIANT effect to variants - this isn't in the Jannovar data set.
@@ -327,9 +474,19 @@ private void runStep(AnalysisStep analysisStep, List<String> hpoIds, List<Gene>
     }
 
     private void analyseGeneCompatibilityWithInheritanceMode(List<Gene> genes, Pedigree pedigree, ModeOfInheritance modeOfInheritance) {
-        InheritanceModeAnalyser inheritanceModeAnalyser = new InheritanceModeAnalyser(modeOfInheritance, pedigree);
         logger.info("Checking compatibility with {} inheritance mode for genes which passed filters", modeOfInheritance);
-        inheritanceModeAnalyser.analyseInheritanceModes(genes);
+        if (geneAnalysisPool == null) {
+            InheritanceModeAnalyser inheritanceModeAnalyser = new InheritanceModeAnalyser(modeOfInheritance, pedigree);
+            inheritanceModeAnalyser.analyseInheritanceModes(genes);
+            return;
+        }
+        //the Jannovar mendelian annotator isn't documented as thread-safe so each thread gets its own analyser. Each gene
+        //is only handled by a single thread and only the gene and its variants are written to.
+        ThreadLocal<InheritanceModeAnalyser> inheritanceModeAnalysers = ThreadLocal.withInitial(() -> new InheritanceModeAnalyser(modeOfInheritance, pedigree));
+        geneAnalysisPool.submit(() -> genes.parallelStream()
+                .filter(Gene::passedFilters)
+                .forEach(gene -> inheritanceModeAnalysers.get().analyseInheritanceModes(gene))
+        ).join();
     }
 
     /**
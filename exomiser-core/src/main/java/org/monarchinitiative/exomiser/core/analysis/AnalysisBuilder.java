@@ -136,6 +136,11 @@ public AnalysisBuilder addIntervalFilter(GeneticInterval interval) {
         return this;
     }
 
+    public AnalysisBuilder addIntervalFilter(Collection<GeneticInterval> intervals) {
+        analysisSteps.add(new IntervalFilter(intervals));
+        return this;
+    }
+
     public AnalysisBuilder addGeneIdFilter(Set<Integer> entrezIds) {
         analysisSteps.add(new EntrezGeneIdFilter(new LinkedHashSet<>(entrezIds)));
         return this;
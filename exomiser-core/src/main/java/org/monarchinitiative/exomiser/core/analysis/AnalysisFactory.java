@@ -21,6 +21,9 @@
 package org.monarchinitiative.exomiser.core.analysis;
 
 import org.monarchinitiative.exomiser.core.Exomiser;
+import org.monarchinitiative.exomiser.core.filters.GeneFilterRunner;
+import org.monarchinitiative.exomiser.core.filters.ParallelGeneFilterRunner;
+import org.monarchinitiative.exomiser.core.filters.SimpleGeneFilterRunner;
 import org.monarchinitiative.exomiser.core.genome.GeneFactory;
 import org.monarchinitiative.exomiser.core.genome.VariantDataService;
 import org.monarchinitiative.exomiser.core.genome.VariantFactory;
@@ -28,8 +31,11 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * High-level factory for creating an {@link Analysis} and {@link AnalysisRunner}. This is
  * pretty much all that's needed to run an analysis with.
@@ -51,6 +57,9 @@ public class AnalysisFactory {
     private final PriorityFactory priorityFactory;
     private final VariantDataService variantDataService;
 
+    //optional - when present the gene filters and inheritance mode analysis are run concurrently on this pool
+    private ForkJoinPool geneAnalysisPool;
+
     @Autowired
     public AnalysisFactory(GeneFactory geneFactory, VariantFactory variantFactory, PriorityFactory priorityFactory, VariantDataService variantDataService) {
         this.geneFactory = geneFactory;
@@ -59,19 +68,41 @@ public AnalysisFactory(GeneFactory geneFactory, VariantFactory variantFactory, P
         this.priorityFactory = priorityFactory;
     }
 
+    /**
+     * Optional {@link ForkJoinPool} used to run the gene filters and the inheritance mode analysis over the genes
+     * concurrently. When not set these are run on the calling thread. The pool is not owned by this class and will not
+     * be shut down by it.
+     */
+    @Autowired(required = false)
+    public void setGeneAnalysisPool(@Qualifier("geneAnalysisPool") ForkJoinPool geneAnalysisPool) {
+        this.geneAnalysisPool = geneAnalysisPool;
+    }
+
     public AnalysisRunner getAnalysisRunnerForMode(AnalysisMode analysisMode) {
+        if (geneAnalysisPool == null) {
+            return getAnalysisRunnerForMode(analysisMode, new SimpleGeneFilterRunner());
+        }
+        return getAnalysisRunnerForMode(analysisMode, new ParallelGeneFilterRunner(geneAnalysisPool));
+    }
+
+    /**
+     * Creates an {@link AnalysisRunner} which uses the supplied {@link GeneFilterRunner} for the gene filtering steps,
+     * e.g. a {@link ParallelGeneFilterRunner} for large multi-sample analyses. The GeneFilterRunner keeps state for an
+     * analysis so a new one should be supplied for each runner.
+     */
+    public AnalysisRunner getAnalysisRunnerForMode(AnalysisMode analysisMode, GeneFilterRunner geneFilterRunner) {
         //This class primarily exists as an external interface for the Exomiser class to be able to create and run analyses
         //without having to expose too much of the Analysis package implementation. e.g. the AnalysisRunner implementations
         // below are package-private.
         switch (analysisMode) {
             case FULL:
-                return new SimpleAnalysisRunner(geneFactory, variantFactory, variantDataService);
+                return new SimpleAnalysisRunner(geneFactory, variantFactory, variantDataService, geneFilterRunner, geneAnalysisPool);
             case SPARSE:
-                return new SparseAnalysisRunner(geneFactory, variantFactory, variantDataService);
+                return new SparseAnalysisRunner(geneFactory, variantFactory, variantDataService, geneFilterRunner, geneAnalysisPool);
             case PASS_ONLY:
             default:
                 //this guy takes up the least RAM
-                return new PassOnlyAnalysisRunner(geneFactory, variantFactory, variantDataService);
+                return new PassOnlyAnalysisRunner(geneFactory, variantFactory, variantDataService, geneFilterRunner, geneAnalysisPool);
         }
     }
 
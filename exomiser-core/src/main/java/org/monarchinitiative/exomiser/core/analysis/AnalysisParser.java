@@ -21,8 +21,10 @@
 package org.monarchinitiative.exomiser.core.analysis;
 
 import de.charite.compbio.jannovar.annotation.VariantEffect;
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
 import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
 import de.charite.compbio.jannovar.reference.HG19RefDictBuilder;
+import org.monarchinitiative.exomiser.core.analysis.util.BedFileReader;
 import org.monarchinitiative.exomiser.core.filters.*;
 import org.monarchinitiative.exomiser.core.genome.VariantDataService;
 import org.monarchinitiative.exomiser.core.model.GeneticInterval;
@@ -49,6 +51,7 @@
 import java.util.Map.Entry;
 
 import static java.nio.file.Files.newInputStream;
+import static java.util.stream.Collectors.toList;
 
 /**
  * @since 7.0.0
@@ -355,12 +358,54 @@ private FailedVariantFilter makeFailedVariantFilter() {
             return new FailedVariantFilter();
         }
 
-        private IntervalFilter makeIntervalFilter(Map<String, String> options) {
-            String interval = options.get("interval");
-            if (interval == null) {
-                throw new AnalysisParserException("Interval filter requires a valid genetic interval e.g. {interval: 'chr10:122892600-122892700'}", options);
+        private IntervalFilter makeIntervalFilter(Map<String, Object> options) {
+            ReferenceDictionary refDict = HG19RefDictBuilder.build();
+            String interval = getStringOption(options, "interval");
+            List<String> intervals = getStringListOption(options, "intervals");
+            String bed = getStringOption(options, "bed");
+            if (interval != null) {
+                return new IntervalFilter(GeneticInterval.parseString(refDict, interval));
             }
-            return new IntervalFilter(GeneticInterval.parseString(HG19RefDictBuilder.build(), interval));
+            if (intervals != null && !intervals.isEmpty()) {
+                return new IntervalFilter(intervals.stream().map(value -> GeneticInterval.parseString(refDict, value)).collect(toList()));
+            }
+            if (bed != null) {
+                List<GeneticInterval> bedIntervals = readBedIntervals(refDict, bed, options);
+                if (bedIntervals.isEmpty()) {
+                    throw new AnalysisParserException("Interval filter BED file contains no valid intervals", options);
+                }
+                return new IntervalFilter(bedIntervals);
+            }
+            throw new AnalysisParserException("Interval filter requires a valid genetic interval e.g. {interval: 'chr10:122892600-122892700'}, " +
+                    "a list of intervals e.g. {intervals: ['chr10:122892600-122892700', 'chr10:123892600-123892700']} " +
+                    "or a BED file e.g. {bed: 'panel.bed'}", options);
+        }
+
+        private List<GeneticInterval> readBedIntervals(ReferenceDictionary refDict, String bed, Map<String, Object> options) {
+            try {
+                return BedFileReader.readIntervals(refDict, Paths.get(bed));
+            } catch (BedFileReader.BedFileReaderException ex) {
+                throw new AnalysisParserException(String.format("Unable to read interval filter BED file '%s'", bed), options, ex);
+            }
+        }
+
+        private String getStringOption(Map<String, Object> options, String key) {
+            Object value = options.get(key);
+            if (value == null || value instanceof String) {
+                return (String) value;
+            }
+            throw new AnalysisParserException(String.format("'%s' should be a string value", key), options);
+        }
+
+        private List<String> getStringListOption(Map<String, Object> options, String key) {
+            Object value = options.get(key);
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof List && ((List<?>) value).stream().allMatch(String.class::isInstance)) {
+                return (List<String>) value;
+            }
+            throw new AnalysisParserException(String.format("'%s' should be a list of string values", key), options);
         }
 
         private EntrezGeneIdFilter makeGeneIdFilter(Map<String, List> options) {
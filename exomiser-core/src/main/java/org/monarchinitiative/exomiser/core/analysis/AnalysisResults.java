@@ -29,6 +29,7 @@
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import de.charite.compbio.jannovar.pedigree.Pedigree;
 import htsjdk.variant.vcf.VCFHeader;
+import org.monarchinitiative.exomiser.core.filters.FilterStats;
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 
@@ -60,6 +61,8 @@ public class AnalysisResults {
     private final List<Gene> genes;
     @JsonIgnore
     private final List<VariantEvaluation> variantEvaluations;
+    @JsonIgnore
+    private final FilterStats filterStats;
 
     public AnalysisResults(Builder builder) {
         this.vcfPath = builder.vcfPath;
@@ -72,6 +75,7 @@ public AnalysisResults(Builder builder) {
 
         this.genes = builder.genes;
         this.variantEvaluations = builder.variantEvaluations;
+        this.filterStats = builder.filterStats;
     }
     
     public Path getVcfPath() {
@@ -109,6 +113,15 @@ public List<VariantEvaluation> getVariantEvaluations() {
         return variantEvaluations;
     }
 
+    /**
+     * @return the counts of the filter results added while running the analysis. These will be empty if the results
+     * were not produced by an {@link AnalysisRunner}.
+     */
+    @JsonIgnore
+    public FilterStats getFilterStats() {
+        return filterStats;
+    }
+
     @JsonIgnore
     public List<VariantEvaluation> getUnAnnotatedVariantEvaluations() {
         return variantEvaluations.stream().filter(varEval -> !varEval.hasAnnotations()).collect(toList());
@@ -153,6 +166,7 @@ public static class Builder {
 
         private List<VariantEvaluation> variantEvaluations = Collections.emptyList();
         private List<Gene> genes = Collections.emptyList();
+        private FilterStats filterStats = new FilterStats();
 
         public Builder probandSampleName(String probandSampleName) {
             this.probandSampleName = probandSampleName;
@@ -193,6 +207,11 @@ public Builder genes(List<Gene> geneList) {
             return this;
         }
 
+        public Builder filterStats(FilterStats filterStats) {
+            this.filterStats = filterStats;
+            return this;
+        }
+
         public AnalysisResults build() {
             return new AnalysisResults(this);
         }
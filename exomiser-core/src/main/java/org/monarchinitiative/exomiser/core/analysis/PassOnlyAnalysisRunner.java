@@ -20,6 +20,7 @@
 
 package org.monarchinitiative.exomiser.core.analysis;
 
+import org.monarchinitiative.exomiser.core.filters.GeneFilterRunner;
 import org.monarchinitiative.exomiser.core.filters.SimpleGeneFilterRunner;
 import org.monarchinitiative.exomiser.core.filters.SparseVariantFilterRunner;
 import org.monarchinitiative.exomiser.core.filters.VariantFilter;
@@ -33,6 +34,7 @@
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -48,7 +50,15 @@ class PassOnlyAnalysisRunner extends AbstractAnalysisRunner {
     private static final Logger logger = LoggerFactory.getLogger(PassOnlyAnalysisRunner.class);
 
     PassOnlyAnalysisRunner(GeneFactory geneFactory, VariantFactory variantFactory, VariantDataService variantDataService) {
-        super(geneFactory, variantFactory, variantDataService, new SparseVariantFilterRunner(), new SimpleGeneFilterRunner());
+        this(geneFactory, variantFactory, variantDataService, new SimpleGeneFilterRunner());
+    }
+
+    PassOnlyAnalysisRunner(GeneFactory geneFactory, VariantFactory variantFactory, VariantDataService variantDataService, GeneFilterRunner geneFilterRunner) {
+        this(geneFactory, variantFactory, variantDataService, geneFilterRunner, null);
+    }
+
+    PassOnlyAnalysisRunner(GeneFactory geneFactory, VariantFactory variantFactory, VariantDataService variantDataService, GeneFilterRunner geneFilterRunner, ForkJoinPool geneAnalysisPool) {
+        super(geneFactory, variantFactory, variantDataService, new SparseVariantFilterRunner(), geneFilterRunner, geneAnalysisPool);
     }
 
     @Override
@@ -65,15 +75,19 @@ protected Predicate<VariantEvaluation> isAssociatedWithKnownGene(Map<String, Gen
     }
 
     @Override
-    protected Predicate<VariantEvaluation> runVariantFilters(List<VariantFilter> variantFilters) {
-        return variantEvaluation -> {
-            //loop through the filters and only run if the variantEvaluation has passed all prior filters
-            variantFilters.stream()
-                    .filter(filter -> variantEvaluation.passedFilters())
-                    .forEach(filter -> variantFilterRunner.run(filter, variantEvaluation));
+    protected List<VariantEvaluation> runVariantFilters(List<VariantFilter> variantFilters, List<VariantEvaluation> variantEvaluations) {
+        //the sparse variantFilterRunner only runs each filter over the variants which passed all the prior filters
+        for (VariantFilter filter : variantFilters) {
+            variantFilterRunner.run(filter, variantEvaluations);
+        }
+        return variantEvaluations.stream()
+                .filter(VariantEvaluation::passedFilters)
+                .collect(toList());
+    }
 
-            return variantEvaluation.passedFilters();
-        };
+    @Override
+    boolean keepsFailedVariants() {
+        return false;
     }
 
     @Override
@@ -20,6 +20,7 @@
 
 package org.monarchinitiative.exomiser.core.analysis;
 
+import org.monarchinitiative.exomiser.core.filters.GeneFilterRunner;
 import org.monarchinitiative.exomiser.core.filters.SimpleGeneFilterRunner;
 import org.monarchinitiative.exomiser.core.filters.SimpleVariantFilterRunner;
 import org.monarchinitiative.exomiser.core.filters.VariantFilter;
@@ -31,6 +32,7 @@
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 
 /**
@@ -41,7 +43,15 @@
 class SimpleAnalysisRunner extends AbstractAnalysisRunner {
 
     SimpleAnalysisRunner(GeneFactory geneFactory, VariantFactory variantFactory, VariantDataService variantDataService) {
-        super(geneFactory, variantFactory, variantDataService, new SimpleVariantFilterRunner(), new SimpleGeneFilterRunner());
+        this(geneFactory, variantFactory, variantDataService, new SimpleGeneFilterRunner());
+    }
+
+    SimpleAnalysisRunner(GeneFactory geneFactory, VariantFactory variantFactory, VariantDataService variantDataService, GeneFilterRunner geneFilterRunner) {
+        this(geneFactory, variantFactory, variantDataService, geneFilterRunner, null);
+    }
+
+    SimpleAnalysisRunner(GeneFactory geneFactory, VariantFactory variantFactory, VariantDataService variantDataService, GeneFilterRunner geneFilterRunner, ForkJoinPool geneAnalysisPool) {
+        super(geneFactory, variantFactory, variantDataService, new SimpleVariantFilterRunner(), geneFilterRunner, geneAnalysisPool);
     }
 
     @Override
@@ -50,12 +60,12 @@ protected Predicate<VariantEvaluation> isAssociatedWithKnownGene(Map<String, Gen
     }
 
     @Override
-    protected Predicate<VariantEvaluation> runVariantFilters(List<VariantFilter> variantFilters) {
-        return variantEvaluation -> {
-            //loop through the filters and run them over the variantEvaluation according to the variantFilterRunner behaviour
-            variantFilters.stream().forEach(filter -> variantFilterRunner.run(filter, variantEvaluation));
-            return true;
-        };
+    protected List<VariantEvaluation> runVariantFilters(List<VariantFilter> variantFilters, List<VariantEvaluation> variantEvaluations) {
+        //loop through the filters and run them over the batch according to the variantFilterRunner behaviour
+        for (VariantFilter filter : variantFilters) {
+            variantFilterRunner.run(filter, variantEvaluations);
+        }
+        return variantEvaluations;
     }
 
     @Override
@@ -20,6 +20,7 @@
 
 package org.monarchinitiative.exomiser.core.analysis;
 
+import org.monarchinitiative.exomiser.core.filters.GeneFilterRunner;
 import org.monarchinitiative.exomiser.core.filters.SimpleGeneFilterRunner;
 import org.monarchinitiative.exomiser.core.filters.SparseVariantFilterRunner;
 import org.monarchinitiative.exomiser.core.filters.VariantFilter;
@@ -31,6 +32,7 @@
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 
 /**
@@ -42,7 +44,15 @@
 class SparseAnalysisRunner extends AbstractAnalysisRunner {
 
     SparseAnalysisRunner(GeneFactory geneFactory, VariantFactory variantFactory, VariantDataService variantDataService) {
-        super(geneFactory, variantFactory, variantDataService, new SparseVariantFilterRunner(), new SimpleGeneFilterRunner());
+        this(geneFactory, variantFactory, variantDataService, new SimpleGeneFilterRunner());
+    }
+
+    SparseAnalysisRunner(GeneFactory geneFactory, VariantFactory variantFactory, VariantDataService variantDataService, GeneFilterRunner geneFilterRunner) {
+        this(geneFactory, variantFactory, variantDataService, geneFilterRunner, null);
+    }
+
+    SparseAnalysisRunner(GeneFactory geneFactory, VariantFactory variantFactory, VariantDataService variantDataService, GeneFilterRunner geneFilterRunner, ForkJoinPool geneAnalysisPool) {
+        super(geneFactory, variantFactory, variantDataService, new SparseVariantFilterRunner(), geneFilterRunner, geneAnalysisPool);
     }
 
     @Override
@@ -51,15 +61,13 @@ protected Predicate<VariantEvaluation> isAssociatedWithKnownGene(Map<String, Gen
     }
 
     @Override
-    protected Predicate<VariantEvaluation> runVariantFilters(List<VariantFilter> variantFilters) {
-        return variantEvaluation -> {
-            //loop through the filters and only run if the variantEvaluation has passed all prior filters
-            variantFilters.stream()
-                    .filter(filter -> variantEvaluation.passedFilters())
-                    .forEach(filter -> variantFilterRunner.run(filter, variantEvaluation));
-            //for sparse filtering we still want all the variants back, even if they failed the filtering stage - they will be reported as failed.
-            return true;
-        };
+    protected List<VariantEvaluation> runVariantFilters(List<VariantFilter> variantFilters, List<VariantEvaluation> variantEvaluations) {
+        //the sparse variantFilterRunner only runs each filter over the variants which passed all the prior filters
+        for (VariantFilter filter : variantFilters) {
+            variantFilterRunner.run(filter, variantEvaluations);
+        }
+        //for sparse filtering we still want all the variants back, even if they failed the filtering stage - they will be reported as failed.
+        return variantEvaluations;
     }
 
     @Override
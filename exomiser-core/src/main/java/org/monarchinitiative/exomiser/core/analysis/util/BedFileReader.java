@@ -0,0 +1,117 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis.util;
+
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import org.monarchinitiative.exomiser.core.model.GeneticInterval;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the regions of a BED file, for example the targets of a gene panel or capture kit, as {@link GeneticInterval}.
+ * BED regions are zero-based and half-open whereas the {@link GeneticInterval} are one-based and fully-closed, so a
+ * BED line {@code chr1 99 200} is read as the interval chr1:100-200. Only the first three columns are used. Header
+ * lines starting with '#', 'track' or 'browser' are skipped, as are regions on contigs not in the reference
+ * dictionary.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class BedFileReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(BedFileReader.class);
+
+    private BedFileReader() {
+        //static utility class
+    }
+
+    public static List<GeneticInterval> readIntervals(ReferenceDictionary refDict, Path bedPath) {
+        logger.info("Reading intervals from BED file {}", bedPath);
+        try (BufferedReader reader = Files.newBufferedReader(bedPath, StandardCharsets.UTF_8)) {
+            return readIntervals(refDict, reader);
+        } catch (IOException e) {
+            throw new BedFileReaderException("Unable to read BED file " + bedPath, e);
+        }
+    }
+
+    static List<GeneticInterval> readIntervals(ReferenceDictionary refDict, BufferedReader reader) throws IOException {
+        Map<String, Integer> contigNameToId = refDict.getContigNameToID();
+        List<GeneticInterval> intervals = new ArrayList<>();
+        int lineNumber = 0;
+        int unknownContigs = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (isHeaderOrEmpty(line)) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            if (fields.length < 3) {
+                throw new BedFileReaderException(String.format("Line %d has fewer than 3 fields: '%s'. BED fields should be TAB separated.", lineNumber, line));
+            }
+            Integer chromosome = contigNameToId.get(fields[0]);
+            if (chromosome == null) {
+                logger.debug("Skipping line {} - unknown contig '{}'", lineNumber, fields[0]);
+                unknownContigs++;
+                continue;
+            }
+            intervals.add(parseInterval(chromosome, fields[1], fields[2], lineNumber));
+        }
+        if (unknownContigs > 0) {
+            logger.warn("Skipped {} regions on contigs not in the reference dictionary", unknownContigs);
+        }
+        logger.info("Read {} intervals", intervals.size());
+        return intervals;
+    }
+
+    private static boolean isHeaderOrEmpty(String line) {
+        return line.isEmpty() || line.startsWith("#") || line.startsWith("track") || line.startsWith("browser");
+    }
+
+    private static GeneticInterval parseInterval(int chromosome, String startField, String endField, int lineNumber) {
+        try {
+            int start = Integer.parseInt(startField.trim());
+            int end = Integer.parseInt(endField.trim());
+            return new GeneticInterval(chromosome, start + 1, end);
+        } catch (IllegalArgumentException e) {
+            throw new BedFileReaderException(String.format("Line %d has an invalid region %s-%s", lineNumber, startField, endField), e);
+        }
+    }
+
+    public static class BedFileReaderException extends RuntimeException {
+
+        public BedFileReaderException(String message) {
+            super(message);
+        }
+
+        public BedFileReaderException(String message, Exception e) {
+            super(message, e);
+        }
+    }
+}
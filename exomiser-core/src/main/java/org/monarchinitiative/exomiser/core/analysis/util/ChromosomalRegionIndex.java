@@ -102,6 +102,22 @@ public List<T> getRegionsOverlappingPosition(int chromosome, int position) {
         return queryResult.getEntries();
     }
 
+    /**
+     * Use one-based, fully-closed co-ordinates for this method.
+     * @param chromosome
+     * @param start
+     * @param end
+     * @return
+     */
+    public List<T> getRegionsOverlappingInterval(int chromosome, int start, int end) {
+        IntervalArray<T> intervalTree = index.get(chromosome);
+        if (intervalTree == null) {
+            return Collections.emptyList();
+        }
+        IntervalArray.QueryResult queryResult = intervalTree.findOverlappingWithInterval(start - 1, end);
+        return queryResult.getEntries();
+    }
+
     private class ChromosomalRegionEndExtractor implements IntervalEndExtractor<T> {
 
         @Override
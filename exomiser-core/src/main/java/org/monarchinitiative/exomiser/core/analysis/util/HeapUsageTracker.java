@@ -0,0 +1,244 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis.util;
+
+import org.monarchinitiative.exomiser.core.cache.ObjectSizeEstimator;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+
+/**
+ * Keeps a running estimate of the heap retained by the main objects created during an analysis so that the peak and
+ * final usage can be reported for each type of object. The estimates assume a 64-bit JVM with compressed oops and are
+ * intended for capacity planning, not as an exact measure. The {@link #predictPeakBytes(long, int)} method gives an
+ * estimate of the heap needed for a VCF from the number of records and samples it contains.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class HeapUsageTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(HeapUsageTracker.class);
+
+    public enum ObjectType {
+        VARIANT_EVALUATION, TRANSCRIPT_ANNOTATION, FREQUENCY_DATA, PATHOGENICITY_DATA, GENE
+    }
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_LIST = OBJECT_HEADER + 8 + REFERENCE + OBJECT_HEADER;
+    private static final int ENUM_SET = OBJECT_HEADER + 24;
+    private static final int ENUM_MAP = OBJECT_HEADER + 32 + OBJECT_HEADER + 8 * REFERENCE;
+    private static final int LINKED_HASH_SET = OBJECT_HEADER + 96;
+
+    //VariantEvaluation fields plus its filter and inheritance mode EnumSets and annotations list
+    private static final int VARIANT_EVALUATION_BYTES = OBJECT_HEADER + 72 + 3 * ENUM_SET + ARRAY_LIST;
+    //the htsjdk VariantContext held by each VariantEvaluation, which grows with the number of samples in the VCF
+    private static final int VARIANT_CONTEXT_BYTES = 400;
+    private static final int GENOTYPE_BYTES = 120;
+    //a formatted HGVS string such as c.1234A>G or p.(Arg412Gly) and its char array
+    private static final int HGVS_STRING_BYTES = OBJECT_HEADER + 8 + OBJECT_HEADER + 2 * 16;
+    //only the per-variant parts - the TranscriptFeature is shared. The Jannovar Annotation is released once the
+    //variant has been filtered, leaving the formatted cDNA and protein strings.
+    private static final int TRANSCRIPT_ANNOTATION_BYTES = OBJECT_HEADER + 5 * REFERENCE + 4 + 2 * HGVS_STRING_BYTES;
+    private static final int GENE_BYTES = OBJECT_HEADER + 40 + ARRAY_LIST + 2 * LINKED_HASH_SET + 2 * ENUM_MAP + ENUM_SET;
+
+    //typical values used by the predictor
+    private static final int TYPICAL_TRANSCRIPT_ANNOTATIONS = 3;
+    private static final int TYPICAL_FREQUENCY_DATA_BYTES = 80;
+    private static final int TYPICAL_PATHOGENICITY_DATA_BYTES = 56;
+    private static final int KNOWN_GENES = 20000;
+
+    private final String name;
+
+    private final long[] counts = new long[ObjectType.values().length];
+    private final long[] bytes = new long[ObjectType.values().length];
+    private final long[] peakBytes = new long[ObjectType.values().length];
+    private long peakTotalBytes = 0;
+
+    private long loadedVariants = 0;
+    private int numSamples = 0;
+
+    /**
+     * @param name the name of the analysis runner or step which is being tracked.
+     */
+    public HeapUsageTracker(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Counts a variant read from the VCF, whether or not it is retained by the analysis.
+     */
+    public void countLoadedVariant(VariantEvaluation variantEvaluation) {
+        loadedVariants++;
+        numSamples = Math.max(numSamples, variantEvaluation.getNumberOfIndividuals());
+    }
+
+    public void addVariant(VariantEvaluation variantEvaluation) {
+        account(variantEvaluation);
+        updatePeaks();
+    }
+
+    public void addVariants(Collection<VariantEvaluation> variantEvaluations) {
+        variantEvaluations.forEach(variantEvaluation -> account(variantEvaluation));
+        updatePeaks();
+    }
+
+    public void addGenes(Collection<Gene> genes) {
+        genes.forEach(gene -> account(gene));
+        updatePeaks();
+    }
+
+    /**
+     * Replaces the running totals with those for the genes and variants retained at the end of the analysis. The
+     * variants will have gained frequency and pathogenicity data while running, so these are re-estimated.
+     */
+    public void finish(Collection<Gene> genes, Collection<VariantEvaluation> variantEvaluations) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+            bytes[i] = 0;
+        }
+        genes.forEach(gene -> account(gene));
+        variantEvaluations.forEach(variantEvaluation -> account(variantEvaluation));
+        updatePeaks();
+    }
+
+    private void account(VariantEvaluation variantEvaluation) {
+        int numIndividuals = variantEvaluation.getVariantContext() == null ? 0 : variantEvaluation.getNumberOfIndividuals();
+        add(ObjectType.VARIANT_EVALUATION, VARIANT_EVALUATION_BYTES + estimateVariantContextBytes(numIndividuals));
+
+        int numAnnotations = variantEvaluation.getAnnotations().size();
+        counts[ObjectType.TRANSCRIPT_ANNOTATION.ordinal()] += numAnnotations;
+        bytes[ObjectType.TRANSCRIPT_ANNOTATION.ordinal()] += (long) numAnnotations * (TRANSCRIPT_ANNOTATION_BYTES + REFERENCE);
+
+        FrequencyData frequencyData = variantEvaluation.getFrequencyData();
+        //the empty instances are shared between all variants
+        if (frequencyData != null && frequencyData != FrequencyData.empty()) {
+            add(ObjectType.FREQUENCY_DATA, ObjectSizeEstimator.estimate(frequencyData));
+        }
+        PathogenicityData pathogenicityData = variantEvaluation.getPathogenicityData();
+        if (pathogenicityData != null && pathogenicityData != PathogenicityData.empty()) {
+            add(ObjectType.PATHOGENICITY_DATA, ObjectSizeEstimator.estimate(pathogenicityData));
+        }
+    }
+
+    private void account(Gene gene) {
+        add(ObjectType.GENE, GENE_BYTES + (long) gene.getNumberOfVariants() * REFERENCE + gene.getPriorityResults().size() * (long) (OBJECT_HEADER + 32));
+    }
+
+    private void add(ObjectType objectType, long objectBytes) {
+        counts[objectType.ordinal()]++;
+        bytes[objectType.ordinal()] += objectBytes;
+    }
+
+    private void updatePeaks() {
+        long totalBytes = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            peakBytes[i] = Math.max(peakBytes[i], bytes[i]);
+            totalBytes += bytes[i];
+        }
+        peakTotalBytes = Math.max(peakTotalBytes, totalBytes);
+    }
+
+    private static long estimateVariantContextBytes(int numSamples) {
+        return VARIANT_CONTEXT_BYTES + (long) numSamples * GENOTYPE_BYTES;
+    }
+
+    public long getCount(ObjectType objectType) {
+        return counts[objectType.ordinal()];
+    }
+
+    public long getBytes(ObjectType objectType) {
+        return bytes[objectType.ordinal()];
+    }
+
+    public long getPeakBytes(ObjectType objectType) {
+        return peakBytes[objectType.ordinal()];
+    }
+
+    public long getTotalBytes() {
+        long totalBytes = 0;
+        for (long objectBytes : bytes) {
+            totalBytes += objectBytes;
+        }
+        return totalBytes;
+    }
+
+    public long getPeakTotalBytes() {
+        return peakTotalBytes;
+    }
+
+    public long getLoadedVariants() {
+        return loadedVariants;
+    }
+
+    /**
+     * Predicts the peak heap retained by an analysis which keeps all the variants of a VCF, as the FULL and SPARSE
+     * analysis modes do. PASS_ONLY analyses will need less than this, depending on how many variants pass the filters.
+     * This does not include the fixed cost of the Jannovar transcript data or any caches.
+     *
+     * @param vcfRecords number of alleles in the VCF, i.e. records with multiple ALT alleles count once per allele.
+     * @param numSamples number of samples in the VCF.
+     * @return the predicted number of bytes.
+     */
+    public static long predictPeakBytes(long vcfRecords, int numSamples) {
+        long bytesPerVariant = VARIANT_EVALUATION_BYTES
+                + estimateVariantContextBytes(numSamples)
+                + TYPICAL_TRANSCRIPT_ANNOTATIONS * (TRANSCRIPT_ANNOTATION_BYTES + REFERENCE)
+                + TYPICAL_FREQUENCY_DATA_BYTES
+                + TYPICAL_PATHOGENICITY_DATA_BYTES;
+        return KNOWN_GENES * (long) GENE_BYTES + vcfRecords * bytesPerVariant;
+    }
+
+    public void logReport() {
+        logger.info("{} estimated heap usage - peak {} MB, final {} MB", name, toMb(peakTotalBytes), toMb(getTotalBytes()));
+        for (ObjectType objectType : ObjectType.values()) {
+            logger.info("{} {}: {} objects, peak {} MB, final {} MB", name, objectType, getCount(objectType), toMb(getPeakBytes(objectType)), toMb(getBytes(objectType)));
+        }
+        if (loadedVariants > 0) {
+            logger.info("{} predicted peak heap usage for {} variants in {} samples if all variants were retained: {} MB", name, loadedVariants, numSamples, toMb(predictPeakBytes(loadedVariants, numSamples)));
+        }
+    }
+
+    private static long toMb(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    @Override
+    public String toString() {
+        return "HeapUsageTracker{" +
+                "name=" + name +
+                ", loadedVariants=" + loadedVariants +
+                ", peakTotalBytes=" + peakTotalBytes +
+                ", totalBytes=" + getTotalBytes() +
+                '}';
+    }
+}
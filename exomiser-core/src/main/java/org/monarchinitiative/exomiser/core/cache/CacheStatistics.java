@@ -0,0 +1,121 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.cache;
+
+/**
+ * Point-in-time statistics for a single cache.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class CacheStatistics {
+
+    private final String name;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final long evictions;
+    private final long loads;
+    private final long totalLoadNanos;
+    private final long entries;
+    private final long estimatedBytes;
+
+    CacheStatistics(String name, long hits, long misses, long puts, long evictions, long loads, long totalLoadNanos, long entries, long estimatedBytes) {
+        this.name = name;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.evictions = evictions;
+        this.loads = loads;
+        this.totalLoadNanos = totalLoadNanos;
+        this.entries = entries;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getRequests() {
+        return hits + misses;
+    }
+
+    /**
+     * @return the proportion of requests which were hits, or 0 if there have been no requests.
+     */
+    public double getHitRate() {
+        long requests = getRequests();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    /**
+     * @return the number of entries removed by explicit evictions and native size-limit evictions, where known.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of values loaded into the cache following a miss.
+     */
+    public long getLoads() {
+        return loads;
+    }
+
+    public double getMeanLoadMillis() {
+        return loads == 0 ? 0 : totalLoadNanos / 1_000_000d / loads;
+    }
+
+    public double getTotalLoadMillis() {
+        return totalLoadNanos / 1_000_000d;
+    }
+
+    /**
+     * @return the number of entries in the cache, or -1 if this is not known.
+     */
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return an estimate of the heap used by the cache entries in bytes, or -1 if this is not known.
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStatistics{name=%s, requests=%d, hits=%d, misses=%d, hitRate=%.3f, puts=%d, evictions=%d, loads=%d, meanLoadMillis=%.3f, entries=%d, estimatedBytes=%d}",
+                name, getRequests(), hits, misses, getHitRate(), puts, evictions, loads, getMeanLoadMillis(), entries, estimatedBytes);
+    }
+}
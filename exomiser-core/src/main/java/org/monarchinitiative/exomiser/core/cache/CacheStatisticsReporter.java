@@ -0,0 +1,135 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the {@link CacheStatistics} for a set of {@link InstrumentedCacheManager} to the log and, optionally, as a
+ * JSON file which is overwritten on each report. Reports can be made on demand or at a fixed interval.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class CacheStatisticsReporter implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheStatisticsReporter.class);
+
+    private final List<InstrumentedCacheManager> cacheManagers;
+    private final Path jsonReportPath;
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private ScheduledExecutorService scheduledExecutorService;
+
+    public CacheStatisticsReporter(List<InstrumentedCacheManager> cacheManagers) {
+        this(cacheManagers, null);
+    }
+
+    /**
+     * @param cacheManagers  the cache managers to report on.
+     * @param jsonReportPath the path of the JSON report, or null if only the log should be used.
+     */
+    public CacheStatisticsReporter(List<InstrumentedCacheManager> cacheManagers, Path jsonReportPath) {
+        this.cacheManagers = new ArrayList<>(cacheManagers);
+        this.jsonReportPath = jsonReportPath;
+    }
+
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> cacheStatistics = new ArrayList<>();
+        cacheManagers.forEach(cacheManager -> cacheStatistics.addAll(cacheManager.getCacheStatistics()));
+        return cacheStatistics;
+    }
+
+    /**
+     * Logs the current statistics for all the caches and writes these to the JSON report, if configured.
+     */
+    public void report() {
+        List<CacheStatistics> cacheStatistics = getCacheStatistics();
+        cacheStatistics.forEach(statistics -> logger.info("{}", statistics));
+        if (jsonReportPath != null) {
+            writeJsonReport(cacheStatistics);
+        }
+    }
+
+    private void writeJsonReport(List<CacheStatistics> cacheStatistics) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("caches", cacheStatistics);
+        try {
+            Path parent = jsonReportPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tempFile = Files.createTempFile(parent, "cache-stats", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                mapper.writeValue(writer, report);
+            }
+            Files.move(tempFile, jsonReportPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Unable to write cache statistics to {}", jsonReportPath, e);
+        }
+    }
+
+    /**
+     * Schedules reports to be made at a fixed interval on a background thread until this reporter is closed.
+     */
+    public synchronized void scheduleReports(long interval, TimeUnit timeUnit) {
+        if (scheduledExecutorService != null) {
+            throw new IllegalStateException("Reports are already scheduled");
+        }
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-statistics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutorService.scheduleWithFixedDelay(this::report, interval, interval, timeUnit);
+    }
+
+    /**
+     * Stops any scheduled reports and makes a final report.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (scheduledExecutorService != null) {
+                scheduledExecutorService.shutdownNow();
+                scheduledExecutorService = null;
+            }
+        }
+        report();
+    }
+}
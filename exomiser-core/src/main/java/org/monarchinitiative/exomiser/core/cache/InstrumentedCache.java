@@ -0,0 +1,176 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorator for a Spring {@link Cache} which counts hits, misses, puts and evictions and times how long it takes to
+ * load a value following a miss.
+ * <p>
+ * With the default, unsynchronised, {@link org.springframework.cache.annotation.Cacheable} behaviour Spring calls
+ * get(key), then the cached method, then put(key, value) on the same thread, so the load time is taken as the time
+ * from a miss to the following put on that thread.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class InstrumentedCache implements Cache {
+
+    //number of entries sampled to estimate the mean entry size
+    private static final int MAX_ENTRIES_SAMPLED = 200;
+
+    private final Cache cache;
+    private final NativeCacheInspector nativeCacheInspector;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    private final ThreadLocal<Long> missStartNanos = new ThreadLocal<>();
+
+    InstrumentedCache(Cache cache, NativeCacheInspector nativeCacheInspector) {
+        this.cache = cache;
+        this.nativeCacheInspector = nativeCacheInspector;
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return recordGet(cache.get(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return recordGet(cache.get(key, type));
+    }
+
+    private <T> T recordGet(T value) {
+        if (value == null) {
+            misses.increment();
+            missStartNanos.set(System.nanoTime());
+        } else {
+            hits.increment();
+            missStartNanos.remove();
+        }
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = {false};
+        T value = cache.get(key, () -> {
+            loaded[0] = true;
+            long startTime = System.nanoTime();
+            try {
+                return valueLoader.call();
+            } finally {
+                recordLoad(System.nanoTime() - startTime);
+            }
+        });
+        if (loaded[0]) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        recordPut();
+        cache.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        recordPut();
+        return cache.putIfAbsent(key, value);
+    }
+
+    private void recordPut() {
+        puts.increment();
+        Long startTime = missStartNanos.get();
+        if (startTime != null) {
+            recordLoad(System.nanoTime() - startTime);
+            missStartNanos.remove();
+        }
+    }
+
+    private void recordLoad(long nanos) {
+        loads.increment();
+        totalLoadNanos.add(nanos);
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictions.increment();
+        cache.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        long entries = nativeCacheInspector.countEntries(cache);
+        evictions.add(Math.max(entries, 0));
+        cache.clear();
+    }
+
+    CacheStatistics getStatistics() {
+        long entries = nativeCacheInspector.countEntries(cache);
+        long nativeEvictions = nativeCacheInspector.countNativeEvictions(cache);
+        long totalEvictions = evictions.sum() + Math.max(nativeEvictions, 0);
+        return new CacheStatistics(getName(), hits.sum(), misses.sum(), puts.sum(), totalEvictions, loads.sum(), totalLoadNanos.sum(), entries, estimateBytes(entries));
+    }
+
+    private long estimateBytes(long entries) {
+        if (entries < 0) {
+            return -1;
+        }
+        if (entries == 0) {
+            return 0;
+        }
+        Map<?, ?> sampledEntries = nativeCacheInspector.sampleEntries(cache, MAX_ENTRIES_SAMPLED);
+        long sampledBytes = 0;
+        for (Map.Entry<?, ?> entry : sampledEntries.entrySet()) {
+            sampledBytes += ObjectSizeEstimator.estimate(entry.getKey()) + ObjectSizeEstimator.estimate(entry.getValue());
+        }
+        int sampled = sampledEntries.size();
+        if (sampled == 0) {
+            return -1;
+        }
+        return sampledBytes * entries / sampled;
+    }
+}
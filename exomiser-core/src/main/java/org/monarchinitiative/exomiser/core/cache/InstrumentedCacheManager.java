@@ -0,0 +1,93 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decorator for a Spring {@link CacheManager} which records {@link CacheStatistics} for each of the caches it
+ * manages.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class InstrumentedCacheManager implements CacheManager {
+
+    private final CacheManager cacheManager;
+    private final NativeCacheInspector nativeCacheInspector;
+
+    private final ConcurrentMap<String, InstrumentedCache> instrumentedCaches = new ConcurrentHashMap<>();
+
+    public InstrumentedCacheManager(CacheManager cacheManager) {
+        this(cacheManager, NativeCacheInspector.MAP_CACHE_INSPECTOR);
+    }
+
+    public InstrumentedCacheManager(CacheManager cacheManager, NativeCacheInspector nativeCacheInspector) {
+        this.cacheManager = cacheManager;
+        this.nativeCacheInspector = nativeCacheInspector;
+    }
+
+    public CacheManager getCacheManager() {
+        return cacheManager;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        InstrumentedCache instrumentedCache = instrumentedCaches.get(name);
+        if (instrumentedCache != null) {
+            return instrumentedCache;
+        }
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            return null;
+        }
+        return instrumentedCaches.computeIfAbsent(name, cacheName -> new InstrumentedCache(cache, nativeCacheInspector));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return cacheManager.getCacheNames();
+    }
+
+    /**
+     * @return the statistics for all the caches which have been used, in name order.
+     */
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> cacheStatistics = new ArrayList<>();
+        instrumentedCaches.values().forEach(cache -> cacheStatistics.add(cache.getStatistics()));
+        cacheStatistics.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return cacheStatistics;
+    }
+
+    /**
+     * @return the statistics for the named cache, or null if there is no such cache.
+     */
+    public CacheStatistics getCacheStatistics(String name) {
+        Cache cache = getCache(name);
+        return cache == null ? null : ((InstrumentedCache) cache).getStatistics();
+    }
+}
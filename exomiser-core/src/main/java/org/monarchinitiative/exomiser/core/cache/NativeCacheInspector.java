@@ -0,0 +1,83 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads details from the native implementation behind a Spring {@link Cache}, which the Cache abstraction itself does
+ * not expose. The default implementation understands caches backed by a java.util.Map, such as the ConcurrentMapCache.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public interface NativeCacheInspector {
+
+    NativeCacheInspector MAP_CACHE_INSPECTOR = new NativeCacheInspector() {
+    };
+
+    /**
+     * @return the entries of the cache, or an empty map if the native cache type is not supported.
+     */
+    default Map<?, ?> readEntries(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof Map) {
+            return (Map<?, ?>) nativeCache;
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @return up to maxEntries entries of the cache, or an empty map if the native cache type is not supported.
+     */
+    default Map<?, ?> sampleEntries(Cache cache, int maxEntries) {
+        Map<Object, Object> sample = new HashMap<>();
+        for (Map.Entry<?, ?> entry : readEntries(cache).entrySet()) {
+            if (sample.size() == maxEntries) {
+                break;
+            }
+            sample.put(entry.getKey(), entry.getValue());
+        }
+        return sample;
+    }
+
+    /**
+     * @return the number of entries in the cache, or -1 if this is not known.
+     */
+    default long countEntries(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof Map) {
+            return ((Map<?, ?>) nativeCache).size();
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of entries evicted by the native cache to stay within its size limits, or -1 if this is not
+     * known.
+     */
+    default long countNativeEvictions(Cache cache) {
+        return -1;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.cache;
+
+import org.monarchinitiative.exomiser.core.genome.dao.VariantCacheKey;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Rough estimates of the heap used by the keys and values held in the Exomiser caches, assuming a 64-bit JVM with
+ * compressed oops. This is only intended to be good enough for comparing and sizing caches, not as an exact measure.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public final class ObjectSizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int MAP_ENTRY = 32;
+    private static final int MAX_DEPTH = 4;
+    private static final int MAX_ELEMENTS_SAMPLED = 100;
+
+    private ObjectSizeEstimator() {
+        //static utility class
+    }
+
+    /**
+     * @return the estimated number of bytes used by the object and the objects it references.
+     */
+    public static long estimate(Object object) {
+        return estimate(object, 0);
+    }
+
+    private static long estimate(Object object, int depth) {
+        if (object == null || object instanceof Enum || depth > MAX_DEPTH) {
+            return 0;
+        }
+        if (object instanceof String) {
+            return OBJECT_HEADER + 24 + 2L * ((String) object).length();
+        }
+        if (object instanceof Number || object instanceof Boolean || object instanceof Character) {
+            return OBJECT_HEADER + 8;
+        }
+        if (object instanceof VariantCacheKey) {
+            //chromosome, position and the ref and alt alleles
+            VariantCacheKey key = (VariantCacheKey) object;
+            return OBJECT_HEADER + 16 + estimate(key.getRef(), depth + 1) + estimate(key.getAlt(), depth + 1);
+        }
+        if (object instanceof FrequencyData) {
+            //rsId, source bitmask and a float array of the known frequencies
+            FrequencyData frequencyData = (FrequencyData) object;
+            return OBJECT_HEADER + 8 + OBJECT_HEADER + 4L * frequencyData.getNumKnownFrequencies() + estimate(frequencyData.getRsId(), depth + 1);
+        }
+        if (object instanceof PathogenicityData) {
+            //source bitmask and a float array of the predicted scores
+            PathogenicityData pathogenicityData = (PathogenicityData) object;
+            return OBJECT_HEADER + 8 + OBJECT_HEADER + 4L * pathogenicityData.getNumPredictedScores();
+        }
+        if (object instanceof Collection) {
+            return OBJECT_HEADER + 24 + estimateElements((Collection<?>) object, depth);
+        }
+        if (object instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            return OBJECT_HEADER + 48 + estimateElements(map.keySet(), depth) + estimateElements(map.values(), depth) + map.size() * (long) MAP_ENTRY;
+        }
+        if (object instanceof Object[]) {
+            Object[] array = (Object[]) object;
+            long size = OBJECT_HEADER + array.length * (long) REFERENCE;
+            for (Object element : array) {
+                size += estimate(element, depth + 1);
+            }
+            return size;
+        }
+        if (object instanceof double[] || object instanceof long[]) {
+            return OBJECT_HEADER + 8L * Array.getLength(object);
+        }
+        if (object instanceof float[] || object instanceof int[]) {
+            return OBJECT_HEADER + 4L * Array.getLength(object);
+        }
+        //unknown type - assume a small object with a few fields
+        return OBJECT_HEADER + 48;
+    }
+
+    //large collections are sampled and the mean element size scaled up to the full collection
+    private static long estimateElements(Collection<?> elements, int depth) {
+        int size = elements.size();
+        if (size == 0) {
+            return 0;
+        }
+        long sampledBytes = 0;
+        int sampled = 0;
+        for (Object element : elements) {
+            if (sampled == MAX_ELEMENTS_SAMPLED) {
+                break;
+            }
+            sampledBytes += estimate(element, depth + 1) + REFERENCE;
+            sampled++;
+        }
+        return sampledBytes * size / sampled;
+    }
+}
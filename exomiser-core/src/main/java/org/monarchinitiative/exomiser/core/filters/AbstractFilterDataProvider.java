@@ -28,6 +28,8 @@
 import org.monarchinitiative.exomiser.core.genome.VariantDataService;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 
+import java.util.List;
+
 /**
  * Provides the base functionality for VariantFilterDataProviders.
  *
@@ -69,6 +71,19 @@ public FilterResult runFilter(VariantEvaluation variantEvaluation) {
         return variantFilter.runFilter(variantEvaluation);
     }
 
+    /**
+     * Provides the data for the whole batch before handing it to the decorated filter so that it can run over the
+     * batch in one go.
+     *
+     * @param variantEvaluations
+     * @return
+     */
+    @Override
+    public List<FilterResult> runFilter(List<VariantEvaluation> variantEvaluations) {
+        provideVariantData(variantEvaluations);
+        return variantFilter.runFilter(variantEvaluations);
+    }
+
     @Override
     public FilterType getFilterType() {
         return variantFilter.getFilterType();
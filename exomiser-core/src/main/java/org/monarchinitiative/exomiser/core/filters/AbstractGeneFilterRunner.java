@@ -0,0 +1,68 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.filters;
+
+import org.monarchinitiative.exomiser.core.model.Gene;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Common behaviour for the non-destructive {@link GeneFilterRunner} implementations. The results of the filters which
+ * were run are added to the gene and counted in the runner's {@link FilterStats}, which is safe to update from
+ * multiple threads.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public abstract class AbstractGeneFilterRunner implements GeneFilterRunner {
+
+    private final FilterStats filterStats = new FilterStats();
+
+    protected void runAllFiltersOverGene(List<GeneFilter> filters, Gene gene) {
+        for (Filter filter : filters) {
+            runFilterAndAddResult(filter, gene);
+        }
+    }
+
+    protected FilterResult runFilterAndAddResult(Filter filter, Gene gene) {
+        FilterResult filterResult = filter.runFilter(gene);
+        if (filterResult.wasRun()) {
+            gene.addFilterResult(filterResult);
+            filterStats.addResult(filterResult);
+        }
+        return filterResult;
+    }
+
+    @Override
+    public FilterStats getFilterStats() {
+        return filterStats;
+    }
+
+    protected Set<FilterType> getFilterTypes(List<GeneFilter> filters) {
+        Set<FilterType> filtersRun = new LinkedHashSet<>();
+        for (Filter filter : filters) {
+            filtersRun.add(filter.getFilterType());
+        }
+        return filtersRun;
+    }
+
+}
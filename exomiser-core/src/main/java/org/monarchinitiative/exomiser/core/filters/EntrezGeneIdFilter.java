@@ -20,10 +20,13 @@
 
 package org.monarchinitiative.exomiser.core.filters;
 
+import org.monarchinitiative.exomiser.core.model.GeneIdSet;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
@@ -32,7 +35,8 @@
  * list of genes.
  *
  * Note: this could be done as a GeneFilter but will be most efficient to run as
- * the first variantFilter
+ * the first variantFilter. The gene ids are held in a {@link GeneIdSet} so that checking each variant doesn't need
+ * to box its gene id.
  *
  * @author Damian Smedley
  * @author Jules Jacobsen
@@ -46,10 +50,10 @@ public class EntrezGeneIdFilter implements VariantFilter {
     private static final FilterResult PASS = FilterResult.pass(filterType);
     private static final FilterResult FAIL = FilterResult.fail(filterType);
 
-    private final Set<Integer> genesToKeep;
+    private final GeneIdSet genesToKeep;
 
     public EntrezGeneIdFilter(Set<Integer> genesToKeep) {
-        this.genesToKeep = genesToKeep;
+        this.genesToKeep = GeneIdSet.copyOf(genesToKeep);
     }
 
     public Set<Integer> getGeneIds() {
@@ -69,6 +73,15 @@ public FilterResult runFilter(VariantEvaluation variantEvaluation) {
         return FAIL;
     }
 
+    @Override
+    public List<FilterResult> runFilter(List<VariantEvaluation> variantEvaluations) {
+        List<FilterResult> filterResults = new ArrayList<>(variantEvaluations.size());
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            filterResults.add(genesToKeep.contains(variantEvaluation.getEntrezGeneId()) ? PASS : FAIL);
+        }
+        return filterResults;
+    }
+
     @Override
     public int hashCode() {
         int hash = 7;
@@ -28,7 +28,7 @@
  *
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
  */
-public class FailedVariantFilter implements VariantFilter {
+public class FailedVariantFilter implements VariantFilter, VcfRecordFilter {
 
     private static final FilterType FILTER_TYPE = FilterType.FAILED_VARIANT_FILTER;
 
@@ -48,6 +48,11 @@ public FilterResult runFilter(VariantEvaluation variantEvaluation) {
         return FAIL;
     }
 
+    @Override
+    public boolean mayPassRecord(int chromosome, VariantContext variantContext) {
+        return determineVariantContextState(variantContext) != VariantContextFilterState.FAILED;
+    }
+
     private VariantContextFilterState determineVariantContextState(VariantContext variantContext) {
         if (variantContext.filtersWereApplied()) {
             if (variantContext.isNotFiltered()) {
@@ -26,11 +26,12 @@
 package org.monarchinitiative.exomiser.core.filters;
 
 import org.monarchinitiative.exomiser.core.analysis.Analysis;
+import org.monarchinitiative.exomiser.core.analysis.AnalysisMode;
 import org.monarchinitiative.exomiser.core.analysis.AnalysisResults;
 import org.monarchinitiative.exomiser.core.model.Filterable;
 import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.GeneticInterval;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
-import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,7 +41,9 @@
 
 /**
  * Factory class for producing {@code FilterReport} lists from the list of
- * filtered {@code VariantEvaluation}.
+ * filtered {@code VariantEvaluation}. The counts for the variant filters are
+ * taken from the {@link FilterStats} kept by the filter runners where these are
+ * available, rather than scanning all the variants.
  *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
@@ -61,8 +64,10 @@ public FilterReportFactory() {
     public List<FilterReport> makeFilterReports(Analysis analysis, AnalysisResults analysisResults) {
 
         List<Filter> filters = getFiltersFromAnalysis(analysis);
+        AnalysisMode analysisMode = analysis.getAnalysisMode();
+        FilterStats filterStats = analysisResults.getFilterStats();
 
-        return filters.stream().map(filter -> makeFilterReport(filter, analysisResults)).collect(Collectors.toList());
+        return filters.stream().map(filter -> makeFilterReport(filter, analysisResults, filterStats, analysisMode)).collect(Collectors.toList());
     }
 
     private List<Filter> getFiltersFromAnalysis(Analysis analysis) {
@@ -72,34 +77,39 @@ private List<Filter> getFiltersFromAnalysis(Analysis analysis) {
     /**
      * Returns a FilterReport for the AnalysisResults and the specified FilterType.
      * If the FilterType is not recognised or supported then this method will
-     * return a default report with no messages.
+     * return a default report with no messages. The variants in the results
+     * which did not pass the filter are reported as failed, as in FULL mode.
      *
      * @param filter
      * @param analysisResults
      * @return
      */
     protected FilterReport makeFilterReport(Filter filter, AnalysisResults analysisResults) {
+        return makeFilterReport(filter, analysisResults, analysisResults.getFilterStats(), AnalysisMode.FULL);
+    }
+
+    private FilterReport makeFilterReport(Filter filter, AnalysisResults analysisResults, FilterStats filterStats, AnalysisMode analysisMode) {
         FilterType filterType = filter.getFilterType();
         Filter baseFilter = unWrapVariantFilterDataProvider(filter);
         switch (filterType) {
             case VARIANT_EFFECT_FILTER:
-                return makeTargetFilterReport((VariantEffectFilter) baseFilter, analysisResults.getVariantEvaluations());
+                return makeTargetFilterReport((VariantEffectFilter) baseFilter, analysisResults, filterStats, analysisMode);
             case KNOWN_VARIANT_FILTER:
-                return makeKnownVariantFilterReport((KnownVariantFilter) baseFilter, analysisResults.getVariantEvaluations());
+                return makeKnownVariantFilterReport((KnownVariantFilter) baseFilter, analysisResults, filterStats, analysisMode);
             case FREQUENCY_FILTER:
-                return makeFrequencyFilterReport((FrequencyFilter) baseFilter, analysisResults.getVariantEvaluations());
+                return makeFrequencyFilterReport((FrequencyFilter) baseFilter, analysisResults, filterStats, analysisMode);
             case QUALITY_FILTER:
-                return makeQualityFilterReport((QualityFilter) baseFilter, analysisResults.getVariantEvaluations());
+                return makeQualityFilterReport((QualityFilter) baseFilter, analysisResults, filterStats, analysisMode);
             case PATHOGENICITY_FILTER:
-                return makePathogenicityFilterReport((PathogenicityFilter) baseFilter, analysisResults.getVariantEvaluations());
+                return makePathogenicityFilterReport((PathogenicityFilter) baseFilter, analysisResults, filterStats, analysisMode);
             case INTERVAL_FILTER:
-                return makeIntervalFilterReport((IntervalFilter) baseFilter, analysisResults.getVariantEvaluations());
+                return makeIntervalFilterReport((IntervalFilter) baseFilter, analysisResults, filterStats, analysisMode);
             case INHERITANCE_FILTER:
-                return makeInheritanceFilterReport((InheritanceFilter) baseFilter, analysisResults.getGenes());
+                return makeInheritanceFilterReport((InheritanceFilter) baseFilter, analysisResults);
             case PRIORITY_SCORE_FILTER:
-                return makePriorityScoreFilterReport((PriorityScoreFilter) baseFilter, analysisResults.getGenes());
+                return makePriorityScoreFilterReport((PriorityScoreFilter) baseFilter, analysisResults);
             default:
-                return makeDefaultVariantFilterReport(filterType, analysisResults.getVariantEvaluations());
+                return makeDefaultVariantFilterReport(filterType, analysisResults, filterStats, analysisMode);
         }
     }
     
@@ -111,42 +121,26 @@ private Filter unWrapVariantFilterDataProvider(Filter filter) {
         return filter;
     } 
 
-    private FilterReport makeTargetFilterReport(VariantEffectFilter filter, List<VariantEvaluation> variantEvaluations) {
-        FilterReport report = makeDefaultVariantFilterReport(FilterType.VARIANT_EFFECT_FILTER, variantEvaluations);
+    private FilterReport makeTargetFilterReport(VariantEffectFilter filter, AnalysisResults analysisResults, FilterStats filterStats, AnalysisMode analysisMode) {
+        FilterReport report = makeDefaultVariantFilterReport(FilterType.VARIANT_EFFECT_FILTER, analysisResults, filterStats, analysisMode);
         report.addMessage(String.format("Removed variants with effects of type: %s", filter.getOffTargetVariantTypes()));
         return report;
     }
 
-    private FilterReport makeKnownVariantFilterReport(KnownVariantFilter filter, List<VariantEvaluation> variantEvaluations) {
-        FilterReport report = makeDefaultVariantFilterReport(FilterType.KNOWN_VARIANT_FILTER, variantEvaluations);
-
-        int numNotInDatabase = 0;
-        int numDbSnpFreqData = 0;
-        int numDbSnpRsId = 0;
-        int numEspFreqData = 0;
-        int numExaCFreqData = 0;
-
-        for (VariantEvaluation ve : variantEvaluations) {
-            FrequencyData frequencyData = ve.getFrequencyData();
-
-            if (!frequencyData.isRepresentedInDatabase()) {
-                numNotInDatabase++;
-            }
-            if (frequencyData.hasDbSnpData()) {
-                numDbSnpFreqData++;
-            }
-            if (frequencyData.hasDbSnpRsID()) {
-                numDbSnpRsId++;
-            }
-            if (frequencyData.hasEspData()) {
-                numEspFreqData++;
-            }
-            if (frequencyData.hasExacData()) {
-                numExaCFreqData++;
-            }
+    private FilterReport makeKnownVariantFilterReport(KnownVariantFilter filter, AnalysisResults analysisResults, FilterStats filterStats, AnalysisMode analysisMode) {
+        FilterReport report = makeDefaultVariantFilterReport(FilterType.KNOWN_VARIANT_FILTER, analysisResults, filterStats, analysisMode);
+        FilterStats knownVariantStats = filterStats;
+        if (!knownVariantStats.hasKnownVariantData()) {
+            //no counts were kept while filtering, so they are counted from the variants in the results
+            knownVariantStats = countKnownVariantData(analysisResults.getVariantEvaluations());
         }
 
-        int total = report.getPassed() + report.getFailed();
+        long numNotInDatabase = knownVariantStats.getNotInDatabaseCount();
+        long numDbSnpRsId = knownVariantStats.getDbSnpRsIdCount();
+        long numDbSnpFreqData = knownVariantStats.getDbSnpDataCount();
+        long numEspFreqData = knownVariantStats.getEspDataCount();
+        long numExaCFreqData = knownVariantStats.getExacDataCount();
+        long total = knownVariantStats.getKnownVariantCount();
 
         report.addMessage(String.format("Removed %d variants with no RSID or frequency data (%.1f%%)", numNotInDatabase, asPercent(numNotInDatabase, total)));
         report.addMessage(String.format("dbSNP \"rs\" id available for %d variants (%.1f%%)", numDbSnpRsId, asPercent(numDbSnpRsId, total)));
@@ -156,26 +150,34 @@ private FilterReport makeKnownVariantFilterReport(KnownVariantFilter filter, Lis
         return report;
     }
 
-    private double asPercent(double number, int total) {
+    private FilterStats countKnownVariantData(List<VariantEvaluation> variantEvaluations) {
+        FilterStats knownVariantStats = new FilterStats();
+        for (VariantEvaluation ve : variantEvaluations) {
+            knownVariantStats.addKnownVariantData(ve.getFrequencyData());
+        }
+        return knownVariantStats;
+    }
+
+    private double asPercent(double number, long total) {
         return 100f * number / total;
     }
 
-    private FilterReport makeFrequencyFilterReport(FrequencyFilter filter, List<VariantEvaluation> variantEvaluations) {
-        FilterReport report = makeDefaultVariantFilterReport(FilterType.FREQUENCY_FILTER, variantEvaluations);
+    private FilterReport makeFrequencyFilterReport(FrequencyFilter filter, AnalysisResults analysisResults, FilterStats filterStats, AnalysisMode analysisMode) {
+        FilterReport report = makeDefaultVariantFilterReport(FilterType.FREQUENCY_FILTER, analysisResults, filterStats, analysisMode);
 
         report.addMessage(String.format("Variants filtered for maximum allele frequency of %.2f%%", filter.getMaxFreq()));
         return report;
     }
 
-    private FilterReport makeQualityFilterReport(QualityFilter filter, List<VariantEvaluation> variantEvaluations) {
-        FilterReport report = makeDefaultVariantFilterReport(FilterType.QUALITY_FILTER, variantEvaluations);
+    private FilterReport makeQualityFilterReport(QualityFilter filter, AnalysisResults analysisResults, FilterStats filterStats, AnalysisMode analysisMode) {
+        FilterReport report = makeDefaultVariantFilterReport(FilterType.QUALITY_FILTER, analysisResults, filterStats, analysisMode);
 
         report.addMessage(String.format("Variants filtered for mimimum PHRED quality of %.1f", filter.getMimimumQualityThreshold()));
         return report;
     }
 
-    private FilterReport makePathogenicityFilterReport(PathogenicityFilter filter, List<VariantEvaluation> variantEvaluations) {
-        FilterReport report = makeDefaultVariantFilterReport(FilterType.PATHOGENICITY_FILTER, variantEvaluations);
+    private FilterReport makePathogenicityFilterReport(PathogenicityFilter filter, AnalysisResults analysisResults, FilterStats filterStats, AnalysisMode analysisMode) {
+        FilterReport report = makeDefaultVariantFilterReport(FilterType.PATHOGENICITY_FILTER, analysisResults, filterStats, analysisMode);
 
         if (filter.keepNonPathogenic()) {
             report.addMessage("Retained all non-pathogenic variants of all types. Scoring was applied, but the filter passed all variants.");
@@ -192,24 +194,29 @@ private FilterReport makePathogenicityFilterReport(PathogenicityFilter filter, L
         return report;
     }
 
-    private FilterReport makeIntervalFilterReport(IntervalFilter filter, List<VariantEvaluation> variantEvaluations) {
-        FilterReport report = makeDefaultVariantFilterReport(FilterType.INTERVAL_FILTER, variantEvaluations);
+    private FilterReport makeIntervalFilterReport(IntervalFilter filter, AnalysisResults analysisResults, FilterStats filterStats, AnalysisMode analysisMode) {
+        FilterReport report = makeDefaultVariantFilterReport(FilterType.INTERVAL_FILTER, analysisResults, filterStats, analysisMode);
 
-        report.addMessage(String.format("Restricted variants to interval: %s", filter.getGeneticInterval()));
+        List<GeneticInterval> intervals = filter.getGeneticIntervals();
+        if (intervals.size() == 1) {
+            report.addMessage(String.format("Restricted variants to interval: %s", intervals.get(0)));
+        } else {
+            report.addMessage(String.format("Restricted variants to %d intervals", intervals.size()));
+        }
 
         return report;
     }
 
-    private FilterReport makeInheritanceFilterReport(InheritanceFilter filter, List<Gene> genes) {
-        FilterReport report = makeDefaultGeneFilterReport(FilterType.INHERITANCE_FILTER, genes);
+    private FilterReport makeInheritanceFilterReport(InheritanceFilter filter, AnalysisResults analysisResults) {
+        FilterReport report = makeDefaultGeneFilterReport(FilterType.INHERITANCE_FILTER, analysisResults);
 
         report.addMessage(String.format("Genes filtered for compatibility with %s inheritance.", filter.getModeOfInheritance()));
 
         return report;
     }
 
-    private FilterReport makePriorityScoreFilterReport(PriorityScoreFilter filter, List<Gene> genes) {
-        FilterReport report = makeDefaultGeneFilterReport(FilterType.PRIORITY_SCORE_FILTER, genes);
+    private FilterReport makePriorityScoreFilterReport(PriorityScoreFilter filter, AnalysisResults analysisResults) {
+        FilterReport report = makeDefaultGeneFilterReport(FilterType.PRIORITY_SCORE_FILTER, analysisResults);
 
         report.addMessage(String.format("Genes filtered for minimum %s score of %s",
                 filter.getPriorityType(), filter.getMinPriorityScore()));
@@ -218,15 +225,29 @@ private FilterReport makePriorityScoreFilterReport(PriorityScoreFilter filter, L
     }
 
     /**
+     * Uses the counts kept while running the filters where there are any, otherwise counts the results of the variants
+     * in the AnalysisResults. In PASS_ONLY mode the results only hold the variants which passed all the filters, so
+     * both the passed and failed counts are taken from the stats. In the other modes all the other variants in the
+     * results are reported as failed - in SPARSE mode this includes those which failed an earlier filter and so were
+     * never run through this one.
      *
      * @param filterType
-     * @param variantEvaluations
+     * @param analysisResults
+     * @param filterStats
+     * @param analysisMode
      * @return
      */
-    private FilterReport makeDefaultVariantFilterReport(FilterType filterType, List<VariantEvaluation> variantEvaluations) {
-        int passed = countVariantsPassingFilter(variantEvaluations, filterType);
-        int failed = variantEvaluations.size() - passed;
-        return new FilterReport(filterType, passed, failed);
+    private FilterReport makeDefaultVariantFilterReport(FilterType filterType, AnalysisResults analysisResults, FilterStats filterStats, AnalysisMode analysisMode) {
+        List<VariantEvaluation> variantEvaluations = analysisResults.getVariantEvaluations();
+        if (!filterStats.hasResults(filterType)) {
+            int passed = countVariantsPassingFilter(variantEvaluations, filterType);
+            return new FilterReport(filterType, passed, variantEvaluations.size() - passed);
+        }
+        int passed = (int) filterStats.getPassedCount(filterType);
+        if (analysisMode == AnalysisMode.PASS_ONLY) {
+            return new FilterReport(filterType, passed, (int) filterStats.getFailedCount(filterType));
+        }
+        return new FilterReport(filterType, passed, variantEvaluations.size() - passed);
     }
 
     private int countVariantsPassingFilter(List<VariantEvaluation> variantEvaluations, FilterType filterType) {
@@ -239,7 +260,12 @@ private int countVariantsPassingFilter(List<VariantEvaluation> variantEvaluation
         return passed;
     }
 
-    private FilterReport makeDefaultGeneFilterReport(FilterType filterType, List<Gene> genes) {
+    /**
+     * The genes are always counted from the results as the gene filters are also run over the genes without any
+     * variants, which are not reported. There is at most one gene in the results per known gene.
+     */
+    private FilterReport makeDefaultGeneFilterReport(FilterType filterType, AnalysisResults analysisResults) {
+        List<Gene> genes = analysisResults.getGenes();
         int passed = countGenesPassingFilter(genes, filterType);
         int failed = genes.size() - passed;
         return new FilterReport(filterType, passed, failed);
@@ -53,4 +53,9 @@
 
     List<U> run(T filter, List<U> filterables);
 
+    /**
+     * @return the counts of the results added by this runner for each {@code FilterType}.
+     */
+    FilterStats getFilterStats();
+
 }
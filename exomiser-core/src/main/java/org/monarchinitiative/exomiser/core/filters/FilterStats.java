@@ -0,0 +1,183 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.filters;
+
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Running counts of the passed and failed {@link FilterResult} for each {@link FilterType}. These are kept by the
+ * {@link FilterRunner} as they run so that the {@link FilterReport} can be made without going back over all the
+ * variants. Results from filters which were not run are not counted. In PASS_ONLY mode the VCF records rejected by a
+ * {@link VcfRecordFilter} before annotation are counted as failing that filter.
+ * <p>
+ * The frequency data of the variants run through the {@link KnownVariantFilter} are also counted here for the
+ * known variant report.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class FilterStats {
+
+    private final AtomicLongArray passed = new AtomicLongArray(FilterType.values().length);
+    private final AtomicLongArray failed = new AtomicLongArray(FilterType.values().length);
+
+    private final AtomicLong knownVariantCount = new AtomicLong();
+    private final AtomicLong notInDatabaseCount = new AtomicLong();
+    private final AtomicLong dbSnpRsIdCount = new AtomicLong();
+    private final AtomicLong dbSnpDataCount = new AtomicLong();
+    private final AtomicLong espDataCount = new AtomicLong();
+    private final AtomicLong exacDataCount = new AtomicLong();
+
+    public void addResult(FilterResult filterResult) {
+        if (!filterResult.wasRun()) {
+            return;
+        }
+        int index = filterResult.getFilterType().ordinal();
+        if (filterResult.passed()) {
+            passed.incrementAndGet(index);
+        } else {
+            failed.incrementAndGet(index);
+        }
+    }
+
+    /**
+     * Counts the sources of the frequency data for a variant run through the {@link KnownVariantFilter}.
+     */
+    public void addKnownVariantData(FrequencyData frequencyData) {
+        knownVariantCount.incrementAndGet();
+        if (!frequencyData.isRepresentedInDatabase()) {
+            notInDatabaseCount.incrementAndGet();
+        }
+        if (frequencyData.hasDbSnpRsID()) {
+            dbSnpRsIdCount.incrementAndGet();
+        }
+        if (frequencyData.hasDbSnpData()) {
+            dbSnpDataCount.incrementAndGet();
+        }
+        if (frequencyData.hasEspData()) {
+            espDataCount.incrementAndGet();
+        }
+        if (frequencyData.hasExacData()) {
+            exacDataCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Adds the counts from the other FilterStats to these.
+     */
+    public void addAll(FilterStats other) {
+        for (int i = 0; i < passed.length(); i++) {
+            passed.addAndGet(i, other.passed.get(i));
+            failed.addAndGet(i, other.failed.get(i));
+        }
+        knownVariantCount.addAndGet(other.knownVariantCount.get());
+        notInDatabaseCount.addAndGet(other.notInDatabaseCount.get());
+        dbSnpRsIdCount.addAndGet(other.dbSnpRsIdCount.get());
+        dbSnpDataCount.addAndGet(other.dbSnpDataCount.get());
+        espDataCount.addAndGet(other.espDataCount.get());
+        exacDataCount.addAndGet(other.exacDataCount.get());
+    }
+
+    public long getPassedCount(FilterType filterType) {
+        return passed.get(filterType.ordinal());
+    }
+
+    public long getFailedCount(FilterType filterType) {
+        return failed.get(filterType.ordinal());
+    }
+
+    public boolean hasResults(FilterType filterType) {
+        return getPassedCount(filterType) + getFailedCount(filterType) > 0;
+    }
+
+    public boolean hasKnownVariantData() {
+        return knownVariantCount.get() > 0;
+    }
+
+    public long getKnownVariantCount() {
+        return knownVariantCount.get();
+    }
+
+    public long getNotInDatabaseCount() {
+        return notInDatabaseCount.get();
+    }
+
+    public long getDbSnpRsIdCount() {
+        return dbSnpRsIdCount.get();
+    }
+
+    public long getDbSnpDataCount() {
+        return dbSnpDataCount.get();
+    }
+
+    public long getEspDataCount() {
+        return espDataCount.get();
+    }
+
+    public long getExacDataCount() {
+        return exacDataCount.get();
+    }
+
+    /**
+     * @return the FilterTypes with at least one result.
+     */
+    public Set<FilterType> getFilterTypes() {
+        Set<FilterType> filterTypes = EnumSet.noneOf(FilterType.class);
+        for (FilterType filterType : FilterType.values()) {
+            if (hasResults(filterType)) {
+                filterTypes.add(filterType);
+            }
+        }
+        return filterTypes;
+    }
+
+    public void clear() {
+        for (int i = 0; i < passed.length(); i++) {
+            passed.set(i, 0);
+            failed.set(i, 0);
+        }
+        knownVariantCount.set(0);
+        notInDatabaseCount.set(0);
+        dbSnpRsIdCount.set(0);
+        dbSnpDataCount.set(0);
+        espDataCount.set(0);
+        exacDataCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder("FilterStats{");
+        String separator = "";
+        for (FilterType filterType : getFilterTypes()) {
+            stringBuilder.append(separator).append(filterType)
+                    .append("={passed=").append(getPassedCount(filterType))
+                    .append(", failed=").append(getFailedCount(filterType)).append('}');
+            separator = ", ";
+        }
+        return stringBuilder.append('}').toString();
+    }
+}
@@ -21,11 +21,15 @@
 package org.monarchinitiative.exomiser.core.filters;
 
 import org.monarchinitiative.exomiser.core.genome.VariantDataService;
+import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -48,6 +52,10 @@ public FrequencyDataProvider(VariantDataService variantDataService, Set<Frequenc
         }
     }
 
+    public Set<FrequencySource> getFrequencySources() {
+        return frequencySources;
+    }
+
     @Override
     public void provideVariantData(VariantEvaluation variantEvaluation) {
         //check there are no frequencies first - this may be genuine, or possibly the variant hasn't yet had the data added
@@ -58,4 +66,24 @@ public void provideVariantData(VariantEvaluation variantEvaluation) {
         }
     }
 
+    /**
+     * Fetches the data for all the variants in the batch which don't have any yet using a single bulk lookup.
+     */
+    @Override
+    public void provideVariantData(List<VariantEvaluation> variantEvaluations) {
+        List<VariantEvaluation> variantsWithoutData = new ArrayList<>(variantEvaluations.size());
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            if (variantEvaluation.getFrequencyData().getKnownFrequencies().isEmpty()) {
+                variantsWithoutData.add(variantEvaluation);
+            }
+        }
+        if (variantsWithoutData.isEmpty()) {
+            return;
+        }
+        Map<Variant, FrequencyData> data = variantDataService.getVariantFrequencyData(variantsWithoutData, frequencySources);
+        for (VariantEvaluation variantEvaluation : variantsWithoutData) {
+            variantEvaluation.setFrequencyData(data.getOrDefault(variantEvaluation, FrequencyData.empty()));
+        }
+    }
+
 }
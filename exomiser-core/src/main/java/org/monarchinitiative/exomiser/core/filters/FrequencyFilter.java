@@ -26,6 +26,8 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -101,6 +103,22 @@ public FilterResult runFilter(VariantEvaluation variantEvaluation) {
         return FAIL;
     }
 
+    /**
+     * Checks the maximum frequency of each variant against the threshold. The frequencies are held as primitive floats
+     * by the {@code FrequencyData} so this avoids creating any {@code Frequency} objects.
+     *
+     * @param variantEvaluations
+     * @return
+     */
+    @Override
+    public List<FilterResult> runFilter(List<VariantEvaluation> variantEvaluations) {
+        List<FilterResult> filterResults = new ArrayList<>(variantEvaluations.size());
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            filterResults.add(variantEvaluation.getFrequencyData().getMaxFreq() > maxFreq ? FAIL : PASS);
+        }
+        return filterResults;
+    }
+
     /**
      * This method returns false if the variant is more common than the
      * threshold in any one of the dbSNP data, or the ESP data for European
@@ -20,12 +20,17 @@
 
 package org.monarchinitiative.exomiser.core.filters;
 
+import htsjdk.variant.variantcontext.VariantContext;
+import org.monarchinitiative.exomiser.core.analysis.util.ChromosomalRegionIndex;
 import org.monarchinitiative.exomiser.core.model.GeneticInterval;
-import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -36,11 +41,16 @@
  * <P>
  * The interval must be given as chr2:12345-67890 (format), otherwise, an error
  * message is given and no filtering is done.
+ * <P>
+ * Several intervals can be supplied, for example the regions of a gene panel or
+ * capture kit read from a BED file. A variant passes if it lies in any of them.
+ * The intervals are held in a {@link ChromosomalRegionIndex} so the lookup time
+ * grows with the log of the number of intervals.
  *
  * @author Peter N Robinson
  * @version 0.08 (April 28, 2013)
  */
-public class IntervalFilter implements VariantFilter {
+public class IntervalFilter implements VariantFilter, VcfRecordFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(IntervalFilter.class);
 
@@ -49,7 +59,8 @@ public class IntervalFilter implements VariantFilter {
     private static final FilterResult PASS = FilterResult.pass(filterType);
     private static final FilterResult FAIL = FilterResult.fail(filterType);
 
-    private final GeneticInterval interval;
+    private final List<GeneticInterval> intervals;
+    private final ChromosomalRegionIndex<GeneticInterval> intervalIndex;
 
     /**
      * Constructor defining the genetic interval.
@@ -57,12 +68,34 @@ public class IntervalFilter implements VariantFilter {
      * @param interval the interval based on a String such as chr2:12345-67890.
      */
     public IntervalFilter(GeneticInterval interval) {
-        this.interval = interval;
+        this(Collections.singletonList(interval));
+    }
 
+    /**
+     * Constructor defining several genetic intervals.
+     *
+     * @param intervals the intervals in which a variant must lie to pass the filter.
+     */
+    public IntervalFilter(Collection<GeneticInterval> intervals) {
+        Objects.requireNonNull(intervals);
+        if (intervals.isEmpty()) {
+            throw new IllegalArgumentException("IntervalFilter requires at least one interval");
+        }
+        this.intervals = Collections.unmodifiableList(new ArrayList<>(intervals));
+        this.intervalIndex = new ChromosomalRegionIndex<>(this.intervals);
+        logger.debug("Created IntervalFilter for {} intervals", this.intervals.size());
     }
 
+    /**
+     * @return the first interval of the filter. Use {@link #getGeneticIntervals()} where the filter may have more than
+     * one interval.
+     */
     public GeneticInterval getGeneticInterval() {
-        return interval;
+        return intervals.get(0);
+    }
+
+    public List<GeneticInterval> getGeneticIntervals() {
+        return intervals;
     }
 
     /**
@@ -77,33 +110,26 @@ public FilterType getFilterType() {
 
     @Override
     public FilterResult runFilter(VariantEvaluation variantEvaluation) {
-        if (variantIsNotWithinInterval(variantEvaluation)) {
-            return FAIL;
+        if (intervalIndex.hasRegionContainingVariant(variantEvaluation)) {
+            return PASS;
         }
-        return PASS;
+        return FAIL;
     }
 
-    private boolean variantIsNotWithinInterval(Variant variant) {
-        if (variantNotOnSameChromosomeAsInterval(variant.getChromosome())) {
-            return true;
-        } else {
-            return variantPositionOutsideOfIntervalBounds(variant.getPosition());
-        }
-    }
-
-    private boolean variantNotOnSameChromosomeAsInterval(int variantChromosome) {
-        return variantChromosome != interval.getChromosome();
-    }
-
-    private boolean variantPositionOutsideOfIntervalBounds(int variantPosition) {
-        return variantPosition < interval.getStart() || variantPosition > interval.getEnd();
+    /**
+     * Used as a region hint when reading the VCF. The untrimmed record is checked with one extra base at the end so that
+     * records whose alleles are trimmed into an interval are not lost.
+     */
+    @Override
+    public boolean mayPassRecord(int chromosome, VariantContext variantContext) {
+        return !intervalIndex.getRegionsOverlappingInterval(chromosome, variantContext.getStart(), variantContext.getEnd() + 1).isEmpty();
     }
 
     @Override
     public int hashCode() {
         int hash = 7;
         hash = 97 * hash + Objects.hashCode(IntervalFilter.filterType);
-        hash = 97 * hash + Objects.hashCode(this.interval);
+        hash = 97 * hash + Objects.hashCode(this.intervals);
         return hash;
     }
 
@@ -116,13 +142,19 @@ public boolean equals(Object obj) {
             return false;
         }
         final IntervalFilter other = (IntervalFilter) obj;
-        return Objects.equals(this.interval, other.interval);
+        return Objects.equals(this.intervals, other.intervals);
     }
 
     @Override
     public String toString() {
+        if (intervals.size() == 1) {
+            return "IntervalFilter{" +
+                    "interval=" + intervals.get(0) +
+                    '}';
+        }
         return "IntervalFilter{" +
-                "interval=" + interval +
+                "intervals=" + intervals.size() +
+                ", first=" + intervals.get(0) +
                 '}';
     }
 }
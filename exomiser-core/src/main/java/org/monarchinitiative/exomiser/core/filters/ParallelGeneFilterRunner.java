@@ -0,0 +1,81 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.filters;
+
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Non-destructive {@link GeneFilterRunner} which runs the filters over the genes concurrently using a
+ * {@link ForkJoinPool}. Each gene is only ever handled by a single thread which runs the filters over it in the order
+ * given, so the filter state of each gene (and its variants) is the same as it would be from the
+ * {@link SimpleGeneFilterRunner}. The input list is returned unchanged so the gene order is deterministic.
+ * <p>
+ * The {@link GeneFilter}s being run must be safe to use from multiple threads, as the ones in this package are. The
+ * pool is not owned by this class and will not be shut down by it.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class ParallelGeneFilterRunner extends AbstractGeneFilterRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelGeneFilterRunner.class);
+
+    private final ForkJoinPool forkJoinPool;
+
+    /**
+     * Creates a runner using the {@link ForkJoinPool#commonPool()}.
+     */
+    public ParallelGeneFilterRunner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelGeneFilterRunner(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    @Override
+    public List<Gene> run(List<GeneFilter> filters, List<Gene> genes) {
+        logger.info("Filtering {} genes using non-destructive parallel filtering with parallelism {}", genes.size(), forkJoinPool.getParallelism());
+        runOverPassedGenes(genes, gene -> runAllFiltersOverGene(filters, gene));
+        logger.info("Ran {} filters over {} genes using non-destructive parallel filtering.", getFilterTypes(filters), genes.size());
+        return genes;
+    }
+
+    @Override
+    public List<Gene> run(GeneFilter filter, List<Gene> genes) {
+        runOverPassedGenes(genes, gene -> runFilterAndAddResult(filter, gene));
+        return genes;
+    }
+
+    private void runOverPassedGenes(List<Gene> genes, Consumer<Gene> geneConsumer) {
+        //running the parallel stream from inside the pool makes it use the pool's threads rather than the common pool
+        forkJoinPool.submit(() -> genes.parallelStream()
+                .filter(Gene::passedFilters)
+                .forEach(geneConsumer)
+        ).join();
+    }
+
+}
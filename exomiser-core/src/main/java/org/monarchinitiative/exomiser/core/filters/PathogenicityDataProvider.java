@@ -26,11 +26,15 @@
 package org.monarchinitiative.exomiser.core.filters;
 
 import org.monarchinitiative.exomiser.core.genome.VariantDataService;
+import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -51,6 +55,10 @@ public PathogenicityDataProvider(VariantDataService variantDataService, Set<Path
         }
     }
 
+    public Set<PathogenicitySource> getPathogenicitySources() {
+        return pathogenicitySources;
+    }
+
     @Override
     public void provideVariantData(VariantEvaluation variantEvaluation) {
         if (variantEvaluation.getPathogenicityData().isEmpty()) {
@@ -59,4 +67,24 @@ public void provideVariantData(VariantEvaluation variantEvaluation) {
         }
     }
 
+    /**
+     * Fetches the data for all the variants in the batch which don't have any yet using a single bulk lookup.
+     */
+    @Override
+    public void provideVariantData(List<VariantEvaluation> variantEvaluations) {
+        List<VariantEvaluation> variantsWithoutData = new ArrayList<>(variantEvaluations.size());
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            if (variantEvaluation.getPathogenicityData().isEmpty()) {
+                variantsWithoutData.add(variantEvaluation);
+            }
+        }
+        if (variantsWithoutData.isEmpty()) {
+            return;
+        }
+        Map<Variant, PathogenicityData> data = variantDataService.getVariantPathogenicityData(variantsWithoutData, pathogenicitySources);
+        for (VariantEvaluation variantEvaluation : variantsWithoutData) {
+            variantEvaluation.setPathogenicityData(data.getOrDefault(variantEvaluation, PathogenicityData.empty()));
+        }
+    }
+
 }
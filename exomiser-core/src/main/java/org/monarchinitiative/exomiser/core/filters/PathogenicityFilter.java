@@ -25,6 +25,9 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -87,6 +90,18 @@ public FilterResult runFilter(VariantEvaluation variantEvaluation) {
         return FAIL;
     }
 
+    @Override
+    public List<FilterResult> runFilter(List<VariantEvaluation> variantEvaluations) {
+        if (keepNonPathogenic) {
+            return Collections.nCopies(variantEvaluations.size(), PASS);
+        }
+        List<FilterResult> filterResults = new ArrayList<>(variantEvaluations.size());
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            filterResults.add(variantEvaluation.isPredictedPathogenic() ? PASS : FAIL);
+        }
+        return filterResults;
+    }
+
     @Override
     public int hashCode() {
         int hash = 5;
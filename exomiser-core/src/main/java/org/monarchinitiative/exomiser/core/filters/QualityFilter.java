@@ -20,10 +20,14 @@
 
 package org.monarchinitiative.exomiser.core.filters;
 
+import htsjdk.variant.variantcontext.VariantContext;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * VariantFilter Variants on the basis of the PHRED quality score for the
  * variant that was derived from the VCF file (QUAL field).
@@ -32,7 +36,7 @@
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  * @version 0.09 (18 December, 2013).
  */
-public class QualityFilter implements VariantFilter {
+public class QualityFilter implements VariantFilter, VcfRecordFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(QualityFilter.class);
 
@@ -87,6 +91,23 @@ public FilterResult runFilter(VariantEvaluation variantEvaluation) {
         return FAIL;
     }
 
+    @Override
+    public List<FilterResult> runFilter(List<VariantEvaluation> variantEvaluations) {
+        List<FilterResult> filterResults = new ArrayList<>(variantEvaluations.size());
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            filterResults.add(overQualityThreshold(variantEvaluation.getPhredScore()) ? PASS : FAIL);
+        }
+        return filterResults;
+    }
+
+    /**
+     * The QUAL field is shared by all the alleles of the record so this gives the same result as the variant filter.
+     */
+    @Override
+    public boolean mayPassRecord(int chromosome, VariantContext variantContext) {
+        return overQualityThreshold(variantContext.getPhredScaledQual());
+    }
+
     protected boolean overQualityThreshold(double qualityScore) {
         return qualityScore >= mimimumQualityThreshold;
     }
@@ -29,15 +29,13 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
-public class SimpleGeneFilterRunner implements GeneFilterRunner {
+public class SimpleGeneFilterRunner extends AbstractGeneFilterRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(SimpleGeneFilterRunner.class);
 
@@ -63,26 +61,4 @@ public List<Gene> run(GeneFilter filter, List<Gene> genes) {
         return genes;
     }
 
-    private void runAllFiltersOverGene(List<GeneFilter> filters, Gene gene) {
-        for (Filter filter : filters) {
-            runFilterAndAddResult(filter, gene);
-        }
-    }
-
-    private FilterResult runFilterAndAddResult(Filter filter, Gene gene) {
-        FilterResult filterResult = filter.runFilter(gene);
-        if (filterResult.wasRun()) {
-            gene.addFilterResult(filterResult);
-        }
-        return filterResult;
-    }
-
-    private Set<FilterType> getFilterTypes(List<GeneFilter> filters) {
-        Set<FilterType> filtersRun = new LinkedHashSet<>();
-        for (Filter filter : filters) {
-            filtersRun.add(filter.getFilterType());
-        }
-        return filtersRun;
-    }
-
 }
@@ -45,17 +45,22 @@
  * necessary data has been applied to the {@code VariantEvaluation} being
  * filtered beforehand. If it hasn't then the results will be wrong
  *
+ * The filters are run over the whole list of variants in one batch per filter
+ * using {@link VariantFilter#runFilter(List)}.
+ *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
 public class SimpleVariantFilterRunner implements VariantFilterRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(SimpleVariantFilterRunner.class);
+
+    private final FilterStats filterStats = new FilterStats();
    
     @Override
     public List<VariantEvaluation> run(List<VariantFilter> variantFilters, List<VariantEvaluation> variantEvaluations) {
         logger.info("Filtering {} variants using simple filtering...", variantEvaluations.size());
-        for (VariantEvaluation variantEvaluation : variantEvaluations) {
-            run(variantFilters, variantEvaluation);
+        for (VariantFilter filter : variantFilters) {
+            runFilterAndAddResults(filter, variantEvaluations);
         }
         logger.info("Ran {} filters over {} variants using simple filtering.", getFilterTypes(variantFilters), variantEvaluations.size());
         return variantEvaluations;
@@ -63,18 +68,10 @@ public List<VariantEvaluation> run(List<VariantFilter> variantFilters, List<Vari
 
     @Override
     public List<VariantEvaluation> run(VariantFilter filter, List<VariantEvaluation> filterables) {
-        for (VariantEvaluation variantEvaluation : filterables) {
-            run(filter, variantEvaluation);
-        }
+        runFilterAndAddResults(filter, filterables);
         return filterables;
     }
 
-    private void run(List<VariantFilter> variantFilters, VariantEvaluation variantEvaluation) {
-        for (VariantFilter filter : variantFilters) {
-            run(filter, variantEvaluation);
-        }
-    }
-
     @Override
     public FilterResult run(Filter filter, VariantEvaluation variantEvaluation) {
         return runFilterAndAddResult(filter, variantEvaluation);
@@ -83,9 +80,37 @@ public FilterResult run(Filter filter, VariantEvaluation variantEvaluation) {
     protected FilterResult runFilterAndAddResult(Filter filter, Filterable filterable) {
         FilterResult filterResult = filter.runFilter(filterable);
         filterable.addFilterResult(filterResult);
+        addToFilterStats(filterResult, filterable);
         return filterResult;
     }
 
+    protected void runFilterAndAddResults(VariantFilter filter, List<VariantEvaluation> variantEvaluations) {
+        if (variantEvaluations.isEmpty()) {
+            return;
+        }
+        List<FilterResult> filterResults = filter.runFilter(variantEvaluations);
+        for (int i = 0; i < variantEvaluations.size(); i++) {
+            FilterResult filterResult = filterResults.get(i);
+            VariantEvaluation variantEvaluation = variantEvaluations.get(i);
+            variantEvaluation.addFilterResult(filterResult);
+            addToFilterStats(filterResult, variantEvaluation);
+        }
+    }
+
+    //the frequency data of the variant is only known once it has been run through the filter, so it is counted here
+    //rather than by going back over all the variants for the known variant report
+    private void addToFilterStats(FilterResult filterResult, Filterable filterable) {
+        filterStats.addResult(filterResult);
+        if (filterResult.wasRun() && filterResult.getFilterType() == FilterType.KNOWN_VARIANT_FILTER && filterable instanceof VariantEvaluation) {
+            filterStats.addKnownVariantData(((VariantEvaluation) filterable).getFrequencyData());
+        }
+    }
+
+    @Override
+    public FilterStats getFilterStats() {
+        return filterStats;
+    }
+
     protected Set<FilterType> getFilterTypes(List<VariantFilter> filters) {
         Set<FilterType> filtersRun = new LinkedHashSet<>();
         for (Filter filter : filters) {
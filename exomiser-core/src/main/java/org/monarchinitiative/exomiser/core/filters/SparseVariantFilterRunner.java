@@ -61,12 +61,9 @@ public List<VariantEvaluation> run(List<VariantFilter> filters, List<VariantEval
 
     @Override
     public List<VariantEvaluation> run(VariantFilter filter, List<VariantEvaluation> variantEvaluations) {
-        for (VariantEvaluation variantEvaluation : variantEvaluations) {
-            if (variantEvaluation.passedFilters()) {
-                run(filter, variantEvaluation);
-            }
-        }
-        return makeListofFilteredVariants(variantEvaluations);
+        List<VariantEvaluation> passedVariantEvaluations = makeListofFilteredVariants(variantEvaluations);
+        runFilterAndAddResults(filter, passedVariantEvaluations);
+        return makeListofFilteredVariants(passedVariantEvaluations);
     }
 
     private boolean ifThereAreNoFiltersToRun(List<VariantFilter> filters) {
@@ -79,15 +76,14 @@ private boolean ifThereAreNoFiltersToRun(List<VariantFilter> filters) {
 
     private List<VariantEvaluation> runFilters(List<VariantFilter> filters, List<VariantEvaluation> variantEvaluations) {
 
-        for (Filter filter : filters) {
-            for (VariantEvaluation variantEvaluation : variantEvaluations) {
-                //the only difference between sparse and full filtering is this if clause here...
-                if (variantEvaluation.passedFilters()) {
-                    run(filter, variantEvaluation);
-                }
-            }
+        List<VariantEvaluation> filteredVariantEvaluations = variantEvaluations;
+        for (VariantFilter filter : filters) {
+            //the only difference between sparse and full filtering is that only the variants which passed the previous
+            //filters are run through the next one
+            filteredVariantEvaluations = makeListofFilteredVariants(filteredVariantEvaluations);
+            runFilterAndAddResults(filter, filteredVariantEvaluations);
         }
-        return makeListofFilteredVariants(variantEvaluations);
+        return makeListofFilteredVariants(filteredVariantEvaluations);
     }
 
     private List<VariantEvaluation> makeListofFilteredVariants(List<VariantEvaluation> variantEvaluations) {
@@ -22,6 +22,9 @@
 
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This interface is implemented by classes that perform filtering of the
  * <b>variants</b> in the VCF file according to various criteria. A
@@ -42,4 +45,25 @@ public interface VariantFilter extends Filter<VariantEvaluation> {
     @Override
     FilterResult runFilter(VariantEvaluation variantEvaluation);
 
+    /**
+     * Runs the filter over a batch of {@code VariantEvaluation}. Filters which
+     * can share work between variants, such as fetching data or checking a
+     * threshold, should override this method. The default implementation
+     * simply calls {@link #runFilter(VariantEvaluation)} for each variant.
+     * <p>
+     * Like {@link #runFilter(VariantEvaluation)} this does not add the
+     * results to the variants.
+     *
+     * @param variantEvaluations to be filtered
+     * @return a {@code FilterResult} for each {@code VariantEvaluation} in the
+     * same order as the input.
+     */
+    default List<FilterResult> runFilter(List<VariantEvaluation> variantEvaluations) {
+        List<FilterResult> filterResults = new ArrayList<>(variantEvaluations.size());
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            filterResults.add(runFilter(variantEvaluation));
+        }
+        return filterResults;
+    }
+
 }
@@ -22,6 +22,8 @@
 
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 
+import java.util.List;
+
 /**
  * Decorator interface to provide data for variants just in time for the filter 
  * which requires it.
@@ -36,6 +38,17 @@ public interface VariantFilterDataProvider extends VariantFilter {
      */
     void provideVariantData(VariantEvaluation variantEvaluation);
 
+    /**
+     * Provides each of the variantEvaluations with the implementation-specific data. Implementations should override
+     * this to fetch the data for the batch in as few lookups as possible.
+     * @param variantEvaluations
+     */
+    default void provideVariantData(List<VariantEvaluation> variantEvaluations) {
+        for (VariantEvaluation variantEvaluation : variantEvaluations) {
+            provideVariantData(variantEvaluation);
+        }
+    }
+
     /**
      * @return the decorated filter which the DataProvider is providing data for.
      */
@@ -0,0 +1,49 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.filters;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+/**
+ * Implemented by {@link VariantFilter} whose result only depends on the raw VCF record, such as the QUAL, FILTER or
+ * position fields. These can be checked against the record before it is annotated so that records which cannot pass
+ * are never annotated. This is only safe where the variants failing the filters are not reported.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public interface VcfRecordFilter {
+
+    /**
+     * Checks the VCF record before it is annotated. This must not return false for any record which contains an allele
+     * which would pass {@link VariantFilter#runFilter(org.monarchinitiative.exomiser.core.model.VariantEvaluation)},
+     * although it can return true for records which then fail.
+     *
+     * @param chromosome     the integer chromosome of the record, or 0 if the contig is not recognised
+     * @param variantContext the VCF record
+     * @return false if none of the alleles of the record can pass the filter.
+     */
+    boolean mayPassRecord(int chromosome, VariantContext variantContext);
+
+    /**
+     * @return the type of the filter, used to count the records rejected before annotation as failed.
+     */
+    FilterType getFilterType();
+}
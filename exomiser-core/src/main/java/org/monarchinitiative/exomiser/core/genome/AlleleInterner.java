@@ -0,0 +1,53 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Canonicalises the short ref/alt alleles of the {@link org.monarchinitiative.exomiser.core.model.VariantEvaluation}s
+ * built from a VCF file. The great majority of these are SNVs and short InDels, so a sample produces millions of copies
+ * of a few hundred distinct strings. Longer alleles are unlikely to be repeated and are returned as they are.
+ * <p>
+ * The pool holds its strings weakly so it only ever contains the alleles of the variants which are still in use and
+ * is safe to share between analyses.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class AlleleInterner {
+
+    //alleles longer than this are unlikely to be repeated so there's no point holding onto them in the pool
+    static final int MAX_INTERNED_ALLELE_LENGTH = 8;
+
+    private final Interner<String> pool = Interners.newWeakInterner();
+
+    /**
+     * Returns the canonical instance of the given allele if it is no longer than {@link #MAX_INTERNED_ALLELE_LENGTH},
+     * otherwise the allele itself. Null values are returned as null.
+     */
+    public String intern(String allele) {
+        if (allele == null || allele.length() > MAX_INTERNED_ALLELE_LENGTH) {
+            return allele;
+        }
+        return pool.intern(allele);
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import htsjdk.tribble.readers.LineReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads lines from a BGZF (bgzip) compressed file, inflating the compressed blocks on a small pool of threads. The
+ * compressed blocks are read sequentially from disk and handed to the pool, a bounded number of blocks ahead of the
+ * consumer, and the inflated blocks are then split into lines in the original file order. This means reading a large
+ * bgzipped VCF file is no longer limited by the speed of a single-threaded inflate.
+ * <p>
+ * The inflater pool is supplied by, and belongs to, the caller so that a single pool can be shared by all the readers
+ * in an application, e.g. one created using {@link #newInflaterPool(int)}. A reader never shuts the pool down and holds
+ * no threads of its own, so an abandoned reader can only leave its few read-ahead blocks to finish inflating. Callers
+ * must still {@link #close()} the reader, which is done once the last line has been read, in order to release the file.
+ * <p>
+ * This class is not thread-safe - only a single consumer should be reading lines.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class BgzfLineReader implements LineReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(BgzfLineReader.class);
+
+    //see section 4.1 of the SAM specification https://samtools.github.io/hts-specs/SAMv1.pdf
+    private static final int GZIP_ID1 = 31;
+    private static final int GZIP_ID2 = 139;
+    private static final int GZIP_CM_DEFLATE = 8;
+    private static final int GZIP_FLG_FEXTRA = 4;
+    private static final int BGZF_SI1 = 66;
+    private static final int BGZF_SI2 = 67;
+    private static final int BGZF_FIXED_HEADER_LENGTH = 12;
+    private static final int BGZF_FOOTER_LENGTH = 8;
+    private static final byte[] EMPTY_BLOCK = new byte[0];
+
+    private final DataInputStream inputStream;
+    private final ExecutorService inflaterPool;
+    private final int maxPendingBlocks;
+    private final Deque<Future<byte[]>> pendingBlocks;
+
+    private boolean endOfFile = false;
+    private boolean closed = false;
+    private byte[] currentBlock = EMPTY_BLOCK;
+    private int blockPosition = 0;
+    private final LineBuffer lineBuffer = new LineBuffer();
+
+    /**
+     * @param bgzfPath     the BGZF file to read
+     * @param inflaterPool the pool on which to inflate the blocks. This is not shut down by the reader.
+     * @param numThreads   the number of pool threads this reader should aim to keep busy
+     */
+    public BgzfLineReader(Path bgzfPath, ExecutorService inflaterPool, int numThreads) {
+        try {
+            this.inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(bgzfPath), 1 << 16));
+        } catch (IOException e) {
+            throw new BgzfIoException("Unable to open BGZF file " + bgzfPath, e);
+        }
+        this.inflaterPool = inflaterPool;
+        int threads = Math.max(1, numThreads);
+        //keep enough blocks in-flight to keep all the threads busy while the consumer is parsing lines
+        this.maxPendingBlocks = threads * 4;
+        this.pendingBlocks = new ArrayDeque<>(maxPendingBlocks);
+        logger.debug("Reading BGZF file {} using {} inflater threads", bgzfPath, threads);
+    }
+
+    /**
+     * Creates a pool of daemon threads suitable for sharing between {@link BgzfLineReader}s. Idle threads are released
+     * after a minute so an application which only occasionally reads BGZF files does not hold onto them.
+     *
+     * @param numThreads the maximum number of inflater threads
+     * @return a new pool, owned by the caller
+     */
+    public static ExecutorService newInflaterPool(int numThreads) {
+        int threads = Math.max(1, numThreads);
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("bgzf-inflate-%d")
+                .build());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+
+    /**
+     * Checks the first block header of a file to determine whether it is BGZF-compressed.
+     *
+     * @param path the path to check
+     * @return true if the file exists and starts with a BGZF block header
+     */
+    public static boolean isBgzfFile(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        byte[] header = new byte[BGZF_FIXED_HEADER_LENGTH + 4];
+        try (DataInputStream dataInputStream = new DataInputStream(Files.newInputStream(path))) {
+            dataInputStream.readFully(header);
+        } catch (IOException e) {
+            return false;
+        }
+        return (header[0] & 0xff) == GZIP_ID1
+                && (header[1] & 0xff) == GZIP_ID2
+                && (header[2] & 0xff) == GZIP_CM_DEFLATE
+                && (header[3] & GZIP_FLG_FEXTRA) != 0
+                && (header[12] & 0xff) == BGZF_SI1
+                && (header[13] & 0xff) == BGZF_SI2;
+    }
+
+    /**
+     * @return the next line, without the line terminator, or null if the end of the file has been reached.
+     */
+    @Override
+    public String readLine() {
+        while (true) {
+            if (blockPosition >= currentBlock.length) {
+                if (!nextBlock()) {
+                    return lineBuffer.isEmpty() ? null : lineBuffer.toStringAndClear();
+                }
+                continue;
+            }
+            int newLine = indexOfNewLine(currentBlock, blockPosition);
+            if (newLine == -1) {
+                lineBuffer.append(currentBlock, blockPosition, currentBlock.length - blockPosition);
+                blockPosition = currentBlock.length;
+                continue;
+            }
+            String line;
+            if (lineBuffer.isEmpty()) {
+                line = toLine(currentBlock, blockPosition, newLine - blockPosition);
+            } else {
+                lineBuffer.append(currentBlock, blockPosition, newLine - blockPosition);
+                line = lineBuffer.toStringAndClear();
+            }
+            blockPosition = newLine + 1;
+            return line;
+        }
+    }
+
+    private static int indexOfNewLine(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String toLine(byte[] bytes, int offset, int length) {
+        if (length > 0 && bytes[offset + length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private boolean nextBlock() {
+        fillPendingBlocks();
+        Future<byte[]> nextBlock = pendingBlocks.pollFirst();
+        if (nextBlock == null) {
+            //nothing left to read, so there's no need to hold onto the file any more
+            close();
+            return false;
+        }
+        try {
+            currentBlock = nextBlock.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BgzfIoException("Interrupted while inflating BGZF block", e);
+        } catch (ExecutionException e) {
+            throw new BgzfIoException("Unable to inflate BGZF block", e.getCause());
+        }
+        blockPosition = 0;
+        return true;
+    }
+
+    private void fillPendingBlocks() {
+        while (!endOfFile && pendingBlocks.size() < maxPendingBlocks) {
+            CompressedBlock compressedBlock = readCompressedBlock();
+            if (compressedBlock == null) {
+                endOfFile = true;
+            } else if (compressedBlock.uncompressedSize > 0) {
+                //the BGZF EOF marker is an empty block, which can also legitimately be found mid-file
+                pendingBlocks.addLast(inflaterPool.submit(compressedBlock::inflate));
+            }
+        }
+    }
+
+    private CompressedBlock readCompressedBlock() {
+        try {
+            int id1 = inputStream.read();
+            if (id1 == -1) {
+                return null;
+            }
+            byte[] header = new byte[BGZF_FIXED_HEADER_LENGTH];
+            header[0] = (byte) id1;
+            inputStream.readFully(header, 1, BGZF_FIXED_HEADER_LENGTH - 1);
+            if ((header[0] & 0xff) != GZIP_ID1 || (header[1] & 0xff) != GZIP_ID2 || (header[2] & 0xff) != GZIP_CM_DEFLATE || (header[3] & GZIP_FLG_FEXTRA) == 0) {
+                throw new BgzfIoException("Invalid BGZF block header", null);
+            }
+            int extraLength = unsignedShort(header, 10);
+            byte[] extra = new byte[extraLength];
+            inputStream.readFully(extra);
+            int blockSize = findBlockSize(extra);
+            int remaining = blockSize - BGZF_FIXED_HEADER_LENGTH - extraLength;
+            byte[] data = new byte[remaining];
+            inputStream.readFully(data);
+            return new CompressedBlock(data);
+        } catch (IOException e) {
+            throw new BgzfIoException("Unable to read BGZF block", e);
+        }
+    }
+
+    private static int findBlockSize(byte[] extra) {
+        int i = 0;
+        while (i + 4 <= extra.length) {
+            int subfieldLength = unsignedShort(extra, i + 2);
+            if ((extra[i] & 0xff) == BGZF_SI1 && (extra[i + 1] & 0xff) == BGZF_SI2 && subfieldLength == 2) {
+                //BSIZE is the total block size minus 1
+                return unsignedShort(extra, i + 4) + 1;
+            }
+            i += 4 + subfieldLength;
+        }
+        throw new BgzfIoException("BGZF block is missing the BC extra subfield", null);
+    }
+
+    private static int unsignedShort(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8);
+    }
+
+    private static int littleEndianInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8) | ((bytes[offset + 2] & 0xff) << 16) | ((bytes[offset + 3] & 0xff) << 24);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        //the pool is shared, so only cancel this reader's blocks
+        for (Future<byte[]> pendingBlock : pendingBlocks) {
+            pendingBlock.cancel(false);
+        }
+        pendingBlocks.clear();
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            logger.debug("Unable to close BGZF input stream", e);
+        }
+    }
+
+    /**
+     * The deflated data, CRC32 and uncompressed size of a single BGZF block.
+     */
+    private static class CompressedBlock {
+
+        private final byte[] data;
+        private final int compressedLength;
+        private final int uncompressedSize;
+
+        CompressedBlock(byte[] data) {
+            this.data = data;
+            this.compressedLength = data.length - BGZF_FOOTER_LENGTH;
+            this.uncompressedSize = littleEndianInt(data, data.length - 4);
+        }
+
+        byte[] inflate() throws DataFormatException {
+            byte[] inflated = new byte[uncompressedSize];
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(data, 0, compressedLength);
+                int inflatedLength = inflater.inflate(inflated);
+                if (inflatedLength != uncompressedSize) {
+                    throw new DataFormatException("Expected " + uncompressedSize + " bytes but inflated " + inflatedLength);
+                }
+            } finally {
+                inflater.end();
+            }
+            CRC32 crc32 = new CRC32();
+            crc32.update(inflated, 0, inflated.length);
+            if ((int) crc32.getValue() != littleEndianInt(data, compressedLength)) {
+                throw new DataFormatException("CRC32 mismatch in BGZF block");
+            }
+            return inflated;
+        }
+    }
+
+    /**
+     * Accumulates the bytes of a line which is split across BGZF blocks.
+     */
+    private static class LineBuffer {
+
+        private byte[] bytes = new byte[1024];
+        private int length = 0;
+
+        boolean isEmpty() {
+            return length == 0;
+        }
+
+        void append(byte[] source, int offset, int count) {
+            if (length + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+            }
+            System.arraycopy(source, offset, bytes, length, count);
+            length += count;
+        }
+
+        String toStringAndClear() {
+            String line = toLine(bytes, 0, length);
+            length = 0;
+            return line;
+        }
+    }
+
+    public static class BgzfIoException extends RuntimeException {
+
+        public BgzfIoException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
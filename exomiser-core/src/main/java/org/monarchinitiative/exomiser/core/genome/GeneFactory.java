@@ -27,7 +27,6 @@
 
 import com.google.common.collect.ImmutableSet;
 import de.charite.compbio.jannovar.data.JannovarData;
-import de.charite.compbio.jannovar.reference.TranscriptModel;
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.model.GeneIdentifier;
 import org.slf4j.Logger;
@@ -35,8 +34,8 @@
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
-import java.util.function.Function;
+import java.util.List;
+import java.util.Set;
 
 import static java.util.stream.Collectors.toList;
 
@@ -51,15 +50,23 @@ public class GeneFactory {
 
     private static final Logger logger = LoggerFactory.getLogger(GeneFactory.class);
 
-    private final JannovarData jannovarData;
+    private final KnownGeneTable knownGeneTable;
 
     @Autowired
+    public GeneFactory(KnownGeneTable knownGeneTable) {
+        this.knownGeneTable = knownGeneTable;
+    }
+
+    /**
+     * Builds the {@link KnownGeneTable} directly from the transcript models. Prefer using a pre-computed table loaded
+     * with the {@link KnownGeneTableIO} as this iterates over all the transcript models.
+     */
     public GeneFactory(JannovarData jannovarData) {
-        this.jannovarData = jannovarData;
+        this(KnownGeneTable.fromJannovarData(jannovarData));
     }
 
     /**
-     * Returns a list of genes from the JannovarData TranscriptModels.
+     * Returns a list of genes from the known gene table.
      * @return
      */
     public List<Gene> createKnownGenes() {
@@ -73,51 +80,11 @@ public List<Gene> createKnownGenes() {
     }
 
     public Set<GeneIdentifier> createKnownGeneIds() {
-        ImmutableSet.Builder<GeneIdentifier> geneIdentifiers = ImmutableSet.builder();
-        int identifiers = 0;
-        int noEntrezId = 0;
-        for (String geneSymbol : jannovarData.getTmByGeneSymbol().keySet()) {
-            Collection<TranscriptModel> transcriptModels = jannovarData.getTmByGeneSymbol().get(geneSymbol);
-            GeneIdentifier geneIdentifier = transcriptModels.stream()
-                    .filter(Objects::nonNull)
-                    .filter(transcriptModel -> transcriptModel.getGeneID() != null)
-                    .filter(transcriptModel -> !transcriptModel.getGeneID().equals("null"))
-                    .map(toGeneIdentifier())
-                    .distinct()
-                    .findFirst()
-                    .orElse(GeneIdentifier.builder().geneSymbol(geneSymbol).build());
-
-            if (geneIdentifier.getEntrezId().isEmpty()) {
-                noEntrezId++;
-                logger.debug("No geneId associated with gene symbol {} geneId set to {}", geneSymbol, geneIdentifier);
-            }
-            identifiers++;
-            geneIdentifiers.add(geneIdentifier);
-        }
-        int geneIds = identifiers - noEntrezId;
-        logger.info("Created {} gene identifiers ({} genes, {} without EntrezId)", identifiers, geneIds, noEntrezId);
-        return geneIdentifiers.build();
+        return ImmutableSet.copyOf(knownGeneTable.getGeneIdentifiers());
     }
 
-    private Function<TranscriptModel, GeneIdentifier> toGeneIdentifier() {
-        //logger.info("{} {} {} {}", transcriptModel.getGeneSymbol(), transcriptModel.getGeneID(), transcriptModel.getAccession(), transcriptModel.getAltGeneIDs());
-        //Using ucsc_hg19: LMOD1 ENTREZ25802 uc010ppu.2 null (pre-jannovar 0.19)
-        //Using hg19_ucsc: LMOD1 25802 uc010ppu.2 {CCDS_ID=CCDS53457, COSMIC_ID=LMOD1, ENSEMBL_GENE_ID=ENSG00000163431, ENTREZ_ID=25802, HGNC_ALIAS=64kD|D1|1D, HGNC_ID=HGNC:6647, HGNC_PREVIOUS=, HGNC_SYMBOL=LMOD1, MGD_ID=MGI:2135671, OMIM_ID=602715, PUBMED_ID=, REFSEQ_ACCESSION=NM_012134, RGD_ID=RGD:1307236, UCSC_ID=uc057oju.1, UNIPROT_ID=P29536, VEGA_ID=OTTHUMG00000035802}
-        //Using hg19_ensembl: LMOD1 ENSG00000163431 ENST00000367288 {CCDS_ID=CCDS53457, COSMIC_ID=LMOD1, ENSEMBL_GENE_ID=ENSG00000163431, ENTREZ_ID=25802, HGNC_ALIAS=64kD|D1|1D, HGNC_ID=HGNC:6647, HGNC_PREVIOUS=, HGNC_SYMBOL=LMOD1, MGD_ID=MGI:2135671, OMIM_ID=602715, PUBMED_ID=, REFSEQ_ACCESSION=NM_012134, RGD_ID=RGD:1307236, UCSC_ID=uc057oju.1, UNIPROT_ID=P29536, VEGA_ID=OTTHUMG00000035802}
-        return transcriptModel -> {
-            String geneId = transcriptModel.getGeneID();
-            String geneSymbol = transcriptModel.getGeneSymbol();
-            Map<String, String> altGeneIds = transcriptModel.getAltGeneIDs();
-            return GeneIdentifier.builder()
-                    .geneSymbol(geneSymbol)
-                    .geneId((geneId == null || geneId.equals("null"))? "" : geneId)
-                    .hgncId(altGeneIds.getOrDefault("HGNC_ID", ""))
-                    .hgncSymbol(altGeneIds.getOrDefault("HGNC_SYMBOL", ""))
-                    .entrezId(altGeneIds.getOrDefault("ENTREZ_ID", ""))
-                    .ensemblId(altGeneIds.getOrDefault("ENSEMBL_GENE_ID", ""))
-                    .ucscId(altGeneIds.getOrDefault("UCSC_ID", ""))
-                    .build();
-        };
+    public KnownGeneTable getKnownGeneTable() {
+        return knownGeneTable;
     }
 
 }
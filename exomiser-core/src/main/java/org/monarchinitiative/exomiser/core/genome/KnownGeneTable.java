@@ -0,0 +1,277 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.reference.GenomeInterval;
+import de.charite.compbio.jannovar.reference.Strand;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import org.monarchinitiative.exomiser.core.analysis.util.ChromosomalRegionIndex;
+import org.monarchinitiative.exomiser.core.model.ChromosomalRegion;
+import org.monarchinitiative.exomiser.core.model.GeneIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Precomputed table of the known genes and their genomic extent. This is derived once from the {@link JannovarData}
+ * transcript models and can then be written to and re-loaded from disk using the {@link KnownGeneTableIO} so that
+ * the gene identifiers can be created without iterating over every transcript model.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class KnownGeneTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnownGeneTable.class);
+
+    private final List<GeneRegion> geneRegions;
+    private final Map<String, GeneRegion> geneRegionsBySymbol;
+    private final Map<Integer, GeneRegion> geneRegionsByEntrezId;
+    private final ChromosomalRegionIndex<GeneRegion> geneRegionIndex;
+
+    private KnownGeneTable(List<GeneRegion> geneRegions) {
+        this.geneRegions = ImmutableList.copyOf(geneRegions);
+        this.geneRegionsBySymbol = new HashMap<>(geneRegions.size() * 2);
+        this.geneRegionsByEntrezId = new HashMap<>(geneRegions.size() * 2);
+        for (GeneRegion geneRegion : geneRegions) {
+            GeneIdentifier geneIdentifier = geneRegion.getGeneIdentifier();
+            geneRegionsBySymbol.putIfAbsent(geneIdentifier.getGeneSymbol(), geneRegion);
+            if (geneIdentifier.hasEntrezId()) {
+                geneRegionsByEntrezId.putIfAbsent(geneIdentifier.getEntrezIdAsInteger(), geneRegion);
+            }
+        }
+        this.geneRegionIndex = new ChromosomalRegionIndex<>(geneRegions);
+    }
+
+    public static KnownGeneTable of(List<GeneRegion> geneRegions) {
+        return new KnownGeneTable(geneRegions);
+    }
+
+    /**
+     * Creates a new table from the transcript models in the {@link JannovarData}. This is the only place where the
+     * transcript models are iterated over - once created the table should be written alongside the Jannovar data using
+     * {@link KnownGeneTableIO#write(KnownGeneTable, java.nio.file.Path, String)}.
+     *
+     * @param jannovarData the source of the transcript models
+     * @return a new {@code KnownGeneTable}
+     */
+    public static KnownGeneTable fromJannovarData(JannovarData jannovarData) {
+        List<GeneRegion> geneRegions = new ArrayList<>();
+        int noEntrezId = 0;
+        for (Map.Entry<String, Collection<TranscriptModel>> entry : jannovarData.getTmByGeneSymbol().asMap().entrySet()) {
+            String geneSymbol = entry.getKey();
+            Collection<TranscriptModel> transcriptModels = entry.getValue();
+            GeneIdentifier geneIdentifier = transcriptModels.stream()
+                    .filter(Objects::nonNull)
+                    .filter(transcriptModel -> transcriptModel.getGeneID() != null)
+                    .filter(transcriptModel -> !transcriptModel.getGeneID().equals("null"))
+                    .map(KnownGeneTable::toGeneIdentifier)
+                    .distinct()
+                    .findFirst()
+                    .orElse(GeneIdentifier.builder().geneSymbol(geneSymbol).build());
+
+            if (geneIdentifier.getEntrezId().isEmpty()) {
+                noEntrezId++;
+                logger.debug("No geneId associated with gene symbol {} geneId set to {}", geneSymbol, geneIdentifier);
+            }
+            geneRegions.add(toGeneRegion(geneIdentifier, transcriptModels));
+        }
+        int identifiers = geneRegions.size();
+        logger.info("Created {} gene identifiers ({} genes, {} without EntrezId)", identifiers, identifiers - noEntrezId, noEntrezId);
+        return new KnownGeneTable(geneRegions);
+    }
+
+    private static GeneIdentifier toGeneIdentifier(TranscriptModel transcriptModel) {
+        //logger.info("{} {} {} {}", transcriptModel.getGeneSymbol(), transcriptModel.getGeneID(), transcriptModel.getAccession(), transcriptModel.getAltGeneIDs());
+        //Using ucsc_hg19: LMOD1 ENTREZ25802 uc010ppu.2 null (pre-jannovar 0.19)
+        //Using hg19_ucsc: LMOD1 25802 uc010ppu.2 {CCDS_ID=CCDS53457, COSMIC_ID=LMOD1, ENSEMBL_GENE_ID=ENSG00000163431, ENTREZ_ID=25802, HGNC_ALIAS=64kD|D1|1D, HGNC_ID=HGNC:6647, HGNC_PREVIOUS=, HGNC_SYMBOL=LMOD1, MGD_ID=MGI:2135671, OMIM_ID=602715, PUBMED_ID=, REFSEQ_ACCESSION=NM_012134, RGD_ID=RGD:1307236, UCSC_ID=uc057oju.1, UNIPROT_ID=P29536, VEGA_ID=OTTHUMG00000035802}
+        //Using hg19_ensembl: LMOD1 ENSG00000163431 ENST00000367288 {CCDS_ID=CCDS53457, COSMIC_ID=LMOD1, ENSEMBL_GENE_ID=ENSG00000163431, ENTREZ_ID=25802, HGNC_ALIAS=64kD|D1|1D, HGNC_ID=HGNC:6647, HGNC_PREVIOUS=, HGNC_SYMBOL=LMOD1, MGD_ID=MGI:2135671, OMIM_ID=602715, PUBMED_ID=, REFSEQ_ACCESSION=NM_012134, RGD_ID=RGD:1307236, UCSC_ID=uc057oju.1, UNIPROT_ID=P29536, VEGA_ID=OTTHUMG00000035802}
+        String geneId = transcriptModel.getGeneID();
+        String geneSymbol = transcriptModel.getGeneSymbol();
+        Map<String, String> altGeneIds = transcriptModel.getAltGeneIDs();
+        return GeneIdentifier.builder()
+                .geneSymbol(geneSymbol)
+                .geneId((geneId == null || geneId.equals("null")) ? "" : geneId)
+                .hgncId(altGeneIds.getOrDefault("HGNC_ID", ""))
+                .hgncSymbol(altGeneIds.getOrDefault("HGNC_SYMBOL", ""))
+                .entrezId(altGeneIds.getOrDefault("ENTREZ_ID", ""))
+                .ensemblId(altGeneIds.getOrDefault("ENSEMBL_GENE_ID", ""))
+                .ucscId(altGeneIds.getOrDefault("UCSC_ID", ""))
+                .build();
+    }
+
+    /**
+     * The extent of a gene is taken to be from the lowest start to the highest end of all the transcripts for the gene
+     * located on the same chromosome as the first transcript. Positions are one-based on the forward strand.
+     */
+    private static GeneRegion toGeneRegion(GeneIdentifier geneIdentifier, Collection<TranscriptModel> transcriptModels) {
+        int chr = 0;
+        int start = Integer.MAX_VALUE;
+        int end = 0;
+        for (TranscriptModel transcriptModel : transcriptModels) {
+            if (transcriptModel == null) {
+                continue;
+            }
+            GenomeInterval txRegion = transcriptModel.getTXRegion().withStrand(Strand.FWD);
+            if (chr == 0) {
+                chr = txRegion.getChr();
+            }
+            if (txRegion.getChr() == chr) {
+                start = Math.min(start, txRegion.getBeginPos() + 1);
+                end = Math.max(end, txRegion.getEndPos());
+            }
+        }
+        if (start > end) {
+            return new GeneRegion(geneIdentifier, 0, 0, 0);
+        }
+        return new GeneRegion(geneIdentifier, chr, start, end);
+    }
+
+    public int size() {
+        return geneRegions.size();
+    }
+
+    public List<GeneRegion> getGeneRegions() {
+        return geneRegions;
+    }
+
+    /**
+     * @return the identifiers of all the known genes in the order in which they were added to the table.
+     */
+    public List<GeneIdentifier> getGeneIdentifiers() {
+        return geneRegions.stream().map(GeneRegion::getGeneIdentifier).collect(toList());
+    }
+
+    public Optional<GeneIdentifier> getGeneIdentifierForSymbol(String geneSymbol) {
+        GeneRegion geneRegion = geneRegionsBySymbol.get(geneSymbol);
+        return geneRegion == null ? Optional.empty() : Optional.of(geneRegion.getGeneIdentifier());
+    }
+
+    public Optional<GeneIdentifier> getGeneIdentifierForEntrezId(int entrezId) {
+        GeneRegion geneRegion = geneRegionsByEntrezId.get(entrezId);
+        return geneRegion == null ? Optional.empty() : Optional.of(geneRegion.getGeneIdentifier());
+    }
+
+    /**
+     * Use one-based co-ordinates for this method.
+     */
+    public List<GeneIdentifier> getGeneIdentifiersOverlappingPosition(int chromosome, int position) {
+        return toGeneIdentifiers(geneRegionIndex.getRegionsOverlappingPosition(chromosome, position));
+    }
+
+    /**
+     * Use one-based, fully-closed co-ordinates for this method.
+     */
+    public List<GeneIdentifier> getGeneIdentifiersOverlappingInterval(int chromosome, int start, int end) {
+        return toGeneIdentifiers(geneRegionIndex.getRegionsOverlappingInterval(chromosome, start, end));
+    }
+
+    private List<GeneIdentifier> toGeneIdentifiers(List<GeneRegion> regions) {
+        return regions.stream().map(GeneRegion::getGeneIdentifier).collect(toList());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        KnownGeneTable that = (KnownGeneTable) o;
+        return Objects.equals(geneRegions, that.geneRegions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(geneRegions);
+    }
+
+    @Override
+    public String toString() {
+        return "KnownGeneTable{" +
+                "genes=" + geneRegions.size() +
+                '}';
+    }
+
+    /**
+     * The genomic extent of a known gene.
+     */
+    public static class GeneRegion implements ChromosomalRegion {
+
+        private final GeneIdentifier geneIdentifier;
+        private final int chromosome;
+        private final int start;
+        private final int end;
+
+        public GeneRegion(GeneIdentifier geneIdentifier, int chromosome, int start, int end) {
+            this.geneIdentifier = Objects.requireNonNull(geneIdentifier, "GeneRegion geneIdentifier cannot be null");
+            this.chromosome = chromosome;
+            this.start = start;
+            this.end = end;
+        }
+
+        public GeneIdentifier getGeneIdentifier() {
+            return geneIdentifier;
+        }
+
+        @Override
+        public int getChromosome() {
+            return chromosome;
+        }
+
+        @Override
+        public int getStart() {
+            return start;
+        }
+
+        @Override
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            GeneRegion that = (GeneRegion) o;
+            return chromosome == that.chromosome &&
+                    start == that.start &&
+                    end == that.end &&
+                    Objects.equals(geneIdentifier, that.geneIdentifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(geneIdentifier, chromosome, start, end);
+        }
+
+        @Override
+        public String toString() {
+            return "GeneRegion{" +
+                    "geneIdentifier=" + geneIdentifier +
+                    ", chromosome=" + chromosome +
+                    ", start=" + start +
+                    ", end=" + end +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import org.monarchinitiative.exomiser.core.genome.KnownGeneTable.GeneRegion;
+import org.monarchinitiative.exomiser.core.model.GeneIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes a {@link KnownGeneTable} as a versioned, tab-delimited file. The first line of the file records the
+ * format version and the data release the table was built from so that a stale table can be detected
+ * and rebuilt. Loading the table is linear in the number of genes and requires no transcript models.
+ * <p>
+ * Tables are built by the exomiser-db build step and written alongside the transcript data file, e.g. hg19_ucsc.ser
+ * will have a hg19_ucsc_genes.tsv (see {@link #tablePathFor(Path)}), tagged with the data release.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class KnownGeneTableIO {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnownGeneTableIO.class);
+
+    public static final String FORMAT_VERSION = "1";
+
+    private static final String TAB_DELIMITER = "\t";
+    private static final String VERSION_LINE_PREFIX = "#exomiser-known-genes";
+    private static final String COLUMN_HEADER = "#chr\tstart\tend\tgeneSymbol\tgeneId\thgncId\thgncSymbol\tentrezId\tensemblId\tucscId";
+    private static final int NUM_COLUMNS = 10;
+
+    /*
+     * This shouldn't be instantiated.
+     */
+    private KnownGeneTableIO() {}
+
+    /**
+     * Returns the path of the table for a Jannovar transcript data file, e.g. hg19_ucsc.ser -> hg19_ucsc_genes.tsv in
+     * the same directory.
+     *
+     * @param transcriptFilePath path to the Jannovar transcript data file
+     * @return the path of the known gene table for the transcript data
+     */
+    public static Path tablePathFor(Path transcriptFilePath) {
+        String transcriptFileName = transcriptFilePath.getFileName().toString();
+        String baseName = transcriptFileName.endsWith(".ser") ? transcriptFileName.substring(0, transcriptFileName.length() - 4) : transcriptFileName;
+        return transcriptFilePath.resolveSibling(baseName + "_genes.tsv");
+    }
+
+    /**
+     * Writes the table to the specified path, tagged with the data release from which it was built.
+     *
+     * @param knownGeneTable the table to write
+     * @param tablePath      destination file
+     * @param release        the data release e.g. '1707'
+     */
+    public static void write(KnownGeneTable knownGeneTable, Path tablePath, String release) {
+        try (BufferedWriter writer = Files.newBufferedWriter(tablePath, StandardCharsets.UTF_8)) {
+            writer.write(versionLine(release));
+            writer.newLine();
+            writer.write(COLUMN_HEADER);
+            writer.newLine();
+            for (GeneRegion geneRegion : knownGeneTable.getGeneRegions()) {
+                writer.write(toLine(geneRegion));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new KnownGeneTableIoException("Unable to write known gene table to " + tablePath, e);
+        }
+        logger.info("Written {} known genes for release {} to {}", knownGeneTable.size(), release, tablePath);
+    }
+
+    private static String versionLine(String release) {
+        return VERSION_LINE_PREFIX + TAB_DELIMITER + "format=" + FORMAT_VERSION + TAB_DELIMITER + "release=" + release;
+    }
+
+    private static String toLine(GeneRegion geneRegion) {
+        GeneIdentifier geneIdentifier = geneRegion.getGeneIdentifier();
+        return new StringBuilder()
+                .append(geneRegion.getChromosome()).append(TAB_DELIMITER)
+                .append(geneRegion.getStart()).append(TAB_DELIMITER)
+                .append(geneRegion.getEnd()).append(TAB_DELIMITER)
+                .append(geneIdentifier.getGeneSymbol()).append(TAB_DELIMITER)
+                .append(geneIdentifier.getGeneId()).append(TAB_DELIMITER)
+                .append(geneIdentifier.getHgncId()).append(TAB_DELIMITER)
+                .append(geneIdentifier.getHgncSymbol()).append(TAB_DELIMITER)
+                .append(geneIdentifier.getEntrezId()).append(TAB_DELIMITER)
+                .append(geneIdentifier.getEnsemblId()).append(TAB_DELIMITER)
+                .append(geneIdentifier.getUcscId())
+                .toString();
+    }
+
+    /**
+     * Checks whether a table exists at the given path which was written using the current format version from the
+     * specified data release.
+     *
+     * @param tablePath path to the table file
+     * @param release   the expected data release
+     * @return true if the table can be loaded for the release, otherwise false
+     */
+    public static boolean isCurrent(Path tablePath, String release) {
+        if (!Files.isRegularFile(tablePath)) {
+            return false;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(tablePath, StandardCharsets.UTF_8)) {
+            String versionLine = reader.readLine();
+            return versionLine(release).equals(versionLine);
+        } catch (IOException e) {
+            logger.debug("Unable to read version of known gene table {}", tablePath, e);
+        }
+        return false;
+    }
+
+    public static KnownGeneTable read(Path tablePath) {
+        List<GeneRegion> geneRegions = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(tablePath, StandardCharsets.UTF_8)) {
+            String versionLine = reader.readLine();
+            checkFormatVersion(tablePath, versionLine);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#") || line.isEmpty()) {
+                    continue;
+                }
+                geneRegions.add(parseLine(line));
+            }
+        } catch (IOException e) {
+            throw new KnownGeneTableIoException("Unable to read known gene table from " + tablePath, e);
+        }
+        logger.info("Loaded {} known genes from {}", geneRegions.size(), tablePath);
+        return KnownGeneTable.of(geneRegions);
+    }
+
+    private static void checkFormatVersion(Path tablePath, String versionLine) {
+        if (versionLine == null || !versionLine.startsWith(VERSION_LINE_PREFIX + TAB_DELIMITER + "format=" + FORMAT_VERSION + TAB_DELIMITER)) {
+            throw new KnownGeneTableIoException(String.format("Known gene table %s is not in format version %s. Found: '%s'", tablePath, FORMAT_VERSION, versionLine), null);
+        }
+    }
+
+    private static GeneRegion parseLine(String line) {
+        String[] fields = line.split(TAB_DELIMITER, -1);
+        if (fields.length != NUM_COLUMNS) {
+            throw new KnownGeneTableIoException("Expected " + NUM_COLUMNS + " columns but found " + fields.length + " in line: " + line, null);
+        }
+        GeneIdentifier geneIdentifier = GeneIdentifier.builder()
+                .geneSymbol(fields[3])
+                .geneId(fields[4])
+                .hgncId(fields[5])
+                .hgncSymbol(fields[6])
+                .entrezId(fields[7])
+                .ensemblId(fields[8])
+                .ucscId(fields[9])
+                .build();
+        int chr = Integer.parseInt(fields[0]);
+        int start = Integer.parseInt(fields[1]);
+        int end = Integer.parseInt(fields[2]);
+        return new GeneRegion(geneIdentifier, chr, start, end);
+    }
+
+    public static class KnownGeneTableIoException extends RuntimeException {
+
+        public KnownGeneTableIoException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+}
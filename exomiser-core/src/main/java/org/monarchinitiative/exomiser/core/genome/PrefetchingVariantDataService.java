@@ -0,0 +1,339 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import org.monarchinitiative.exomiser.core.model.RegulatoryFeature;
+import org.monarchinitiative.exomiser.core.model.TopologicalDomain;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Decorator for a {@link VariantDataService} which looks up the frequency and pathogenicity data for the next chunk of
+ * variants in a stream on a background thread pool while the current chunk is being filtered, so that the database
+ * and tabix I/O overlaps with the filtering work.
+ * <p>
+ * Variants are only prefetched when a stream is passed through {@link #prefetchVariantData(Stream, Set, Set)}. Any
+ * request which was not prefetched, or was prefetched for different sources, is passed straight through to the
+ * decorated service. Bulk requests are served from the prefetched data where possible with only the remaining variants
+ * being passed through.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class PrefetchingVariantDataService implements VariantDataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchingVariantDataService.class);
+
+    private final VariantDataService variantDataService;
+    private final ExecutorService executorService;
+    private final int chunkSize;
+
+    private final Map<Variant, PrefetchedChunk> prefetchedChunks = new ConcurrentHashMap<>();
+
+    public PrefetchingVariantDataService(VariantDataService variantDataService, ExecutorService executorService, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be greater than zero but was " + chunkSize);
+        }
+        this.variantDataService = variantDataService;
+        this.executorService = executorService;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public FrequencyData getVariantFrequencyData(Variant variant, Set<FrequencySource> frequencySources) {
+        PrefetchedChunk prefetchedChunk = prefetchedChunks.get(variant);
+        if (prefetchedChunk != null && prefetchedChunk.frequencySources.equals(frequencySources)) {
+            FrequencyData frequencyData = prefetchedChunk.getFrequencyData(variant);
+            if (frequencyData != null) {
+                return frequencyData;
+            }
+        }
+        return variantDataService.getVariantFrequencyData(variant, frequencySources);
+    }
+
+    @Override
+    public PathogenicityData getVariantPathogenicityData(Variant variant, Set<PathogenicitySource> pathogenicitySources) {
+        PrefetchedChunk prefetchedChunk = prefetchedChunks.get(variant);
+        if (prefetchedChunk != null && prefetchedChunk.pathogenicitySources.equals(pathogenicitySources)) {
+            PathogenicityData pathogenicityData = prefetchedChunk.getPathogenicityData(variant);
+            if (pathogenicityData != null) {
+                return pathogenicityData;
+            }
+        }
+        return variantDataService.getVariantPathogenicityData(variant, pathogenicitySources);
+    }
+
+    @Override
+    public Map<Variant, FrequencyData> getVariantFrequencyData(Collection<? extends Variant> variants, Set<FrequencySource> frequencySources) {
+        Map<Variant, FrequencyData> results = new HashMap<>();
+        List<Variant> notPrefetched = new ArrayList<>();
+        for (Variant variant : variants) {
+            PrefetchedChunk prefetchedChunk = prefetchedChunks.get(variant);
+            FrequencyData frequencyData = null;
+            if (prefetchedChunk != null && prefetchedChunk.frequencySources.equals(frequencySources)) {
+                frequencyData = prefetchedChunk.getFrequencyData(variant);
+            }
+            if (frequencyData == null) {
+                notPrefetched.add(variant);
+            } else {
+                results.put(variant, frequencyData);
+            }
+        }
+        if (!notPrefetched.isEmpty()) {
+            results.putAll(variantDataService.getVariantFrequencyData(notPrefetched, frequencySources));
+        }
+        return results;
+    }
+
+    @Override
+    public Map<Variant, PathogenicityData> getVariantPathogenicityData(Collection<? extends Variant> variants, Set<PathogenicitySource> pathogenicitySources) {
+        Map<Variant, PathogenicityData> results = new HashMap<>();
+        List<Variant> notPrefetched = new ArrayList<>();
+        for (Variant variant : variants) {
+            PrefetchedChunk prefetchedChunk = prefetchedChunks.get(variant);
+            PathogenicityData pathogenicityData = null;
+            if (prefetchedChunk != null && prefetchedChunk.pathogenicitySources.equals(pathogenicitySources)) {
+                pathogenicityData = prefetchedChunk.getPathogenicityData(variant);
+            }
+            if (pathogenicityData == null) {
+                notPrefetched.add(variant);
+            } else {
+                results.put(variant, pathogenicityData);
+            }
+        }
+        if (!notPrefetched.isEmpty()) {
+            results.putAll(variantDataService.getVariantPathogenicityData(notPrefetched, pathogenicitySources));
+        }
+        return results;
+    }
+
+    /**
+     * Returns a stream of the same variants which reads the input stream a chunk ahead of the consumer. As each chunk
+     * is read its data is requested from the decorated service on the background pool, then the chunk is handed on
+     * once the previous chunk has been consumed. The data for a chunk is kept until the consumer moves on to the chunk
+     * after next, so a consumer which batches the stream in batches no larger than the chunk size will find the data
+     * for the whole of each batch. The input stream must not be used in parallel - this is also true of the variant
+     * streams produced by the {@link VariantFactory}.
+     */
+    @Override
+    public <T extends Variant> Stream<T> prefetchVariantData(Stream<T> variants, Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+        if (frequencySources.isEmpty() && pathogenicitySources.isEmpty()) {
+            return variants;
+        }
+        Set<FrequencySource> wantedFrequencySources = frequencySources.isEmpty() ? EnumSet.noneOf(FrequencySource.class) : EnumSet.copyOf(frequencySources);
+        Set<PathogenicitySource> wantedPathogenicitySources = pathogenicitySources.isEmpty() ? EnumSet.noneOf(PathogenicitySource.class) : EnumSet.copyOf(pathogenicitySources);
+        PrefetchingIterator<T> prefetchingIterator = new PrefetchingIterator<>(variants.iterator(), wantedFrequencySources, wantedPathogenicitySources);
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(prefetchingIterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(prefetchingIterator::evictAll).onClose(variants::close);
+    }
+
+    @Override
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public List<RegulatoryFeature> getRegulatoryFeatures() {
+        return variantDataService.getRegulatoryFeatures();
+    }
+
+    @Override
+    public List<TopologicalDomain> getTopologicallyAssociatedDomains() {
+        return variantDataService.getTopologicallyAssociatedDomains();
+    }
+
+    /**
+     * @return the number of variants with prefetched data which have not yet been evicted.
+     */
+    int getNumPrefetchedVariants() {
+        return prefetchedChunks.size();
+    }
+
+    private PrefetchedChunk submit(List<? extends Variant> variants, Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+        Future<Map<Variant, FrequencyData>> frequencyData = frequencySources.isEmpty() ? null : executorService.submit(() -> variantDataService.getVariantFrequencyData(variants, frequencySources));
+        Future<Map<Variant, PathogenicityData>> pathogenicityData = pathogenicitySources.isEmpty() ? null : executorService.submit(() -> variantDataService.getVariantPathogenicityData(variants, pathogenicitySources));
+        PrefetchedChunk prefetchedChunk = new PrefetchedChunk(frequencySources, pathogenicitySources, frequencyData, pathogenicityData);
+        for (Variant variant : variants) {
+            prefetchedChunks.put(variant, prefetchedChunk);
+        }
+        return prefetchedChunk;
+    }
+
+    private void evict(List<? extends Variant> variants, PrefetchedChunk prefetchedChunk) {
+        for (Variant variant : variants) {
+            //only remove the entry if it hasn't been replaced by a later chunk containing an equal variant
+            prefetchedChunks.remove(variant, prefetchedChunk);
+        }
+        prefetchedChunk.cancel();
+    }
+
+    private static class PrefetchedChunk {
+
+        private final Set<FrequencySource> frequencySources;
+        private final Set<PathogenicitySource> pathogenicitySources;
+        private final Future<Map<Variant, FrequencyData>> frequencyData;
+        private final Future<Map<Variant, PathogenicityData>> pathogenicityData;
+
+        private PrefetchedChunk(Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources, Future<Map<Variant, FrequencyData>> frequencyData, Future<Map<Variant, PathogenicityData>> pathogenicityData) {
+            this.frequencySources = frequencySources;
+            this.pathogenicitySources = pathogenicitySources;
+            this.frequencyData = frequencyData;
+            this.pathogenicityData = pathogenicityData;
+        }
+
+        private FrequencyData getFrequencyData(Variant variant) {
+            Map<Variant, FrequencyData> results = await(frequencyData);
+            return results == null ? null : results.get(variant);
+        }
+
+        private PathogenicityData getPathogenicityData(Variant variant) {
+            Map<Variant, PathogenicityData> results = await(pathogenicityData);
+            return results == null ? null : results.get(variant);
+        }
+
+        //returns null if the data could not be prefetched so that the caller can fall back to fetching it directly
+        private <V> Map<Variant, V> await(Future<Map<Variant, V>> future) {
+            if (future == null) {
+                return null;
+            }
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | CancellationException e) {
+                logger.warn("Unable to prefetch variant data - falling back to direct lookup", e);
+                return null;
+            }
+        }
+
+        private void cancel() {
+            if (frequencyData != null) {
+                frequencyData.cancel(false);
+            }
+            if (pathogenicityData != null) {
+                pathogenicityData.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Reads the source iterator one chunk ahead of the consumer, submitting each chunk for prefetching as it is read.
+     */
+    private class PrefetchingIterator<T extends Variant> implements Iterator<T> {
+
+        private final Iterator<T> source;
+        private final Set<FrequencySource> frequencySources;
+        private final Set<PathogenicitySource> pathogenicitySources;
+
+        private List<T> previousChunk = Collections.emptyList();
+        private PrefetchedChunk previousPrefetchedChunk;
+        private List<T> currentChunk = Collections.emptyList();
+        private PrefetchedChunk currentPrefetchedChunk;
+        private List<T> nextChunk;
+        private PrefetchedChunk nextPrefetchedChunk;
+        private int index = 0;
+
+        private PrefetchingIterator(Iterator<T> source, Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+            this.source = source;
+            this.frequencySources = frequencySources;
+            this.pathogenicitySources = pathogenicitySources;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index < currentChunk.size()) {
+                return true;
+            }
+            advanceChunk();
+            return index < currentChunk.size();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return currentChunk.get(index++);
+        }
+
+        private void advanceChunk() {
+            //the consumer has finished with all the variants of the previous chunk so their data is no longer needed.
+            //the current chunk is kept as the consumer may still be holding some of its variants in a batch
+            evictPreviousChunk();
+            previousChunk = currentChunk;
+            previousPrefetchedChunk = currentPrefetchedChunk;
+            if (nextChunk == null) {
+                readNextChunk();
+            }
+            currentChunk = nextChunk;
+            currentPrefetchedChunk = nextPrefetchedChunk;
+            index = 0;
+            if (currentChunk.isEmpty()) {
+                nextChunk = Collections.emptyList();
+                nextPrefetchedChunk = null;
+            } else {
+                readNextChunk();
+            }
+        }
+
+        private void readNextChunk() {
+            List<T> chunk = new ArrayList<>(chunkSize);
+            while (chunk.size() < chunkSize && source.hasNext()) {
+                chunk.add(source.next());
+            }
+            nextChunk = chunk;
+            nextPrefetchedChunk = null;
+            if (!chunk.isEmpty()) {
+                logger.debug("Prefetching data for {} variants", chunk.size());
+                nextPrefetchedChunk = submit(chunk, frequencySources, pathogenicitySources);
+            }
+        }
+
+        private void evictPreviousChunk() {
+            if (previousPrefetchedChunk != null) {
+                evict(previousChunk, previousPrefetchedChunk);
+                previousPrefetchedChunk = null;
+            }
+        }
+
+        private void evictAll() {
+            evictPreviousChunk();
+            if (currentPrefetchedChunk != null) {
+                evict(currentChunk, currentPrefetchedChunk);
+                currentPrefetchedChunk = null;
+            }
+            if (nextPrefetchedChunk != null) {
+                evict(nextChunk, nextPrefetchedChunk);
+                nextPrefetchedChunk = null;
+            }
+        }
+    }
+}
@@ -33,8 +33,12 @@
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  *
@@ -42,10 +46,59 @@
  */
 public interface VariantDataService {
 
+    int DEFAULT_CHUNK_SIZE = 500;
+
     FrequencyData getVariantFrequencyData(Variant variant, Set<FrequencySource> frequencySources);
 
     PathogenicityData getVariantPathogenicityData(Variant variant, Set<PathogenicitySource> pathogenicitySources);
 
+    /**
+     * Bulk version of {@link #getVariantFrequencyData(Variant, Set)}. Implementations may override this to fetch the
+     * data for several variants in fewer queries.
+     *
+     * @return a map of each input variant to its FrequencyData, in the iteration order of the input
+     */
+    default Map<Variant, FrequencyData> getVariantFrequencyData(Collection<? extends Variant> variants, Set<FrequencySource> frequencySources) {
+        Map<Variant, FrequencyData> results = new LinkedHashMap<>();
+        for (Variant variant : variants) {
+            results.put(variant, getVariantFrequencyData(variant, frequencySources));
+        }
+        return results;
+    }
+
+    /**
+     * Bulk version of {@link #getVariantPathogenicityData(Variant, Set)}. Implementations may override this to fetch
+     * the data for several variants in fewer queries.
+     *
+     * @return a map of each input variant to its PathogenicityData, in the iteration order of the input
+     */
+    default Map<Variant, PathogenicityData> getVariantPathogenicityData(Collection<? extends Variant> variants, Set<PathogenicitySource> pathogenicitySources) {
+        Map<Variant, PathogenicityData> results = new LinkedHashMap<>();
+        for (Variant variant : variants) {
+            results.put(variant, getVariantPathogenicityData(variant, pathogenicitySources));
+        }
+        return results;
+    }
+
+    /**
+     * Hint that the frequency and pathogenicity data for the variants in the stream will shortly be requested from
+     * this service with the given sources. An empty set of sources means that type of data will not be requested.
+     * The default implementation does nothing and returns the input stream.
+     *
+     * @return a stream of the same variants in the same order
+     */
+    default <T extends Variant> Stream<T> prefetchVariantData(Stream<T> variants, Set<FrequencySource> frequencySources, Set<PathogenicitySource> pathogenicitySources) {
+        return variants;
+    }
+
+    /**
+     * The number of variants this service prefers to be given in each bulk request - callers batching variants for
+     * the bulk lookups should use batches of this size.
+     */
+    default int getChunkSize() {
+        return DEFAULT_CHUNK_SIZE;
+    }
+
     List<RegulatoryFeature> getRegulatoryFeatures();
     
     List<TopologicalDomain> getTopologicallyAssociatedDomains();
@@ -39,9 +39,7 @@
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 import static java.util.stream.Collectors.toSet;
 
@@ -69,10 +67,16 @@ public class VariantDataServiceImpl implements VariantDataService {
     @Autowired
     private TadDao tadDao;
 
+    //optional embedded variant stores - when configured these are used in place of the database
+    @Autowired(required = false)
+    private VariantStoreFrequencyDao variantStoreFrequencyDao;
+    @Autowired(required = false)
+    private VariantStorePathogenicityDao variantStorePathogenicityDao;
+
     @Override
     public FrequencyData getVariantFrequencyData(Variant variant, Set<FrequencySource> frequencySources) {
         List<Frequency> allFrequencies = new ArrayList<>();
-        FrequencyData allFrequencyData = defaultFrequencyDao.getFrequencyData(variant);
+        FrequencyData allFrequencyData = frequencyDao().getFrequencyData(variant);
         allFrequencies.addAll(allFrequencyData.getKnownFrequencies());
 
         if (frequencySources.contains(FrequencySource.LOCAL)) {
@@ -83,6 +87,34 @@ public FrequencyData getVariantFrequencyData(Variant variant, Set<FrequencySourc
         return frequencyDataFromSpecifiedSources(allFrequencyData.getRsId(), allFrequencies, frequencySources);
     }
 
+    /**
+     * Fetches the frequency data for a block of variants using the bulk lookup of the underlying FrequencyDao,
+     * applying the same per-variant rules as {@link #getVariantFrequencyData(Variant, Set)}.
+     */
+    @Override
+    public Map<Variant, FrequencyData> getVariantFrequencyData(Collection<? extends Variant> variants, Set<FrequencySource> frequencySources) {
+        Map<Variant, FrequencyData> allFrequencyData = frequencyDao().getFrequencyData(variants);
+        Map<Variant, FrequencyData> results = new LinkedHashMap<>();
+        for (Variant variant : variants) {
+            FrequencyData frequencyData = allFrequencyData.getOrDefault(variant, FrequencyData.empty());
+            List<Frequency> allFrequencies = new ArrayList<>(frequencyData.getKnownFrequencies());
+            if (frequencySources.contains(FrequencySource.LOCAL)) {
+                FrequencyData localFrequencyData = localFrequencyDao.getFrequencyData(variant);
+                allFrequencies.addAll(localFrequencyData.getKnownFrequencies());
+            }
+            results.put(variant, frequencyDataFromSpecifiedSources(frequencyData.getRsId(), allFrequencies, frequencySources));
+        }
+        return results;
+    }
+
+    private FrequencyDao frequencyDao() {
+        return variantStoreFrequencyDao == null ? defaultFrequencyDao : variantStoreFrequencyDao;
+    }
+
+    private PathogenicityDao pathogenicityDao() {
+        return variantStorePathogenicityDao == null ? pathogenicityDao : variantStorePathogenicityDao;
+    }
+
     FrequencyData frequencyDataFromSpecifiedSources(RsId rsid, List<Frequency> allFrequencies, Set<FrequencySource> frequencySources) {
         Set<Frequency> wanted = allFrequencies.stream()
                 .filter(frequency -> frequencySources.contains(frequency.getSource()))
@@ -104,7 +136,7 @@ public PathogenicityData getVariantPathogenicityData(Variant variant, Set<Pathog
         final VariantEffect variantEffect = variant.getVariantEffect();
         //Polyphen, Mutation Taster and SIFT are all trained on missense variants - this is what is contained in the original variant table, but we shouldn't know that.
         if (variantEffect == VariantEffect.MISSENSE_VARIANT) {
-            PathogenicityData missenseScores = pathogenicityDao.getPathogenicityData(variant);
+            PathogenicityData missenseScores = pathogenicityDao().getPathogenicityData(variant);
             allPathScores.addAll(missenseScores.getPredictedPathogenicityScores());
         }
         else if (pathogenicitySources.contains(PathogenicitySource.REMM) && variant.isNonCodingVariant()) {
@@ -122,6 +154,40 @@ else if (pathogenicitySources.contains(PathogenicitySource.REMM) && variant.isNo
         return pathDataFromSpecifiedDataSources(allPathScores, pathogenicitySources);
     }
 
+    /**
+     * Fetches the pathogenicity data for a block of variants using the bulk lookups of the underlying DAOs, applying
+     * the same per-variant rules as {@link #getVariantPathogenicityData(Variant, Set)}.
+     */
+    @Override
+    public Map<Variant, PathogenicityData> getVariantPathogenicityData(Collection<? extends Variant> variants, Set<PathogenicitySource> pathogenicitySources) {
+        Map<Variant, PathogenicityData> results = new LinkedHashMap<>();
+        if (pathogenicitySources.isEmpty()) {
+            variants.forEach(variant -> results.put(variant, PathogenicityData.empty()));
+            return results;
+        }
+        List<Variant> missenseVariants = new ArrayList<>();
+        List<Variant> nonCodingVariants = new ArrayList<>();
+        for (Variant variant : variants) {
+            if (variant.getVariantEffect() == VariantEffect.MISSENSE_VARIANT) {
+                missenseVariants.add(variant);
+            } else if (pathogenicitySources.contains(PathogenicitySource.REMM) && variant.isNonCodingVariant()) {
+                nonCodingVariants.add(variant);
+            }
+        }
+        Map<Variant, PathogenicityData> missenseScores = missenseVariants.isEmpty() ? Collections.emptyMap() : pathogenicityDao().getPathogenicityData(missenseVariants);
+        Map<Variant, PathogenicityData> nonCodingScores = nonCodingVariants.isEmpty() ? Collections.emptyMap() : remmDao.getPathogenicityData(nonCodingVariants);
+        Map<Variant, PathogenicityData> caddScores = pathogenicitySources.contains(PathogenicitySource.CADD) ? caddDao.getPathogenicityData(variants) : Collections.emptyMap();
+
+        for (Variant variant : variants) {
+            List<PathogenicityScore> allPathScores = new ArrayList<>();
+            allPathScores.addAll(missenseScores.getOrDefault(variant, PathogenicityData.empty()).getPredictedPathogenicityScores());
+            allPathScores.addAll(nonCodingScores.getOrDefault(variant, PathogenicityData.empty()).getPredictedPathogenicityScores());
+            allPathScores.addAll(caddScores.getOrDefault(variant, PathogenicityData.empty()).getPredictedPathogenicityScores());
+            results.put(variant, pathDataFromSpecifiedDataSources(allPathScores, pathogenicitySources));
+        }
+        return results;
+    }
+
     protected PathogenicityData pathDataFromSpecifiedDataSources(List<PathogenicityScore> allPathScores, Set<PathogenicitySource> pathogenicitySources) {
         Set<PathogenicityScore> wanted = allPathScores.stream()
                 .filter(pathogenicity -> pathogenicitySources.contains(pathogenicity.getSource()))
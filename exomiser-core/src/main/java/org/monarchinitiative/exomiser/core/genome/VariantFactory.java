@@ -25,33 +25,47 @@
  */
 package org.monarchinitiative.exomiser.core.genome;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import de.charite.compbio.jannovar.annotation.Annotation;
 import de.charite.compbio.jannovar.annotation.VariantAnnotations;
 import de.charite.compbio.jannovar.annotation.VariantEffect;
 import de.charite.compbio.jannovar.data.JannovarData;
 import de.charite.compbio.jannovar.reference.GenomeVariant;
 import de.charite.compbio.jannovar.reference.TranscriptModel;
+import htsjdk.tribble.readers.LineIterator;
+import htsjdk.tribble.readers.LineIteratorImpl;
+import htsjdk.tribble.readers.LineReader;
+import htsjdk.tribble.readers.SynchronousLineReader;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
 import htsjdk.variant.vcf.VCFFileReader;
 import org.monarchinitiative.exomiser.core.model.AllelePosition;
 import org.monarchinitiative.exomiser.core.model.TranscriptAnnotation;
+import org.monarchinitiative.exomiser.core.model.TranscriptFeature;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Produces Variants from VCF files.
@@ -64,18 +78,33 @@ public class VariantFactory {
     private static final Logger logger = LoggerFactory.getLogger(VariantFactory.class);
 
     private final JannovarVariantAnnotator variantAnnotator;
+    private final Map<String, Integer> contigNameToId;
+    //the same few short ref/alt alleles are repeated across millions of variants
+    private final AlleleInterner alleleInterner = new AlleleInterner();
+    //variants in the same exon share their effect, gene and transcript - held weakly so only those in use are kept
+    private final Interner<TranscriptFeature> transcriptFeatureInterner = Interners.newWeakInterner();
 
     //in cases where a variant cannot be positioned on a chromosome we're going to use 0 in order to fulfil the
     //requirement of a variant having an integer chromosome
     private static final int UNKNOWN_CHROMOSOME = 0;
 
+    //bgzipped VCF files are inflated on a small pool of threads so that the VCF parsing isn't waiting on the inflater.
+    //This is shared by all the streams for the lifetime of the application and its threads are released when idle.
+    private static final int BGZF_INFLATER_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final ExecutorService BGZF_INFLATER_POOL = BgzfLineReader.newInflaterPool(BGZF_INFLATER_THREADS);
+
     @Autowired
     public VariantFactory(JannovarData jannovarData) {
         this.variantAnnotator = new JannovarVariantAnnotator(jannovarData);
+        this.contigNameToId = jannovarData.getRefDict().getContigNameToID();
     }
 
+    /**
+     * Streams the VariantEvaluations for the records of a VCF file. As with {@link #streamVariantContexts(Path)} the
+     * stream should be closed by the caller.
+     */
     public Stream<VariantEvaluation> streamVariantEvaluations(Path vcfPath) {
-        return streamVariantEvaluations(streamVariantContexts(vcfPath));
+        return streamVariantEvaluations(streamScreenedVariantContexts(vcfPath));
     }
 
     public Stream<VariantEvaluation> streamVariantEvaluations(Stream<VariantContext> variantContextStream) {
@@ -88,13 +117,95 @@ public Stream<VariantEvaluation> streamVariantEvaluations(Stream<VariantContext>
                 .onClose(counter::logCount);
     }
 
+    /**
+     * Streams the VariantEvaluations for only those VCF records accepted by the recordFilter. The records are checked
+     * before they are annotated, which is where most of the time goes, so this is much quicker than filtering the
+     * VariantEvaluations where the recordFilter rejects a lot of records.
+     *
+     * @param vcfPath      path of the VCF file
+     * @param recordFilter tested with the integer chromosome of the record, or 0 if the contig is not recognised, and
+     *                     the record itself. Records for which it returns false are skipped.
+     */
+    public Stream<VariantEvaluation> streamVariantEvaluations(Path vcfPath, BiPredicate<Integer, VariantContext> recordFilter) {
+        Stream<VariantContext> acceptedVariantContexts = streamScreenedVariantContexts(vcfPath)
+                .filter(variantContext -> recordFilter.test(contigNameToId.getOrDefault(variantContext.getContig(), 0), variantContext));
+        return streamVariantEvaluations(acceptedVariantContexts);
+    }
+
+    /**
+     * Streams the records of a VCF file. The stream holds the file open until it has been read to the end, so callers
+     * which might not consume the whole stream must close it, for example using try-with-resources.
+     *
+     * @param vcfPath path of the VCF file, which can be uncompressed, gzipped or bgzipped
+     */
     public Stream<VariantContext> streamVariantContexts(Path vcfPath) {
         logger.info("Streaming variants from file {}", vcfPath);
+        if (BgzfLineReader.isBgzfFile(vcfPath)) {
+            //bgzipped VCF files are read using the BgzfLineReader so that the BGZF blocks are inflated on a background
+            //pool of threads, in order, while the lines are decoded on the calling thread.
+            return streamVcfLines(newBgzfLineReader(vcfPath), line -> true);
+        }
+        return streamVcfFileReader(vcfPath);
+    }
+
+    /**
+     * Streams only the records of a VCF file which can produce a VariantEvaluation. For bgzipped and uncompressed
+     * .vcf files the raw lines are checked by a {@link VcfRecordScreen} so that gVCF reference blocks and records
+     * without an alternate allele call are skipped before they are decoded. Uncompressed files are therefore read
+     * line-by-line rather than by the {@link VCFFileReader}, which is still used for any other file.
+     */
+    private Stream<VariantContext> streamScreenedVariantContexts(Path vcfPath) {
+        logger.info("Streaming variants from file {}", vcfPath);
+        if (BgzfLineReader.isBgzfFile(vcfPath)) {
+            VcfRecordScreen vcfRecordScreen = new VcfRecordScreen();
+            return streamVcfLines(newBgzfLineReader(vcfPath), vcfRecordScreen::accept)
+                    .onClose(vcfRecordScreen::logSummary);
+        }
+        if (isUncompressedVcfFile(vcfPath)) {
+            VcfRecordScreen vcfRecordScreen = new VcfRecordScreen();
+            return streamVcfLines(newUncompressedLineReader(vcfPath), vcfRecordScreen::accept)
+                    .onClose(vcfRecordScreen::logSummary);
+        }
+        return streamVcfFileReader(vcfPath);
+    }
+
+    private Stream<VariantContext> streamVcfFileReader(Path vcfPath) {
         try (VCFFileReader vcfReader = new VCFFileReader(vcfPath.toFile(), false)) {
             return vcfReader.iterator().stream();
         }
     }
 
+    private LineReader newBgzfLineReader(Path vcfPath) {
+        return new BgzfLineReader(vcfPath, BGZF_INFLATER_POOL, BGZF_INFLATER_THREADS);
+    }
+
+    private boolean isUncompressedVcfFile(Path vcfPath) {
+        return Files.isRegularFile(vcfPath) && vcfPath.getFileName().toString().endsWith(".vcf");
+    }
+
+    private LineReader newUncompressedLineReader(Path vcfPath) {
+        try {
+            return new SynchronousLineReader(Files.newBufferedReader(vcfPath, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read VCF file " + vcfPath, e);
+        }
+    }
+
+    /**
+     * Decodes the VCF records from the raw lines. Lines rejected by the lineScreen are skipped before they are decoded.
+     */
+    private Stream<VariantContext> streamVcfLines(LineReader lineReader, Predicate<String> lineScreen) {
+        LineIterator lineIterator = new LineIteratorImpl(lineReader);
+        VCFCodec vcfCodec = new VCFCodec();
+        vcfCodec.readActualHeader(lineIterator);
+        Spliterator<String> lines = Spliterators.spliteratorUnknownSize(lineIterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(lines, false)
+                .filter(lineScreen)
+                .map(vcfCodec::decode)
+                .filter(Objects::nonNull)
+                .onClose(lineReader::close);
+    }
+
     /**
      * An Exomiser VariantEvaluation is a single-allele variant whereas the VariantContext can have multiple alleles.
      * This means that a multi allele Variant record in a VCF can result in several VariantEvaluations - one for each
@@ -156,8 +267,8 @@ private VariantAnnotations getVariantAnnotations(VariantContext variantContext,
 
     private VariantEvaluation annotatedVariantEvaluation(VariantContext variantContext, int altAlleleId, AllelePosition allelePosition, VariantAnnotations variantAnnotations) {
         int pos = allelePosition.getPos();
-        String ref = allelePosition.getRef();
-        String alt = allelePosition.getAlt();
+        String ref = alleleInterner.intern(allelePosition.getRef());
+        String alt = alleleInterner.intern(allelePosition.getAlt());
 
         int chr = variantAnnotations.getChr();
         VariantEffect variantEffect = variantAnnotations.getHighestImpactEffect();
@@ -200,8 +311,8 @@ private VariantEvaluation annotatedVariantEvaluation(VariantContext variantConte
     private VariantEvaluation unAnnotatedVariantEvaluation(VariantContext variantContext, int altAlleleId, AllelePosition allelePosition) {
 
         int pos = allelePosition.getPos();
-        String ref = allelePosition.getRef();
-        String alt = allelePosition.getAlt();
+        String ref = alleleInterner.intern(allelePosition.getRef());
+        String alt = alleleInterner.intern(allelePosition.getAlt());
 
         String chromosomeName = variantContext.getContig();
         logger.trace("Building unannotated variant for {} {} {} {} - assigning to chromosome {}", chromosomeName, pos, ref, alt, UNKNOWN_CHROMOSOME);
@@ -224,14 +335,16 @@ private List<TranscriptAnnotation> buildTranscriptAnnotations(List<Annotation> a
     }
 
     private TranscriptAnnotation toTranscriptAnnotation(Annotation annotation) {
-         return TranscriptAnnotation.builder()
-                .variantEffect(annotation.getMostPathogenicVarType())
-                .accession(getTranscriptAccession(annotation))
-                .geneSymbol(buildGeneSymbol(annotation))
-//                .hgvsGenomic(annotation.getGenomicNTChangeStr())
-                .hgvsCdna(annotation.getCDSNTChangeStr())
-                .hgvsProtein(annotation.getProteinChangeStr())
+        TranscriptFeature transcriptFeature = transcriptFeatureInterner.intern(TranscriptFeature.of(
+                annotation.getMostPathogenicVarType(),
+                buildGeneSymbol(annotation),
+                getTranscriptAccession(annotation)));
+        return TranscriptAnnotation.builder()
+                .transcriptFeature(transcriptFeature)
                 .distanceFromNearestGene(getDistFromNearestGene(annotation))
+//                .hgvsGenomic(annotation.getGenomicNTChangeStr())
+                //HGVS strings are only formatted for the variants kept by the analysis
+                .hgvsAnnotation(annotation)
                 .build();
     }
 
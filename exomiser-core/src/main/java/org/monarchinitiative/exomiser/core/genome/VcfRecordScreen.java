@@ -0,0 +1,205 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheap pre-annotation screen for raw VCF data lines. This recognises records which cannot produce a
+ * {@link org.monarchinitiative.exomiser.core.model.VariantEvaluation} - gVCF reference blocks and records where none of
+ * the samples have been called with an alternate allele - so that these can be skipped before they are decoded, trimmed
+ * and annotated. The line is only scanned as far as needed and no regular expressions are used.
+ *
+ * Records which cannot be screened, for instance where the FORMAT field does not start with GT, are always accepted
+ * so that the decision is left to the {@link VariantFactory}.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VcfRecordScreen {
+
+    private static final Logger logger = LoggerFactory.getLogger(VcfRecordScreen.class);
+
+    public enum SkipReason {
+        /**
+         * The ALT field is empty '.' or only contains the gVCF symbolic alleles &lt;NON_REF&gt; or &lt;*&gt;
+         */
+        REFERENCE_BLOCK,
+        /**
+         * None of the samples has an alternate allele in their genotype e.g. 0/0, ./. or the record has no samples.
+         */
+        NO_ALT_GENOTYPE
+    }
+
+    private static final int ALT_COLUMN = 4;
+    private static final int FORMAT_COLUMN = 8;
+
+    private final AtomicLong screened = new AtomicLong();
+    private final Map<SkipReason, AtomicLong> skipped = new EnumMap<>(SkipReason.class);
+
+    public VcfRecordScreen() {
+        for (SkipReason skipReason : SkipReason.values()) {
+            skipped.put(skipReason, new AtomicLong());
+        }
+    }
+
+    /**
+     * @param line a raw VCF data line
+     * @return true if the line should be decoded and annotated, false if it can be skipped.
+     */
+    public boolean accept(String line) {
+        screened.incrementAndGet();
+        SkipReason skipReason = screen(line);
+        if (skipReason == null) {
+            return true;
+        }
+        skipped.get(skipReason).incrementAndGet();
+        return false;
+    }
+
+    /**
+     * @return the reason the line can be skipped, or null if the record should be kept.
+     */
+    static SkipReason screen(String line) {
+        if (line.isEmpty() || line.charAt(0) == '#') {
+            return null;
+        }
+        int altStart = startOfColumn(line, 0, ALT_COLUMN);
+        if (altStart == -1) {
+            return null;
+        }
+        int altEnd = endOfColumn(line, altStart);
+        if (isReferenceBlock(line, altStart, altEnd)) {
+            return SkipReason.REFERENCE_BLOCK;
+        }
+        int formatStart = startOfColumn(line, altEnd + 1, FORMAT_COLUMN - ALT_COLUMN - 1);
+        if (formatStart == -1) {
+            //sites-only VCF - these have no genotypes so can't be used
+            return SkipReason.NO_ALT_GENOTYPE;
+        }
+        if (!line.startsWith("GT", formatStart)) {
+            return null;
+        }
+        int sampleStart = line.indexOf('\t', formatStart);
+        while (sampleStart != -1) {
+            sampleStart++;
+            if (genotypeHasAltAllele(line, sampleStart)) {
+                return null;
+            }
+            sampleStart = line.indexOf('\t', sampleStart);
+        }
+        return SkipReason.NO_ALT_GENOTYPE;
+    }
+
+    /**
+     * Returns the index of the first character of the column, counting the tabs from the from index.
+     */
+    private static int startOfColumn(String line, int from, int tabsToSkip) {
+        int index = from;
+        for (int i = 0; i < tabsToSkip; i++) {
+            index = line.indexOf('\t', index);
+            if (index == -1) {
+                return -1;
+            }
+            index++;
+        }
+        return index;
+    }
+
+    private static int endOfColumn(String line, int columnStart) {
+        int end = line.indexOf('\t', columnStart);
+        return end == -1 ? line.length() : end;
+    }
+
+    private static boolean isReferenceBlock(String line, int altStart, int altEnd) {
+        if (altEnd - altStart == 1 && line.charAt(altStart) == '.') {
+            return true;
+        }
+        int alleleStart = altStart;
+        while (alleleStart < altEnd) {
+            int alleleEnd = line.indexOf(',', alleleStart);
+            if (alleleEnd == -1 || alleleEnd > altEnd) {
+                alleleEnd = altEnd;
+            }
+            if (!isNonRefSymbolicAllele(line, alleleStart, alleleEnd)) {
+                return false;
+            }
+            alleleStart = alleleEnd + 1;
+        }
+        return true;
+    }
+
+    private static boolean isNonRefSymbolicAllele(String line, int start, int end) {
+        int length = end - start;
+        return (length == 9 && line.startsWith("<NON_REF>", start)) || (length == 3 && line.startsWith("<*>", start));
+    }
+
+    /**
+     * Scans the GT sub-field of the sample starting at the given index for an allele index greater than zero.
+     */
+    private static boolean genotypeHasAltAllele(String line, int sampleStart) {
+        int alleleIndex = 0;
+        boolean inNumber = false;
+        for (int i = sampleStart; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                alleleIndex = alleleIndex * 10 + (c - '0');
+                inNumber = true;
+            } else {
+                if (inNumber && alleleIndex > 0) {
+                    return true;
+                }
+                if (c == ':' || c == '\t') {
+                    return false;
+                }
+                alleleIndex = 0;
+                inNumber = false;
+            }
+        }
+        return inNumber && alleleIndex > 0;
+    }
+
+    public long getScreenedCount() {
+        return screened.get();
+    }
+
+    public long getSkippedCount(SkipReason skipReason) {
+        return skipped.get(skipReason).get();
+    }
+
+    public long getSkippedCount() {
+        long total = 0;
+        for (AtomicLong count : skipped.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    public void logSummary() {
+        if (getSkippedCount() > 0) {
+            logger.info("Skipped {} of {} variant records before annotation: {}", getSkippedCount(), getScreenedCount(), skipped);
+        }
+    }
+}
@@ -25,7 +25,6 @@
  */
 package org.monarchinitiative.exomiser.core.genome.dao;
 
-import htsjdk.tribble.readers.TabixReader;
 import org.monarchinitiative.exomiser.core.model.AllelePosition;
 import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.CaddScore;
@@ -33,10 +32,13 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.*;
  
 /**
  *
@@ -47,19 +49,136 @@ public class CaddDao {
  
     private final Logger logger = LoggerFactory.getLogger(CaddDao.class);
 
+    //CADD file columns: #Chrom  Pos     Ref     Alt     RawScore        PHRED
+    private static final int POS_COLUMN = 1;
+    private static final int REF_COLUMN = 2;
+    private static final int PHRED_COLUMN = 5;
+
+    //Sorted variants closer together than the sweep gap are read with a single tabix query rather than seeking to each
+    //one. Every query costs an index lookup, a seek and inflating at least one BGZF block (64 KB uncompressed), so
+    //sweeping across a gap only pays while the gap holds less than about one block of data. A synthetic whole-genome
+    //SNV file, with three ~32 byte lines per base, measures ~96 bytes per base, i.e. ~680 bases per block. The InDel
+    //file only scores known InDels, so while it averages under 0.2 lines per base a 10 kb gap is still under a block.
+    public static final int DEFAULT_SNV_SWEEP_GAP = 500;
+    public static final int DEFAULT_INDEL_SWEEP_GAP = 10_000;
+
+    private static final Comparator<Variant> GENOMIC_ORDER = Comparator.comparingInt(Variant::getChromosome).thenComparingInt(Variant::getPosition);
+
     private final TabixDataSource caddInDelTabixDataSource;
     private final TabixDataSource caddSnvTabixDataSource;
+    private final int inDelSweepGap;
+    private final int snvSweepGap;
+
+    private Cache cache;
 
     @Autowired
     public CaddDao(TabixDataSource caddInDelTabixDataSource, TabixDataSource caddSnvTabixDataSource) {
+        this(caddInDelTabixDataSource, caddSnvTabixDataSource, DEFAULT_INDEL_SWEEP_GAP, DEFAULT_SNV_SWEEP_GAP);
+    }
+
+    /**
+     * @param inDelSweepGap the maximum gap in bases between InDels read with the same tabix query. Use a larger gap for
+     *                      sparser files.
+     * @param snvSweepGap   the maximum gap in bases between SNVs read with the same tabix query
+     */
+    public CaddDao(TabixDataSource caddInDelTabixDataSource, TabixDataSource caddSnvTabixDataSource, int inDelSweepGap, int snvSweepGap) {
         this.caddInDelTabixDataSource = caddInDelTabixDataSource;
         this.caddSnvTabixDataSource = caddSnvTabixDataSource;
+        this.inDelSweepGap = inDelSweepGap;
+        this.snvSweepGap = snvSweepGap;
     }
 
-    @Cacheable(value = "cadd")
+    /**
+     * Optional CacheManager used by the sweep lookups to read and fill the same 'cadd' cache entries as
+     * {@link #getPathogenicityData(Variant)}.
+     */
+    @Autowired(required = false)
+    public void setCacheManager(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache("cadd");
+    }
+
+    @Cacheable(value = "cadd", key = VariantCacheKey.KEY_EXPRESSION)
     public PathogenicityData getPathogenicityData(Variant variant) {
         return processResults(variant);
     }
+
+    /**
+     * Sweep-mode lookup for a block of variants. The variants are sorted by position and split into SNVs and InDels.
+     * Each file is then read forwards in step with the variants, using one tabix query per run of variants within the
+     * sweep gap of that file, by default {@value #DEFAULT_SNV_SWEEP_GAP} bases for SNVs and
+     * {@value #DEFAULT_INDEL_SWEEP_GAP} for InDels, rather than one query per variant. Only the position, ref, alt
+     * and PHRED columns of each line are parsed. Variants already in the 'cadd' cache are not looked up and the
+     * results for the others are added to the cache.
+     *
+     * @param variants the variants to score
+     * @return a map of each input variant to its PathogenicityData, in the iteration order of the input
+     */
+    public Map<Variant, PathogenicityData> getPathogenicityData(Collection<? extends Variant> variants) {
+        Map<Variant, PathogenicityData> results = new LinkedHashMap<>();
+        List<Variant> snvs = new ArrayList<>();
+        List<Variant> inDels = new ArrayList<>();
+        for (Variant variant : variants) {
+            PathogenicityData cached = cache == null ? null : cache.get(VariantCacheKey.of(variant), PathogenicityData.class);
+            //the placeholder keeps the input order and is the result for variants not found in the file
+            results.put(variant, cached == null ? PathogenicityData.empty() : cached);
+            if (cached == null) {
+                if (AllelePosition.isSnv(variant.getRef(), variant.getAlt())) {
+                    snvs.add(variant);
+                } else {
+                    inDels.add(variant);
+                }
+            }
+        }
+        sweep(caddSnvTabixDataSource, snvSweepGap, snvs, results);
+        sweep(caddInDelTabixDataSource, inDelSweepGap, inDels, results);
+
+        if (cache != null) {
+            snvs.forEach(variant -> cache.put(VariantCacheKey.of(variant), results.get(variant)));
+            inDels.forEach(variant -> cache.put(VariantCacheKey.of(variant), results.get(variant)));
+        }
+        return results;
+    }
+
+    private void sweep(TabixDataSource tabixDataSource, int sweepGap, List<Variant> variants, Map<Variant, PathogenicityData> results) {
+        variants.sort(GENOMIC_ORDER);
+        int runStart = 0;
+        for (int i = 1; i <= variants.size(); i++) {
+            if (i == variants.size() || isNewRun(variants.get(i - 1), variants.get(i), sweepGap)) {
+                sweepRun(tabixDataSource, variants.subList(runStart, i), results);
+                runStart = i;
+            }
+        }
+    }
+
+    private boolean isNewRun(Variant previous, Variant current, int sweepGap) {
+        return previous.getChromosome() != current.getChromosome() || current.getPosition() - previous.getPosition() > sweepGap;
+    }
+
+    private void sweepRun(TabixDataSource tabixDataSource, List<Variant> run, Map<Variant, PathogenicityData> results) {
+        String chromosome = run.get(0).getChromosomeName();
+        int start = run.get(0).getPosition();
+        int end = run.get(run.size() - 1).getPosition();
+        try (TabixQueryIterator lines = tabixDataSource.query(chromosome + ":" + start + "-" + end)) {
+            int current = 0;
+            String line;
+            while ((line = lines.next()) != null) {
+                int linePos = TabixLineParser.parseInt(line, TabixLineParser.columnStart(line, POS_COLUMN));
+                //skip past the variants which the file has no more lines for
+                while (current < run.size() && run.get(current).getPosition() < linePos) {
+                    current++;
+                }
+                for (int i = current; i < run.size() && run.get(i).getPosition() == linePos; i++) {
+                    Variant variant = run.get(i);
+                    PathogenicityData pathogenicityData = matchLine(line, variant.getRef(), variant.getAlt());
+                    if (pathogenicityData != null) {
+                        results.put(variant, pathogenicityData);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Unable to read from CADD tabix file {}", tabixDataSource.getSource(), e);
+        }
+    }
  
     PathogenicityData processResults(Variant variant) {
         String chromosome = variant.getChromosomeName();
@@ -73,8 +192,7 @@ PathogenicityData processResults(Variant variant) {
     }
 
     private PathogenicityData getCaddPathogenicityData(TabixDataSource tabixDataSource, String chromosome, int start, String ref, String alt) {
-        try {
-            TabixReader.Iterator results = tabixDataSource.query(chromosome + ":" + start + "-" + start);
+        try (TabixQueryIterator results = tabixDataSource.query(chromosome + ":" + start + "-" + start)) {
             String line;
             //there can be 0 - N results in this format:
             //#Chrom  Pos     Ref     Alt     RawScore        PHRED
@@ -82,11 +200,9 @@ private PathogenicityData getCaddPathogenicityData(TabixDataSource tabixDataSour
             //2       14962   C       CAA     -0.155009       1.356
             //2       14962   CA      C       0.194173        4.618
             while ((line = results.next()) != null) {
-                String[] elements = line.split("\t");
-                String caddRef = elements[2];
-                String caddAlt = elements[3];
-                if (caddRef.equals(ref) && caddAlt.equals(alt)) {
-                    return makeCaddPathData(elements[5]);
+                PathogenicityData pathogenicityData = matchLine(line, ref, alt);
+                if (pathogenicityData != null) {
+                    return pathogenicityData;
                 }
             }
         } catch (IOException e) {
@@ -95,14 +211,29 @@ private PathogenicityData getCaddPathogenicityData(TabixDataSource tabixDataSour
         return PathogenicityData.empty();
     }
  
-    private PathogenicityData makeCaddPathData(String phredScaledCaddScore) {
+    /**
+     * @return the CADD PathogenicityData if the ref and alt columns of the line match the alleles, otherwise null
+     */
+    private PathogenicityData matchLine(String line, String ref, String alt) {
+        int refStart = TabixLineParser.columnStart(line, REF_COLUMN);
+        if (!TabixLineParser.columnEquals(line, refStart, ref)) {
+            return null;
+        }
+        int altStart = TabixLineParser.columnEnd(line, refStart) + 1;
+        if (!TabixLineParser.columnEquals(line, altStart, alt)) {
+            return null;
+        }
+        int phredStart = TabixLineParser.columnStart(line, PHRED_COLUMN);
+        return makeCaddPathData(TabixLineParser.parseFloat(line, phredStart));
+    }
+
+    private PathogenicityData makeCaddPathData(float phredScaledCaddScore) {
         CaddScore caddScore = parseCaddScore(phredScaledCaddScore);
         return PathogenicityData.of(caddScore);
     }
 
-    private CaddScore parseCaddScore(String phredScaledCaddScore) {
-        float score = Float.parseFloat(phredScaledCaddScore);
-        float cadd = rescaleLogTenBasedScore(score);
+    private CaddScore parseCaddScore(float phredScaledCaddScore) {
+        float cadd = rescaleLogTenBasedScore(phredScaledCaddScore);
         return CaddScore.valueOf(cadd);
     }
  
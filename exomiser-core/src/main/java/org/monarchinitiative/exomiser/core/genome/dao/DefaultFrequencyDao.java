@@ -34,6 +34,9 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 
@@ -42,11 +45,8 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.EnumMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.*;
 import java.util.Map.Entry;
-import java.util.Set;
 
 /**
  * Default implementation of the FrequencyDao. Can be configured to use caching.
@@ -58,10 +58,22 @@ public class DefaultFrequencyDao implements FrequencyDao {
 
     private final Logger logger = LoggerFactory.getLogger(DefaultFrequencyDao.class);
 
+    //bulk lookups are split into chunks of at most this many distinct positions per query
+    private static final int MAX_POSITIONS_PER_QUERY = 500;
+    //chunks with fewer bases than this per position are fetched with a BETWEEN range rather than an IN list
+    private static final int MAX_RANGE_SPAN_PER_POSITION = 100;
+
+    private static final String FREQUENCY_COLUMNS = "rsid, dbSNPmaf, espEAmaf, espAAmaf, espAllmaf, exacAFRmaf,  exacAMRmaf, exacEASmaf, exacFINmaf, exacNFEmaf, exacOTHmaf, exacSASmaf ";
+    private static final String FREQUENCY_ORDER = "dbsnpmaf desc, espeamaf desc, espaamaf desc, espallmaf desc ";
+
     private final DataSource dataSource;
 
     private final Map<FrequencySource, String> frequencySourceColumnMappings;
 
+    private Cache cache;
+
+    private VariantBloomFilter bloomFilter;
+
     @Autowired
     public DefaultFrequencyDao(DataSource dataSource) {
         this.dataSource = dataSource;
@@ -82,10 +94,31 @@ public DefaultFrequencyDao(DataSource dataSource) {
         logger.debug("FrequencySource to columnLabel mappings: {}", frequencySourceColumnMappings);
     }
 
+    /**
+     * Optional CacheManager used by the bulk lookups to read and fill the same 'frequency' cache entries as
+     * {@link #getFrequencyData(Variant)}.
+     */
+    @Autowired(required = false)
+    public void setCacheManager(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache("frequency");
+    }
+
+    /**
+     * Optional filter of the variants in the frequency table. Variants which are definitely not in the table are
+     * returned as empty without querying the database.
+     */
+    @Autowired(required = false)
+    public void setBloomFilter(@Qualifier("frequencyBloomFilter") VariantBloomFilter bloomFilter) {
+        this.bloomFilter = bloomFilter;
+    }
+
 
-    @Cacheable(value = "frequency")
+    @Cacheable(value = "frequency", key = VariantCacheKey.KEY_EXPRESSION)
     @Override
     public FrequencyData getFrequencyData(Variant variant) {
+        if (isDefinitelyAbsent(variant)) {
+            return FrequencyData.empty();
+        }
 
         try (
                 Connection connection = dataSource.getConnection();
@@ -100,18 +133,141 @@ public FrequencyData getFrequencyData(Variant variant) {
         return FrequencyData.empty();
     }
 
+    /**
+     * Fetches the frequency data for a block of variants using a few range or IN-list queries per chromosome instead
+     * of one query per variant. Where there are several rows for an allele the first in the same order as
+     * {@link #getFrequencyData(Variant)} is used. Any variants already in the 'frequency' cache are not queried and
+     * the results for the others are added to the cache, so subsequent calls to {@link #getFrequencyData(Variant)}
+     * will hit the cache.
+     *
+     * @param variants the variants to look up, ideally sorted by chromosome and position
+     * @return a map of each input variant to its FrequencyData, in the iteration order of the input
+     */
+    @Override
+    public Map<Variant, FrequencyData> getFrequencyData(Collection<? extends Variant> variants) {
+        Map<Variant, FrequencyData> results = new LinkedHashMap<>();
+        Map<Integer, Map<AlleleKey, List<Variant>>> uncachedVariantsByChromosome = new TreeMap<>();
+        for (Variant variant : variants) {
+            FrequencyData cached = getCachedValue(variant);
+            if (cached != null) {
+                results.put(variant, cached);
+            } else if (isDefinitelyAbsent(variant)) {
+                results.put(variant, FrequencyData.empty());
+                putCachedValue(variant, FrequencyData.empty());
+            } else {
+                //placeholder to keep the input order - this is replaced once the frequencies have been fetched
+                results.put(variant, FrequencyData.empty());
+                uncachedVariantsByChromosome.computeIfAbsent(variant.getChromosome(), chr -> new HashMap<>())
+                        .computeIfAbsent(new AlleleKey(variant.getPosition(), variant.getRef(), variant.getAlt()), key -> new ArrayList<>())
+                        .add(variant);
+            }
+        }
+
+        for (Map.Entry<Integer, Map<AlleleKey, List<Variant>>> entry : uncachedVariantsByChromosome.entrySet()) {
+            Map<AlleleKey, List<Variant>> chromosomeVariants = entry.getValue();
+            Map<AlleleKey, FrequencyData> chromosomeFrequencies = fetchChromosomeFrequencies(entry.getKey(), chromosomeVariants.keySet());
+            for (Map.Entry<AlleleKey, List<Variant>> variantEntry : chromosomeVariants.entrySet()) {
+                FrequencyData frequencyData = chromosomeFrequencies.getOrDefault(variantEntry.getKey(), FrequencyData.empty());
+                for (Variant variant : variantEntry.getValue()) {
+                    results.put(variant, frequencyData);
+                    putCachedValue(variant, frequencyData);
+                }
+            }
+        }
+        return results;
+    }
+
+    private boolean isDefinitelyAbsent(Variant variant) {
+        return bloomFilter != null && !bloomFilter.mightContain(variant);
+    }
+
+    private FrequencyData getCachedValue(Variant variant) {
+        if (cache == null) {
+            return null;
+        }
+        return cache.get(VariantCacheKey.of(variant), FrequencyData.class);
+    }
+
+    private void putCachedValue(Variant variant, FrequencyData frequencyData) {
+        if (cache != null) {
+            cache.put(VariantCacheKey.of(variant), frequencyData);
+        }
+    }
+
+    private Map<AlleleKey, FrequencyData> fetchChromosomeFrequencies(int chromosome, Set<AlleleKey> alleleKeys) {
+        Map<AlleleKey, FrequencyData> frequencies = new HashMap<>();
+        int[] positions = alleleKeys.stream().mapToInt(AlleleKey::getPosition).distinct().sorted().toArray();
+        for (int chunkStart = 0; chunkStart < positions.length; chunkStart += MAX_POSITIONS_PER_QUERY) {
+            int[] chunk = Arrays.copyOfRange(positions, chunkStart, Math.min(positions.length, chunkStart + MAX_POSITIONS_PER_QUERY));
+            try (
+                    Connection connection = dataSource.getConnection();
+                    PreparedStatement preparedStatement = createBulkPreparedStatement(connection, chromosome, chunk);
+                    ResultSet rs = preparedStatement.executeQuery()) {
+
+                processBulkResults(rs, alleleKeys, frequencies);
+
+            } catch (SQLException e) {
+                logger.error("Error executing bulk frequency query: ", e);
+            }
+        }
+        return frequencies;
+    }
+
+    private PreparedStatement createBulkPreparedStatement(Connection connection, int chromosome, int[] positions) throws SQLException {
+        int first = positions[0];
+        int last = positions[positions.length - 1];
+        boolean isDense = (long) last - first <= (long) positions.length * MAX_RANGE_SPAN_PER_POSITION;
+
+        StringBuilder query = new StringBuilder("SELECT position, ref, alt, " + FREQUENCY_COLUMNS
+                + "FROM frequency "
+                + "WHERE chromosome = ? ");
+        if (isDense) {
+            query.append("AND position BETWEEN ? AND ? ");
+        } else {
+            query.append("AND position IN (");
+            for (int i = 0; i < positions.length; i++) {
+                query.append(i == 0 ? "?" : ",?");
+            }
+            query.append(") ");
+        }
+        //the per-allele order matches the single variant query so the first row for each allele is the one it would use
+        query.append("ORDER BY position, ref, alt, ").append(FREQUENCY_ORDER);
+        PreparedStatement ps = connection.prepareStatement(query.toString());
+
+        ps.setInt(1, chromosome);
+        if (isDense) {
+            ps.setInt(2, first);
+            ps.setInt(3, last);
+        } else {
+            for (int i = 0; i < positions.length; i++) {
+                ps.setInt(i + 2, positions[i]);
+            }
+        }
+        return ps;
+    }
+
+    private void processBulkResults(ResultSet rs, Set<AlleleKey> wanted, Map<AlleleKey, FrequencyData> frequencies) throws SQLException {
+        while (rs.next()) {
+            AlleleKey alleleKey = new AlleleKey(rs.getInt("position"), rs.getString("ref").trim(), rs.getString("alt").trim());
+            //range queries will also return rows for other alleles in the range
+            if (wanted.contains(alleleKey) && !frequencies.containsKey(alleleKey)) {
+                frequencies.put(alleleKey, makeFrequencyData(rs));
+            }
+        }
+    }
+
     private PreparedStatement createPreparedStatement(Connection connection, Variant variant) throws SQLException {
         // Added order by clause as sometimes have multiple rows for the same position, ref and alt and first row may have no freq data
         // Can remove if future versions of database remove these duplicated rows
 
         //TODO: optimise this query to remove the order by 
-        String frequencyQuery = "SELECT rsid, dbSNPmaf, espEAmaf, espAAmaf, espAllmaf, exacAFRmaf,  exacAMRmaf, exacEASmaf, exacFINmaf, exacNFEmaf, exacOTHmaf, exacSASmaf "
+        String frequencyQuery = "SELECT " + FREQUENCY_COLUMNS
                 + "FROM frequency "
                 + "WHERE chromosome = ? "
                 + "AND position = ? "
                 + "AND ref = ? "
                 + "AND alt = ? "
-                + "ORDER BY dbsnpmaf desc, espeamaf desc, espaamaf desc, espallmaf desc ";
+                + "ORDER BY " + FREQUENCY_ORDER;
         PreparedStatement ps = connection.prepareStatement(frequencyQuery);
 
         ps.setInt(1, variant.getChromosome());
@@ -123,14 +279,15 @@ private PreparedStatement createPreparedStatement(Connection connection, Variant
     }
 
     private FrequencyData processResults(ResultSet rs) throws SQLException {
-
-        RsId rsId = RsId.empty();
-        Set<Frequency> frequencies = new HashSet<>();
-
         if (rs.next()) {
-            rsId = makeRsId(rs);
-            frequencies = makeFrequencies(rs, frequencies);
+            return makeFrequencyData(rs);
         }
+        return FrequencyData.empty();
+    }
+
+    private FrequencyData makeFrequencyData(ResultSet rs) throws SQLException {
+        RsId rsId = makeRsId(rs);
+        Set<Frequency> frequencies = makeFrequencies(rs, new HashSet<>());
 
         if (rsId.isEmpty() && frequencies.isEmpty()) {
             return FrequencyData.empty();
@@ -158,4 +315,35 @@ private Set<Frequency> makeFrequencies(ResultSet rs, Set<Frequency> frequencies)
         return frequencies;
     }
 
+    private static final class AlleleKey {
+        private final int position;
+        private final String ref;
+        private final String alt;
+
+        private AlleleKey(int position, String ref, String alt) {
+            this.position = position;
+            this.ref = ref;
+            this.alt = alt;
+        }
+
+        private int getPosition() {
+            return position;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            AlleleKey alleleKey = (AlleleKey) o;
+            return position == alleleKey.position &&
+                    Objects.equals(ref, alleleKey.ref) &&
+                    Objects.equals(alt, alleleKey.alt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(position, ref, alt);
+        }
+    }
+
 }
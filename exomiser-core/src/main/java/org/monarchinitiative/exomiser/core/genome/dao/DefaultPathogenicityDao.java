@@ -31,6 +31,9 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 
@@ -39,6 +42,7 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.*;
 
 /**
  *
@@ -49,21 +53,48 @@ public class DefaultPathogenicityDao implements PathogenicityDao {
 
     private final Logger logger = LoggerFactory.getLogger(DefaultPathogenicityDao.class);
 
+    //bulk lookups are split into chunks of at most this many distinct positions per query
+    private static final int MAX_POSITIONS_PER_QUERY = 500;
+    //chunks with fewer bases than this per position are fetched with a BETWEEN range rather than an IN list
+    private static final int MAX_RANGE_SPAN_PER_POSITION = 100;
+
     private final DataSource dataSource;
 
+    private Cache cache;
+
+    private VariantBloomFilter bloomFilter;
+
     @Autowired
     public DefaultPathogenicityDao(DataSource dataSource) {
         this.dataSource = dataSource;
     }
 
-    @Cacheable(value = "pathogenicity")
+    /**
+     * Optional CacheManager used by the bulk lookups to read and fill the same 'pathogenicity' cache entries as
+     * {@link #getPathogenicityData(Variant)}.
+     */
+    @Autowired(required = false)
+    public void setCacheManager(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache("pathogenicity");
+    }
+
+    /**
+     * Optional filter of the variants in the variant table. Variants which are definitely not in the table are
+     * returned as empty without querying the database.
+     */
+    @Autowired(required = false)
+    public void setBloomFilter(@Qualifier("pathogenicityBloomFilter") VariantBloomFilter bloomFilter) {
+        this.bloomFilter = bloomFilter;
+    }
+
+    @Cacheable(value = "pathogenicity", key = VariantCacheKey.KEY_EXPRESSION)
     @Override
     public PathogenicityData getPathogenicityData(Variant variant) {
 
         //if a variant is not classified as missense then we don't need to hit 
         //the database as we're going to assign it a constant pathogenicity score.
         VariantEffect variantEffect = variant.getVariantEffect();
-        if (variantEffect != VariantEffect.MISSENSE_VARIANT) {
+        if (variantEffect != VariantEffect.MISSENSE_VARIANT || isDefinitelyAbsent(variant)) {
             return PathogenicityData.empty();
         }
 
@@ -80,6 +111,136 @@ public PathogenicityData getPathogenicityData(Variant variant) {
         return PathogenicityData.empty();
     }
 
+    /**
+     * Fetches the pathogenicity data for a block of variants using a few range or IN-list queries per chromosome
+     * instead of one query per variant. The returned rows are reduced to the best scores for each variant in a
+     * single pass. Any variants already in the 'pathogenicity' cache are not queried and the results for the others
+     * are added to the cache, so subsequent calls to {@link #getPathogenicityData(Variant)} will hit the cache.
+     *
+     * @param variants the variants to look up, ideally sorted by chromosome and position
+     * @return a map of each input variant to its PathogenicityData, in the iteration order of the input
+     */
+    @Override
+    public Map<Variant, PathogenicityData> getPathogenicityData(Collection<? extends Variant> variants) {
+        Map<Variant, PathogenicityData> results = new LinkedHashMap<>();
+        Map<Integer, Map<AlleleKey, List<Variant>>> uncachedMissenseVariantsByChromosome = new TreeMap<>();
+        for (Variant variant : variants) {
+            PathogenicityData cached = getCachedValue(variant);
+            if (cached != null) {
+                results.put(variant, cached);
+            } else if (variant.getVariantEffect() != VariantEffect.MISSENSE_VARIANT || isDefinitelyAbsent(variant)) {
+                results.put(variant, PathogenicityData.empty());
+                putCachedValue(variant, PathogenicityData.empty());
+            } else {
+                //placeholder to keep the input order - this is replaced once the scores have been fetched
+                results.put(variant, PathogenicityData.empty());
+                uncachedMissenseVariantsByChromosome.computeIfAbsent(variant.getChromosome(), chr -> new HashMap<>())
+                        .computeIfAbsent(new AlleleKey(variant.getPosition(), variant.getRef(), variant.getAlt()), key -> new ArrayList<>())
+                        .add(variant);
+            }
+        }
+
+        for (Map.Entry<Integer, Map<AlleleKey, List<Variant>>> entry : uncachedMissenseVariantsByChromosome.entrySet()) {
+            Map<AlleleKey, List<Variant>> chromosomeVariants = entry.getValue();
+            Map<AlleleKey, ScoreAccumulator> chromosomeScores = fetchChromosomeScores(entry.getKey(), chromosomeVariants.keySet());
+            for (Map.Entry<AlleleKey, List<Variant>> variantEntry : chromosomeVariants.entrySet()) {
+                ScoreAccumulator scores = chromosomeScores.get(variantEntry.getKey());
+                PathogenicityData pathogenicityData = scores == null ? PathogenicityData.empty() : scores.toPathogenicityData();
+                for (Variant variant : variantEntry.getValue()) {
+                    results.put(variant, pathogenicityData);
+                    putCachedValue(variant, pathogenicityData);
+                }
+            }
+        }
+        return results;
+    }
+
+    private boolean isDefinitelyAbsent(Variant variant) {
+        return bloomFilter != null && !bloomFilter.mightContain(variant);
+    }
+
+    private PathogenicityData getCachedValue(Variant variant) {
+        if (cache == null) {
+            return null;
+        }
+        return cache.get(VariantCacheKey.of(variant), PathogenicityData.class);
+    }
+
+    private void putCachedValue(Variant variant, PathogenicityData pathogenicityData) {
+        if (cache != null) {
+            cache.put(VariantCacheKey.of(variant), pathogenicityData);
+        }
+    }
+
+    private Map<AlleleKey, ScoreAccumulator> fetchChromosomeScores(int chromosome, Set<AlleleKey> alleleKeys) {
+        Map<AlleleKey, ScoreAccumulator> scores = new HashMap<>();
+        int[] positions = alleleKeys.stream().mapToInt(AlleleKey::getPosition).distinct().sorted().toArray();
+        for (int chunkStart = 0; chunkStart < positions.length; chunkStart += MAX_POSITIONS_PER_QUERY) {
+            int[] chunk = Arrays.copyOfRange(positions, chunkStart, Math.min(positions.length, chunkStart + MAX_POSITIONS_PER_QUERY));
+            try (
+                    Connection connection = dataSource.getConnection();
+                    PreparedStatement preparedStatement = createBulkPreparedStatement(connection, chromosome, chunk);
+                    ResultSet rs = preparedStatement.executeQuery()) {
+
+                processBulkResults(rs, alleleKeys, scores);
+
+            } catch (SQLException e) {
+                logger.error("Error executing bulk pathogenicity query: ", e);
+            }
+        }
+        return scores;
+    }
+
+    private PreparedStatement createBulkPreparedStatement(Connection connection, int chromosome, int[] positions) throws SQLException {
+        int first = positions[0];
+        int last = positions[positions.length - 1];
+        boolean isDense = (long) last - first <= (long) positions.length * MAX_RANGE_SPAN_PER_POSITION;
+
+        StringBuilder query = new StringBuilder("SELECT "
+                + "position,"
+                + "ref,"
+                + "alt,"
+                + "sift,"
+                + "polyphen,"
+                + "mut_taster "
+                + "FROM variant "
+                + "WHERE chromosome = ? ");
+        if (isDense) {
+            query.append("AND position BETWEEN ? AND ? ");
+        } else {
+            query.append("AND position IN (");
+            for (int i = 0; i < positions.length; i++) {
+                query.append(i == 0 ? "?" : ",?");
+            }
+            query.append(") ");
+        }
+        PreparedStatement ps = connection.prepareStatement(query.toString());
+
+        ps.setInt(1, chromosome);
+        if (isDense) {
+            ps.setInt(2, first);
+            ps.setInt(3, last);
+        } else {
+            for (int i = 0; i < positions.length; i++) {
+                ps.setInt(i + 2, positions[i]);
+            }
+        }
+        return ps;
+    }
+
+    private void processBulkResults(ResultSet rs, Set<AlleleKey> wanted, Map<AlleleKey, ScoreAccumulator> scores) throws SQLException {
+        while (rs.next()) {
+            AlleleKey alleleKey = new AlleleKey(rs.getInt("position"), rs.getString("ref").trim(), rs.getString("alt").trim());
+            //range queries will also return rows for other alleles in the range
+            if (wanted.contains(alleleKey)) {
+                ScoreAccumulator accumulator = scores.computeIfAbsent(alleleKey, key -> new ScoreAccumulator());
+                accumulator.siftScore = getBestSiftScore(rs, accumulator.siftScore);
+                accumulator.polyPhenScore = getBestPolyPhenScore(rs, accumulator.polyPhenScore);
+                accumulator.mutationTasterScore = getBestMutationTasterScore(rs, accumulator.mutationTasterScore);
+            }
+        }
+    }
+
     private PreparedStatement createPreparedStatement(Connection connection, Variant variant) throws SQLException {
         String query = "SELECT "
                 + "sift,"
@@ -172,4 +333,48 @@ private CaddScore getBestCaddScore(ResultSet rs, CaddScore score) throws SQLExce
         return score;
     }
 
+    /**
+     * Holds the best scores found so far for an allele during a bulk lookup.
+     */
+    private class ScoreAccumulator {
+        private SiftScore siftScore;
+        private PolyPhenScore polyPhenScore;
+        private MutationTasterScore mutationTasterScore;
+
+        private PathogenicityData toPathogenicityData() {
+            return makePathogenicityData(siftScore, polyPhenScore, mutationTasterScore);
+        }
+    }
+
+    private static final class AlleleKey {
+        private final int position;
+        private final String ref;
+        private final String alt;
+
+        private AlleleKey(int position, String ref, String alt) {
+            this.position = position;
+            this.ref = ref;
+            this.alt = alt;
+        }
+
+        private int getPosition() {
+            return position;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            AlleleKey alleleKey = (AlleleKey) o;
+            return position == alleleKey.position &&
+                    Objects.equals(ref, alleleKey.ref) &&
+                    Objects.equals(alt, alleleKey.alt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(position, ref, alt);
+        }
+    }
+
 }
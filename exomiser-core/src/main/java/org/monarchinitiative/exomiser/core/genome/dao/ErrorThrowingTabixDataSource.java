@@ -20,8 +20,6 @@
 
 package org.monarchinitiative.exomiser.core.genome.dao;
 
-import htsjdk.tribble.readers.TabixReader;
-
 /**
  * Special implementation of the TabixDataSource to throw an error if called, but the datasource has not been configured
  * in the application.
@@ -37,12 +35,12 @@ public ErrorThrowingTabixDataSource(String message) {
     }
 
     @Override
-    public TabixReader.Iterator query(String query) {
+    public TabixQueryIterator query(String query) {
         throw new IllegalArgumentException(message);
     }
 
     @Override
-    public TabixReader.Iterator query(String chromosome, int start, int end) {
+    public TabixQueryIterator query(String chromosome, int start, int end) {
         throw new IllegalArgumentException(message);
     }
 
@@ -28,6 +28,10 @@
 import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
@@ -36,4 +40,19 @@ public interface FrequencyDao {
 
     FrequencyData getFrequencyData(Variant variant);
 
+    /**
+     * Bulk version of {@link #getFrequencyData(Variant)}. Implementations able to look up several variants at once
+     * should override this - by default each variant is looked-up in turn.
+     *
+     * @param variants the variants to look up, ideally sorted by chromosome and position
+     * @return a map of each input variant to its FrequencyData, in the iteration order of the input
+     */
+    default Map<Variant, FrequencyData> getFrequencyData(Collection<? extends Variant> variants) {
+        Map<Variant, FrequencyData> results = new LinkedHashMap<>();
+        for (Variant variant : variants) {
+            results.put(variant, getFrequencyData(variant));
+        }
+        return results;
+    }
+
 }
@@ -0,0 +1,144 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.tribble.index.Block;
+import htsjdk.tribble.index.tabix.TabixFormat;
+import htsjdk.tribble.index.tabix.TabixIndex;
+import htsjdk.tribble.readers.TabixReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads the lines of a bgzipped tabix file overlapping a region using a parsed {@link TabixIndex}. The index is
+ * immutable once read so it can be shared between any number of these readers, each of which has its own
+ * {@link BlockCompressedInputStream} over the file. A reader is not thread-safe and an iterator returned from a query
+ * is invalidated by the next query to the same reader.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+class IndexedTabixReader implements Closeable {
+
+    private static final TabixReader.Iterator EMPTY_ITERATOR = () -> null;
+
+    private final TabixIndex tabixIndex;
+    private final TabixFormat tabixFormat;
+    private final BlockCompressedInputStream inputStream;
+
+    IndexedTabixReader(TabixIndex tabixIndex, BlockCompressedInputStream inputStream) {
+        this.tabixIndex = tabixIndex;
+        this.tabixFormat = tabixIndex.getFormatSpec();
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Returns the lines overlapping the region in file order.
+     *
+     * @param chromosome name of the chromosome as used in the file
+     * @param beg        zero-based start of the region, inclusive
+     * @param end        zero-based end of the region, exclusive
+     */
+    TabixReader.Iterator query(String chromosome, int beg, int end) throws IOException {
+        if (beg >= end || !tabixIndex.containsChromosome(chromosome)) {
+            return EMPTY_ITERATOR;
+        }
+        //the lower bound is widened by one base so the blocks cover the region whether the index takes zero or one-based
+        //coordinates. This is safe as the lines are checked against the region as they are read.
+        List<Block> blocks = tabixIndex.getBlocks(chromosome, Math.max(1, beg), end);
+        if (blocks.isEmpty()) {
+            return EMPTY_ITERATOR;
+        }
+        //the file is sorted so every overlapping line follows the earliest block start
+        long startOffset = Long.MAX_VALUE;
+        for (Block block : blocks) {
+            startOffset = Math.min(startOffset, block.getStartPosition());
+        }
+        inputStream.seek(startOffset);
+        return new RegionIterator(chromosome, beg, end);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+
+    private class RegionIterator implements TabixReader.Iterator {
+
+        private final String chromosome;
+        private final int beg;
+        private final int end;
+        private boolean finished = false;
+
+        private RegionIterator(String chromosome, int beg, int end) {
+            this.chromosome = chromosome;
+            this.beg = beg;
+            this.end = end;
+        }
+
+        @Override
+        public String next() throws IOException {
+            if (finished) {
+                return null;
+            }
+            String line;
+            while ((line = inputStream.readLine()) != null) {
+                if (line.isEmpty() || line.charAt(0) == tabixFormat.metaCharacter) {
+                    continue;
+                }
+                int chromosomeStart = TabixLineParser.columnStart(line, tabixFormat.sequenceColumn - 1);
+                if (!TabixLineParser.columnEquals(line, chromosomeStart, chromosome)) {
+                    break;
+                }
+                int lineBeg = getLineBeg(line);
+                if (lineBeg >= end) {
+                    break;
+                }
+                if (getLineEnd(line, lineBeg) > beg) {
+                    return line;
+                }
+            }
+            finished = true;
+            return null;
+        }
+    }
+
+    private int getLineBeg(String line) {
+        int start = TabixLineParser.parseInt(line, TabixLineParser.columnStart(line, tabixFormat.startPositionColumn - 1));
+        //UCSC style files are already zero-based
+        return (tabixFormat.flags & TabixFormat.UCSC_FLAGS) != 0 ? start : start - 1;
+    }
+
+    private int getLineEnd(String line, int lineBeg) {
+        int endColumn = tabixFormat.endPositionColumn;
+        if (endColumn > 0 && endColumn != tabixFormat.startPositionColumn) {
+            return TabixLineParser.parseInt(line, TabixLineParser.columnStart(line, endColumn - 1));
+        }
+        int refStart = TabixLineParser.columnStart(line, 3);
+        if ((tabixFormat.flags & 0xffff) == TabixFormat.VCF_FLAGS && refStart > 0) {
+            //the REF column gives the length of VCF records
+            return lineBeg + TabixLineParser.columnEnd(line, refStart) - refStart;
+        }
+        return lineBeg + 1;
+    }
+}
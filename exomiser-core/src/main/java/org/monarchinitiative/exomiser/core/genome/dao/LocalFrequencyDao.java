@@ -20,7 +20,6 @@
 
 package org.monarchinitiative.exomiser.core.genome.dao;
 
-import htsjdk.tribble.readers.TabixReader;
 import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
@@ -49,7 +48,7 @@ public LocalFrequencyDao(TabixDataSource localFrequencyTabixDataSource) {
         this.tabixDataSource = localFrequencyTabixDataSource;
     }
 
-    @Cacheable(value = "local")
+    @Cacheable(value = "local", key = VariantCacheKey.KEY_EXPRESSION)
     @Override
     public FrequencyData getFrequencyData(Variant variant) {
         return processResults(variant);
@@ -72,8 +71,7 @@ private FrequencyData getPositionFrequencyData(String chromosome, int start, Str
         //note in the usual VCF format these would be on a single line
         //1 12345   AT   G   0.02  (an AT->G deletion on chr1 at position 12345 with frequency of 0.02%)
         //1 12345   T   .   0.03  (an T->. monomorphic site (no alt allele) on chr1 at position 12345 with frequency of 0.03%)
-        try {
-            TabixReader.Iterator results = tabixDataSource.query(chromosome + ":" + start + "-" + start);
+        try (TabixQueryIterator results = tabixDataSource.query(chromosome + ":" + start + "-" + start)) {
             String line;
             while ((line = results.next()) != null) {
                 String[] elements = line.split("\t");
@@ -28,6 +28,10 @@
 import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
@@ -36,4 +40,19 @@ public interface PathogenicityDao {
 
     PathogenicityData getPathogenicityData(Variant variant);
 
+    /**
+     * Bulk version of {@link #getPathogenicityData(Variant)}. Implementations able to look up several variants at
+     * once should override this - by default each variant is looked-up in turn.
+     *
+     * @param variants the variants to look up, ideally sorted by chromosome and position
+     * @return a map of each input variant to its PathogenicityData, in the iteration order of the input
+     */
+    default Map<Variant, PathogenicityData> getPathogenicityData(Collection<? extends Variant> variants) {
+        Map<Variant, PathogenicityData> results = new LinkedHashMap<>();
+        for (Variant variant : variants) {
+            results.put(variant, getPathogenicityData(variant));
+        }
+        return results;
+    }
+
 }
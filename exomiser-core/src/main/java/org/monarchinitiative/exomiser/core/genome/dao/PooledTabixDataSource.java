@@ -0,0 +1,326 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.tribble.index.tabix.TabixIndex;
+import htsjdk.tribble.readers.TabixReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe {@link TabixDataSource} backed by a bounded pool of readers. A single HTSJDK TabixReader holds one file
+ * pointer which is moved by every query, so it cannot be shared between threads. Here the .tbi index is parsed once
+ * and shared by all the readers in the pool, each of which only adds its own {@link BlockCompressedInputStream} over
+ * the file.
+ * <p>
+ * A query checks a reader out of the pool, opening a new one if none are idle and fewer than the maximum are open,
+ * otherwise waiting for one to be returned. The reader is returned when the {@link TabixQueryIterator} from the query is
+ * closed, which the DAOs do using try-with-resources, or as soon as it has been read until it returns null.
+ * <p>
+ * All the readers are closed when this data source is closed.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class PooledTabixDataSource implements TabixDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledTabixDataSource.class);
+
+    private static final long BORROW_TIMEOUT_SECONDS = 60;
+
+    private final String source;
+    private final IndexedTabixReaderFactory readerFactory;
+    private final int maxReaders;
+
+    private final Semaphore availableReaders;
+    private final Queue<IndexedTabixReader> idleReaders = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger openReaders = new AtomicInteger();
+    private final AtomicInteger borrowedReaders = new AtomicInteger();
+    private final AtomicLong readersOpened = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a data source for the tabix file and its .tbi index with up to one reader per available processor.
+     *
+     * @throws IOException if the file or its index could not be read
+     */
+    public PooledTabixDataSource(String tabixGzPath) throws IOException {
+        this(tabixGzPath, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a data source for the tabix file and its .tbi index with up to maxReaders readers. The index is read and
+     * the first reader opened immediately so that a missing or invalid file is reported here rather than on the first
+     * query.
+     *
+     * @throws IOException if the file or its index could not be read
+     */
+    public PooledTabixDataSource(String tabixGzPath, int maxReaders) throws IOException {
+        this(tabixGzPath, maxReaders, createReaderFactory(tabixGzPath));
+        idleReaders.add(openReader());
+    }
+
+    PooledTabixDataSource(String source, int maxReaders, IndexedTabixReaderFactory readerFactory) {
+        if (maxReaders < 1) {
+            throw new IllegalArgumentException("maxReaders must be at least 1, but was " + maxReaders);
+        }
+        this.source = source;
+        this.maxReaders = maxReaders;
+        this.readerFactory = readerFactory;
+        this.availableReaders = new Semaphore(maxReaders, true);
+    }
+
+    @FunctionalInterface
+    interface IndexedTabixReaderFactory {
+        IndexedTabixReader open() throws IOException;
+    }
+
+    private static IndexedTabixReaderFactory createReaderFactory(String tabixGzPath) throws IOException {
+        long startTime = System.nanoTime();
+        TabixIndex tabixIndex = new TabixIndex(new File(tabixGzPath + ".tbi"));
+        logger.debug("Read tabix index for {} in {} ms", tabixGzPath, (System.nanoTime() - startTime) / 1_000_000);
+        File tabixGzFile = new File(tabixGzPath);
+        return () -> new IndexedTabixReader(tabixIndex, new BlockCompressedInputStream(tabixGzFile));
+    }
+
+    /**
+     * Queries the region in the same format as the TabixReader i.e. chr, chr:beg or chr:beg-end where beg and end are
+     * one-based and inclusive.
+     */
+    @Override
+    public TabixQueryIterator query(String query) {
+        int colon = query.lastIndexOf(':');
+        if (colon < 0) {
+            return query(query, 1, Integer.MAX_VALUE);
+        }
+        String chromosome = query.substring(0, colon);
+        String range = query.substring(colon + 1).replace(",", "");
+        int hyphen = range.indexOf('-');
+        try {
+            int start = Integer.parseInt(hyphen < 0 ? range : range.substring(0, hyphen));
+            int end = hyphen < 0 ? Integer.MAX_VALUE : Integer.parseInt(range.substring(hyphen + 1));
+            return query(chromosome, start, end);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid tabix region " + query, e);
+        }
+    }
+
+    /**
+     * Queries the region from start to end, both of which are one-based and inclusive.
+     */
+    @Override
+    public TabixQueryIterator query(String chromosome, int start, int end) {
+        queries.incrementAndGet();
+        IndexedTabixReader reader = borrowReader();
+        try {
+            return new PooledIterator(reader, reader.query(chromosome, Math.max(0, start - 1), end));
+        } catch (IOException e) {
+            discardReader(reader);
+            throw new UncheckedIOException("Unable to query " + source + " for " + chromosome + ":" + start + "-" + end, e);
+        } catch (RuntimeException e) {
+            discardReader(reader);
+            throw e;
+        }
+    }
+
+    private IndexedTabixReader borrowReader() {
+        checkNotClosed();
+        try {
+            if (!availableReaders.tryAcquire(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for one of the " + maxReaders + " readers for " + source + " - check the iterators from all queries are closed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a reader for " + source, e);
+        }
+        IndexedTabixReader reader = idleReaders.poll();
+        if (reader == null) {
+            try {
+                reader = openReader();
+            } catch (IOException e) {
+                availableReaders.release();
+                throw new UncheckedIOException("Unable to open tabix reader for " + source, e);
+            }
+        }
+        borrowedReaders.incrementAndGet();
+        return reader;
+    }
+
+    private void returnReader(IndexedTabixReader reader) {
+        borrowedReaders.decrementAndGet();
+        //a reader can be opened while another is being returned so close any beyond the maximum
+        if (closed || openReaders.get() > maxReaders) {
+            closeReader(reader);
+        } else {
+            idleReaders.offer(reader);
+            if (closed && idleReaders.remove(reader)) {
+                closeReader(reader);
+            }
+        }
+        availableReaders.release();
+    }
+
+    private void discardReader(IndexedTabixReader reader) {
+        borrowedReaders.decrementAndGet();
+        closeReader(reader);
+        availableReaders.release();
+    }
+
+    private IndexedTabixReader openReader() throws IOException {
+        checkNotClosed();
+        IndexedTabixReader reader = readerFactory.open();
+        openReaders.incrementAndGet();
+        readersOpened.incrementAndGet();
+        logger.debug("Opened tabix reader {} for {} on thread {}", readersOpened.get(), source, Thread.currentThread().getName());
+        return reader;
+    }
+
+    private void closeReader(IndexedTabixReader reader) {
+        openReaders.decrementAndGet();
+        try {
+            reader.close();
+        } catch (IOException e) {
+            logger.error("Unable to close tabix reader for {}", source, e);
+        }
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Tabix data source " + source + " has been closed");
+        }
+    }
+
+    @Override
+    public String getSource() {
+        return source;
+    }
+
+    public int getMaxReaders() {
+        return maxReaders;
+    }
+
+    /**
+     * @return the number of readers currently checked out by queries whose iterators have not been finished.
+     */
+    public int getBorrowedReaders() {
+        return borrowedReaders.get();
+    }
+
+    /**
+     * @return the number of open readers waiting in the pool.
+     */
+    public int getIdleReaders() {
+        return idleReaders.size();
+    }
+
+    /**
+     * @return the total number of readers opened, including any which have since been closed.
+     */
+    public long getReadersOpened() {
+        return readersOpened.get();
+    }
+
+    public long getQueries() {
+        return queries.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        logger.info("Closing {}", this);
+        IndexedTabixReader reader;
+        while ((reader = idleReaders.poll()) != null) {
+            closeReader(reader);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PooledTabixDataSource{" +
+                "source='" + source + '\'' +
+                ", maxReaders=" + maxReaders +
+                ", borrowedReaders=" + borrowedReaders.get() +
+                ", idleReaders=" + idleReaders.size() +
+                ", readersOpened=" + readersOpened.get() +
+                ", queries=" + queries.get() +
+                '}';
+    }
+
+    /**
+     * Returns the reader to the pool once all the lines have been read or the iterator is closed. Like the iterators
+     * from a TabixReader this is only to be used by a single thread.
+     */
+    private class PooledIterator implements TabixQueryIterator {
+
+        private final TabixReader.Iterator iterator;
+        private IndexedTabixReader reader;
+
+        private PooledIterator(IndexedTabixReader reader, TabixReader.Iterator iterator) {
+            this.reader = reader;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public String next() throws IOException {
+            if (reader == null) {
+                return null;
+            }
+            try {
+                String line = iterator.next();
+                if (line == null) {
+                    close();
+                }
+                return line;
+            } catch (IOException | RuntimeException e) {
+                //the position of the stream is unknown after a failure so the reader is not re-used
+                IndexedTabixReader failedReader = reader;
+                reader = null;
+                discardReader(failedReader);
+                throw e;
+            }
+        }
+
+        /**
+         * Returns the reader to the pool without reading the remaining lines.
+         */
+        @Override
+        public void close() {
+            if (reader != null) {
+                IndexedTabixReader finishedReader = reader;
+                reader = null;
+                returnReader(finishedReader);
+            }
+        }
+    }
+}
@@ -26,17 +26,19 @@
 package org.monarchinitiative.exomiser.core.genome.dao;
 
 import de.charite.compbio.jannovar.annotation.VariantEffect;
-import htsjdk.tribble.readers.TabixReader;
 import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.RemmScore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.*;
 
 /**
  *
@@ -47,14 +49,34 @@ public class RemmDao {
 
     private final Logger logger = LoggerFactory.getLogger(RemmDao.class);
 
+    //REMM file columns: #Chrom  Pos     REMM
+    private static final int POS_COLUMN = 1;
+    private static final int SCORE_COLUMN = 2;
+
+    //sorted variants closer together than this are scored from the same decoded window
+    private static final int MAX_WINDOW_GAP = 10_000;
+
+    private static final Comparator<Variant> GENOMIC_ORDER = Comparator.comparingInt(Variant::getChromosome).thenComparingInt(Variant::getPosition);
+
     private final TabixDataSource remmTabixDataSource;
 
+    private Cache cache;
+
     @Autowired
     public RemmDao(TabixDataSource remmTabixDataSource) {
         this.remmTabixDataSource = remmTabixDataSource;
     }
 
-    @Cacheable(value = "remm")
+    /**
+     * Optional CacheManager used by the windowed lookups to read and fill the same 'remm' cache entries as
+     * {@link #getPathogenicityData(Variant)}.
+     */
+    @Autowired(required = false)
+    public void setCacheManager(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache("remm");
+    }
+
+    @Cacheable(value = "remm", key = VariantCacheKey.KEY_EXPRESSION)
     public PathogenicityData getPathogenicityData(Variant variant) {
         // REMM has not been trained on missense variants so skip these
         if (variant.getVariantEffect() == VariantEffect.MISSENSE_VARIANT) {
@@ -63,6 +85,129 @@ public PathogenicityData getPathogenicityData(Variant variant) {
         return processResults(variant);
     }
 
+    /**
+     * Windowed lookup for a block of variants. The variants are sorted and grouped into windows of nearby variants,
+     * no more than {@value #MAX_WINDOW_GAP} bases apart. Each window is read with a single tabix query and the
+     * positions and scores are decoded into arrays. The maximum score over each variant's range is then found from the
+     * decoded window, rather than running a separate tabix query per variant. Variants already in the 'remm' cache are
+     * not looked up and the results for the others are added to the cache.
+     *
+     * @param variants the variants to score
+     * @return a map of each input variant to its PathogenicityData, in the iteration order of the input
+     */
+    public Map<Variant, PathogenicityData> getPathogenicityData(Collection<? extends Variant> variants) {
+        Map<Variant, PathogenicityData> results = new LinkedHashMap<>();
+        List<Variant> uncached = new ArrayList<>();
+        List<Variant> toScore = new ArrayList<>();
+        for (Variant variant : variants) {
+            PathogenicityData cached = cache == null ? null : cache.get(VariantCacheKey.of(variant), PathogenicityData.class);
+            //the placeholder keeps the input order and is the result for variants without a score
+            results.put(variant, cached == null ? PathogenicityData.empty() : cached);
+            if (cached == null) {
+                uncached.add(variant);
+                // REMM has not been trained on missense variants so skip these
+                if (variant.getVariantEffect() != VariantEffect.MISSENSE_VARIANT) {
+                    toScore.add(variant);
+                }
+            }
+        }
+
+        toScore.sort(GENOMIC_ORDER);
+        int windowStart = 0;
+        for (int i = 1; i <= toScore.size(); i++) {
+            if (i == toScore.size() || isNewWindow(toScore.get(i - 1), toScore.get(i))) {
+                scoreWindow(toScore.subList(windowStart, i), results);
+                windowStart = i;
+            }
+        }
+
+        if (cache != null) {
+            uncached.forEach(variant -> cache.put(VariantCacheKey.of(variant), results.get(variant)));
+        }
+        return results;
+    }
+
+    private boolean isNewWindow(Variant previous, Variant current) {
+        return previous.getChromosome() != current.getChromosome() || current.getPosition() - calculateEndPosition(previous) > MAX_WINDOW_GAP;
+    }
+
+    private void scoreWindow(List<Variant> window, Map<Variant, PathogenicityData> results) {
+        String chromosome = window.get(0).getChromosomeName();
+        int start = window.get(0).getPosition();
+        int end = start;
+        for (Variant variant : window) {
+            end = Math.max(end, calculateEndPosition(variant));
+        }
+        ScoreWindow scoreWindow = readWindow(chromosome, start, end);
+        for (Variant variant : window) {
+            float remm = scoreWindow.maxScore(variant.getPosition(), calculateEndPosition(variant));
+            if (!Float.isNaN(remm)) {
+                results.put(variant, PathogenicityData.of(RemmScore.valueOf(remm)));
+            }
+        }
+    }
+
+    private ScoreWindow readWindow(String chromosome, int start, int end) {
+        ScoreWindow scoreWindow = new ScoreWindow(end - start + 1);
+        try (TabixQueryIterator results = remmTabixDataSource.query(chromosome + ":" + start + "-" + end)) {
+            String line;
+            while ((line = results.next()) != null) {
+                int pos = TabixLineParser.parseInt(line, TabixLineParser.columnStart(line, POS_COLUMN));
+                float score = TabixLineParser.parseFloat(line, TabixLineParser.columnStart(line, SCORE_COLUMN));
+                scoreWindow.add(pos, score);
+            }
+        } catch (IOException e) {
+            logger.error("Unable to read from REMM tabix file {}", remmTabixDataSource.getSource(), e);
+        }
+        return scoreWindow;
+    }
+
+    /**
+     * The positions and scores decoded from a single tabix window, in file order.
+     */
+    private static class ScoreWindow {
+
+        private int[] positions;
+        private float[] scores;
+        private int size = 0;
+
+        private ScoreWindow(int expectedSize) {
+            //REMM has a score for nearly every base, but windows can be large so don't over-allocate up front
+            int capacity = Math.max(16, Math.min(expectedSize, 4096));
+            this.positions = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        private void add(int pos, float score) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            positions[size] = pos;
+            scores[size] = score;
+            size++;
+        }
+
+        /**
+         * @return the maximum score between the start and end positions inclusive or NaN if there are none
+         */
+        private float maxScore(int start, int end) {
+            int index = Arrays.binarySearch(positions, 0, size, start);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            //with duplicate positions the binary search can land on any of them
+            while (index > 0 && positions[index - 1] >= start) {
+                index--;
+            }
+            float max = Float.NaN;
+            for (int i = index; i < size && positions[i] <= end; i++) {
+                max = Float.isNaN(max) ? scores[i] : Math.max(max, scores[i]);
+            }
+            return max;
+        }
+    }
+
     private PathogenicityData processResults(Variant variant) {
         String chromosome = variant.getChromosomeName();
         int start = variant.getPosition();
@@ -101,17 +246,16 @@ private static boolean isInsertion(int refLength, int altLength) {
     }
 
     private PathogenicityData getRemmData(String chromosome, int start, int end) {
-        try {
+//            logger.info("Running tabix with " + chromosome + ":" + start + "-" + end);
+        try (TabixQueryIterator results = remmTabixDataSource.query(chromosome + ":" + start + "-" + end)) {
             float remm = Float.NaN;
             String line;
-//            logger.info("Running tabix with " + chromosome + ":" + start + "-" + end);
-            TabixReader.Iterator results = remmTabixDataSource.query(chromosome + ":" + start + "-" + end);
             while ((line = results.next()) != null) {
-                String[] elements = line.split("\t");
+                float score = TabixLineParser.parseFloat(line, TabixLineParser.columnStart(line, SCORE_COLUMN));
                 if (Float.isNaN(remm)) {
-                    remm = Float.parseFloat(elements[2]);
+                    remm = score;
                 } else {
-                    remm = Math.max(remm, Float.parseFloat(elements[2]));
+                    remm = Math.max(remm, score);
                 }
             }
             //logger.info("Final score " + remm);
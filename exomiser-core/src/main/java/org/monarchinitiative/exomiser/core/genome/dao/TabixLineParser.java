@@ -0,0 +1,92 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+/**
+ * Reads individual tab-separated columns from tabix data lines without splitting the whole line into a new String
+ * array. The data files only need a few columns from each line so this avoids creating the garbage for all the others.
+ * Columns are zero-based.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+final class TabixLineParser {
+
+    private TabixLineParser() {
+        //static utility class
+    }
+
+    /**
+     * @return the index of the first character of the column or -1 if the line has fewer columns
+     */
+    static int columnStart(String line, int column) {
+        int start = 0;
+        for (int i = 0; i < column; i++) {
+            int tab = line.indexOf('\t', start);
+            if (tab == -1) {
+                return -1;
+            }
+            start = tab + 1;
+        }
+        return start;
+    }
+
+    /**
+     * @return the index one past the last character of the column starting at columnStart
+     */
+    static int columnEnd(String line, int columnStart) {
+        int tab = line.indexOf('\t', columnStart);
+        return tab == -1 ? line.length() : tab;
+    }
+
+    static boolean columnEquals(String line, int columnStart, String value) {
+        if (columnStart < 0) {
+            return false;
+        }
+        int columnEnd = columnEnd(line, columnStart);
+        return columnEnd - columnStart == value.length() && line.regionMatches(columnStart, value, 0, value.length());
+    }
+
+    /**
+     * Parses a non-negative integer from the column, returning -1 if the column is missing, empty or not a number.
+     */
+    static int parseInt(String line, int columnStart) {
+        if (columnStart < 0) {
+            return -1;
+        }
+        int columnEnd = columnEnd(line, columnStart);
+        if (columnEnd == columnStart) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = columnStart; i < columnEnd; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    static float parseFloat(String line, int columnStart) {
+        return Float.parseFloat(line.substring(columnStart, columnEnd(line, columnStart)));
+    }
+}
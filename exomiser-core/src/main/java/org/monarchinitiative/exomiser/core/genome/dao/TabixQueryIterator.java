@@ -0,0 +1,62 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import htsjdk.tribble.readers.TabixReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The lines returned by a {@link TabixDataSource} query. An implementation can hold onto a resource, such as a pooled
+ * reader, until it is closed so callers must always close it, ideally using try-with-resources. Closing it part way
+ * through is fine and so is closing it more than once.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public interface TabixQueryIterator extends TabixReader.Iterator, Closeable {
+
+    /**
+     * @return the next line or null if there are no more lines in the queried region
+     */
+    @Override
+    public String next() throws IOException;
+
+    @Override
+    public void close();
+
+    /**
+     * Wraps an iterator which holds no resources, such as one from an HTSJDK TabixReader, so closing it does nothing.
+     */
+    public static TabixQueryIterator of(TabixReader.Iterator iterator) {
+        return new TabixQueryIterator() {
+            @Override
+            public String next() throws IOException {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+                //nothing to release
+            }
+        };
+    }
+}
@@ -36,13 +36,13 @@ public TabixReaderAdaptor(TabixReader tabixReader) {
     }
 
     @Override
-    public TabixReader.Iterator query(String query) {
-        return tabixReader.query(query);
+    public TabixQueryIterator query(String query) {
+        return TabixQueryIterator.of(tabixReader.query(query));
     }
 
     @Override
-    public TabixReader.Iterator query(String chromosome, int start, int end) {
-        return tabixReader.query(chromosome, start, end);
+    public TabixQueryIterator query(String chromosome, int start, int end) {
+        return TabixQueryIterator.of(tabixReader.query(chromosome, start, end));
     }
 
     @Override
@@ -0,0 +1,186 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.PrimitiveSink;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compact membership index of the alleles present in a data release of a variant database. A negative answer from
+ * {@link #mightContain(Variant)} means the variant is definitely not in the database so the query can be skipped. A
+ * positive answer may be a false positive, at the rate set when the filter was built.
+ * <p>
+ * Filters are built by the exomiser-db module and read at startup with {@link #readFrom(Path)}.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantBloomFilter.class);
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final String type;
+    private final String release;
+    private final double configuredFpp;
+    private long numVariants;
+    private final BloomFilter<AlleleKey> bloomFilter;
+
+    private VariantBloomFilter(String type, String release, double configuredFpp, long numVariants, BloomFilter<AlleleKey> bloomFilter) {
+        this.type = type;
+        this.release = release;
+        this.configuredFpp = configuredFpp;
+        this.numVariants = numVariants;
+        this.bloomFilter = bloomFilter;
+    }
+
+    /**
+     * Creates a new, empty filter sized for the expected number of variants at the given false-positive probability.
+     */
+    public static VariantBloomFilter create(String type, String release, long expectedVariants, double fpp) {
+        BloomFilter<AlleleKey> bloomFilter = BloomFilter.create(AlleleKeyFunnel.INSTANCE, Math.max(expectedVariants, 1), fpp);
+        return new VariantBloomFilter(type, release, fpp, 0, bloomFilter);
+    }
+
+    public static VariantBloomFilter readFrom(Path path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new VariantBloomFilterException("Unsupported bloom filter format version " + version + " in " + path);
+            }
+            String type = in.readUTF();
+            String release = in.readUTF();
+            double configuredFpp = in.readDouble();
+            long numVariants = in.readLong();
+            BloomFilter<AlleleKey> bloomFilter = BloomFilter.readFrom(in, AlleleKeyFunnel.INSTANCE);
+            VariantBloomFilter variantBloomFilter = new VariantBloomFilter(type, release, configuredFpp, numVariants, bloomFilter);
+            logger.info("Loaded {}", variantBloomFilter);
+            return variantBloomFilter;
+        } catch (IOException e) {
+            throw new VariantBloomFilterException("Unable to read bloom filter " + path, e);
+        }
+    }
+
+    public void writeTo(Path path) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(type);
+            out.writeUTF(release);
+            out.writeDouble(configuredFpp);
+            out.writeLong(numVariants);
+            bloomFilter.writeTo(out);
+        } catch (IOException e) {
+            throw new VariantBloomFilterException("Unable to write bloom filter " + path, e);
+        }
+    }
+
+    public void put(int chromosome, int position, String ref, String alt) {
+        bloomFilter.put(new AlleleKey(chromosome, position, ref, alt));
+        numVariants++;
+    }
+
+    /**
+     * @return false if the variant is definitely absent from the database, true if it might be present.
+     */
+    public boolean mightContain(Variant variant) {
+        return bloomFilter.mightContain(new AlleleKey(variant.getChromosome(), variant.getPosition(), variant.getRef(), variant.getAlt()));
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getRelease() {
+        return release;
+    }
+
+    public long getNumVariants() {
+        return numVariants;
+    }
+
+    /**
+     * @return the false-positive probability the filter was built for.
+     */
+    public double getConfiguredFpp() {
+        return configuredFpp;
+    }
+
+    /**
+     * @return the false-positive probability estimated from the number of bits set in the filter. This will exceed
+     * the configured rate if more variants were added than the filter was sized for.
+     */
+    public double getExpectedFpp() {
+        return bloomFilter.expectedFpp();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("VariantBloomFilter{type=%s, release=%s, numVariants=%d, configuredFpp=%s, expectedFpp=%.6f}", type, release, numVariants, configuredFpp, getExpectedFpp());
+    }
+
+    private static final class AlleleKey {
+        private final int chromosome;
+        private final int position;
+        private final String ref;
+        private final String alt;
+
+        private AlleleKey(int chromosome, int position, String ref, String alt) {
+            this.chromosome = chromosome;
+            this.position = position;
+            this.ref = ref;
+            this.alt = alt;
+        }
+    }
+
+    //an enum so that the funnel is serializable and equal across instances, as required by BloomFilter
+    private enum AlleleKeyFunnel implements Funnel<AlleleKey> {
+        INSTANCE;
+
+        @Override
+        public void funnel(AlleleKey key, PrimitiveSink into) {
+            into.putInt(key.chromosome)
+                    .putInt(key.position)
+                    .putString(key.ref, StandardCharsets.US_ASCII)
+                    .putByte((byte) '|')
+                    .putString(key.alt, StandardCharsets.US_ASCII);
+        }
+    }
+
+    public static class VariantBloomFilterException extends RuntimeException {
+
+        public VariantBloomFilterException(String message) {
+            super(message);
+        }
+
+        public VariantBloomFilterException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.monarchinitiative.exomiser.core.model.Variant;
+
+import java.util.Objects;
+
+/**
+ * Compact key for the variant data caches holding only the alleles of a variant. Keying the caches on the variant
+ * itself would keep each VariantEvaluation, with its annotations, VariantContext and genotypes, alive for as long as
+ * its entry stayed in the cache.
+ * <p>
+ * The {@link org.springframework.cache.annotation.Cacheable} DAO methods use {@link #KEY_EXPRESSION} to create the
+ * same keys as the bulk lookups which access the caches directly.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public final class VariantCacheKey {
+
+    public static final String KEY_EXPRESSION = "T(org.monarchinitiative.exomiser.core.genome.dao.VariantCacheKey).of(#a0)";
+
+    private final int chromosome;
+    private final int position;
+    private final String ref;
+    private final String alt;
+
+    private VariantCacheKey(int chromosome, int position, String ref, String alt) {
+        this.chromosome = chromosome;
+        this.position = position;
+        this.ref = ref;
+        this.alt = alt;
+    }
+
+    public static VariantCacheKey of(int chromosome, int position, String ref, String alt) {
+        return new VariantCacheKey(chromosome, position, ref, alt);
+    }
+
+    public static VariantCacheKey of(Variant variant) {
+        return new VariantCacheKey(variant.getChromosome(), variant.getPosition(), variant.getRef(), variant.getAlt());
+    }
+
+    public int getChromosome() {
+        return chromosome;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public String getAlt() {
+        return alt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VariantCacheKey that = (VariantCacheKey) o;
+        return chromosome == that.chromosome &&
+                position == that.position &&
+                Objects.equals(ref, that.ref) &&
+                Objects.equals(alt, that.alt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(chromosome, position, ref, alt);
+    }
+
+    @Override
+    public String toString() {
+        return "VariantCacheKey{" +
+                "chromosome=" + chromosome +
+                ", position=" + position +
+                ", ref='" + ref + '\'' +
+                ", alt='" + alt + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Saves the contents of the frequency, pathogenicity, cadd and remm caches to a local snapshot file and re-loads them
+ * into the caches at startup, so that repeated runs on the same host start with warm caches. Snapshots are tagged with
+ * the data release they were made from and are ignored if this does not match the current release.
+ * <p>
+ * The Spring Cache abstraction has no way of listing the contents of a cache, so a {@link CacheEntriesReader} is used
+ * to read the entries from the native cache. By default only caches backed by a java.util.Map, such as the
+ * ConcurrentMapCache, can be read.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantDataCacheSnapshotter implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantDataCacheSnapshotter.class);
+
+    public static final List<String> VARIANT_DATA_CACHE_NAMES = Collections.unmodifiableList(Arrays.asList("frequency", "pathogenicity", "cadd", "remm"));
+
+    private static final String MAGIC = "EXOMISER_CACHE_SNAPSHOT";
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte FREQUENCY_DATA = 'F';
+    private static final byte PATHOGENICITY_DATA = 'P';
+
+    private final CacheManager cacheManager;
+    private final Path snapshotPath;
+    private final String release;
+    private final CacheEntriesReader cacheEntriesReader;
+
+    private ScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * Reads the entries of a cache from its native implementation.
+     */
+    @FunctionalInterface
+    public interface CacheEntriesReader {
+        /**
+         * @return the entries of the cache, or null if the native cache type is not supported.
+         */
+        Map<?, ?> readEntries(Cache cache);
+    }
+
+    public VariantDataCacheSnapshotter(CacheManager cacheManager, Path snapshotPath, String release) {
+        this(cacheManager, snapshotPath, release, VariantDataCacheSnapshotter::readMapEntries);
+    }
+
+    public VariantDataCacheSnapshotter(CacheManager cacheManager, Path snapshotPath, String release, CacheEntriesReader cacheEntriesReader) {
+        this.cacheManager = cacheManager;
+        this.snapshotPath = snapshotPath;
+        this.release = release;
+        this.cacheEntriesReader = cacheEntriesReader;
+    }
+
+    /**
+     * Reads the entries of caches backed by a java.util.Map, such as the ConcurrentMapCache.
+     */
+    public static Map<?, ?> readMapEntries(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof Map) {
+            return (Map<?, ?>) nativeCache;
+        }
+        return null;
+    }
+
+    /**
+     * Loads the snapshot into the caches if it exists and was made from the same data release.
+     *
+     * @return the number of cache entries loaded
+     */
+    public synchronized int load() {
+        if (!Files.exists(snapshotPath)) {
+            logger.info("No cache snapshot found at {} - starting with empty caches", snapshotPath);
+            return 0;
+        }
+        int loaded = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(snapshotPath))))) {
+            if (!MAGIC.equals(in.readUTF()) || in.readInt() != FORMAT_VERSION) {
+                logger.warn("{} is not a supported cache snapshot - starting with empty caches", snapshotPath);
+                return 0;
+            }
+            String snapshotRelease = in.readUTF();
+            if (!release.equals(snapshotRelease)) {
+                logger.info("Cache snapshot {} is for data release '{}' not '{}' - starting with empty caches", snapshotPath, snapshotRelease, release);
+                return 0;
+            }
+            int numCaches = in.readInt();
+            for (int i = 0; i < numCaches; i++) {
+                String cacheName = in.readUTF();
+                int numEntries = in.readInt();
+                Cache cache = cacheManager.getCache(cacheName);
+                for (int j = 0; j < numEntries; j++) {
+                    VariantCacheKey key = readKey(in);
+                    Object value = readValue(in);
+                    if (cache != null) {
+                        cache.put(key, value);
+                    }
+                }
+                if (cache != null) {
+                    loaded += numEntries;
+                    logger.info("Loaded {} entries into {} cache from {}", numEntries, cacheName, snapshotPath);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to read cache snapshot {} - continuing with partially loaded caches", snapshotPath, e);
+        }
+        return loaded;
+    }
+
+    /**
+     * Writes the current contents of the caches to the snapshot file. The file is written to a temporary file first
+     * and then moved into place, so a concurrent reader will never see a partial snapshot.
+     *
+     * @return the number of cache entries saved
+     */
+    public synchronized int save() {
+        Map<String, List<Map.Entry<VariantCacheKey, Object>>> snapshot = new LinkedHashMap<>();
+        for (String cacheName : VARIANT_DATA_CACHE_NAMES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            Map<?, ?> entries = cache == null ? null : cacheEntriesReader.readEntries(cache);
+            if (entries != null) {
+                snapshot.put(cacheName, snapshotEntries(entries));
+            }
+        }
+        if (snapshot.isEmpty()) {
+            logger.info("No readable variant data caches to snapshot");
+            return 0;
+        }
+        int saved = 0;
+        try {
+            Path tempFile = Files.createTempFile(snapshotPath.toAbsolutePath().getParent(), snapshotPath.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+                out.writeUTF(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(release);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, List<Map.Entry<VariantCacheKey, Object>>> cacheEntries : snapshot.entrySet()) {
+                    out.writeUTF(cacheEntries.getKey());
+                    out.writeInt(cacheEntries.getValue().size());
+                    for (Map.Entry<VariantCacheKey, Object> entry : cacheEntries.getValue()) {
+                        writeKey(out, entry.getKey());
+                        writeValue(out, entry.getValue());
+                    }
+                    saved += cacheEntries.getValue().size();
+                }
+            }
+            Files.move(tempFile, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Saved {} variant data cache entries to {}", saved, snapshotPath);
+        } catch (IOException e) {
+            logger.warn("Unable to write cache snapshot {}", snapshotPath, e);
+        }
+        return saved;
+    }
+
+    /**
+     * Saves a snapshot at a fixed interval on a background thread, in addition to the snapshot saved on close.
+     */
+    public synchronized void scheduleSaves(long interval, TimeUnit timeUnit) {
+        if (scheduledExecutorService != null) {
+            throw new IllegalStateException("Snapshots are already scheduled");
+        }
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutorService.scheduleWithFixedDelay(this::save, interval, interval, timeUnit);
+    }
+
+    /**
+     * Stops any scheduled saves and saves a final snapshot.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (scheduledExecutorService != null) {
+                scheduledExecutorService.shutdownNow();
+                scheduledExecutorService = null;
+            }
+        }
+        save();
+    }
+
+    private List<Map.Entry<VariantCacheKey, Object>> snapshotEntries(Map<?, ?> entries) {
+        List<Map.Entry<VariantCacheKey, Object>> snapshotEntries = new ArrayList<>(entries.size());
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            if (key instanceof VariantCacheKey && (value instanceof FrequencyData || value instanceof PathogenicityData)) {
+                snapshotEntries.add(new AbstractMap.SimpleImmutableEntry<>((VariantCacheKey) key, value));
+            }
+        }
+        return snapshotEntries;
+    }
+
+    private static void writeKey(DataOutputStream out, VariantCacheKey key) throws IOException {
+        out.writeInt(key.getChromosome());
+        out.writeInt(key.getPosition());
+        out.writeUTF(key.getRef());
+        out.writeUTF(key.getAlt());
+    }
+
+    private static VariantCacheKey readKey(DataInputStream in) throws IOException {
+        int chromosome = in.readInt();
+        int position = in.readInt();
+        String ref = in.readUTF();
+        String alt = in.readUTF();
+        return VariantCacheKey.of(chromosome, position, ref, alt);
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof FrequencyData) {
+            FrequencyData frequencyData = (FrequencyData) value;
+            out.writeByte(FREQUENCY_DATA);
+            out.writeInt(frequencyData.getRsId().getId());
+            List<Frequency> frequencies = frequencyData.getKnownFrequencies();
+            out.writeInt(frequencies.size());
+            for (Frequency frequency : frequencies) {
+                out.writeUTF(frequency.getSource().name());
+                out.writeFloat(frequency.getFrequency());
+            }
+        } else {
+            PathogenicityData pathogenicityData = (PathogenicityData) value;
+            out.writeByte(PATHOGENICITY_DATA);
+            List<PathogenicityScore> scores = pathogenicityData.getPredictedPathogenicityScores();
+            out.writeInt(scores.size());
+            for (PathogenicityScore score : scores) {
+                out.writeUTF(score.getSource().name());
+                out.writeFloat(score.getScore());
+            }
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        if (type == FREQUENCY_DATA) {
+            int rsId = in.readInt();
+            int numFrequencies = in.readInt();
+            List<Frequency> frequencies = new ArrayList<>(numFrequencies);
+            for (int i = 0; i < numFrequencies; i++) {
+                frequencies.add(Frequency.valueOf(in.readFloat(), FrequencySource.valueOf(in.readUTF())));
+            }
+            RsId id = rsId == 0 ? RsId.empty() : RsId.valueOf(rsId);
+            if (id.isEmpty() && frequencies.isEmpty()) {
+                return FrequencyData.empty();
+            }
+            return FrequencyData.of(id, frequencies);
+        }
+        if (type == PATHOGENICITY_DATA) {
+            int numScores = in.readInt();
+            List<PathogenicityScore> scores = new ArrayList<>(numScores);
+            for (int i = 0; i < numScores; i++) {
+                PathogenicitySource source = PathogenicitySource.valueOf(in.readUTF());
+                scores.add(toPathogenicityScore(source, in.readFloat()));
+            }
+            if (scores.isEmpty()) {
+                return PathogenicityData.empty();
+            }
+            return PathogenicityData.of(scores);
+        }
+        throw new IOException("Unknown cache value type " + type);
+    }
+
+    private static PathogenicityScore toPathogenicityScore(PathogenicitySource source, float score) throws IOException {
+        switch (source) {
+            case SIFT:
+                return SiftScore.valueOf(score);
+            case POLYPHEN:
+                return PolyPhenScore.valueOf(score);
+            case MUTATION_TASTER:
+                return MutationTasterScore.valueOf(score);
+            case CADD:
+                return CaddScore.valueOf(score);
+            case REMM:
+                return RemmScore.valueOf(score);
+            default:
+                throw new IOException("Unsupported pathogenicity source " + source);
+        }
+    }
+}
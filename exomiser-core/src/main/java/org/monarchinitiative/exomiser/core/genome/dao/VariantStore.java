@@ -0,0 +1,326 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Embedded, read-only, file-backed store of per-variant data written by the {@link VariantStoreWriter}. Only the
+ * block index is held in memory - a lookup binary searches the index for the block which could contain the variant,
+ * reads that block from the file and scans it for the alleles. There is no JDBC or network involved so lookups take
+ * microseconds and work fully offline. Instances are thread-safe.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantStore.class);
+
+    private static final int TRAILER_LENGTH = Long.BYTES + VariantStoreWriter.MAGIC.length;
+
+    private final Path path;
+    private final FileChannel fileChannel;
+
+    private final String type;
+    private final String release;
+    private final List<String> columns;
+    private final long numRecords;
+
+    //block index - these are sorted by chromosome then first position
+    private final int[] blockChromosomes;
+    private final int[] blockFirstPositions;
+    private final int[] blockLastPositions;
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+
+    private VariantStore(Path path, FileChannel fileChannel) throws IOException {
+        this.path = path;
+        this.fileChannel = fileChannel;
+        long fileSize = fileChannel.size();
+        if (fileSize < VariantStoreWriter.MAGIC.length + Integer.BYTES + TRAILER_LENGTH) {
+            throw new VariantStoreException("File " + path + " is not a variant store");
+        }
+        ByteBuffer header = read(0, VariantStoreWriter.MAGIC.length + Integer.BYTES);
+        checkMagic(header);
+        int version = header.getInt();
+        if (version != VariantStoreWriter.FORMAT_VERSION) {
+            throw new VariantStoreException("Unsupported variant store format version " + version + " in " + path);
+        }
+        ByteBuffer trailer = read(fileSize - TRAILER_LENGTH, TRAILER_LENGTH);
+        long indexOffset = trailer.getLong();
+        checkMagic(trailer);
+
+        ByteBuffer indexBuffer = read(indexOffset, (int) (fileSize - TRAILER_LENGTH - indexOffset));
+        DataInputStream index = new DataInputStream(new ByteArrayInputStream(indexBuffer.array()));
+        this.type = index.readUTF();
+        this.release = index.readUTF();
+        int numColumns = index.readInt();
+        List<String> columnNames = new ArrayList<>(numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            columnNames.add(index.readUTF());
+        }
+        this.columns = Collections.unmodifiableList(columnNames);
+        this.numRecords = index.readLong();
+        int numBlocks = index.readInt();
+        this.blockChromosomes = new int[numBlocks];
+        this.blockFirstPositions = new int[numBlocks];
+        this.blockLastPositions = new int[numBlocks];
+        this.blockOffsets = new long[numBlocks];
+        this.blockLengths = new int[numBlocks];
+        for (int i = 0; i < numBlocks; i++) {
+            blockChromosomes[i] = index.readInt();
+            blockFirstPositions[i] = index.readInt();
+            blockLastPositions[i] = index.readInt();
+            blockOffsets[i] = index.readLong();
+            blockLengths[i] = index.readInt();
+            //number of records - not needed for lookups
+            index.readInt();
+        }
+    }
+
+    /**
+     * Opens the store for reading. Only the block index is read into memory.
+     */
+    public static VariantStore open(Path path) {
+        FileChannel fileChannel = null;
+        try {
+            fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+            VariantStore variantStore = new VariantStore(path, fileChannel);
+            logger.info("Opened {} variant store {} release {} with {} records in {} blocks", variantStore.type, path, variantStore.release, variantStore.numRecords, variantStore.blockOffsets.length);
+            return variantStore;
+        } catch (IOException e) {
+            closeQuietly(fileChannel);
+            throw new VariantStoreException("Unable to open variant store " + path, e);
+        } catch (VariantStoreException e) {
+            closeQuietly(fileChannel);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(FileChannel fileChannel) {
+        if (fileChannel != null) {
+            try {
+                fileChannel.close();
+            } catch (IOException e) {
+                logger.debug("Unable to close {}", fileChannel, e);
+            }
+        }
+    }
+
+    private void checkMagic(ByteBuffer buffer) {
+        byte[] magic = new byte[VariantStoreWriter.MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, VariantStoreWriter.MAGIC)) {
+            throw new VariantStoreException("File " + path + " is not a variant store or is incomplete");
+        }
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            //positional reads don't change the channel position so are safe to use from several threads
+            int read = fileChannel.read(buffer, offset + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of variant store " + path);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getRelease() {
+        return release;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public long size() {
+        return numRecords;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the entry for the alleles or null if the store contains no data for them
+     */
+    public Entry get(int chromosome, int position, String ref, String alt) {
+        int blockIndex = firstCandidateBlock(chromosome, position);
+        try {
+            for (int i = blockIndex; i < blockOffsets.length && blockChromosomes[i] == chromosome && blockFirstPositions[i] <= position; i++) {
+                Entry entry = findInBlock(i, position, ref, alt);
+                if (entry != null) {
+                    return entry;
+                }
+            }
+        } catch (IOException e) {
+            throw new VariantStoreException("Unable to read from variant store " + path, e);
+        }
+        return null;
+    }
+
+    /**
+     * Binary search for the first block on the chromosome whose last position is not before the position.
+     */
+    private int firstCandidateBlock(int chromosome, int position) {
+        int low = 0;
+        int high = blockOffsets.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blockChromosomes[mid] < chromosome || (blockChromosomes[mid] == chromosome && blockLastPositions[mid] < position)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Entry findInBlock(int blockIndex, int position, String ref, String alt) throws IOException {
+        ByteBuffer block = read(blockOffsets[blockIndex], blockLengths[blockIndex]);
+        int currentPosition = blockFirstPositions[blockIndex];
+        while (block.hasRemaining()) {
+            currentPosition += readVarInt(block);
+            if (currentPosition > position) {
+                return null;
+            }
+            boolean matches = false;
+            if (currentPosition == position) {
+                boolean refMatches = alleleMatches(block, ref);
+                boolean altMatches = alleleMatches(block, alt);
+                matches = refMatches && altMatches;
+            } else {
+                skipAllele(block);
+                skipAllele(block);
+            }
+            int rsId = readVarInt(block);
+            int presenceMask = readVarInt(block);
+            if (matches) {
+                float[] values = new float[columns.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = (presenceMask & (1 << i)) != 0 ? block.getFloat() : Float.NaN;
+                }
+                return new Entry(rsId, values);
+            }
+            block.position(block.position() + Integer.bitCount(presenceMask) * Float.BYTES);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the allele from the buffer, returning true if it matches the expected allele. The buffer is always left
+     * positioned after the allele.
+     */
+    private static boolean alleleMatches(ByteBuffer block, String expected) {
+        int length = readVarInt(block);
+        int start = block.position();
+        block.position(start + length);
+        if (length != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (block.get(start + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void skipAllele(ByteBuffer block) {
+        int length = readVarInt(block);
+        block.position(block.position() + length);
+    }
+
+    static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(fileChannel);
+    }
+
+    /**
+     * The data held for a single variant. Values are in the store column order, with NaN for missing values.
+     */
+    public static class Entry {
+
+        private final int rsId;
+        private final float[] values;
+
+        private Entry(int rsId, float[] values) {
+            this.rsId = rsId;
+            this.values = values;
+        }
+
+        /**
+         * @return the dbSNP rsId or 0 if there is none
+         */
+        public int getRsId() {
+            return rsId;
+        }
+
+        public boolean hasValue(int column) {
+            return !Float.isNaN(values[column]);
+        }
+
+        public float getValue(int column) {
+            return values[column];
+        }
+    }
+
+    public static class VariantStoreException extends RuntimeException {
+
+        public VariantStoreException(String message) {
+            super(message);
+        }
+
+        public VariantStoreException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link FrequencyDao} backed by an embedded {@link VariantStore} built by exomiser-db. The store columns are the
+ * {@link FrequencySource} names.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantStoreFrequencyDao implements FrequencyDao {
+
+    private final VariantStore variantStore;
+    private final FrequencySource[] columnSources;
+
+    public VariantStoreFrequencyDao(VariantStore variantStore) {
+        this.variantStore = variantStore;
+        List<String> columns = variantStore.getColumns();
+        this.columnSources = new FrequencySource[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            columnSources[i] = FrequencySource.valueOf(columns.get(i));
+        }
+    }
+
+    @Override
+    public FrequencyData getFrequencyData(Variant variant) {
+        VariantStore.Entry entry = variantStore.get(variant.getChromosome(), variant.getPosition(), variant.getRef(), variant.getAlt());
+        if (entry == null) {
+            return FrequencyData.empty();
+        }
+        RsId rsId = entry.getRsId() == 0 ? RsId.empty() : RsId.valueOf(entry.getRsId());
+        List<Frequency> frequencies = new ArrayList<>();
+        for (int i = 0; i < columnSources.length; i++) {
+            //zero frequencies are treated as missing, as they are by the DefaultFrequencyDao
+            if (entry.hasValue(i) && entry.getValue(i) != 0) {
+                frequencies.add(Frequency.valueOf(entry.getValue(i), columnSources[i]));
+            }
+        }
+        if (rsId.isEmpty() && frequencies.isEmpty()) {
+            return FrequencyData.empty();
+        }
+        return FrequencyData.of(rsId, frequencies);
+    }
+
+}
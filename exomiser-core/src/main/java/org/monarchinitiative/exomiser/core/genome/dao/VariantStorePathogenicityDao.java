@@ -0,0 +1,88 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import de.charite.compbio.jannovar.annotation.VariantEffect;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link PathogenicityDao} backed by an embedded {@link VariantStore} built by exomiser-db. The store columns are the
+ * {@link PathogenicitySource} names of the missense predictors - SIFT, POLYPHEN and MUTATION_TASTER.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantStorePathogenicityDao implements PathogenicityDao {
+
+    private final VariantStore variantStore;
+    private final PathogenicitySource[] columnSources;
+
+    public VariantStorePathogenicityDao(VariantStore variantStore) {
+        this.variantStore = variantStore;
+        List<String> columns = variantStore.getColumns();
+        this.columnSources = new PathogenicitySource[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            columnSources[i] = PathogenicitySource.valueOf(columns.get(i));
+        }
+    }
+
+    @Override
+    public PathogenicityData getPathogenicityData(Variant variant) {
+        //as with the DefaultPathogenicityDao only missense variants have scores
+        if (variant.getVariantEffect() != VariantEffect.MISSENSE_VARIANT) {
+            return PathogenicityData.empty();
+        }
+        VariantStore.Entry entry = variantStore.get(variant.getChromosome(), variant.getPosition(), variant.getRef(), variant.getAlt());
+        if (entry == null) {
+            return PathogenicityData.empty();
+        }
+        List<PathogenicityScore> scores = new ArrayList<>();
+        for (int i = 0; i < columnSources.length; i++) {
+            if (entry.hasValue(i)) {
+                PathogenicityScore score = toPathogenicityScore(columnSources[i], entry.getValue(i));
+                if (score != null) {
+                    scores.add(score);
+                }
+            }
+        }
+        if (scores.isEmpty()) {
+            return PathogenicityData.empty();
+        }
+        return PathogenicityData.of(scores);
+    }
+
+    private PathogenicityScore toPathogenicityScore(PathogenicitySource source, float value) {
+        switch (source) {
+            case SIFT:
+                return SiftScore.valueOf(value);
+            case POLYPHEN:
+                return PolyPhenScore.valueOf(value);
+            case MUTATION_TASTER:
+                return MutationTasterScore.valueOf(value);
+            default:
+                return null;
+        }
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import com.google.common.io.CountingOutputStream;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the compact, read-only, file-backed variant store read by {@link VariantStore}. Records must be added in
+ * chromosome then position order. They are written in blocks of up to {@value #MAX_BLOCK_RECORDS} records from the
+ * same chromosome, followed by an index of the chromosome, position range and file offset of each block.
+ * <p>
+ * Each record holds the variant alleles, an rsId and a float value for each of the store columns, e.g. the frequency
+ * sources. Missing values are not written.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantStoreWriter implements Closeable {
+
+    static final byte[] MAGIC = "EXVSTORE".getBytes(StandardCharsets.US_ASCII);
+    static final int FORMAT_VERSION = 1;
+    static final int MAX_COLUMNS = 32;
+    static final int MAX_BLOCK_RECORDS = 128;
+
+    private final CountingOutputStream countingOutputStream;
+    private final DataOutputStream out;
+
+    private final String type;
+    private final String release;
+    private final List<String> columns;
+
+    private final List<BlockIndexEntry> blockIndex = new ArrayList<>();
+    private final ByteArrayOutputStream blockBuffer = new ByteArrayOutputStream(8192);
+    private final DataOutputStream block = new DataOutputStream(blockBuffer);
+
+    private int blockChromosome = -1;
+    private int blockFirstPosition;
+    private int blockRecords = 0;
+
+    private int lastChromosome = -1;
+    private int lastPosition = -1;
+    private long numRecords = 0;
+
+    /**
+     * @param path    the store file to write to
+     * @param type    the kind of data held, e.g. frequency or pathogenicity
+     * @param release the data release the store was built from
+     * @param columns the names of the value columns, e.g. FrequencySource names
+     */
+    public VariantStoreWriter(Path path, String type, String release, List<String> columns) {
+        if (columns.size() > MAX_COLUMNS) {
+            throw new IllegalArgumentException("A maximum of " + MAX_COLUMNS + " columns are supported, got " + columns.size());
+        }
+        this.type = type;
+        this.release = release;
+        this.columns = new ArrayList<>(columns);
+        try {
+            this.countingOutputStream = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        } catch (IOException e) {
+            throw new VariantStore.VariantStoreException("Unable to create variant store " + path, e);
+        }
+        this.out = new DataOutputStream(countingOutputStream);
+        try {
+            out.write(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+        } catch (IOException e) {
+            throw new VariantStore.VariantStoreException("Unable to write variant store " + path, e);
+        }
+    }
+
+    /**
+     * Adds a record to the store. Records must be added in chromosome then position order.
+     *
+     * @param values the value of each column, in the column order. Use Float.NaN for a missing value.
+     */
+    public void add(int chromosome, int position, String ref, String alt, int rsId, float[] values) {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " values but got " + values.length);
+        }
+        if (chromosome < lastChromosome || (chromosome == lastChromosome && position < lastPosition)) {
+            throw new IllegalArgumentException(String.format("Records must be added in order. Got %d-%d after %d-%d", chromosome, position, lastChromosome, lastPosition));
+        }
+        try {
+            if (chromosome != blockChromosome || blockRecords == MAX_BLOCK_RECORDS) {
+                flushBlock();
+                blockChromosome = chromosome;
+                blockFirstPosition = position;
+            }
+            writeRecord(position, ref, alt, rsId, values);
+        } catch (IOException e) {
+            throw new VariantStore.VariantStoreException("Unable to write variant store record", e);
+        }
+        blockRecords++;
+        numRecords++;
+        lastChromosome = chromosome;
+        lastPosition = position;
+    }
+
+    private void writeRecord(int position, String ref, String alt, int rsId, float[] values) throws IOException {
+        int previousPosition = blockRecords == 0 ? blockFirstPosition : lastPosition;
+        writeVarInt(block, position - previousPosition);
+        writeAllele(ref);
+        writeAllele(alt);
+        writeVarInt(block, Math.max(rsId, 0));
+        int presenceMask = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (!Float.isNaN(values[i])) {
+                presenceMask |= 1 << i;
+            }
+        }
+        writeVarInt(block, presenceMask);
+        for (float value : values) {
+            if (!Float.isNaN(value)) {
+                block.writeFloat(value);
+            }
+        }
+    }
+
+    private void writeAllele(String allele) throws IOException {
+        byte[] bytes = allele.getBytes(StandardCharsets.US_ASCII);
+        writeVarInt(block, bytes.length);
+        block.write(bytes);
+    }
+
+    static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRecords == 0) {
+            return;
+        }
+        block.flush();
+        long offset = countingOutputStream.getCount();
+        blockBuffer.writeTo(out);
+        blockIndex.add(new BlockIndexEntry(blockChromosome, blockFirstPosition, lastPosition, offset, blockBuffer.size(), blockRecords));
+        blockBuffer.reset();
+        blockRecords = 0;
+    }
+
+    public long getNumRecords() {
+        return numRecords;
+    }
+
+    /**
+     * Writes the remaining records, the block index and the trailer. The store cannot be read until this has been
+     * called.
+     */
+    @Override
+    public void close() {
+        try {
+            flushBlock();
+            out.flush();
+            long indexOffset = countingOutputStream.getCount();
+            out.writeUTF(type);
+            out.writeUTF(release);
+            out.writeInt(columns.size());
+            for (String column : columns) {
+                out.writeUTF(column);
+            }
+            out.writeLong(numRecords);
+            out.writeInt(blockIndex.size());
+            for (BlockIndexEntry entry : blockIndex) {
+                out.writeInt(entry.chromosome);
+                out.writeInt(entry.firstPosition);
+                out.writeInt(entry.lastPosition);
+                out.writeLong(entry.offset);
+                out.writeInt(entry.length);
+                out.writeInt(entry.numRecords);
+            }
+            //fixed-length trailer so the reader can find the index
+            out.writeLong(indexOffset);
+            out.write(MAGIC);
+            out.close();
+        } catch (IOException e) {
+            throw new VariantStore.VariantStoreException("Unable to write variant store index", e);
+        }
+    }
+
+    private static class BlockIndexEntry {
+        private final int chromosome;
+        private final int firstPosition;
+        private final int lastPosition;
+        private final long offset;
+        private final int length;
+        private final int numRecords;
+
+        private BlockIndexEntry(int chromosome, int firstPosition, int lastPosition, long offset, int length, int numRecords) {
+            this.chromosome = chromosome;
+            this.firstPosition = firstPosition;
+            this.lastPosition = lastPosition;
+            this.offset = offset;
+            this.length = length;
+            this.numRecords = numRecords;
+        }
+    }
+}
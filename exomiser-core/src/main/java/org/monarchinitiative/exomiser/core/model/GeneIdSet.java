@@ -0,0 +1,154 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.model;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Compact, immutable set of gene identifiers, typically Entrez gene ids, for fast membership checks against unboxed
+ * ints. The ids are held in a sorted int array which is binary searched, or in a bitset when the ids are dense enough
+ * for the bitset to be no larger than the array. This avoids the boxing and per-entry overhead of a {@code HashSet}
+ * when checking every variant or model against a list of genes.
+ * <p>
+ * This is a {@link Set} so that it can be used in place of a {@code Set<Integer>}, but it cannot be modified.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public final class GeneIdSet extends AbstractSet<Integer> {
+
+    private static final GeneIdSet EMPTY = new GeneIdSet(new int[0]);
+
+    private final int[] sortedIds;
+    //only used if the ids are dense enough
+    private final long[] bits;
+    private final int offset;
+
+    private GeneIdSet(int[] sortedIds) {
+        this.sortedIds = sortedIds;
+        if (sortedIds.length == 0) {
+            this.bits = null;
+            this.offset = 0;
+            return;
+        }
+        this.offset = sortedIds[0];
+        long range = (long) sortedIds[sortedIds.length - 1] - offset + 1;
+        long numWords = (range + 63) / 64;
+        //a long is the size of two ints, so this keeps the bitset at no more than the size of the array
+        if (numWords * 2 <= sortedIds.length) {
+            this.bits = new long[(int) numWords];
+            for (int id : sortedIds) {
+                int index = id - offset;
+                bits[index >>> 6] |= 1L << index;
+            }
+        } else {
+            this.bits = null;
+        }
+    }
+
+    public static GeneIdSet of(int... geneIds) {
+        if (geneIds.length == 0) {
+            return EMPTY;
+        }
+        int[] sortedIds = IntStream.of(geneIds).sorted().distinct().toArray();
+        return new GeneIdSet(sortedIds);
+    }
+
+    public static GeneIdSet copyOf(Collection<Integer> geneIds) {
+        if (geneIds instanceof GeneIdSet) {
+            return (GeneIdSet) geneIds;
+        }
+        return of(geneIds.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public static GeneIdSet empty() {
+        return EMPTY;
+    }
+
+    public boolean contains(int geneId) {
+        if (bits != null) {
+            long index = (long) geneId - offset;
+            if (index < 0 || index >= (long) bits.length * 64) {
+                return false;
+            }
+            return (bits[(int) (index >>> 6)] & (1L << index)) != 0;
+        }
+        return Arrays.binarySearch(sortedIds, geneId) >= 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && contains(((Integer) o).intValue());
+    }
+
+    @Override
+    public int size() {
+        return sortedIds.length;
+    }
+
+    /**
+     * @return the ids in ascending order.
+     */
+    public IntStream intStream() {
+        return IntStream.of(sortedIds);
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<Integer>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < sortedIds.length;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return sortedIds[position++];
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof GeneIdSet) {
+            return Arrays.equals(sortedIds, ((GeneIdSet) o).sortedIds);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        //same as the Set contract - the sum of the element hash codes
+        int hash = 0;
+        for (int id : sortedIds) {
+            hash += id;
+        }
+        return hash;
+    }
+}
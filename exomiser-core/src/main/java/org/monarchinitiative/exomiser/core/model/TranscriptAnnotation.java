@@ -20,52 +20,79 @@
 
 package org.monarchinitiative.exomiser.core.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.charite.compbio.jannovar.annotation.Annotation;
 import de.charite.compbio.jannovar.annotation.VariantEffect;
 
 import java.util.Objects;
 
 /**
+ * The annotation of a variant on a transcript. The gene symbol, accession and effect are held in a
+ * {@link TranscriptFeature} which can be shared with other variants, only the HGVS descriptions and the distance from
+ * the nearest gene are specific to this variant.
+ *
+ * When built from a Jannovar {@link Annotation} the cDNA and protein HGVS strings are not formatted until they are first
+ * requested or {@link #formatHgvs()} is called, as most variants are filtered out and never written. The analysis
+ * formats them as soon as a variant has been through the variant filters, so the Annotation is only held while the
+ * variant is being filtered and is released once both strings have been formatted.
+ * <p>
+ * {@link #equals(Object)}, {@link #hashCode()} and {@link #toString()} never format the HGVS strings. Until they are
+ * formatted an annotation is only equal to one with the same source Annotation.
+ *
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
  */
 public class TranscriptAnnotation {
 
     private static final TranscriptAnnotation EMPTY = TranscriptAnnotation.builder().build();
 
-    private final VariantEffect variantEffect;
-
-    private final String geneSymbol;
-    private final String accession;
+    private final TranscriptFeature transcriptFeature;
 
     private final String hgvsGenomic;
-    private final String hgvsCdna;
-    private final String hgvsProtein;
 
     private final int distanceFromNearestGene;
 
+    //source of the lazily formatted HGVS strings, null if they were provided or once both have been formatted
+    private volatile Annotation hgvsAnnotation;
+    //these are null until formatted from the hgvsAnnotation
+    private volatile String hgvsCdna;
+    private volatile String hgvsProtein;
+
     private TranscriptAnnotation(Builder builder) {
-        this.variantEffect = builder.variantEffect;
-        this.geneSymbol = builder.geneSymbol;
-        this.accession = builder.accession;
+        this.transcriptFeature = builder.buildTranscriptFeature();
         this.hgvsGenomic = builder.hgvsGenomic;
-        this.hgvsCdna = builder.hgvsCdna;
-        this.hgvsProtein = builder.hgvsProtein;
         this.distanceFromNearestGene = builder.distanceFromNearestGene;
+        this.hgvsCdna = resolveHgvs(builder.hgvsCdna, builder.hgvsAnnotation);
+        this.hgvsProtein = resolveHgvs(builder.hgvsProtein, builder.hgvsAnnotation);
+        //only keep hold of the annotation if there is something left to format from it
+        this.hgvsAnnotation = (hgvsCdna == null || hgvsProtein == null) ? builder.hgvsAnnotation : null;
+    }
+
+    private static String resolveHgvs(String hgvs, Annotation hgvsAnnotation) {
+        if (hgvs == null && hgvsAnnotation == null) {
+            return "";
+        }
+        return hgvs;
     }
 
     public static TranscriptAnnotation empty() {
         return EMPTY;
     }
 
+    @JsonIgnore
+    public TranscriptFeature getTranscriptFeature() {
+        return transcriptFeature;
+    }
+
     public VariantEffect getVariantEffect() {
-        return variantEffect;
+        return transcriptFeature.getVariantEffect();
     }
 
     public String getGeneSymbol() {
-        return geneSymbol;
+        return transcriptFeature.getGeneSymbol();
     }
 
     public String getAccession() {
-        return accession;
+        return transcriptFeature.getAccession();
     }
 
     public String getHgvsGenomic() {
@@ -73,42 +100,80 @@ public String getHgvsGenomic() {
     }
 
     public String getHgvsCdna() {
-        return hgvsCdna;
+        //racing threads will both format the same value, which is harmless
+        String value = hgvsCdna;
+        if (value == null) {
+            Annotation annotation = hgvsAnnotation;
+            if (annotation == null) {
+                //another thread formatted both strings and released the annotation
+                return hgvsCdna;
+            }
+            value = annotation.getCDSNTChangeStr();
+            hgvsCdna = value;
+            releaseAnnotationIfFormatted();
+        }
+        return value;
     }
 
     public String getHgvsProtein() {
-        return hgvsProtein;
+        String value = hgvsProtein;
+        if (value == null) {
+            Annotation annotation = hgvsAnnotation;
+            if (annotation == null) {
+                return hgvsProtein;
+            }
+            value = annotation.getProteinChangeStr();
+            hgvsProtein = value;
+            releaseAnnotationIfFormatted();
+        }
+        return value;
+    }
+
+    private void releaseAnnotationIfFormatted() {
+        if (hgvsCdna != null && hgvsProtein != null) {
+            hgvsAnnotation = null;
+        }
     }
 
     public int getDistanceFromNearestGene() {
         return distanceFromNearestGene;
     }
 
+    /**
+     * Formats the cDNA and protein HGVS strings from the Jannovar Annotation, if this has not already been done, and
+     * releases the Annotation.
+     */
+    public void formatHgvs() {
+        getHgvsCdna();
+        getHgvsProtein();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         TranscriptAnnotation that = (TranscriptAnnotation) o;
         return distanceFromNearestGene == that.distanceFromNearestGene &&
-                variantEffect == that.variantEffect &&
-                Objects.equals(geneSymbol, that.geneSymbol) &&
-                Objects.equals(accession, that.accession) &&
+                Objects.equals(transcriptFeature, that.transcriptFeature) &&
                 Objects.equals(hgvsGenomic, that.hgvsGenomic) &&
                 Objects.equals(hgvsCdna, that.hgvsCdna) &&
-                Objects.equals(hgvsProtein, that.hgvsProtein);
+                Objects.equals(hgvsProtein, that.hgvsProtein) &&
+                hgvsAnnotation == that.hgvsAnnotation;
     }
 
+    //the HGVS strings are left out so that the hash doesn't change when they are formatted
     @Override
     public int hashCode() {
-        return Objects.hash(variantEffect, geneSymbol, accession, hgvsGenomic, hgvsCdna, hgvsProtein, distanceFromNearestGene);
+        return Objects.hash(transcriptFeature, hgvsGenomic, distanceFromNearestGene);
     }
 
+    //unformatted HGVS strings are shown as null
     @Override
     public String toString() {
         return "TranscriptAnnotation{" +
-                "variantEffect=" + variantEffect +
-                ", geneSymbol='" + geneSymbol + '\'' +
-                ", accession='" + accession + '\'' +
+                "variantEffect=" + getVariantEffect() +
+                ", geneSymbol='" + getGeneSymbol() + '\'' +
+                ", accession='" + getAccession() + '\'' +
                 ", hgvsGenomic='" + hgvsGenomic + '\'' +
                 ", hgvsCdna='" + hgvsCdna + '\'' +
                 ", hgvsProtein='" + hgvsProtein + '\'' +
@@ -128,23 +193,42 @@ public static class Builder {
         private String accession = "";
 
         private String hgvsGenomic = "";
-        private String hgvsCdna = "";
-        private String hgvsProtein = "";
+        //null unless set, so that they can be formatted from the hgvsAnnotation
+        private String hgvsCdna = null;
+        private String hgvsProtein = null;
+        private Annotation hgvsAnnotation = null;
 
         private int distanceFromNearestGene = Integer.MIN_VALUE;
 
+        //a shared instance to use in place of the individual fields
+        private TranscriptFeature transcriptFeature = null;
+
+        /**
+         * Sets the variant effect, gene symbol and accession from the given, possibly shared, instance.
+         */
+        public Builder transcriptFeature(TranscriptFeature transcriptFeature) {
+            this.variantEffect = transcriptFeature.getVariantEffect();
+            this.geneSymbol = transcriptFeature.getGeneSymbol();
+            this.accession = transcriptFeature.getAccession();
+            this.transcriptFeature = transcriptFeature;
+            return this;
+        }
+
         public Builder variantEffect(VariantEffect variantEffect) {
             this.variantEffect = variantEffect;
+            this.transcriptFeature = null;
             return this;
         }
 
         public Builder geneSymbol(String geneSymbol) {
             this.geneSymbol = geneSymbol;
+            this.transcriptFeature = null;
             return this;
         }
 
         public Builder accession(String accession) {
             this.accession = accession;
+            this.transcriptFeature = null;
             return this;
         }
 
@@ -163,11 +247,27 @@ public Builder hgvsProtein(String hgvsProtein) {
             return this;
         }
 
+        /**
+         * Sets the Jannovar annotation from which the cDNA and protein HGVS strings will be formatted when they are
+         * first requested. Values set using hgvsCdna() or hgvsProtein() take precedence over this.
+         */
+        public Builder hgvsAnnotation(Annotation hgvsAnnotation) {
+            this.hgvsAnnotation = hgvsAnnotation;
+            return this;
+        }
+
         public Builder distanceFromNearestGene(int distanceFromNearestGene) {
             this.distanceFromNearestGene = distanceFromNearestGene;
             return this;
         }
 
+        private TranscriptFeature buildTranscriptFeature() {
+            if (transcriptFeature != null) {
+                return transcriptFeature;
+            }
+            return TranscriptFeature.of(variantEffect, geneSymbol, accession);
+        }
+
         public TranscriptAnnotation build() {
             return new TranscriptAnnotation(this);
         }
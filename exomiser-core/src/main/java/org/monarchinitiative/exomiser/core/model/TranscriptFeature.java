@@ -0,0 +1,91 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.model;
+
+import de.charite.compbio.jannovar.annotation.VariantEffect;
+
+import java.util.Objects;
+
+/**
+ * The parts of a {@link TranscriptAnnotation} which are the same for all the variants with the same effect on a
+ * transcript, i.e. the effect, gene symbol and transcript accession. Variants in the same gene and exon produce a great
+ * many equal instances of these, so they can be shared between TranscriptAnnotations.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public final class TranscriptFeature {
+
+    private static final TranscriptFeature EMPTY = new TranscriptFeature(VariantEffect.SEQUENCE_VARIANT, "", "");
+
+    private final VariantEffect variantEffect;
+    private final String geneSymbol;
+    private final String accession;
+
+    public static TranscriptFeature of(VariantEffect variantEffect, String geneSymbol, String accession) {
+        return new TranscriptFeature(variantEffect, geneSymbol, accession);
+    }
+
+    public static TranscriptFeature empty() {
+        return EMPTY;
+    }
+
+    private TranscriptFeature(VariantEffect variantEffect, String geneSymbol, String accession) {
+        this.variantEffect = variantEffect;
+        this.geneSymbol = geneSymbol;
+        this.accession = accession;
+    }
+
+    public VariantEffect getVariantEffect() {
+        return variantEffect;
+    }
+
+    public String getGeneSymbol() {
+        return geneSymbol;
+    }
+
+    public String getAccession() {
+        return accession;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TranscriptFeature that = (TranscriptFeature) o;
+        return variantEffect == that.variantEffect &&
+                Objects.equals(geneSymbol, that.geneSymbol) &&
+                Objects.equals(accession, that.accession);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(variantEffect, geneSymbol, accession);
+    }
+
+    @Override
+    public String toString() {
+        return "TranscriptFeature{" +
+                "variantEffect=" + variantEffect +
+                ", geneSymbol='" + geneSymbol + '\'' +
+                ", accession='" + accession + '\'' +
+                '}';
+    }
+}
@@ -20,8 +20,6 @@
 
 package org.monarchinitiative.exomiser.core.model.frequency;
 
-import com.google.common.collect.Maps;
-
 import java.util.*;
 
 /**
@@ -30,14 +28,26 @@
  *
  * Note that the frequency data are expressed as percentages.
  *
+ * The frequencies are held in a float array in {@link FrequencySource} ordinal order with a bitmask of the sources
+ * present, rather than in a map of {@link Frequency} objects, as there are a great many of these held in memory. The
+ * Frequency objects are created on demand.
+ *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
 public class FrequencyData {
 
-    private static final FrequencyData EMPTY_DATA = new FrequencyData(RsId.empty(), Collections.emptyMap());
+    private static final FrequencySource[] SOURCES = FrequencySource.values();
+
+    private static final int ESP_SOURCES = maskOf(FrequencySource.ALL_ESP_SOURCES);
+    private static final int EXAC_SOURCES = maskOf(FrequencySource.ALL_EXAC_SOURCES);
+
+    private static final FrequencyData EMPTY_DATA = new FrequencyData(RsId.empty(), 0, new float[0]);
 
     private final RsId rsId;
-    private final Map<FrequencySource, Frequency> knownFrequencies;
+    //bit n is set if there is a frequency for the FrequencySource with ordinal n
+    private final int sources;
+    //frequencies for the sources present in ordinal order
+    private final float[] frequencies;
 
     public static FrequencyData of(RsId rsId, Collection<Frequency> frequencies) {
         return validate(rsId, frequencies);
@@ -62,16 +72,35 @@ private static FrequencyData validate(RsId rsId, Collection<Frequency> frequenci
         if (rsId.isEmpty() && frequencies.isEmpty()) {
             return FrequencyData.empty();
         }
-        Map<FrequencySource, Frequency> frequencySourceMap = new EnumMap<>(FrequencySource.class);
+        int sources = 0;
+        float[] sourceFrequencies = new float[SOURCES.length];
         for (Frequency frequency : frequencies) {
-            frequencySourceMap.put(frequency.getSource(), frequency);
+            int ordinal = frequency.getSource().ordinal();
+            sources |= 1 << ordinal;
+            sourceFrequencies[ordinal] = frequency.getFrequency();
+        }
+        float[] packedFrequencies = new float[Integer.bitCount(sources)];
+        int i = 0;
+        for (int ordinal = 0; ordinal < SOURCES.length; ordinal++) {
+            if ((sources & (1 << ordinal)) != 0) {
+                packedFrequencies[i++] = sourceFrequencies[ordinal];
+            }
         }
-        return new FrequencyData(rsId, frequencySourceMap);
+        return new FrequencyData(rsId, sources, packedFrequencies);
     }
 
-    private FrequencyData(RsId rsId, Map<FrequencySource, Frequency> knownFrequencies) {
+    private static int maskOf(Set<FrequencySource> frequencySources) {
+        int mask = 0;
+        for (FrequencySource source : frequencySources) {
+            mask |= 1 << source.ordinal();
+        }
+        return mask;
+    }
+
+    private FrequencyData(RsId rsId, int sources, float[] frequencies) {
         this.rsId = rsId;
-        this.knownFrequencies = Maps.immutableEnumMap(knownFrequencies);
+        this.sources = sources;
+        this.frequencies = frequencies;
     }
 
     //RSID ought to belong to the Variant, not the frequencyData, but its here for convenience
@@ -80,7 +109,13 @@ public RsId getRsId() {
     }
 
     public Frequency getFrequencyForSource(FrequencySource source) {
-        return knownFrequencies.get(source);
+        int bit = 1 << source.ordinal();
+        if ((sources & bit) == 0) {
+            return null;
+        }
+        //the index of the frequency is the number of sources present with a lower ordinal
+        int index = Integer.bitCount(sources & (bit - 1));
+        return Frequency.valueOf(frequencies[index], source);
     }
 
     /**
@@ -93,7 +128,7 @@ public boolean isRepresentedInDatabase() {
     }
 
     public boolean hasDbSnpData() {
-        return knownFrequencies.containsKey(FrequencySource.THOUSAND_GENOMES);
+        return (sources & (1 << FrequencySource.THOUSAND_GENOMES.ordinal())) != 0;
     }
 
     public boolean hasDbSnpRsID() {
@@ -101,37 +136,15 @@ public boolean hasDbSnpRsID() {
     }
 
     public boolean hasEspData() {
-        for (FrequencySource dataSource : knownFrequencies.keySet()) {
-            switch (dataSource) {
-                case ESP_AFRICAN_AMERICAN:
-                case ESP_EUROPEAN_AMERICAN:
-                case ESP_ALL:
-                    return true;
-                default:
-            }
-        }
-        return false;
+        return (sources & ESP_SOURCES) != 0;
     }
     
     public boolean hasExacData() {
-        for (FrequencySource dataSource : knownFrequencies.keySet()) {
-            switch (dataSource) {
-                case EXAC_AFRICAN_INC_AFRICAN_AMERICAN:
-                case EXAC_AMERICAN:
-                case EXAC_EAST_ASIAN:
-                case EXAC_FINNISH:
-                case EXAC_NON_FINNISH_EUROPEAN:
-                case EXAC_OTHER:
-                case EXAC_SOUTH_ASIAN:
-                    return true;
-                default:
-            }
-        }
-        return false;
+        return (sources & EXAC_SOURCES) != 0;
     }
 
     public boolean hasKnownFrequency() {
-        return !knownFrequencies.isEmpty();
+        return sources != 0;
     }
 
     /**
@@ -141,7 +154,21 @@ public boolean hasKnownFrequency() {
      * @return a List of Frequency data
      */
     public List<Frequency> getKnownFrequencies() {
-        return new ArrayList<>(knownFrequencies.values());
+        List<Frequency> knownFrequencies = new ArrayList<>(frequencies.length);
+        int i = 0;
+        for (int ordinal = 0; ordinal < SOURCES.length; ordinal++) {
+            if ((sources & (1 << ordinal)) != 0) {
+                knownFrequencies.add(Frequency.valueOf(frequencies[i++], SOURCES[ordinal]));
+            }
+        }
+        return knownFrequencies;
+    }
+
+    /**
+     * @return the number of known frequencies, without creating the Frequency objects.
+     */
+    public int getNumKnownFrequencies() {
+        return frequencies.length;
     }
 
     /**
@@ -154,9 +181,9 @@ public float getMaxFreq() {
         //TODO this is analagous to PathogenicityData.getMostPathogenicScore()
         //TODO so should really return a Frequency object...
         float maxFreq = 0f;
-        for (Frequency freq : knownFrequencies.values()) {
+        for (float freq : frequencies) {
             //TODO ...but frequency needs to implement comparable first
-            maxFreq = Math.max(maxFreq, freq.getFrequency());
+            maxFreq = Math.max(maxFreq, freq);
         }
         return maxFreq;
     }
@@ -165,7 +192,8 @@ public float getMaxFreq() {
     public int hashCode() {
         int hash = 5;
         hash = 29 * hash + Objects.hashCode(this.rsId);
-        hash = 29 * hash + Objects.hashCode(this.knownFrequencies);
+        hash = 29 * hash + this.sources;
+        hash = 29 * hash + Arrays.hashCode(this.frequencies);
         return hash;
     }
 
@@ -181,14 +209,13 @@ public boolean equals(Object obj) {
         if (!Objects.equals(this.rsId, other.rsId)) {
             return false;
         }
-        return Objects.equals(this.knownFrequencies, other.knownFrequencies);
+        return this.sources == other.sources && Arrays.equals(this.frequencies, other.frequencies);
     }
 
     @Override
     public String toString() {
-        return "FrequencyData{" + "rsId=" + rsId + ", knownFrequencies=" + knownFrequencies.values() + '}';
+        return "FrequencyData{" + "rsId=" + rsId + ", knownFrequencies=" + getKnownFrequencies() + '}';
     }
-
     private static final float VERY_RARE_SCORE = 1f;
     private static final float NOT_RARE_SCORE = 0f;
 
@@ -25,13 +25,22 @@
 /**
  * Container for PathogenicityScore data about a variant.
  *
+ * The scores are held in a float array in {@link PathogenicitySource} ordinal order with a bitmask of the sources
+ * present, rather than in a map of {@link PathogenicityScore} objects, as there are a great many of these held in
+ * memory. The PathogenicityScore objects are created on demand.
+ *
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
 public class PathogenicityData {
 
+    private static final PathogenicitySource[] SOURCES = PathogenicitySource.values();
+
     private static final PathogenicityData EMPTY_DATA = new PathogenicityData(Collections.emptyList());
 
-    private final Map<PathogenicitySource, PathogenicityScore> pathogenicityScores;
+    //bit n is set if there is a score for the PathogenicitySource with ordinal n
+    private final int sources;
+    //scores for the sources present in ordinal order
+    private final float[] scores;
 
     public static PathogenicityData of(PathogenicityScore pathScore) {
         return new PathogenicityData(Collections.singletonList(pathScore));
@@ -50,14 +59,55 @@ public static PathogenicityData empty() {
     }
 
     private PathogenicityData(Collection<PathogenicityScore> pathScores) {
-        pathogenicityScores = new EnumMap<>(PathogenicitySource.class);
+        int presentSources = 0;
+        float[] sourceScores = new float[SOURCES.length];
         for (PathogenicityScore pathScore : pathScores) {
             if (pathScore != null) {
-                pathogenicityScores.put(pathScore.getSource(), pathScore);
+                int ordinal = pathScore.getSource().ordinal();
+                presentSources |= 1 << ordinal;
+                sourceScores[ordinal] = pathScore.getScore();
+            }
+        }
+        this.sources = presentSources;
+        this.scores = new float[Integer.bitCount(presentSources)];
+        int i = 0;
+        for (int ordinal = 0; ordinal < SOURCES.length; ordinal++) {
+            if (isPresent(ordinal)) {
+                scores[i++] = sourceScores[ordinal];
             }
         }
     }
 
+    private boolean isPresent(int ordinal) {
+        return (sources & (1 << ordinal)) != 0;
+    }
+
+    /**
+     * The scores are re-created from their source. Sources without a concrete PathogenicityScore type, such as
+     * VARIANT_TYPE, are returned as a {@link SourceScore}.
+     */
+    private static PathogenicityScore createScore(PathogenicitySource source, float score) {
+        switch (source) {
+            case POLYPHEN:
+                return PolyPhenScore.valueOf(score);
+            case MUTATION_TASTER:
+                return MutationTasterScore.valueOf(score);
+            case SIFT:
+                return SiftScore.valueOf(score);
+            case CADD:
+                return CaddScore.valueOf(score);
+            case REMM:
+                return RemmScore.valueOf(score);
+            default:
+                return new SourceScore(score, source);
+        }
+    }
+
+    //SIFT is about tolerance rather than pathogenicity, so the score is inverted
+    private static float pathogenicityOf(PathogenicitySource source, float score) {
+        return source == PathogenicitySource.SIFT ? 1 - score : score;
+    }
+
     public PolyPhenScore getPolyPhenScore() {
         return (PolyPhenScore) getPredictedScore(PathogenicitySource.POLYPHEN);
     }
@@ -79,19 +129,33 @@ public RemmScore getRemmScore() {
     }
     
     public List<PathogenicityScore> getPredictedPathogenicityScores() {
-        return new ArrayList<>(pathogenicityScores.values());
+        List<PathogenicityScore> predictedScores = new ArrayList<>(scores.length);
+        int i = 0;
+        for (int ordinal = 0; ordinal < SOURCES.length; ordinal++) {
+            if (isPresent(ordinal)) {
+                predictedScores.add(createScore(SOURCES[ordinal], scores[i++]));
+            }
+        }
+        return predictedScores;
+    }
+
+    /**
+     * @return the number of predicted scores, without creating the PathogenicityScore objects.
+     */
+    public int getNumPredictedScores() {
+        return scores.length;
     }
 
     public boolean isEmpty() {
-        return pathogenicityScores.isEmpty();
+        return sources == 0;
     }
 
     public boolean hasPredictedScore() {
-        return !pathogenicityScores.isEmpty();
+        return sources != 0;
     }
 
     public boolean hasPredictedScore(PathogenicitySource pathogenicitySource) {
-        return pathogenicityScores.containsKey(pathogenicitySource);
+        return isPresent(pathogenicitySource.ordinal());
     }
 
     /**
@@ -101,22 +165,44 @@ public boolean hasPredictedScore(PathogenicitySource pathogenicitySource) {
      * @return
      */
     public PathogenicityScore getPredictedScore(PathogenicitySource pathogenicitySource) {
-        return pathogenicityScores.get(pathogenicitySource);
+        int bit = 1 << pathogenicitySource.ordinal();
+        if ((sources & bit) == 0) {
+            return null;
+        }
+        //the index of the score is the number of sources present with a lower ordinal
+        int index = Integer.bitCount(sources & (bit - 1));
+        return createScore(pathogenicitySource, scores[index]);
     }
 
     /**
      * @return The most pathogenic score or null if there are no predicted scores
      */
     public PathogenicityScore getMostPathogenicScore() {
-        if (pathogenicityScores.isEmpty()) {
+        if (sources == 0) {
             return null;
             //TODO: return a new NonPathogenicPathogenicityScore? Optional<PathogenicityScore>?
 //            return new AbstractPathogenicityScore(VariantTypePathogenicityScores.NON_PATHOGENIC_SCORE, VARIANT_TYPE);
         }
-        List<PathogenicityScore> knownPathScores = this.getPredictedPathogenicityScores();
-        Collections.sort(knownPathScores);
-        return knownPathScores.get(0);
-//        return pathogenicityScores.values().stream().max(Comparator.naturalOrder()).orElse(null);
+        int mostPathogenicOrdinal = mostPathogenicOrdinal();
+        int index = Integer.bitCount(sources & ((1 << mostPathogenicOrdinal) - 1));
+        return createScore(SOURCES[mostPathogenicOrdinal], scores[index]);
+    }
+
+    //where scores are equally pathogenic the first in source order is chosen
+    private int mostPathogenicOrdinal() {
+        int mostPathogenicOrdinal = -1;
+        float maxPathogenicity = 0;
+        int i = 0;
+        for (int ordinal = 0; ordinal < SOURCES.length; ordinal++) {
+            if (isPresent(ordinal)) {
+                float pathogenicity = pathogenicityOf(SOURCES[ordinal], scores[i++]);
+                if (mostPathogenicOrdinal == -1 || pathogenicity > maxPathogenicity) {
+                    mostPathogenicOrdinal = ordinal;
+                    maxPathogenicity = pathogenicity;
+                }
+            }
+        }
+        return mostPathogenicOrdinal;
     }
 
 
@@ -124,23 +210,20 @@ public PathogenicityScore getMostPathogenicScore() {
      * @return the predicted pathogenicity score for this data set. The score is ranked from 0 (non-pathogenic) to 1 (highly pathogenic)
      */
     public float getScore() {
-        if (pathogenicityScores.isEmpty()) {
+        if (sources == 0) {
             return VariantTypePathogenicityScores.NON_PATHOGENIC_SCORE;
         }
-
-        PathogenicityScore mostPathogenicPredictedScore = getMostPathogenicScore();
-        //Thanks to SIFT being about tolerance rather than pathogenicity, the score is inverted
-        if (mostPathogenicPredictedScore.getClass() == SiftScore.class) {
-            return 1 - mostPathogenicPredictedScore.getScore();
-        }
-        return mostPathogenicPredictedScore.getScore();
+        int mostPathogenicOrdinal = mostPathogenicOrdinal();
+        int index = Integer.bitCount(sources & ((1 << mostPathogenicOrdinal) - 1));
+        return pathogenicityOf(SOURCES[mostPathogenicOrdinal], scores[index]);
     }
 
 
     @Override
     public int hashCode() {
         int hash = 3;
-        hash = 19 * hash + Objects.hashCode(this.pathogenicityScores);
+        hash = 19 * hash + this.sources;
+        hash = 19 * hash + Arrays.hashCode(this.scores);
         return hash;
     }
 
@@ -153,12 +236,26 @@ public boolean equals(Object obj) {
             return false;
         }
         final PathogenicityData other = (PathogenicityData) obj;
-        return Objects.equals(this.pathogenicityScores, other.pathogenicityScores);
+        return this.sources == other.sources && Arrays.equals(this.scores, other.scores);
     }
 
     @Override
     public String toString() {
-        return "PathogenicityData" + pathogenicityScores.values();
+        return "PathogenicityData" + getPredictedPathogenicityScores();
     }
 
+    /**
+     * Generic score for a source without its own PathogenicityScore type.
+     */
+    private static final class SourceScore extends BasePathogenicityScore {
+
+        private SourceScore(float score, PathogenicitySource source) {
+            super(score, source);
+        }
+
+        @Override
+        public String toString() {
+            return source + ": " + score;
+        }
+    }
 }
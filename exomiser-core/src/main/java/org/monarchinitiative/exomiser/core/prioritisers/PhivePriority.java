@@ -22,6 +22,7 @@
 
 import com.google.common.collect.ImmutableSet;
 import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.GeneIdSet;
 import org.monarchinitiative.exomiser.core.phenotype.*;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModel;
 import org.monarchinitiative.exomiser.core.prioritisers.model.GeneModelPhenotypeMatch;
@@ -82,7 +83,7 @@ public Stream<PhivePriorityResult> prioritise(List<String> hpoIds, List<Gene> ge
         List<PhenotypeTerm> hpoPhenotypeTerms = priorityService.makePhenotypeTermsFromHpoIds(hpoIds);
         PhenotypeMatcher humanMousePhenotypeMatcher = priorityService.getPhenotypeMatcherForOrganism(hpoPhenotypeTerms, Organism.MOUSE);
 
-        Set<Integer> wantedGeneIds = genes.stream().map(Gene::getEntrezGeneID).collect(ImmutableSet.toImmutableSet());
+        GeneIdSet wantedGeneIds = GeneIdSet.of(genes.stream().mapToInt(Gene::getEntrezGeneID).toArray());
 
         Set<GeneModel> modelsToScore = priorityService.getModelsForOrganism(Organism.MOUSE).stream()
                 .filter(model -> wantedGeneIds.contains(model.getEntrezGeneId()))
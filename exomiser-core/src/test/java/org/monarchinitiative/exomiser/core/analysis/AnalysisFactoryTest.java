@@ -21,10 +21,13 @@
 package org.monarchinitiative.exomiser.core.analysis;
 
 import org.junit.Test;
+import org.monarchinitiative.exomiser.core.filters.ParallelGeneFilterRunner;
 import org.monarchinitiative.exomiser.core.genome.*;
 import org.monarchinitiative.exomiser.core.prioritisers.NoneTypePriorityFactoryStub;
 import org.monarchinitiative.exomiser.core.prioritisers.PriorityFactory;
 
+import java.util.concurrent.ForkJoinPool;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -59,6 +62,20 @@ public void testCanMakePassOnlyAnalysisRunner() {
         assertThat(PassOnlyAnalysisRunner.class.isInstance(analysisRunner), is(true));
     }
 
+    @Test
+    public void testCanMakeAnalysisRunnerWithGeneFilterRunner() {
+        AnalysisRunner analysisRunner = instance.getAnalysisRunnerForMode(AnalysisMode.PASS_ONLY, new ParallelGeneFilterRunner());
+        assertThat(PassOnlyAnalysisRunner.class.isInstance(analysisRunner), is(true));
+    }
+
+    @Test
+    public void testCanMakeAnalysisRunnerWithGeneAnalysisPool() {
+        AnalysisFactory analysisFactory = new AnalysisFactory(geneFactory, variantFactory, priorityFactory, variantDataService);
+        analysisFactory.setGeneAnalysisPool(ForkJoinPool.commonPool());
+        AnalysisRunner analysisRunner = analysisFactory.getAnalysisRunnerForMode(AnalysisMode.FULL);
+        assertThat(SimpleAnalysisRunner.class.isInstance(analysisRunner), is(true));
+    }
+
     @Test
     public void testCanMakeAnalysisBuilder() {
         assertThat(instance.getAnalysisBuilder(), notNullValue());
@@ -187,6 +187,45 @@ public void testParseAnalysisStep_IntervalFilter() {
         assertThat(analysis.getAnalysisSteps(), equalTo(analysisSteps));
     }
 
+    @Test
+    public void testParseAnalysisStep_IntervalFilterWithIntervals() {
+        Analysis analysis = instance.parseAnalysis(addStepToAnalysis("intervalFilter: {intervals: ['chr10:122892600-122892700', 'chr10:123892600-123892700']}"));
+        analysisSteps.add(new IntervalFilter(Arrays.asList(new GeneticInterval(10, 122892600, 122892700), new GeneticInterval(10, 123892600, 123892700))));
+        assertThat(analysis.getAnalysisSteps(), equalTo(analysisSteps));
+    }
+
+    @Test
+    public void testParseAnalysisStep_IntervalFilterWithBedFile() {
+        Analysis analysis = instance.parseAnalysis(addStepToAnalysis("intervalFilter: {bed: 'src/test/resources/intervalFilter.bed'}"));
+        analysisSteps.add(new IntervalFilter(Arrays.asList(new GeneticInterval(10, 122892600, 122892700), new GeneticInterval(10, 123892600, 123892700))));
+        assertThat(analysis.getAnalysisSteps(), equalTo(analysisSteps));
+    }
+
+    @Test(expected = AnalysisParserException.class)
+    public void testParseAnalysisStep_IntervalFilterWithMissingBedFile() {
+        instance.parseAnalysis(addStepToAnalysis("intervalFilter: {bed: 'src/test/resources/wibble.bed'}"));
+    }
+
+    @Test(expected = AnalysisParserException.class)
+    public void testParseAnalysisStep_IntervalFilterWithNonStringInterval() {
+        instance.parseAnalysis(addStepToAnalysis("intervalFilter: {interval: 12345}"));
+    }
+
+    @Test(expected = AnalysisParserException.class)
+    public void testParseAnalysisStep_IntervalFilterWithIntervalsNotAList() {
+        instance.parseAnalysis(addStepToAnalysis("intervalFilter: {intervals: 'chr10:122892600-122892700'}"));
+    }
+
+    @Test(expected = AnalysisParserException.class)
+    public void testParseAnalysisStep_IntervalFilterWithNonStringIntervals() {
+        instance.parseAnalysis(addStepToAnalysis("intervalFilter: {intervals: [12345, 67890]}"));
+    }
+
+    @Test(expected = AnalysisParserException.class)
+    public void testParseAnalysisStep_IntervalFilterWithNoOptions() {
+        instance.parseAnalysis(addStepToAnalysis("intervalFilter: {}"));
+    }
+
     @Test
     public void testParseAnalysisStep_GeneIdFilter() {
         Analysis analysis = instance.parseAnalysis(addStepToAnalysis("geneIdFilter: {geneIds: [12345, 34567, 98765]}"));
@@ -25,19 +25,27 @@
  */
 package org.monarchinitiative.exomiser.core.analysis;
 
+import org.monarchinitiative.exomiser.core.filters.*;
 import org.monarchinitiative.exomiser.core.genome.*;
 import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.GeneticInterval;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.prioritisers.MockPrioritiser;
+import org.monarchinitiative.exomiser.core.prioritisers.PriorityType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static java.util.stream.Collectors.toMap;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 
 /**
  * Contains common methods required by the AnalysisRunnerTest classes.
@@ -69,6 +77,34 @@ Map<String, Gene> makeResults(List<Gene> genes) {
         return genes.stream().collect(toMap(Gene::getGeneSymbol, gene -> gene));
     }
 
+    /**
+     * Runs an analysis with variant filters before and after a gene filter, then checks that the filter reports made
+     * using the FilterStats kept by the runner are the same as those made by counting the filter results of the
+     * variants and genes in the analysis results.
+     */
+    void assertFilterReportsMatchCountedResults(AnalysisRunner analysisRunner, AnalysisMode analysisMode) {
+        PriorityType priorityType = PriorityType.HIPHIVE_PRIORITY;
+        Analysis analysis = Analysis.builder()
+                .vcfPath(vcfPath)
+                .analysisMode(analysisMode)
+                .addStep(new FailedVariantFilter())
+                .addStep(new QualityFilter(120))
+                .addStep(new MockPrioritiser(priorityType, Collections.singletonMap("RBM8A", 0.9f)))
+                .addStep(new PriorityScoreFilter(priorityType, 0.8f))
+                .addStep(new IntervalFilter(new GeneticInterval(1, 145508800, 145510000)))
+                .build();
+
+        AnalysisResults analysisResults = analysisRunner.run(analysis);
+        AnalysisResults resultsWithoutFilterStats = AnalysisResults.builder()
+                .genes(analysisResults.getGenes())
+                .variantEvaluations(analysisResults.getVariantEvaluations())
+                .build();
+        assertThat(analysisResults.getFilterStats().hasResults(FilterType.QUALITY_FILTER), is(true));
+
+        FilterReportFactory filterReportFactory = new FilterReportFactory();
+        assertThat(filterReportFactory.makeFilterReports(analysis, analysisResults), equalTo(filterReportFactory.makeFilterReports(analysis, resultsWithoutFilterStats)));
+    }
+
     void printResults(AnalysisResults analysisResults) {
         for (Gene gene : analysisResults.getGenes()) {
             logger.info("{}", gene);
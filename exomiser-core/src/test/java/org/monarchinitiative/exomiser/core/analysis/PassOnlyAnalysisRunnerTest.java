@@ -32,9 +32,14 @@
 import org.monarchinitiative.exomiser.core.prioritisers.PriorityType;
 
 import java.nio.file.Paths;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -394,4 +399,104 @@ public void testRunAnalysis_autosomalRecessiveTrioInheritanceFilter() {
         assertThat(passedGene.getVariantEvaluations().get(0).getPosition(), equalTo(123239370));
     }
 
+    @Test
+    public void testRunAnalysis_autosomalRecessiveTrioInheritanceFilterOnGeneAnalysisPoolMatchesSequentialRun() {
+        VariantFilter qualityFilter = new QualityFilter(5);
+        InheritanceFilter inheritanceFilter = new InheritanceFilter(ModeOfInheritance.AUTOSOMAL_RECESSIVE);
+        Analysis analysis = Analysis.builder()
+                .vcfPath(inheritanceFilterVCFPath)
+                .pedPath(childAffectedPedPath)
+                .probandSampleName("Seth")
+                .modeOfInheritance(ModeOfInheritance.AUTOSOMAL_RECESSIVE)
+                .addStep(qualityFilter)
+                .addStep(inheritanceFilter)
+                .build();
+
+        ForkJoinPool geneAnalysisPool = new ForkJoinPool(4);
+        try {
+            PassOnlyAnalysisRunner pooledRunner = new PassOnlyAnalysisRunner(geneFactory, variantFactory, stubDataService, new ParallelGeneFilterRunner(geneAnalysisPool), geneAnalysisPool);
+            AnalysisResults pooledResults = pooledRunner.run(analysis);
+            printResults(pooledResults);
+            AnalysisResults sequentialResults = instance.run(analysis);
+
+            assertThat(pooledResults.getGenes().size(), equalTo(2));
+            assertThat(getInheritanceModes(pooledResults), equalTo(getInheritanceModes(sequentialResults)));
+            Map<String, Gene> results = makeResults(pooledResults.getGenes());
+            assertThat(results.get("RBM8A").isCompatibleWith(ModeOfInheritance.AUTOSOMAL_RECESSIVE), is(true));
+            assertThat(results.get("FGFR2").isCompatibleWith(ModeOfInheritance.AUTOSOMAL_RECESSIVE), is(true));
+        } finally {
+            geneAnalysisPool.shutdown();
+        }
+    }
+
+    private Map<String, Set<ModeOfInheritance>> getInheritanceModes(AnalysisResults analysisResults) {
+        Map<String, Set<ModeOfInheritance>> inheritanceModes = new HashMap<>();
+        for (Gene gene : analysisResults.getGenes()) {
+            inheritanceModes.put(gene.getGeneSymbol(), gene.getInheritanceModes());
+            for (VariantEvaluation variantEvaluation : gene.getVariantEvaluations()) {
+                inheritanceModes.put(gene.getGeneSymbol() + "-" + variantEvaluation.getPosition(), variantEvaluation.getInheritanceModes());
+            }
+        }
+        return inheritanceModes;
+    }
+
+    @Test
+    public void testRunAnalysis_RecordFiltersCheckedBeforeAnnotationGiveSamePassedVariantsAsSimpleRunner() {
+        VariantFilter intervalFilter = new IntervalFilter(new GeneticInterval(1, 145508800, 145510000));
+        VariantFilter qualityFilter = new QualityFilter(200);
+        VariantFilter failedVariantFilter = new FailedVariantFilter();
+
+        Analysis analysis = makeAnalysis(vcfPath, failedVariantFilter, intervalFilter, qualityFilter);
+        AnalysisResults analysisResults = instance.run(analysis);
+        printResults(analysisResults);
+
+        SimpleAnalysisRunner simpleAnalysisRunner = new SimpleAnalysisRunner(geneFactory, variantFactory, stubDataService);
+        AnalysisResults simpleAnalysisResults = simpleAnalysisRunner.run(makeAnalysis(vcfPath, failedVariantFilter, intervalFilter, qualityFilter));
+        List<VariantEvaluation> simplePassedVariants = simpleAnalysisResults.getVariantEvaluations().stream()
+                .filter(VariantEvaluation::passedFilters)
+                .collect(toList());
+
+        assertThat(analysisResults.getVariantEvaluations().size(), equalTo(1));
+        assertThat(analysisResults.getVariantEvaluations(), equalTo(simplePassedVariants));
+        assertThat(analysisResults.getVariantEvaluations().get(0).getPosition(), equalTo(145510000));
+    }
+
+    @Test
+    public void testRunAnalysis_VariantFilterReportsAreCountedFromFilterStats() {
+        //the results only hold the variants which passed, so the reports can only count the failed variants from the stats
+        Analysis analysis = makeAnalysis(vcfPath, new FailedVariantFilter(), new QualityFilter(120), new KnownVariantFilter());
+
+        AnalysisResults analysisResults = instance.run(analysis);
+        FilterStats filterStats = analysisResults.getFilterStats();
+        List<FilterReport> filterReports = new FilterReportFactory().makeFilterReports(analysis, analysisResults);
+
+        assertThat(filterStats.getFailedCount(FilterType.QUALITY_FILTER), equalTo(1L));
+        for (FilterReport filterReport : filterReports) {
+            FilterType filterType = filterReport.getFilterType();
+            assertThat(filterStats.hasResults(filterType), is(true));
+            assertThat((long) filterReport.getPassed(), equalTo(filterStats.getPassedCount(filterType)));
+            assertThat((long) filterReport.getFailed(), equalTo(filterStats.getFailedCount(filterType)));
+        }
+        long knownVariantFilterCount = filterStats.getPassedCount(FilterType.KNOWN_VARIANT_FILTER) + filterStats.getFailedCount(FilterType.KNOWN_VARIANT_FILTER);
+        assertThat(filterStats.getKnownVariantCount(), equalTo(knownVariantFilterCount));
+    }
+
+    @Test
+    public void testRunAnalysis_RecordsFailingRecordFiltersBeforeAnnotationAreCountedInFilterStats() {
+        VariantFilter failedVariantFilter = new FailedVariantFilter();
+        VariantFilter qualityFilter = new QualityFilter(200);
+
+        AnalysisResults analysisResults = instance.run(makeAnalysis(vcfPath, failedVariantFilter, qualityFilter));
+
+        SparseAnalysisRunner sparseAnalysisRunner = new SparseAnalysisRunner(geneFactory, variantFactory, stubDataService);
+        AnalysisResults sparseAnalysisResults = sparseAnalysisRunner.run(makeAnalysis(vcfPath, failedVariantFilter, qualityFilter));
+
+        FilterStats filterStats = analysisResults.getFilterStats();
+        FilterStats sparseFilterStats = sparseAnalysisResults.getFilterStats();
+        assertThat(filterStats.getFailedCount(FilterType.QUALITY_FILTER), equalTo(2L));
+        for (FilterType filterType : EnumSet.of(FilterType.FAILED_VARIANT_FILTER, FilterType.QUALITY_FILTER)) {
+            assertThat(filterStats.getPassedCount(filterType), equalTo(sparseFilterStats.getPassedCount(filterType)));
+            assertThat(filterStats.getFailedCount(filterType), equalTo(sparseFilterStats.getFailedCount(filterType)));
+        }
+    }
 }
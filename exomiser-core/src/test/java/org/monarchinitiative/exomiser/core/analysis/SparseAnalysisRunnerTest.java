@@ -353,4 +353,8 @@ public void testRunAnalysis_VariantFilterPrioritiserPriorityScoreFilterVariantFi
         assertThat(rbm8Variant2.passedFilter(FilterType.INHERITANCE_FILTER), is(true));
     }
 
+    @Test
+    public void testRunAnalysis_FilterReportsFromFilterStatsMatchCountedResults() {
+        assertFilterReportsMatchCountedResults(instance, AnalysisMode.SPARSE);
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis.util;
+
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.reference.HG19RefDictBuilder;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.analysis.util.BedFileReader.BedFileReaderException;
+import org.monarchinitiative.exomiser.core.model.GeneticInterval;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class BedFileReaderTest {
+
+    private static final ReferenceDictionary REF_DICT = HG19RefDictBuilder.build();
+
+    private List<GeneticInterval> readIntervals(String bedLines) throws IOException {
+        return BedFileReader.readIntervals(REF_DICT, new BufferedReader(new StringReader(bedLines)));
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        assertThat(readIntervals("").isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void testReadsZeroBasedHalfOpenRegionsAsOneBasedIntervals() throws Exception {
+        List<GeneticInterval> intervals = readIntervals("chr1\t99\t200\n" +
+                "X\t0\t1000\tregion_name\t0\t+\n");
+        assertThat(intervals, equalTo(Arrays.asList(new GeneticInterval(1, 100, 200), new GeneticInterval(23, 1, 1000))));
+    }
+
+    @Test
+    public void testSkipsHeaderLinesAndUnknownContigs() throws Exception {
+        List<GeneticInterval> intervals = readIntervals("#comment\n" +
+                "track name=panel\n" +
+                "browser position chr1:1-1000\n" +
+                "\n" +
+                "chrUn_gl000220\t10\t20\n" +
+                "chr2\t10\t20\n");
+        assertThat(intervals, equalTo(Arrays.asList(new GeneticInterval(2, 11, 20))));
+    }
+
+    @Test(expected = BedFileReaderException.class)
+    public void testTooFewFieldsThrowsException() throws Exception {
+        readIntervals("chr1 99 200\n");
+    }
+
+    @Test(expected = BedFileReaderException.class)
+    public void testNonNumericPositionThrowsException() throws Exception {
+        readIntervals("chr1\tstart\t200\n");
+    }
+}
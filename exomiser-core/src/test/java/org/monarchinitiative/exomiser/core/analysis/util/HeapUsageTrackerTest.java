@@ -0,0 +1,105 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.analysis.util;
+
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.analysis.util.HeapUsageTracker.ObjectType;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class HeapUsageTrackerTest {
+
+    private final VariantEvaluation variant = VariantEvaluation.builder(1, 12345, "A", "T").build();
+    private final VariantEvaluation variantWithFrequencies = VariantEvaluation.builder(1, 23456, "A", "T")
+            .frequencyData(FrequencyData.of(RsId.valueOf(123), Frequency.valueOf(0.01f, FrequencySource.EXAC_NON_FINNISH_EUROPEAN)))
+            .build();
+
+    @Test
+    public void testEmptyTracker() {
+        HeapUsageTracker instance = new HeapUsageTracker("test");
+        assertThat(instance.getName(), equalTo("test"));
+        assertThat(instance.getTotalBytes(), equalTo(0L));
+        assertThat(instance.getPeakTotalBytes(), equalTo(0L));
+        for (ObjectType objectType : ObjectType.values()) {
+            assertThat(instance.getCount(objectType), equalTo(0L));
+        }
+    }
+
+    @Test
+    public void testAddVariantsCountsVariantsAndFrequencyData() {
+        HeapUsageTracker instance = new HeapUsageTracker("test");
+        instance.addVariants(Arrays.asList(variant, variantWithFrequencies));
+
+        assertThat(instance.getCount(ObjectType.VARIANT_EVALUATION), equalTo(2L));
+        assertThat(instance.getCount(ObjectType.FREQUENCY_DATA), equalTo(1L));
+        assertThat(instance.getCount(ObjectType.PATHOGENICITY_DATA), equalTo(0L));
+        assertThat(instance.getBytes(ObjectType.FREQUENCY_DATA), greaterThan(0L));
+        assertThat(instance.getPeakTotalBytes(), equalTo(instance.getTotalBytes()));
+    }
+
+    @Test
+    public void testFinishKeepsPeakAndReplacesFinalTotals() {
+        HeapUsageTracker instance = new HeapUsageTracker("test");
+        Gene gene = new Gene("GENE1", 1234);
+        instance.addGenes(Collections.singletonList(gene));
+        instance.addVariants(Arrays.asList(variant, variantWithFrequencies));
+        long peak = instance.getPeakTotalBytes();
+
+        instance.finish(Collections.singletonList(gene), Collections.singletonList(variant));
+
+        assertThat(instance.getCount(ObjectType.GENE), equalTo(1L));
+        assertThat(instance.getCount(ObjectType.VARIANT_EVALUATION), equalTo(1L));
+        assertThat(instance.getCount(ObjectType.FREQUENCY_DATA), equalTo(0L));
+        assertThat(instance.getPeakTotalBytes(), equalTo(peak));
+        assertThat(peak, greaterThan(instance.getTotalBytes()));
+    }
+
+    @Test
+    public void testCountLoadedVariant() {
+        HeapUsageTracker instance = new HeapUsageTracker("test");
+        instance.countLoadedVariant(variant);
+        instance.countLoadedVariant(variantWithFrequencies);
+        assertThat(instance.getLoadedVariants(), equalTo(2L));
+        assertThat(instance.getCount(ObjectType.VARIANT_EVALUATION), equalTo(0L));
+    }
+
+    @Test
+    public void testPredictPeakBytesScalesWithRecordsAndSamples() {
+        long baseline = HeapUsageTracker.predictPeakBytes(0, 1);
+        assertThat(baseline, greaterThan(0L));
+        assertThat(HeapUsageTracker.predictPeakBytes(1000, 1), greaterThan(baseline));
+        assertThat(HeapUsageTracker.predictPeakBytes(1000, 100), greaterThan(HeapUsageTracker.predictPeakBytes(1000, 1)));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.cache;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class InstrumentedCacheManagerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private InstrumentedCacheManager instance;
+
+    private final VariantEvaluation variant = VariantEvaluation.builder(10, 123256215, "T", "G").build();
+    private final FrequencyData frequencyData = FrequencyData.of(RsId.valueOf(121918506), Frequency.valueOf(0.01f, FrequencySource.THOUSAND_GENOMES));
+
+    @Before
+    public void setUp() {
+        instance = new InstrumentedCacheManager(new ConcurrentMapCacheManager("frequency", "pathogenicity"));
+    }
+
+    @Test
+    public void testGetCacheNamesDelegatesToWrappedCacheManager() {
+        assertThat(instance.getCacheNames(), hasItems("frequency", "pathogenicity"));
+    }
+
+    @Test
+    public void testGetCacheReturnsSameInstrumentedCache() {
+        Cache cache = instance.getCache("frequency");
+        assertThat(cache, instanceOf(InstrumentedCache.class));
+        assertThat(instance.getCache("frequency"), sameInstance(cache));
+    }
+
+    @Test
+    public void testGetUnknownCacheIsNull() {
+        InstrumentedCacheManager staticCacheManager = new InstrumentedCacheManager(new ConcurrentMapCacheManager("frequency"));
+        assertThat(staticCacheManager.getCache("wibble"), nullValue());
+        assertThat(staticCacheManager.getCacheStatistics("wibble"), nullValue());
+    }
+
+    @Test
+    public void testNoStatisticsForUnusedCaches() {
+        assertThat(instance.getCacheStatistics().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRecordsHitsMissesAndLoads() {
+        Cache cache = instance.getCache("frequency");
+        //miss followed by a put is how Spring's @Cacheable loads a value
+        assertThat(cache.get(variant), nullValue());
+        cache.put(variant, frequencyData);
+        assertThat(cache.get(variant).get(), equalTo(frequencyData));
+        assertThat(cache.get(variant, FrequencyData.class), equalTo(frequencyData));
+
+        CacheStatistics statistics = instance.getCacheStatistics("frequency");
+        assertThat(statistics.getName(), equalTo("frequency"));
+        assertThat(statistics.getRequests(), equalTo(3L));
+        assertThat(statistics.getHits(), equalTo(2L));
+        assertThat(statistics.getMisses(), equalTo(1L));
+        assertThat(statistics.getHitRate(), equalTo(2d / 3d));
+        assertThat(statistics.getPuts(), equalTo(1L));
+        assertThat(statistics.getLoads(), equalTo(1L));
+        assertThat(statistics.getEntries(), equalTo(1L));
+        assertThat(statistics.getEstimatedBytes(), greaterThan(0L));
+    }
+
+    @Test
+    public void testRecordsValueLoaderLoads() {
+        Cache cache = instance.getCache("frequency");
+        assertThat(cache.get(variant, () -> frequencyData), equalTo(frequencyData));
+        assertThat(cache.get(variant, () -> FrequencyData.empty()), equalTo(frequencyData));
+
+        CacheStatistics statistics = instance.getCacheStatistics("frequency");
+        assertThat(statistics.getHits(), equalTo(1L));
+        assertThat(statistics.getMisses(), equalTo(1L));
+        assertThat(statistics.getLoads(), equalTo(1L));
+        assertThat(statistics.getEntries(), equalTo(1L));
+    }
+
+    @Test
+    public void testRecordsEvictions() {
+        Cache cache = instance.getCache("frequency");
+        cache.put(variant, frequencyData);
+        cache.put(VariantEvaluation.builder(1, 1000, "A", "T").build(), FrequencyData.empty());
+        cache.evict(variant);
+        cache.clear();
+
+        CacheStatistics statistics = instance.getCacheStatistics("frequency");
+        assertThat(statistics.getEvictions(), equalTo(2L));
+        assertThat(statistics.getEntries(), equalTo(0L));
+        assertThat(statistics.getEstimatedBytes(), equalTo(0L));
+    }
+
+    @Test
+    public void testNativeCacheIsNotWrapped() {
+        Cache cache = instance.getCache("frequency");
+        cache.put(variant, frequencyData);
+        assertThat(cache.getNativeCache(), equalTo(Collections.singletonMap(variant, frequencyData)));
+    }
+
+    @Test
+    public void testReporterWritesJsonReport() throws Exception {
+        instance.getCache("frequency").put(variant, frequencyData);
+        Path jsonReportPath = temporaryFolder.getRoot().toPath().resolve("cache-stats.json");
+
+        CacheStatisticsReporter reporter = new CacheStatisticsReporter(Collections.singletonList(instance), jsonReportPath);
+        reporter.report();
+
+        String report = new String(Files.readAllBytes(jsonReportPath), "UTF-8");
+        assertThat(report, containsString("\"name\" : \"frequency\""));
+        assertThat(report, containsString("\"entries\" : 1"));
+    }
+}
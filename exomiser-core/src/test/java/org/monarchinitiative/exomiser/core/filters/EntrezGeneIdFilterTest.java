@@ -29,7 +29,9 @@
 import org.junit.Test;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -94,6 +96,15 @@ public void testRunFilterOnVariantWithUnWantedGeneIdFailsFilter() {
         assertThat(filterResult.getFilterType(), equalTo(FilterType.ENTREZ_GENE_ID_FILTER));
     }
 
+    @Test
+    public void testRunFilterOnBatchReturnsResultsInInputOrder() {
+        List<FilterResult> filterResults = instance.runFilter(Arrays.asList(unwantedFailsFilter, wantedPassesFilter));
+
+        assertThat(filterResults.size(), equalTo(2));
+        FilterTestHelper.assertFailed(filterResults.get(0));
+        FilterTestHelper.assertPassed(filterResults.get(1));
+    }
+
     @Test
     public void testHashCode() {
         Filter otherFilter = new EntrezGeneIdFilter(genesToKeep);
@@ -79,4 +79,11 @@ public void testPassesVariantWithFailedFiltersInFilterField() {
         assertThat(result.failed(), is(true));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testMayPassRecordIsSameAsFilterResult() {
+        for (String filterField : new String[]{"PASS", ".", "wibble;hoopy;frood"}) {
+            VariantEvaluation variant = variantEvaluationWithFilterField(filterField);
+            assertThat(instance.mayPassRecord(1, variant.getVariantContext()), is(instance.runFilter(variant).passed()));
+        }
+    }
+}
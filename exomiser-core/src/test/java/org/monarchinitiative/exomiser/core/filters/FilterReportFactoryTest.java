@@ -30,6 +30,7 @@
 import org.junit.Before;
 import org.junit.Test;
 import org.monarchinitiative.exomiser.core.analysis.Analysis;
+import org.monarchinitiative.exomiser.core.analysis.AnalysisMode;
 import org.monarchinitiative.exomiser.core.analysis.AnalysisResults;
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.model.GeneticInterval;
@@ -306,4 +307,132 @@ public void testMakePriorityScoreFilterReport() {
 
         assertThat(result, equalTo(report));
     }
+
+    @Test
+    public void testMakeQualityFilterReportUsesFilterStatsWhenPresent() {
+        //the variants in the results have no quality filter results, so the passed count can only come from the stats
+        variantEvaluations.add(makePassedVariant(FilterType.FREQUENCY_FILTER));
+        variantEvaluations.add(makePassedVariant(FilterType.FREQUENCY_FILTER));
+        variantEvaluations.add(makePassedVariant(FilterType.FREQUENCY_FILTER));
+        FilterStats filterStats = new FilterStats();
+        filterStats.addResult(FilterResult.pass(FilterType.QUALITY_FILTER));
+        filterStats.addResult(FilterResult.pass(FilterType.QUALITY_FILTER));
+        filterStats.addResult(FilterResult.fail(FilterType.QUALITY_FILTER));
+        AnalysisResults resultsWithStats = AnalysisResults.builder()
+                .variantEvaluations(variantEvaluations)
+                .filterStats(filterStats)
+                .build();
+
+        QualityFilter filter = new QualityFilter(100);
+        FilterReport report = new FilterReport(FilterType.QUALITY_FILTER, 2, 1);
+        report.addMessage(String.format("Variants filtered for mimimum PHRED quality of %.1f", filter.getMimimumQualityThreshold()));
+
+        FilterReport result = instance.makeFilterReport(filter, resultsWithStats);
+
+        assertThat(result, equalTo(report));
+    }
+
+    @Test
+    public void testMakeSparseQualityFilterReportCountsVariantsNotRunThroughFilterAsFailed() {
+        //only the variant which passed the frequency filter was run through the quality filter
+        variantEvaluations.add(makeFailedVariant(FilterType.FREQUENCY_FILTER));
+        variantEvaluations.add(makePassedVariant(FilterType.QUALITY_FILTER));
+        FilterStats filterStats = new FilterStats();
+        filterStats.addResult(FilterResult.pass(FilterType.QUALITY_FILTER));
+        AnalysisResults resultsWithStats = AnalysisResults.builder()
+                .variantEvaluations(variantEvaluations)
+                .filterStats(filterStats)
+                .build();
+
+        QualityFilter filter = new QualityFilter(100);
+        Analysis analysis = Analysis.builder().analysisMode(AnalysisMode.SPARSE).addStep(filter).build();
+
+        List<FilterReport> reports = instance.makeFilterReports(analysis, resultsWithStats);
+
+        assertThat(reports.get(0).getPassed(), equalTo(1));
+        assertThat(reports.get(0).getFailed(), equalTo(1));
+    }
+
+    @Test
+    public void testMakePassOnlyFilterReportsCountPassedAndFailedVariantsFromFilterStats() {
+        //in PASS_ONLY mode the results only contain the variants which passed, but the stats count all those run
+        variantEvaluations.add(makePassedVariant(FilterType.QUALITY_FILTER));
+        FilterStats filterStats = new FilterStats();
+        filterStats.addResult(FilterResult.pass(FilterType.QUALITY_FILTER));
+        filterStats.addResult(FilterResult.fail(FilterType.QUALITY_FILTER));
+        filterStats.addResult(FilterResult.fail(FilterType.QUALITY_FILTER));
+        AnalysisResults resultsWithStats = AnalysisResults.builder()
+                .variantEvaluations(variantEvaluations)
+                .filterStats(filterStats)
+                .build();
+
+        QualityFilter filter = new QualityFilter(100);
+        Analysis analysis = Analysis.builder().analysisMode(AnalysisMode.PASS_ONLY).addStep(filter).build();
+
+        List<FilterReport> reports = instance.makeFilterReports(analysis, resultsWithStats);
+
+        assertThat(reports.get(0).getPassed(), equalTo(1));
+        assertThat(reports.get(0).getFailed(), equalTo(2));
+    }
+
+    @Test
+    public void testMakePassOnlyFilterReportsCountVariantsInResultsWhenFilterStatsEmpty() {
+        variantEvaluations.add(makePassedVariant(FilterType.QUALITY_FILTER));
+        QualityFilter filter = new QualityFilter(100);
+        Analysis analysis = Analysis.builder().analysisMode(AnalysisMode.PASS_ONLY).addStep(filter).build();
+
+        List<FilterReport> reports = instance.makeFilterReports(analysis, analysisResults);
+
+        assertThat(reports.get(0).getPassed(), equalTo(1));
+        assertThat(reports.get(0).getFailed(), equalTo(0));
+    }
+
+    @Test
+    public void testMakeKnownVariantFilterReportUsesFilterStatsWhenPresent() {
+        //the results hold no variants, so the known variant counts can only come from the stats
+        FilterStats filterStats = new FilterStats();
+        filterStats.addResult(FilterResult.pass(FilterType.KNOWN_VARIANT_FILTER));
+        filterStats.addKnownVariantData(FrequencyData.empty());
+        filterStats.addResult(FilterResult.fail(FilterType.KNOWN_VARIANT_FILTER));
+        filterStats.addKnownVariantData(FrequencyData.of(RsId.valueOf(123456), Frequency.valueOf(100f, FrequencySource.EXAC_OTHER)));
+        AnalysisResults resultsWithStats = AnalysisResults.builder()
+                .filterStats(filterStats)
+                .build();
+
+        Filter filter = new KnownVariantFilter();
+        Analysis analysis = Analysis.builder().analysisMode(AnalysisMode.PASS_ONLY).addStep(filter).build();
+
+        FilterReport report = new FilterReport(FilterType.KNOWN_VARIANT_FILTER, 1, 1);
+        report.addMessage("Removed 1 variants with no RSID or frequency data (50.0%)");
+        report.addMessage("dbSNP \"rs\" id available for 1 variants (50.0%)");
+        report.addMessage("Data available in dbSNP (for 1000 Genomes Phase I) for 0 variants (0.0%)");
+        report.addMessage("Data available in Exome Server Project for 0 variants (0.0%)");
+        report.addMessage("Data available from ExAC Project for 1 variants (50.0%)");
+
+        List<FilterReport> reports = instance.makeFilterReports(analysis, resultsWithStats);
+
+        assertThat(reports.get(0), equalTo(report));
+    }
+
+    @Test
+    public void testMakePriorityScoreFilterReportCountsGenesInResultsWhenFilterStatsPresent() {
+        //the stats also count the genes without any variants which are not in the results
+        genes.add(makePassedGene(FilterType.PRIORITY_SCORE_FILTER));
+        FilterStats filterStats = new FilterStats();
+        filterStats.addResult(FilterResult.pass(FilterType.PRIORITY_SCORE_FILTER));
+        filterStats.addResult(FilterResult.fail(FilterType.PRIORITY_SCORE_FILTER));
+        AnalysisResults resultsWithStats = AnalysisResults.builder()
+                .genes(genes)
+                .filterStats(filterStats)
+                .build();
+
+        PriorityScoreFilter filter = new PriorityScoreFilter(PriorityType.HIPHIVE_PRIORITY, 0.5f);
+        FilterReport report = new FilterReport(FilterType.PRIORITY_SCORE_FILTER, 1, 0);
+        report.addMessage(String.format("Genes filtered for minimum %s score of %s", filter.getPriorityType(), filter.getMinPriorityScore()));
+
+        FilterReport result = instance.makeFilterReport(filter, resultsWithStats);
+
+        assertThat(result, equalTo(report));
+    }
+
 }
@@ -0,0 +1,132 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.filters;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+
+import java.util.EnumSet;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class FilterStatsTest {
+
+    private FilterStats instance;
+
+    @Before
+    public void setUp() {
+        instance = new FilterStats();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertThat(instance.hasResults(FilterType.QUALITY_FILTER), is(false));
+        assertThat(instance.getPassedCount(FilterType.QUALITY_FILTER), equalTo(0L));
+        assertThat(instance.getFailedCount(FilterType.QUALITY_FILTER), equalTo(0L));
+        assertThat(instance.getFilterTypes().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testAddResult() {
+        instance.addResult(FilterResult.pass(FilterType.QUALITY_FILTER));
+        instance.addResult(FilterResult.pass(FilterType.QUALITY_FILTER));
+        instance.addResult(FilterResult.fail(FilterType.QUALITY_FILTER));
+        instance.addResult(FilterResult.fail(FilterType.FREQUENCY_FILTER));
+
+        assertThat(instance.getPassedCount(FilterType.QUALITY_FILTER), equalTo(2L));
+        assertThat(instance.getFailedCount(FilterType.QUALITY_FILTER), equalTo(1L));
+        assertThat(instance.getPassedCount(FilterType.FREQUENCY_FILTER), equalTo(0L));
+        assertThat(instance.getFailedCount(FilterType.FREQUENCY_FILTER), equalTo(1L));
+        assertThat(instance.getFilterTypes(), equalTo(EnumSet.of(FilterType.QUALITY_FILTER, FilterType.FREQUENCY_FILTER)));
+    }
+
+    @Test
+    public void testAddResultIgnoresNotRunResults() {
+        instance.addResult(FilterResult.notRun(FilterType.QUALITY_FILTER));
+
+        assertThat(instance.hasResults(FilterType.QUALITY_FILTER), is(false));
+    }
+
+    @Test
+    public void testAddAll() {
+        instance.addResult(FilterResult.pass(FilterType.QUALITY_FILTER));
+
+        FilterStats other = new FilterStats();
+        other.addResult(FilterResult.pass(FilterType.QUALITY_FILTER));
+        other.addResult(FilterResult.fail(FilterType.PRIORITY_SCORE_FILTER));
+
+        instance.addAll(other);
+
+        assertThat(instance.getPassedCount(FilterType.QUALITY_FILTER), equalTo(2L));
+        assertThat(instance.getFailedCount(FilterType.PRIORITY_SCORE_FILTER), equalTo(1L));
+    }
+
+    @Test
+    public void testAddKnownVariantData() {
+        instance.addKnownVariantData(FrequencyData.empty());
+        instance.addKnownVariantData(FrequencyData.of(RsId.valueOf(123456)));
+        instance.addKnownVariantData(FrequencyData.of(RsId.empty(), Frequency.valueOf(1f, FrequencySource.THOUSAND_GENOMES), Frequency.valueOf(1f, FrequencySource.ESP_ALL)));
+        instance.addKnownVariantData(FrequencyData.of(RsId.valueOf(234567), Frequency.valueOf(1f, FrequencySource.EXAC_OTHER)));
+
+        assertThat(instance.hasKnownVariantData(), is(true));
+        assertThat(instance.getKnownVariantCount(), equalTo(4L));
+        assertThat(instance.getNotInDatabaseCount(), equalTo(1L));
+        assertThat(instance.getDbSnpRsIdCount(), equalTo(2L));
+        assertThat(instance.getDbSnpDataCount(), equalTo(1L));
+        assertThat(instance.getEspDataCount(), equalTo(1L));
+        assertThat(instance.getExacDataCount(), equalTo(1L));
+    }
+
+    @Test
+    public void testAddAllKnownVariantData() {
+        instance.addKnownVariantData(FrequencyData.empty());
+
+        FilterStats other = new FilterStats();
+        other.addKnownVariantData(FrequencyData.of(RsId.valueOf(123456)));
+
+        instance.addAll(other);
+
+        assertThat(instance.getKnownVariantCount(), equalTo(2L));
+        assertThat(instance.getNotInDatabaseCount(), equalTo(1L));
+        assertThat(instance.getDbSnpRsIdCount(), equalTo(1L));
+    }
+
+    @Test
+    public void testClear() {
+        instance.addResult(FilterResult.pass(FilterType.QUALITY_FILTER));
+        instance.addKnownVariantData(FrequencyData.empty());
+        instance.clear();
+
+        assertThat(instance.hasResults(FilterType.QUALITY_FILTER), is(false));
+        assertThat(instance.hasKnownVariantData(), is(false));
+        assertThat(instance.getNotInDatabaseCount(), equalTo(0L));
+    }
+
+}
@@ -23,15 +23,15 @@
 import org.junit.Before;
 import org.junit.Test;
 import org.monarchinitiative.exomiser.core.genome.VariantDataServiceMock;
+import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
 import org.monarchinitiative.exomiser.core.model.frequency.RsId;
 
-import java.util.Collections;
-import java.util.EnumSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -89,6 +89,31 @@ public void testProvidesFrequencyDataForVariantWhenRun() {
         assertThat(variant.getFrequencyData(), equalTo(expectedData));
     }
 
+    @Test
+    public void testProvidesFrequencyDataForAllVariantsInOneBulkLookupWhenRunOverList() {
+        AtomicInteger bulkLookups = new AtomicInteger();
+        VariantDataServiceMock countingVariantDataService = new VariantDataServiceMock() {
+            @Override
+            public Map<Variant, FrequencyData> getVariantFrequencyData(Collection<? extends Variant> variants, Set<FrequencySource> frequencySources) {
+                bulkLookups.incrementAndGet();
+                return super.getVariantFrequencyData(variants, frequencySources);
+            }
+        };
+        VariantEvaluation otherVariant = VariantEvaluation.builder(1, 2, "A", "T").frequencyData(defaultFrequencyData).build();
+        FrequencyData expectedData = FrequencyData.of(RsId.valueOf(123456), Frequency.valueOf(1.0f, ESP_ALL));
+        FrequencyData otherExpectedData = FrequencyData.of(RsId.valueOf(234567), Frequency.valueOf(2.0f, ESP_ALL));
+        countingVariantDataService.put(variant, expectedData);
+        countingVariantDataService.put(otherVariant, otherExpectedData);
+
+        instance = new FrequencyDataProvider(countingVariantDataService, EnumSet.allOf(FrequencySource.class), new KnownVariantFilter());
+        List<FilterResult> filterResults = instance.runFilter(Arrays.asList(variant, otherVariant));
+
+        assertThat(filterResults.size(), equalTo(2));
+        assertThat(variant.getFrequencyData(), equalTo(expectedData));
+        assertThat(otherVariant.getFrequencyData(), equalTo(otherExpectedData));
+        assertThat(bulkLookups.get(), equalTo(1));
+    }
+
     @Test
     public void testFilterResultIsThatOfDecoratedFilter() {
         final KnownVariantFilter decoratedFilter = new KnownVariantFilter();
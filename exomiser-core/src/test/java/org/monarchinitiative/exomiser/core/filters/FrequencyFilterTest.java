@@ -28,6 +28,9 @@
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
 import org.monarchinitiative.exomiser.core.model.frequency.RsId;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -184,4 +187,15 @@ public void testToString() {
         assertThat(instance.toString().isEmpty(), is(false));
     }
 
+    @Test
+    public void testRunFilterOnBatchReturnsResultsInInputOrder() {
+        List<VariantEvaluation> variants = Arrays.asList(passesEspAllFrequency, failsFrequency, passesDbsnpFrequency, passesNoFrequencyData);
+        List<FilterResult> filterResults = instance.runFilter(variants);
+
+        assertThat(filterResults.size(), equalTo(variants.size()));
+        for (int i = 0; i < variants.size(); i++) {
+            assertThat(filterResults.get(i), equalTo(instance.runFilter(variants.get(i))));
+        }
+        FilterTestHelper.assertFailed(filterResults.get(1));
+    }
 }
@@ -27,10 +27,17 @@
 package org.monarchinitiative.exomiser.core.filters;
 
 import de.charite.compbio.jannovar.reference.HG19RefDictBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderVersion;
 import org.junit.Test;
 import org.monarchinitiative.exomiser.core.model.GeneticInterval;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -127,5 +134,56 @@ public void testIsEquals() {
     public void testToString() {
         System.out.println(instance.toString());
     }
-    
+
+    @Test
+    public void testGetGeneticIntervals() {
+        assertThat(instance.getGeneticIntervals(), equalTo(Arrays.asList(SEARCH_INTERVAL)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoIntervalsThrowsException() {
+        new IntervalFilter(Arrays.asList());
+    }
+
+    @Test
+    public void testMultipleIntervalsPassesVariantInAnyInterval() {
+        GeneticInterval otherInterval = new GeneticInterval(WRONG_CHR, START_REGION, END_REGION);
+        List<GeneticInterval> intervals = Arrays.asList(SEARCH_INTERVAL, otherInterval);
+        instance = new IntervalFilter(intervals);
+
+        assertThat(instance.getGeneticIntervals(), equalTo(intervals));
+        assertThat(instance.getGeneticInterval(), equalTo(SEARCH_INTERVAL));
+        FilterTestHelper.assertPassed(instance.runFilter(rightChromosomeRightPosition));
+        FilterTestHelper.assertPassed(instance.runFilter(wrongChromosomeRightPosition));
+        FilterTestHelper.assertFailed(instance.runFilter(rightChromosomeWrongPosition));
+        FilterTestHelper.assertFailed(instance.runFilter(wrongChromosomeWrongPosition));
+    }
+
+    @Test
+    public void testVariantAtIntervalBoundariesPassesFilter() {
+        FilterTestHelper.assertPassed(instance.runFilter(VariantEvaluation.builder(RIGHT_CHR, START_REGION, "A", "T").build()));
+        FilterTestHelper.assertPassed(instance.runFilter(VariantEvaluation.builder(RIGHT_CHR, END_REGION, "A", "T").build()));
+        FilterTestHelper.assertFailed(instance.runFilter(VariantEvaluation.builder(RIGHT_CHR, START_REGION - 1, "A", "T").build()));
+        FilterTestHelper.assertFailed(instance.runFilter(VariantEvaluation.builder(RIGHT_CHR, END_REGION + 1, "A", "T").build()));
+    }
+
+    private VariantContext variantContext(int pos, String ref, String alt) {
+        VCFCodec vcfCodec = new VCFCodec();
+        vcfCodec.setVCFHeader(new VCFHeader(), VCFHeaderVersion.VCF4_2);
+        return vcfCodec.decode("7\t" + pos + "\t.\t" + ref + "\t" + alt + "\t100\tPASS\t.");
+    }
+
+    @Test
+    public void testMayPassRecord() {
+        assertThat(instance.mayPassRecord(RIGHT_CHR, variantContext(INSIDE_REGION, "A", "T")), is(true));
+        assertThat(instance.mayPassRecord(RIGHT_CHR, variantContext(BEFORE_REGION, "A", "T")), is(false));
+        assertThat(instance.mayPassRecord(RIGHT_CHR, variantContext(AFTER_REGION, "A", "T")), is(false));
+        assertThat(instance.mayPassRecord(WRONG_CHR, variantContext(INSIDE_REGION, "A", "T")), is(false));
+    }
+
+    @Test
+    public void testMayPassRecordKeepsRecordWhichIsTrimmedIntoInterval() {
+        //this deletion is trimmed to start at START_REGION
+        assertThat(instance.mayPassRecord(RIGHT_CHR, variantContext(START_REGION - 1, "AT", "A")), is(true));
+    }
 }
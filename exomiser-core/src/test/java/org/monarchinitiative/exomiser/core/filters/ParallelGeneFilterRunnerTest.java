@@ -0,0 +1,146 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.filters;
+
+import de.charite.compbio.jannovar.mendel.ModeOfInheritance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.model.Gene;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class ParallelGeneFilterRunnerTest {
+
+    private static final int NUM_GENES = 1000;
+
+    private final ModeOfInheritance PASS_MODE = ModeOfInheritance.AUTOSOMAL_DOMINANT;
+    private final ModeOfInheritance FAIL_MODE = ModeOfInheritance.AUTOSOMAL_RECESSIVE;
+
+    private ForkJoinPool forkJoinPool;
+    private ParallelGeneFilterRunner instance;
+
+    private InheritanceFilter inheritanceFilter;
+    private List<GeneFilter> filters;
+
+    @Before
+    public void setUp() {
+        forkJoinPool = new ForkJoinPool(4);
+        instance = new ParallelGeneFilterRunner(forkJoinPool);
+        inheritanceFilter = new InheritanceFilter(PASS_MODE);
+        filters = new ArrayList<>();
+        filters.add(inheritanceFilter);
+    }
+
+    @After
+    public void tearDown() {
+        forkJoinPool.shutdown();
+    }
+
+    private List<Gene> makeGenes() {
+        List<Gene> genes = new ArrayList<>();
+        for (int i = 0; i < NUM_GENES; i++) {
+            //even genes pass, odd genes fail
+            Set<ModeOfInheritance> inheritanceModes = (i % 2 == 0) ? EnumSet.of(PASS_MODE) : EnumSet.of(FAIL_MODE);
+            genes.add(makeGeneWithVariants("GENE" + i, i, inheritanceModes));
+        }
+        return genes;
+    }
+
+    private Gene makeGeneWithVariants(String geneSymbol, int geneId, Set<ModeOfInheritance> inheritanceModes) {
+        Gene gene = new Gene(geneSymbol, geneId);
+        gene.setInheritanceModes(inheritanceModes);
+        gene.addVariant(VariantEvaluation.builder(1, 1, "A", "T").build());
+        gene.addVariant(VariantEvaluation.builder(1, 2, "G", "T").build());
+        for (VariantEvaluation variantEvaluation : gene.getVariantEvaluations()) {
+            variantEvaluation.setInheritanceModes(inheritanceModes);
+        }
+        return gene;
+    }
+
+    private void assertGenesFilteredInOriginalOrder(List<Gene> genes, List<Gene> result) {
+        assertThat(result, sameInstance(genes));
+        for (int i = 0; i < NUM_GENES; i++) {
+            Gene gene = result.get(i);
+            assertThat(gene.getEntrezGeneID(), equalTo(i));
+            boolean shouldPass = i % 2 == 0;
+            assertThat(gene.passedFilters(), is(shouldPass));
+            assertThat(gene.passedFilter(FilterType.INHERITANCE_FILTER), is(shouldPass));
+        }
+    }
+
+    @Test
+    public void testRun_MultipleFiltersOverGenes() {
+        List<Gene> genes = makeGenes();
+
+        List<Gene> result = instance.run(filters, genes);
+
+        assertGenesFilteredInOriginalOrder(genes, result);
+    }
+
+    @Test
+    public void testRun_SingleFilterOverGenes() {
+        List<Gene> genes = makeGenes();
+
+        List<Gene> result = instance.run(inheritanceFilter, genes);
+
+        assertGenesFilteredInOriginalOrder(genes, result);
+    }
+
+    @Test
+    public void testRun_SkipsGenesWhichHaveAlreadyFailedFilters() {
+        List<Gene> genes = makeGenes();
+        Gene failedGene = genes.get(0);
+        failedGene.addFilterResult(FilterResult.fail(FilterType.PRIORITY_SCORE_FILTER));
+
+        instance.run(inheritanceFilter, genes);
+
+        assertThat(failedGene.passedFilter(FilterType.INHERITANCE_FILTER), is(false));
+    }
+
+    @Test
+    public void testFilterStatsMatchSimpleGeneFilterRunner() {
+        SimpleGeneFilterRunner simpleGeneFilterRunner = new SimpleGeneFilterRunner();
+        simpleGeneFilterRunner.run(filters, makeGenes());
+
+        instance.run(filters, makeGenes());
+
+        FilterStats expected = simpleGeneFilterRunner.getFilterStats();
+        FilterStats filterStats = instance.getFilterStats();
+        assertThat(filterStats.getPassedCount(FilterType.INHERITANCE_FILTER), equalTo(expected.getPassedCount(FilterType.INHERITANCE_FILTER)));
+        assertThat(filterStats.getFailedCount(FilterType.INHERITANCE_FILTER), equalTo(expected.getFailedCount(FilterType.INHERITANCE_FILTER)));
+        assertThat(filterStats.getPassedCount(FilterType.INHERITANCE_FILTER), equalTo((long) NUM_GENES / 2));
+    }
+
+}
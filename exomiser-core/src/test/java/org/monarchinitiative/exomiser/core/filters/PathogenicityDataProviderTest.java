@@ -29,12 +29,12 @@
 import org.junit.Test;
 import org.monarchinitiative.exomiser.core.genome.VariantDataServiceMock;
 import org.monarchinitiative.exomiser.core.model.FilterStatus;
+import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.*;
 
-import java.util.Collections;
-import java.util.EnumSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -86,6 +86,28 @@ public void testRunFilter() {
         assertThat(filterResult.getFilterType(), equalTo(variantFilterType));
     }
 
+    @Test
+    public void testRunFilterOverListProvidesDataForAllVariantsInOneBulkLookup() {
+        AtomicInteger bulkLookups = new AtomicInteger();
+        VariantDataServiceMock countingVariantDataService = new VariantDataServiceMock() {
+            @Override
+            public Map<Variant, PathogenicityData> getVariantPathogenicityData(Collection<? extends Variant> variants, Set<PathogenicitySource> pathogenicitySources) {
+                bulkLookups.incrementAndGet();
+                return super.getVariantPathogenicityData(variants, pathogenicitySources);
+            }
+        };
+        VariantEvaluation otherVariant = VariantEvaluation.builder(1, 2, "A", "T").pathogenicityData(EMPTY_PATH_DATA).build();
+        countingVariantDataService.put(variant, EXPECTED_PATH_DATA);
+
+        instance = new PathogenicityDataProvider(countingVariantDataService, EnumSet.of(POLYPHEN, SIFT, MUTATION_TASTER), new StubPassAllVariantFilter(FilterType.PATHOGENICITY_FILTER));
+        List<FilterResult> filterResults = instance.runFilter(Arrays.asList(variant, otherVariant));
+
+        assertThat(filterResults.size(), equalTo(2));
+        assertThat(variant.getPathogenicityData(), equalTo(EXPECTED_PATH_DATA));
+        assertThat(otherVariant.getPathogenicityData(), equalTo(EMPTY_PATH_DATA));
+        assertThat(bulkLookups.get(), equalTo(1));
+    }
+
     @Test
     public void testGetFilterType() {
         VariantFilter decoratedFilter = new PathogenicityFilter(true);
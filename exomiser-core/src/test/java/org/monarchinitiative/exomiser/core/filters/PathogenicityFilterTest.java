@@ -34,6 +34,9 @@
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PolyPhenScore;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.SiftScore;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -196,4 +199,24 @@ public void testHashCode() {
         assertThat(instance.hashCode(), equalTo(other.hashCode()));
     }
 
+    @Test
+    public void testRunFilterOnBatchReturnsResultsInInputOrder() {
+        List<VariantEvaluation> variants = Arrays.asList(missensePassesFilter, downstreamFailsFilter, stopGainPassesFilter, predictedNonPathogenicMissense);
+        List<FilterResult> filterResults = instance.runFilter(variants);
+
+        assertThat(filterResults.size(), equalTo(variants.size()));
+        for (int i = 0; i < variants.size(); i++) {
+            assertThat(filterResults.get(i), equalTo(instance.runFilter(variants.get(i))));
+        }
+    }
+
+    @Test
+    public void testRunFilterOnBatchPassesAllVariantsWhenPassAllVariantsSetTrue() {
+        instance = new PathogenicityFilter(PASS_ALL_VARIANTS);
+
+        List<FilterResult> filterResults = instance.runFilter(Arrays.asList(downstreamFailsFilter, missensePassesFilter));
+
+        assertThat(filterResults.size(), equalTo(2));
+        filterResults.forEach(FilterTestHelper::assertPassed);
+    }
 }
@@ -25,10 +25,17 @@
  */
 package org.monarchinitiative.exomiser.core.filters;
 
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderVersion;
 import org.junit.Before;
 import org.junit.Test;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -127,4 +134,26 @@ public void testEqualToOtherWithSameQualityThreshold() {
         assertThat(instance.equals(obj), is(true));
     }
 
+    @Test
+    public void testRunFilterOnBatchReturnsResultsInInputOrder() {
+        List<FilterResult> filterResults = instance.runFilter(Arrays.asList(highQualityPassesFilter, lowQualityFailsFilter));
+
+        assertThat(filterResults.size(), equalTo(2));
+        FilterTestHelper.assertPassed(filterResults.get(0));
+        FilterTestHelper.assertFailed(filterResults.get(1));
+    }
+
+    private VariantContext variantContextWithQuality(String qual) {
+        VCFCodec vcfCodec = new VCFCodec();
+        vcfCodec.setVCFHeader(new VCFHeader(), VCFHeaderVersion.VCF4_2);
+        return vcfCodec.decode("1\t123456789\t.\tG\tA\t" + qual + "\tPASS\t.");
+    }
+
+    @Test
+    public void testMayPassRecord() {
+        assertThat(instance.mayPassRecord(1, variantContextWithQuality(String.valueOf(OVER_THRESHOLD))), is(true));
+        assertThat(instance.mayPassRecord(1, variantContextWithQuality(String.valueOf(MIN_QUAL_THRESHOLD))), is(true));
+        assertThat(instance.mayPassRecord(1, variantContextWithQuality(String.valueOf(UNDER_THRESHOLD))), is(false));
+        assertThat(instance.mayPassRecord(1, variantContextWithQuality(".")), is(false));
+    }
 }
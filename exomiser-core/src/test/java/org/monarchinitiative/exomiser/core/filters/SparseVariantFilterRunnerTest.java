@@ -98,6 +98,7 @@ private void makeVariantEvaluations() {
     }
 
     private void setUpFrequencyMocks() {
+        runBatchThroughSingleVariantStubs(frequencyFilter);
         Mockito.when(frequencyFilter.getFilterType()).thenReturn(FilterType.FREQUENCY_FILTER);
 
         FilterResult passFrequencyResult = new PassFilterResult(FilterType.FREQUENCY_FILTER);
@@ -110,6 +111,7 @@ private void setUpFrequencyMocks() {
     }
 
     private void setUpPathogenicityMocks() {
+        runBatchThroughSingleVariantStubs(pathogenicityFilter);
         Mockito.when(pathogenicityFilter.getFilterType()).thenReturn(FilterType.PATHOGENICITY_FILTER);
 
         FilterResult pass = new PassFilterResult(FilterType.PATHOGENICITY_FILTER);
@@ -122,6 +124,7 @@ private void setUpPathogenicityMocks() {
     }
 
     private void setUpQualityMocks() {
+        runBatchThroughSingleVariantStubs(qualityFilter);
         Mockito.when(qualityFilter.getFilterType()).thenReturn(FilterType.QUALITY_FILTER);
 
         FilterResult passQualityResult = new PassFilterResult(FilterType.QUALITY_FILTER);
@@ -134,6 +137,7 @@ private void setUpQualityMocks() {
     }
 
     private void setUpTargetMocks() {
+        runBatchThroughSingleVariantStubs(targetFilter);
         Mockito.when(targetFilter.getFilterType()).thenReturn(FilterType.VARIANT_EFFECT_FILTER);
 
         FilterResult passTargetResult = new PassFilterResult(FilterType.VARIANT_EFFECT_FILTER);
@@ -145,6 +149,18 @@ private void setUpTargetMocks() {
         Mockito.when(targetFilter.runFilter(passesTargetQualityFilter)).thenReturn(passTargetResult);
     }
 
+    /**
+     * The runner uses the batch method which isn't stubbed by the mocks, so this hands each variant to the single
+     * variant stubs.
+     */
+    @SuppressWarnings("unchecked")
+    private void runBatchThroughSingleVariantStubs(VariantFilter filterMock) {
+        Mockito.when(filterMock.runFilter(Mockito.anyListOf(VariantEvaluation.class))).thenAnswer(invocation -> {
+            List<VariantEvaluation> variants = (List<VariantEvaluation>) invocation.getArguments()[0];
+            return variants.stream().map(filterMock::runFilter).collect(toList());
+        });
+    }
+
     @Test
     public void testRun_OnlyReturnsVariantPassingAllFilters() {
         List<VariantFilter> filters = new ArrayList<>();
@@ -0,0 +1,69 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class AlleleInternerTest {
+
+    private final AlleleInterner instance = new AlleleInterner();
+
+    @Test
+    public void testInternNull() {
+        assertThat(instance.intern(null), nullValue());
+    }
+
+    @Test
+    public void testInternReturnsCanonicalInstance() {
+        String first = new String("A");
+        String second = new String("A");
+
+        assertThat(instance.intern(first), sameInstance(first));
+        assertThat(instance.intern(second), sameInstance(first));
+    }
+
+    @Test
+    public void testInternMaxLengthAllele() {
+        String first = new String("ACGTACGT");
+        String second = new String("ACGTACGT");
+
+        assertThat(instance.intern(first), sameInstance(first));
+        assertThat(instance.intern(second), sameInstance(first));
+    }
+
+    @Test
+    public void testLongAllelesAreNotInterned() {
+        String first = new String("ACGTACGTA");
+        String second = new String("ACGTACGTA");
+
+        assertThat(instance.intern(first), sameInstance(first));
+        assertThat(instance.intern(second), sameInstance(second));
+        assertThat(instance.intern(second), not(sameInstance(first)));
+    }
+}
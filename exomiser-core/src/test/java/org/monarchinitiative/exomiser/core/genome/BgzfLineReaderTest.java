@@ -0,0 +1,105 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class BgzfLineReaderTest {
+
+    private static final Path VCF_PATH = Paths.get("src/test/resources/smallTest.vcf");
+    //compressed using 100 byte BGZF blocks so the lines are split across blocks
+    private static final Path BGZF_VCF_PATH = Paths.get("src/test/resources/smallTest.vcf.gz");
+
+    private final ExecutorService inflaterPool = BgzfLineReader.newInflaterPool(4);
+
+    @After
+    public void tearDown() {
+        inflaterPool.shutdownNow();
+    }
+
+    @Test
+    public void testIsBgzfFile() {
+        assertThat(BgzfLineReader.isBgzfFile(BGZF_VCF_PATH), equalTo(true));
+    }
+
+    @Test
+    public void testIsBgzfFileUncompressedFile() {
+        assertThat(BgzfLineReader.isBgzfFile(VCF_PATH), equalTo(false));
+    }
+
+    @Test
+    public void testIsBgzfFileMissingFile() {
+        assertThat(BgzfLineReader.isBgzfFile(Paths.get("src/test/resources/wibble.vcf.gz")), equalTo(false));
+    }
+
+    @Test
+    public void testReadLinesMatchesUncompressedFile() throws Exception {
+        List<String> expected = Files.readAllLines(VCF_PATH);
+        for (int numThreads = 1; numThreads <= 4; numThreads++) {
+            assertThat(readAllLines(numThreads), equalTo(expected));
+        }
+    }
+
+    @Test
+    public void testReadLineReturnsNullAfterEndOfFile() {
+        BgzfLineReader instance = new BgzfLineReader(BGZF_VCF_PATH, inflaterPool, 2);
+        while (instance.readLine() != null) {
+            //read all the lines
+        }
+        assertThat(instance.readLine(), nullValue());
+        instance.close();
+    }
+
+    @Test
+    public void testCloseBeforeEndOfFileLeavesSharedPoolUsable() throws Exception {
+        BgzfLineReader abandoned = new BgzfLineReader(BGZF_VCF_PATH, inflaterPool, 4);
+        abandoned.readLine();
+        abandoned.close();
+        assertThat(inflaterPool.isShutdown(), equalTo(false));
+        assertThat(readAllLines(4), equalTo(Files.readAllLines(VCF_PATH)));
+    }
+
+    private List<String> readAllLines(int numThreads) {
+        List<String> lines = new ArrayList<>();
+        BgzfLineReader instance = new BgzfLineReader(BGZF_VCF_PATH, inflaterPool, numThreads);
+        String line;
+        while ((line = instance.readLine()) != null) {
+            lines.add(line);
+        }
+        instance.close();
+        return lines;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class KnownGeneTableIOTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private final KnownGeneTable knownGeneTable = KnownGeneTable.fromJannovarData(TestFactory.buildDefaultJannovarData());
+
+    private Path writeTable(String release) throws IOException {
+        Path tablePath = tmpFolder.newFile("hg19_test_genes.tsv").toPath();
+        KnownGeneTableIO.write(knownGeneTable, tablePath, release);
+        return tablePath;
+    }
+
+    @Test
+    public void testWriteThenRead() throws Exception {
+        Path tablePath = writeTable("1707");
+        assertThat(KnownGeneTableIO.read(tablePath), equalTo(knownGeneTable));
+    }
+
+    @Test
+    public void testIsCurrent() throws Exception {
+        Path tablePath = writeTable("1707");
+        assertThat(KnownGeneTableIO.isCurrent(tablePath, "1707"), equalTo(true));
+        assertThat(KnownGeneTableIO.isCurrent(tablePath, "1710"), equalTo(false));
+    }
+
+    @Test
+    public void testTablePathFor() {
+        assertThat(KnownGeneTableIO.tablePathFor(Paths.get("data/hg19_ucsc.ser")), equalTo(Paths.get("data/hg19_ucsc_genes.tsv")));
+    }
+
+    @Test
+    public void testIsCurrentMissingFile() {
+        assertThat(KnownGeneTableIO.isCurrent(tmpFolder.getRoot().toPath().resolve("wibble.tsv"), "1707"), equalTo(false));
+    }
+
+    @Test(expected = KnownGeneTableIO.KnownGeneTableIoException.class)
+    public void testReadMissingFileThrowsException() {
+        KnownGeneTableIO.read(tmpFolder.getRoot().toPath().resolve("wibble.tsv"));
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.genome.KnownGeneTable.GeneRegion;
+import org.monarchinitiative.exomiser.core.model.GeneIdentifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class KnownGeneTableTest {
+
+    private final KnownGeneTable instance = KnownGeneTable.fromJannovarData(TestFactory.buildDefaultJannovarData());
+
+    @Test
+    public void testGeneIdentifiers() {
+        assertThat(instance.size(), equalTo(4));
+        assertThat(new HashSet<>(instance.getGeneIdentifiers()), equalTo(new HashSet<>(TestFactory.buildGeneIdentifiers())));
+    }
+
+    @Test
+    public void testGeneRegionIsOneBasedForwardStrandExtentOfTranscripts() {
+        //UCSC knownGene uc009wiv.3 chr1 - 145509751 145515899 (zero-based)
+        GeneRegion expected = new GeneRegion(TestGeneFactory.GNRHR2_IDENTIFIER, 1, 145509752, 145515899);
+        assertThat(instance.getGeneRegions().contains(expected), equalTo(true));
+    }
+
+    @Test
+    public void testGetGeneIdentifierForSymbol() {
+        assertThat(instance.getGeneIdentifierForSymbol("FGFR2"), equalTo(Optional.of(TestGeneFactory.FGFR2_IDENTIFIER)));
+        assertThat(instance.getGeneIdentifierForSymbol("WIBBLE"), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void testGetGeneIdentifierForEntrezId() {
+        assertThat(instance.getGeneIdentifierForEntrezId(6469), equalTo(Optional.of(TestGeneFactory.SHH_IDENTIFIER)));
+        assertThat(instance.getGeneIdentifierForEntrezId(0), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void testGetGeneIdentifiersOverlappingPosition() {
+        //GNRHR2 and RBM8A overlap on chr1
+        assertThat(new HashSet<>(instance.getGeneIdentifiersOverlappingPosition(1, 145510000)),
+                equalTo(new HashSet<>(Arrays.asList(TestGeneFactory.GNRHR2_IDENTIFIER, TestGeneFactory.RBM8A_IDENTIFIER))));
+        assertThat(instance.getGeneIdentifiersOverlappingPosition(1, 145509751), equalTo(Collections.singletonList(TestGeneFactory.RBM8A_IDENTIFIER)));
+        assertThat(instance.getGeneIdentifiersOverlappingPosition(2, 145510000), equalTo(Collections.<GeneIdentifier>emptyList()));
+    }
+
+    @Test
+    public void testGetGeneIdentifiersOverlappingInterval() {
+        assertThat(instance.getGeneIdentifiersOverlappingInterval(1, 145513536, 145515899), equalTo(Collections.singletonList(TestGeneFactory.GNRHR2_IDENTIFIER)));
+        assertThat(instance.getGeneIdentifiersOverlappingInterval(1, 145515900, 145520000), equalTo(Collections.<GeneIdentifier>emptyList()));
+    }
+
+}
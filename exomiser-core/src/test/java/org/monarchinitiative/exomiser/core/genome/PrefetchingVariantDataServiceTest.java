@@ -0,0 +1,171 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.model.Variant;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PolyPhenScore;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class PrefetchingVariantDataServiceTest {
+
+    private static final Set<FrequencySource> FREQUENCY_SOURCES = EnumSet.of(FrequencySource.THOUSAND_GENOMES);
+    private static final Set<PathogenicitySource> PATHOGENICITY_SOURCES = EnumSet.of(PathogenicitySource.POLYPHEN);
+
+    private ExecutorService executorService;
+    private CountingVariantDataService variantDataService;
+    private PrefetchingVariantDataService instance;
+
+    private final List<VariantEvaluation> variants = IntStream.rangeClosed(1, 25)
+            .mapToObj(i -> VariantEvaluation.builder(1, i * 100, "A", "T").build())
+            .collect(Collectors.toList());
+
+    @Before
+    public void setUp() {
+        variantDataService = new CountingVariantDataService();
+        for (VariantEvaluation variant : variants) {
+            variantDataService.put(variant, FrequencyData.of(RsId.valueOf(variant.getPosition()), Frequency.valueOf(0.1f, FrequencySource.THOUSAND_GENOMES)));
+            variantDataService.put(variant, PathogenicityData.of(PolyPhenScore.valueOf(1f)));
+        }
+        executorService = Executors.newFixedThreadPool(2);
+        instance = new PrefetchingVariantDataService(variantDataService, executorService, 10);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroChunkSizeThrowsException() {
+        new PrefetchingVariantDataService(variantDataService, executorService, 0);
+    }
+
+    @Test
+    public void testChunkSizeIsConfiguredChunkSize() {
+        assertThat(instance.getChunkSize(), equalTo(10));
+    }
+
+    @Test
+    public void testPrefetchedStreamReturnsSameVariantsInOrder() {
+        List<VariantEvaluation> result = instance.prefetchVariantData(variants.stream(), FREQUENCY_SOURCES, PATHOGENICITY_SOURCES)
+                .collect(Collectors.toList());
+        assertThat(result, equalTo(variants));
+    }
+
+    @Test
+    public void testPrefetchedDataIsSameAsDirectLookup() {
+        List<VariantEvaluation> result = instance.prefetchVariantData(variants.stream(), FREQUENCY_SOURCES, PATHOGENICITY_SOURCES)
+                .peek(variant -> {
+                    assertThat(instance.getVariantFrequencyData(variant, FREQUENCY_SOURCES), equalTo(variantDataService.getVariantFrequencyData(variant, FREQUENCY_SOURCES)));
+                    assertThat(instance.getVariantPathogenicityData(variant, PATHOGENICITY_SOURCES), equalTo(variantDataService.getVariantPathogenicityData(variant, PATHOGENICITY_SOURCES)));
+                })
+                .collect(Collectors.toList());
+        assertThat(result.size(), equalTo(variants.size()));
+    }
+
+    @Test
+    public void testPrefetchUsesBulkLookups() {
+        try (Stream<VariantEvaluation> prefetched = instance.prefetchVariantData(variants.stream(), FREQUENCY_SOURCES, PATHOGENICITY_SOURCES)) {
+            prefetched.forEach(variant -> {
+                instance.getVariantFrequencyData(variant, FREQUENCY_SOURCES);
+                instance.getVariantPathogenicityData(variant, PATHOGENICITY_SOURCES);
+            });
+        }
+        //25 variants in chunks of 10
+        assertThat(variantDataService.bulkFrequencyLookups.get(), equalTo(3));
+        assertThat(variantDataService.bulkPathogenicityLookups.get(), equalTo(3));
+        assertThat(instance.getNumPrefetchedVariants(), equalTo(0));
+    }
+
+    @Test
+    public void testBulkLookupsForBatchesNoLargerThanChunkAreServedFromPrefetchedData() {
+        try (Stream<VariantEvaluation> prefetched = instance.prefetchVariantData(variants.stream(), FREQUENCY_SOURCES, PATHOGENICITY_SOURCES)) {
+            Iterator<VariantEvaluation> iterator = prefetched.iterator();
+            while (iterator.hasNext()) {
+                //batches of 7 straddle the chunks of 10
+                List<VariantEvaluation> batch = new ArrayList<>();
+                while (batch.size() < 7 && iterator.hasNext()) {
+                    batch.add(iterator.next());
+                }
+                assertThat(instance.getVariantFrequencyData(batch, FREQUENCY_SOURCES), equalTo(variantDataService.getVariantFrequencyData(batch, FREQUENCY_SOURCES)));
+                assertThat(instance.getVariantPathogenicityData(batch, PATHOGENICITY_SOURCES), equalTo(variantDataService.getVariantPathogenicityData(batch, PATHOGENICITY_SOURCES)));
+            }
+        }
+        //the 3 prefetching lookups, plus the 4 direct lookups made by the assertions
+        assertThat(variantDataService.bulkFrequencyLookups.get(), equalTo(3 + 4));
+        assertThat(variantDataService.bulkPathogenicityLookups.get(), equalTo(3 + 4));
+        assertThat(instance.getNumPrefetchedVariants(), equalTo(0));
+    }
+
+    @Test
+    public void testLookupWithDifferentSourcesIsNotServedFromPrefetchedData() {
+        Set<FrequencySource> otherSources = EnumSet.of(FrequencySource.ESP_ALL);
+        instance.prefetchVariantData(variants.stream(), FREQUENCY_SOURCES, PATHOGENICITY_SOURCES)
+                .forEach(variant -> assertThat(instance.getVariantFrequencyData(variant, otherSources), equalTo(FrequencyData.of(RsId.valueOf(variant.getPosition())))));
+    }
+
+    @Test
+    public void testNoSourcesReturnsInputStream() {
+        Stream<VariantEvaluation> input = variants.stream();
+        assertThat(instance.prefetchVariantData(input, EnumSet.noneOf(FrequencySource.class), EnumSet.noneOf(PathogenicitySource.class)), equalTo(input));
+    }
+
+    private static class CountingVariantDataService extends VariantDataServiceMock {
+
+        private final AtomicInteger bulkFrequencyLookups = new AtomicInteger();
+        private final AtomicInteger bulkPathogenicityLookups = new AtomicInteger();
+
+        @Override
+        public Map<Variant, FrequencyData> getVariantFrequencyData(Collection<? extends Variant> variants, Set<FrequencySource> frequencySources) {
+            bulkFrequencyLookups.incrementAndGet();
+            return super.getVariantFrequencyData(variants, frequencySources);
+        }
+
+        @Override
+        public Map<Variant, PathogenicityData> getVariantPathogenicityData(Collection<? extends Variant> variants, Set<PathogenicitySource> pathogenicitySources) {
+            bulkPathogenicityLookups.incrementAndGet();
+            return super.getVariantPathogenicityData(variants, pathogenicitySources);
+        }
+    }
+}
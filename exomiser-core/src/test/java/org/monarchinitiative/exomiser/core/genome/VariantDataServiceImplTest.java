@@ -32,6 +32,7 @@
 import org.monarchinitiative.exomiser.core.model.Gene;
 import org.monarchinitiative.exomiser.core.model.RegulatoryFeature;
 import org.monarchinitiative.exomiser.core.model.TopologicalDomain;
+import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
@@ -228,6 +229,24 @@ public void serviceReturnsEmptyFrequencyDataWhenSpecifiedFrequencyDataIsUnavaila
         assertThat(result, equalTo(FrequencyData.empty()));
     }
 
+    @Test
+    public void serviceReturnsSpecifiedFrequencyDataForVariantsUsingBulkLookup() {
+        VariantEvaluation otherVariant = VariantEvaluation.builder(1, 2, "A", "T").build();
+        List<VariantEvaluation> variants = Arrays.asList(variant, otherVariant);
+        Map<Variant, FrequencyData> bulkData = new LinkedHashMap<>();
+        bulkData.put(variant, FREQ_DATA);
+        bulkData.put(otherVariant, FrequencyData.empty());
+        Mockito.when(defaultFrequencyDao.getFrequencyData(variants)).thenReturn(bulkData);
+
+        FrequencyData localFrequencyData = FrequencyData.of(RsId.empty(), Frequency.valueOf(2f, FrequencySource.LOCAL));
+        Mockito.when(localFrequencyDao.getFrequencyData(otherVariant)).thenReturn(localFrequencyData);
+
+        Map<Variant, FrequencyData> result = instance.getVariantFrequencyData(variants, EnumSet.of(FrequencySource.ESP_AFRICAN_AMERICAN, FrequencySource.LOCAL));
+        assertThat(result.get(variant), equalTo(FREQ_DATA));
+        assertThat(result.get(otherVariant), equalTo(localFrequencyData));
+        Mockito.verify(defaultFrequencyDao, Mockito.never()).getFrequencyData(variant);
+    }
+
     @Test
     public void serviceReturnsRegulatoryFeatures() {
         List<RegulatoryFeature> regulatoryFeatures = Arrays.asList(new RegulatoryFeature(1, 10, 100, RegulatoryFeature.FeatureType.ENHANCER));
@@ -116,6 +116,15 @@ public PathogenicityData getVariantPathogenicityData(Variant variant, Set<Pathog
         return pathDataFromSpecifiedDataSources(pathData.getPredictedPathogenicityScores(), pathogenicitySources);
     }
 
+    @Override
+    public Map<Variant, PathogenicityData> getVariantPathogenicityData(Collection<? extends Variant> variants, Set<PathogenicitySource> pathogenicitySources) {
+        Map<Variant, PathogenicityData> results = new LinkedHashMap<>();
+        for (Variant variant : variants) {
+            results.put(variant, getVariantPathogenicityData(variant, pathogenicitySources));
+        }
+        return results;
+    }
+
     @Override
     public List<RegulatoryFeature> getRegulatoryFeatures() {
         return expectedRegulatoryRegions;
@@ -36,6 +36,7 @@
 import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFHeaderVersion;
 import org.junit.Test;
+import org.monarchinitiative.exomiser.core.model.TranscriptAnnotation;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 
 import java.nio.file.Path;
@@ -94,6 +95,53 @@ public void testCreateVariantContexts_SingleAlleles() {
         assertThat(numVariants, equalTo(3L));
     }
 
+    @Test
+    public void testCreateVariantContexts_BgzippedFile() {
+        Path vcfPath = Paths.get("src/test/resources/smallTest.vcf.gz");
+        List<VariantContext> variants;
+        try (Stream<VariantContext> variantStream = instance.streamVariantContexts(vcfPath)) {
+            variants = variantStream.collect(toList());
+        }
+        List<VariantContext> expected = instance.streamVariantContexts(Paths.get("src/test/resources/smallTest.vcf")).collect(toList());
+        assertThat(variants.size(), equalTo(3));
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(variants.get(i).toStringDecodeGenotypes(), equalTo(expected.get(i).toStringDecodeGenotypes()));
+        }
+    }
+
+    @Test
+    public void testStreamVariantContexts_ReturnsAllRecordsIncludingReferenceBlocks() {
+        Path vcfPath = Paths.get("src/test/resources/gvcfBlocks.vcf");
+        List<VariantContext> variants = instance.streamVariantContexts(vcfPath).collect(toList());
+        assertThat(variants.size(), equalTo(5));
+    }
+
+    @Test
+    public void testStreamVariantEvaluations_SkipsReferenceBlocksAndNoCalls() {
+        Path vcfPath = Paths.get("src/test/resources/gvcfBlocks.vcf");
+        List<VariantEvaluation> variants;
+        try (Stream<VariantEvaluation> variantStream = instance.streamVariantEvaluations(vcfPath)) {
+            variants = variantStream.collect(toList());
+        }
+        assertThat(variants.size(), equalTo(2));
+        assertThat(variants.get(0).getPosition(), equalTo(145508800));
+        assertThat(variants.get(1).getPosition(), equalTo(145510000));
+    }
+
+    @Test
+    public void testStreamVariantEvaluations_ScreenedUncompressedFileMatchesVcfFileReader() {
+        Path vcfPath = Paths.get("src/test/resources/gvcfBlocks.vcf");
+        List<String> screened;
+        try (Stream<VariantEvaluation> variantStream = instance.streamVariantEvaluations(vcfPath)) {
+            screened = variantStream.map(VariantEvaluation::toString).collect(toList());
+        }
+        List<String> unscreened;
+        try (Stream<VariantEvaluation> variantStream = instance.streamVariantEvaluations(instance.streamVariantContexts(vcfPath))) {
+            unscreened = variantStream.map(VariantEvaluation::toString).collect(toList());
+        }
+        assertThat(screened, equalTo(unscreened));
+    }
+
     @Test
     public void testStreamVariantContexts_SingleAlleles() {
         Path vcfPath = Paths.get("src/test/resources/smallTest.vcf");
@@ -116,6 +164,18 @@ public void testStreamCreateVariants_SingleAlleles() {
         assertThat(numVariants, equalTo(3L));
     }
 
+    @Test
+    public void testStreamCreateVariants_OnlyReturnsVariantsFromAcceptedRecords() {
+        Path vcfPath = Paths.get("src/test/resources/smallTest.vcf");
+        List<VariantEvaluation> variants;
+        try (Stream<VariantEvaluation> variantStream = instance.streamVariantEvaluations(vcfPath, (chromosome, variantContext) -> chromosome == 1 && variantContext.getStart() >= 145508800)) {
+            variants = variantStream.collect(toList());
+        }
+        assertThat(variants.size(), equalTo(2));
+        assertThat(variants.get(0).getPosition(), equalTo(145508800));
+        assertThat(variants.get(1).getPosition(), equalTo(145510000));
+    }
+
     @Test
     public void testCreateVariantContexts_MultipleAlleles() {
         Path vcfPath = Paths.get("src/test/resources/altAllele.vcf");
@@ -197,6 +257,55 @@ public void testKnownSingleSampleSnp() {
         assertThat(variantEvaluation.getVariantEffect(), equalTo(VariantEffect.MISSENSE_VARIANT));
     }
 
+    @Test
+    public void testKnownSingleSampleSnpHgvsIsFormattedOnDemand() {
+        Stream<VariantContext> variantContexts = VcfParser.forSamples("Sample")
+                .parse("10\t123256215\t.\tT\tG\t100\tPASS\tGENE=FGFR2;INHERITANCE=AD;MIM=101600\tGT\t1|0");
+        VariantEvaluation variantEvaluation = instance.streamVariantEvaluations(variantContexts).findFirst().get();
+        TranscriptAnnotation annotation = variantEvaluation.getAnnotations().get(0);
+        assertThat(annotation.getHgvsCdna(), startsWith("c."));
+        assertThat(annotation.getHgvsProtein(), startsWith("p."));
+        //once formatted the same instance is returned
+        assertThat(annotation.getHgvsCdna(), sameInstance(annotation.getHgvsCdna()));
+    }
+
+    @Test
+    public void testKnownSingleSampleSnpHgvsIsNotFormattedByEqualsHashCodeOrToString() {
+        Stream<VariantContext> variantContexts = VcfParser.forSamples("Sample")
+                .parse("10\t123256215\t.\tT\tG\t100\tPASS\tGENE=FGFR2;INHERITANCE=AD;MIM=101600\tGT\t1|0");
+        VariantEvaluation variantEvaluation = instance.streamVariantEvaluations(variantContexts).findFirst().get();
+        TranscriptAnnotation annotation = variantEvaluation.getAnnotations().get(0);
+        int hashCode = annotation.hashCode();
+        assertThat(annotation, equalTo(annotation));
+        assertThat(annotation.toString(), containsString("hgvsCdna='null'"));
+
+        annotation.formatHgvs();
+        assertThat(annotation.toString(), containsString("hgvsCdna='c."));
+        assertThat(annotation.toString(), containsString("hgvsProtein='p."));
+        assertThat(annotation.hashCode(), equalTo(hashCode));
+    }
+
+    @Test
+    public void testShortAllelesAreShared() {
+        Stream<VariantContext> variantContexts = VcfParser.forSamples("Sample")
+                .parse("10\t123256215\t.\tT\tG\t100\tPASS\t.\tGT\t1|0", "10\t123256220\t.\tT\tG\t100\tPASS\t.\tGT\t1|0");
+        List<VariantEvaluation> variants = instance.streamVariantEvaluations(variantContexts).collect(toList());
+        assertThat(variants.size(), equalTo(2));
+        assertThat(variants.get(0).getRef(), sameInstance(variants.get(1).getRef()));
+        assertThat(variants.get(0).getAlt(), sameInstance(variants.get(1).getAlt()));
+    }
+
+    @Test
+    public void testTranscriptFeaturesAreShared() {
+        Stream<VariantContext> variantContexts = VcfParser.forSamples("Sample")
+                .parse("10\t123256215\t.\tT\tG\t100\tPASS\t.\tGT\t1|0", "10\t123256215\t.\tT\tG\t100\tPASS\t.\tGT\t0|1");
+        List<VariantEvaluation> variants = instance.streamVariantEvaluations(variantContexts).collect(toList());
+        assertThat(variants.size(), equalTo(2));
+        TranscriptAnnotation first = variants.get(0).getAnnotations().get(0);
+        TranscriptAnnotation second = variants.get(1).getAnnotations().get(0);
+        assertThat(first.getTranscriptFeature(), sameInstance(second.getTranscriptFeature()));
+    }
+
     @Test
     public void testUnKnownSingleSampleSnp() {
         Stream<VariantContext> variantContexts = VcfParser.forSamples("Sample")
@@ -0,0 +1,121 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome;
+
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.genome.VcfRecordScreen.SkipReason;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VcfRecordScreenTest {
+
+    private static String line(String alt, String format, String... samples) {
+        StringBuilder stringBuilder = new StringBuilder("1\t12345\t.\tA\t").append(alt).append("\t100\tPASS\t.\t").append(format);
+        for (String sample : samples) {
+            stringBuilder.append('\t').append(sample);
+        }
+        return stringBuilder.toString();
+    }
+
+    @Test
+    public void testHeaderLinesAreKept() {
+        assertThat(VcfRecordScreen.screen("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tsample"), nullValue());
+    }
+
+    @Test
+    public void testHetAltIsKept() {
+        assertThat(VcfRecordScreen.screen(line("T", "GT", "0/1")), nullValue());
+    }
+
+    @Test
+    public void testPhasedAltIsKept() {
+        assertThat(VcfRecordScreen.screen(line("T", "GT:DP", "0|0:12", "1|0:10")), nullValue());
+    }
+
+    @Test
+    public void testHaploidAltIsKept() {
+        assertThat(VcfRecordScreen.screen(line("T", "GT", "1")), nullValue());
+    }
+
+    @Test
+    public void testMultiDigitAlleleIndexIsKept() {
+        assertThat(VcfRecordScreen.screen(line("T,C,G,TT,CC,GG,TTT,CCC,GGG,TTTT", "GT", "0/10")), nullValue());
+    }
+
+    @Test
+    public void testAltWithNonRefIsKept() {
+        assertThat(VcfRecordScreen.screen(line("T,<NON_REF>", "GT", "0/1")), nullValue());
+    }
+
+    @Test
+    public void testFormatWithoutLeadingGtIsKept() {
+        assertThat(VcfRecordScreen.screen(line("T", "DP:GT", "12:0/0")), nullValue());
+    }
+
+    @Test
+    public void testNonRefReferenceBlockIsSkipped() {
+        assertThat(VcfRecordScreen.screen(line("<NON_REF>", "GT", "0/0")), equalTo(SkipReason.REFERENCE_BLOCK));
+    }
+
+    @Test
+    public void testStarReferenceBlockIsSkipped() {
+        assertThat(VcfRecordScreen.screen(line("<*>", "GT", "0/0")), equalTo(SkipReason.REFERENCE_BLOCK));
+    }
+
+    @Test
+    public void testMonomorphicSiteIsSkipped() {
+        assertThat(VcfRecordScreen.screen(line(".", "GT", "0/0")), equalTo(SkipReason.REFERENCE_BLOCK));
+    }
+
+    @Test
+    public void testHomRefIsSkipped() {
+        assertThat(VcfRecordScreen.screen(line("T", "GT:DP", "0/0:30", "0/0:12")), equalTo(SkipReason.NO_ALT_GENOTYPE));
+    }
+
+    @Test
+    public void testNoCallIsSkipped() {
+        assertThat(VcfRecordScreen.screen(line("T", "GT:DP", "./.:.", ".:.")), equalTo(SkipReason.NO_ALT_GENOTYPE));
+    }
+
+    @Test
+    public void testSitesOnlyIsSkipped() {
+        assertThat(VcfRecordScreen.screen("1\t12345\t.\tA\tT\t100\tPASS\t."), equalTo(SkipReason.NO_ALT_GENOTYPE));
+    }
+
+    @Test
+    public void testAcceptCountsSkippedRecords() {
+        VcfRecordScreen instance = new VcfRecordScreen();
+        assertThat(instance.accept(line("T", "GT", "0/1")), equalTo(true));
+        assertThat(instance.accept(line("<NON_REF>", "GT", "0/0")), equalTo(false));
+        assertThat(instance.accept(line("T", "GT", "0/0")), equalTo(false));
+        assertThat(instance.accept(line("T", "GT", "./.")), equalTo(false));
+
+        assertThat(instance.getScreenedCount(), equalTo(4L));
+        assertThat(instance.getSkippedCount(), equalTo(3L));
+        assertThat(instance.getSkippedCount(SkipReason.REFERENCE_BLOCK), equalTo(1L));
+        assertThat(instance.getSkippedCount(SkipReason.NO_ALT_GENOTYPE), equalTo(2L));
+    }
+}
@@ -32,11 +32,17 @@
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.CaddScore;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -209,4 +215,84 @@ public void testGetPathogenicityData_snvMultipleVariantsAtPosition_OneMatch() {
         assertPathDataContainsCaddScore(result, 0.54814404f);
     }
 
+    @Test
+    public void testSweepGetPathogenicityData_readsEachRunOfVariantsWithOneQuery() {
+        Mockito.when(snvTabixReader.query("1:2-10")).thenReturn(MockTabixIterator.of(
+                "1\t2\tA\tC\t-0.234\t4.45",
+                "1\t2\tA\tT\t-0.234\t3.45",
+                "1\t3\tC\tG\t-0.234\t3.45",
+                "1\t10\tG\tA\t-0.234\t3.45",
+                "1\t10\tG\tT\t-0.234\t4.45"));
+        Mockito.when(snvTabixReader.query("1:50000-50000")).thenReturn(MockTabixIterator.of("1\t50000\tT\tA\t-0.234\t3.45"));
+        Mockito.when(indelTabixReader.query("1:2-2")).thenReturn(MockTabixIterator.of(
+                "1\t2\tA\tAC\t-0.234\t4.45",
+                "1\t2\tA\tAT\t-0.234\t3.45"));
+
+        //deliberately unsorted
+        List<Variant> variants = Arrays.asList(
+                variant(1, 10, "G", "A"),
+                variant(1, 50000, "T", "A"),
+                variant(1, 2, "A", "T"),
+                variant(1, 2, "A", "AT"),
+                variant(1, 5, "T", "C"),
+                variant(1, 10, "G", "C")
+        );
+
+        Map<Variant, PathogenicityData> results = instance.getPathogenicityData(variants);
+
+        assertThat(results.keySet(), equalTo(new LinkedHashSet<>(variants)));
+        assertPathDataContainsCaddScore(results.get(variants.get(0)), 0.54814404f);
+        assertPathDataContainsCaddScore(results.get(variants.get(1)), 0.54814404f);
+        assertPathDataContainsCaddScore(results.get(variants.get(2)), 0.54814404f);
+        assertPathDataContainsCaddScore(results.get(variants.get(3)), 0.54814404f);
+        assertThat(results.get(variants.get(4)), equalTo(PathogenicityData.empty()));
+        assertThat(results.get(variants.get(5)), equalTo(PathogenicityData.empty()));
+        Mockito.verify(snvTabixReader, Mockito.times(2)).query(Mockito.anyString());
+    }
+
+    @Test
+    public void testSweepGetPathogenicityData_usesConfiguredSweepGapForFile() {
+        TabixDataSource snvTabixDataSource = new TabixReaderAdaptor(snvTabixReader);
+        TabixDataSource inDelTabixDataSource = new TabixReaderAdaptor(indelTabixReader);
+        CaddDao narrowSnvGapInstance = new CaddDao(inDelTabixDataSource, snvTabixDataSource, CaddDao.DEFAULT_INDEL_SWEEP_GAP, 2);
+        Mockito.when(snvTabixReader.query("1:2-3")).thenReturn(MockTabixIterator.of(
+                "1\t2\tA\tT\t-0.234\t3.45",
+                "1\t3\tC\tG\t-0.234\t3.45"));
+        Mockito.when(snvTabixReader.query("1:10-10")).thenReturn(MockTabixIterator.of("1\t10\tG\tA\t-0.234\t3.45"));
+
+        List<Variant> variants = Arrays.asList(
+                variant(1, 2, "A", "T"),
+                variant(1, 3, "C", "G"),
+                variant(1, 10, "G", "A")
+        );
+
+        Map<Variant, PathogenicityData> results = narrowSnvGapInstance.getPathogenicityData(variants);
+
+        results.values().forEach(result -> assertPathDataContainsCaddScore(result, 0.54814404f));
+        Mockito.verify(snvTabixReader, Mockito.times(2)).query(Mockito.anyString());
+    }
+
+    @Test
+    public void testSweepGetPathogenicityData_unableToReadFromSource() {
+        Mockito.when(snvTabixReader.query("1:2-2")).thenThrow(IOException.class);
+        Variant variant = variant(1, 2, "A", "T");
+        Map<Variant, PathogenicityData> results = instance.getPathogenicityData(Arrays.asList(variant));
+        assertThat(results.get(variant), equalTo(PathogenicityData.empty()));
+    }
+
+    @Test
+    public void testSweepGetPathogenicityData_fillsAndUsesCache() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("cadd");
+        instance.setCacheManager(cacheManager);
+        Mockito.when(snvTabixReader.query("1:2-2")).thenReturn(MockTabixIterator.of("1\t2\tA\tT\t-0.234\t3.45"));
+
+        Variant variant = variant(1, 2, "A", "T");
+        instance.getPathogenicityData(Arrays.asList(variant));
+        assertPathDataContainsCaddScore(cacheManager.getCache("cadd").get(VariantCacheKey.of(variant), PathogenicityData.class), 0.54814404f);
+
+        Map<Variant, PathogenicityData> results = instance.getPathogenicityData(Arrays.asList(variant));
+        assertPathDataContainsCaddScore(results.get(variant), 0.54814404f);
+        Mockito.verify(snvTabixReader, Mockito.times(1)).query(Mockito.anyString());
+    }
+
 }
@@ -25,6 +25,7 @@
  */
 package org.monarchinitiative.exomiser.core.genome.dao;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -36,10 +37,18 @@
 import org.monarchinitiative.exomiser.core.model.frequency.RsId;
 import org.monarchinitiative.exomiser.core.prioritisers.config.TestDataSourceConfig;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -60,6 +69,9 @@ public class DefaultFrequencyDaoTest {
     @Autowired
     private DefaultFrequencyDao instance;
 
+    @Autowired
+    private DataSource dataSource;
+
     private Variant variantNotInDatabase;
     private Variant variantInDatabaseWithRsId;
 
@@ -78,6 +90,11 @@ public void setUp() {
         variantInDatabaseWithRsId = VariantEvaluation.builder(10, 123256215, "T", "G").build();
     }
 
+    @After
+    public void tearDown() {
+        instance.setBloomFilter(null);
+    }
+
     @Test
     public void testVariantNotInDatabaseReturnsAnEmptyFrequencyData() {
         FrequencyData result = instance.getFrequencyData(variantNotInDatabase);
@@ -93,5 +110,85 @@ public void testVariantInDatabaseReturnsFrequencyData() {
         assertThat(result, equalTo(expected));
         assertThat(result.isRepresentedInDatabase(), is(true));
     }
-       
+
+    @Test
+    public void testVariantInBloomFilterReturnsFrequencyData() {
+        VariantBloomFilter bloomFilter = VariantBloomFilter.create("frequency", "test", 10, 0.01);
+        bloomFilter.put(10, 123256215, "T", "G");
+        instance.setBloomFilter(bloomFilter);
+
+        FrequencyData result = instance.getFrequencyData(variantInDatabaseWithRsId);
+        assertThat(result, equalTo(FrequencyData.of(rsId, dbSnp, espAa, espAll, espEa)));
+    }
+
+    @Test
+    public void testVariantNotInBloomFilterSkipsDatabase() {
+        //the variant is in the database but not in the filter, so the database should not be queried
+        VariantBloomFilter bloomFilter = VariantBloomFilter.create("frequency", "test", 10, 0.01);
+        instance.setBloomFilter(bloomFilter);
+
+        FrequencyData result = instance.getFrequencyData(variantInDatabaseWithRsId);
+        assertThat(result, equalTo(NO_DATA));
+    }
+
+    @Test
+    public void testBulkLookupEmptyInput() {
+        Map<Variant, FrequencyData> results = instance.getFrequencyData(Collections.emptyList());
+        assertThat(results.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testBulkLookupMatchesSingleLookups() {
+        List<Variant> variants = Arrays.asList(
+                variantNotInDatabase,
+                VariantEvaluation.builder(10, 123256214, "T", "G").build(),
+                variantInDatabaseWithRsId,
+                VariantEvaluation.builder(10, 123256215, "T", "A").build(),
+                VariantEvaluation.builder(10, 123456789, "T", "G").build()
+        );
+
+        Map<Variant, FrequencyData> results = instance.getFrequencyData(variants);
+
+        assertThat(results.size(), equalTo(variants.size()));
+        for (Variant variant : variants) {
+            assertThat(results.get(variant), equalTo(instance.getFrequencyData(variant)));
+        }
+        assertThat(results.get(variantInDatabaseWithRsId), equalTo(FrequencyData.of(rsId, dbSnp, espAa, espAll, espEa)));
+    }
+
+    @Test
+    public void testBulkLookupSkipsVariantsNotInBloomFilter() {
+        VariantBloomFilter bloomFilter = VariantBloomFilter.create("frequency", "test", 10, 0.01);
+        instance.setBloomFilter(bloomFilter);
+
+        Map<Variant, FrequencyData> results = instance.getFrequencyData(Collections.singletonList(variantInDatabaseWithRsId));
+        assertThat(results.get(variantInDatabaseWithRsId), equalTo(NO_DATA));
+    }
+
+    @Test
+    public void testBulkLookupFillsFrequencyCache() {
+        DefaultFrequencyDao cachingInstance = new DefaultFrequencyDao(dataSource);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("frequency");
+        cachingInstance.setCacheManager(cacheManager);
+
+        cachingInstance.getFrequencyData(Arrays.asList(variantInDatabaseWithRsId, variantNotInDatabase));
+
+        Cache cache = cacheManager.getCache("frequency");
+        assertThat(cache.get(VariantCacheKey.of(variantInDatabaseWithRsId), FrequencyData.class), equalTo(FrequencyData.of(rsId, dbSnp, espAa, espAll, espEa)));
+        assertThat(cache.get(VariantCacheKey.of(variantNotInDatabase), FrequencyData.class), equalTo(NO_DATA));
+    }
+
+    @Test
+    public void testBulkLookupUsesCachedValues() {
+        DefaultFrequencyDao cachingInstance = new DefaultFrequencyDao(dataSource);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("frequency");
+        cachingInstance.setCacheManager(cacheManager);
+
+        FrequencyData cachedData = FrequencyData.of(rsId, dbSnp);
+        cacheManager.getCache("frequency").put(VariantCacheKey.of(variantInDatabaseWithRsId), cachedData);
+
+        Map<Variant, FrequencyData> results = cachingInstance.getFrequencyData(Collections.singletonList(variantInDatabaseWithRsId));
+        assertThat(results.get(variantInDatabaseWithRsId), equalTo(cachedData));
+    }
+
 }
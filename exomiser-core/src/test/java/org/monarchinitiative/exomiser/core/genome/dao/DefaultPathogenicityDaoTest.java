@@ -33,10 +33,18 @@
 import org.monarchinitiative.exomiser.core.model.pathogenicity.*;
 import org.monarchinitiative.exomiser.core.prioritisers.config.TestDataSourceConfig;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -53,6 +61,9 @@
 })
 public class DefaultPathogenicityDaoTest {
 
+    @Autowired
+    private DataSource dataSource;
+
     @Autowired
     private DefaultPathogenicityDao instance;
 
@@ -147,4 +158,73 @@ public void testMissenseVariantWithMultipleRowsReturnsBestScores() {
         PathogenicityData expected = PathogenicityData.of(POLY_PHEN_SCORE, MUTATION_TASTER_SCORE, SIFT_SCORE);
         assertThat(result, equalTo(expected));
     }
+
+    @Test
+    public void testBulkLookupEmptyInput() {
+        Map<Variant, PathogenicityData> results = instance.getPathogenicityData(Collections.emptyList());
+        assertThat(results.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testBulkLookupMatchesSingleLookups() {
+        List<Variant> variants = Arrays.asList(
+                makeMissenseVariant(1, 1, "A", "T"),
+                makeMissenseVariant(1, 2, "A", "T"),
+                makeMissenseVariant(1, 3, "A", "T"),
+                makeMissenseVariant(1, 4, "A", "T"),
+                makeMissenseVariant(1, 5, "A", "T"),
+                makeMissenseVariant(1, 5, "A", "G"),
+                VariantEvaluation.builder(1, 6, "A", "T").variantEffect(VariantEffect.DOWNSTREAM_GENE_VARIANT).build(),
+                makeMissenseVariant(10, 123256215, "T", "A"),
+                missenseVariantInDatabase,
+                makeMissenseVariant(10, 123256216, "T", "G")
+        );
+
+        Map<Variant, PathogenicityData> results = instance.getPathogenicityData(variants);
+
+        assertThat(results.size(), equalTo(variants.size()));
+        for (Variant variant : variants) {
+            assertThat(results.get(variant), equalTo(instance.getPathogenicityData(variant)));
+        }
+    }
+
+    @Test
+    public void testBulkLookupSparsePositionsUsesInList() {
+        List<Variant> variants = Arrays.asList(
+                makeMissenseVariant(1, 1, "A", "T"),
+                makeMissenseVariant(1, 5, "A", "T"),
+                makeMissenseVariant(1, 100_000, "A", "T")
+        );
+        Map<Variant, PathogenicityData> results = instance.getPathogenicityData(variants);
+        assertThat(results.get(variants.get(0)), equalTo(PathogenicityData.of(POLY_PHEN_SCORE, MUTATION_TASTER_SCORE)));
+        assertThat(results.get(variants.get(1)), equalTo(PathogenicityData.of(POLY_PHEN_SCORE, MUTATION_TASTER_SCORE, SIFT_SCORE)));
+        assertThat(results.get(variants.get(2)), equalTo(PathogenicityData.empty()));
+    }
+
+    @Test
+    public void testBulkLookupFillsPathogenicityCache() {
+        DefaultPathogenicityDao cachingInstance = new DefaultPathogenicityDao(dataSource);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("pathogenicity");
+        cachingInstance.setCacheManager(cacheManager);
+
+        Variant notInDatabase = makeMissenseVariant(1, 100, "A", "T");
+        cachingInstance.getPathogenicityData(Arrays.asList(missenseVariantInDatabase, notInDatabase));
+
+        Cache cache = cacheManager.getCache("pathogenicity");
+        assertThat(cache.get(VariantCacheKey.of(missenseVariantInDatabase), PathogenicityData.class), equalTo(PathogenicityData.of(POLY_PHEN_SCORE, MUTATION_TASTER_SCORE, SIFT_SCORE)));
+        assertThat(cache.get(VariantCacheKey.of(notInDatabase), PathogenicityData.class), equalTo(PathogenicityData.empty()));
+    }
+
+    @Test
+    public void testBulkLookupUsesCachedValues() {
+        DefaultPathogenicityDao cachingInstance = new DefaultPathogenicityDao(dataSource);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("pathogenicity");
+        cachingInstance.setCacheManager(cacheManager);
+
+        PathogenicityData cachedData = PathogenicityData.of(SIFT_SCORE);
+        cacheManager.getCache("pathogenicity").put(VariantCacheKey.of(missenseVariantInDatabase), cachedData);
+
+        Map<Variant, PathogenicityData> results = cachingInstance.getPathogenicityData(Collections.singletonList(missenseVariantInDatabase));
+        assertThat(results.get(missenseVariantInDatabase), equalTo(cachedData));
+    }
 }
@@ -0,0 +1,100 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.tribble.index.tabix.TabixIndex;
+import htsjdk.tribble.readers.TabixReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class IndexedTabixReaderTest {
+
+    private static final String TABIX_GZ_PATH = "src/test/resources/tabix/test.tsv.gz";
+
+    private IndexedTabixReader instance;
+
+    @Before
+    public void setUp() throws IOException {
+        TabixIndex tabixIndex = new TabixIndex(new File(TABIX_GZ_PATH + ".tbi"));
+        instance = new IndexedTabixReader(tabixIndex, new BlockCompressedInputStream(new File(TABIX_GZ_PATH)));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        instance.close();
+    }
+
+    private List<String> readAll(TabixReader.Iterator iterator) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = iterator.next()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    @Test
+    public void testQuerySinglePositionReturnsAllLinesAtPosition() throws IOException {
+        assertThat(readAll(instance.query("1", 9, 10)), equalTo(Arrays.asList("1\t10\tA\tT\t0.1", "1\t10\tA\tG\t0.2")));
+    }
+
+    @Test
+    public void testQueryRegion() throws IOException {
+        assertThat(readAll(instance.query("1", 9, 12)), equalTo(Arrays.asList("1\t10\tA\tT\t0.1", "1\t10\tA\tG\t0.2", "1\t12\tC\tT\t0.3")));
+    }
+
+    @Test
+    public void testQueryRegionWithoutLines() throws IOException {
+        assertThat(instance.query("1", 12, 19).next(), nullValue());
+    }
+
+    @Test
+    public void testQueryDoesNotReturnLinesFromNextChromosome() throws IOException {
+        assertThat(readAll(instance.query("1", 19, 100)), equalTo(Arrays.asList("1\t20\tG\tA\t0.4")));
+    }
+
+    @Test
+    public void testQueryUnknownChromosome() throws IOException {
+        assertThat(instance.query("X", 0, 100).next(), nullValue());
+    }
+
+    @Test
+    public void testQueriesCanBeRepeatedInAnyOrder() throws IOException {
+        assertThat(readAll(instance.query("2", 4, 5)), equalTo(Arrays.asList("2\t5\tT\tC\t0.5")));
+        assertThat(readAll(instance.query("1", 11, 12)), equalTo(Arrays.asList("1\t12\tC\tT\t0.3")));
+        assertThat(readAll(instance.query("2", 4, 5)), equalTo(Arrays.asList("2\t5\tT\tC\t0.5")));
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import htsjdk.tribble.readers.TabixReader;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class PooledTabixDataSourceTest {
+
+    private static final String LINE = "1\t1\tA\tT";
+
+    private List<IndexedTabixReader> openedReaders;
+    private PooledTabixDataSource instance;
+
+    @Before
+    public void setUp() {
+        openedReaders = new ArrayList<>();
+        instance = newDataSource(2);
+    }
+
+    private PooledTabixDataSource newDataSource(int maxReaders) {
+        return new PooledTabixDataSource("test.tsv.gz", maxReaders, () -> {
+            IndexedTabixReader tabixReader = Mockito.mock(IndexedTabixReader.class);
+            when(tabixReader.query("1", 0, 1)).thenAnswer(invocation -> MockTabixIterator.of(LINE));
+            synchronized (openedReaders) {
+                openedReaders.add(tabixReader);
+            }
+            return tabixReader;
+        });
+    }
+
+    private String readAll(TabixReader.Iterator iterator) throws IOException {
+        String first = iterator.next();
+        while (iterator.next() != null) {
+            //read to the end to return the reader
+        }
+        return first;
+    }
+
+    @Test
+    public void testGetSource() {
+        assertThat(instance.getSource(), equalTo("test.tsv.gz"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxReadersMustBePositive() {
+        newDataSource(0);
+    }
+
+    @Test
+    public void testQueryRegionIsConvertedToZeroBasedStart() throws Exception {
+        assertThat(readAll(instance.query("1:1-1")), equalTo(LINE));
+        assertThat(readAll(instance.query("1", 1, 1)), equalTo(LINE));
+        verify(openedReaders.get(0), Mockito.times(2)).query("1", 0, 1);
+    }
+
+    @Test
+    public void testReaderIsBorrowedUntilIteratorIsDrained() throws Exception {
+        TabixQueryIterator iterator = instance.query("1:1-1");
+        assertThat(instance.getBorrowedReaders(), equalTo(1));
+        assertThat(instance.getIdleReaders(), equalTo(0));
+
+        assertThat(iterator.next(), equalTo(LINE));
+        assertThat(instance.getBorrowedReaders(), equalTo(1));
+
+        assertThat(iterator.next(), nullValue());
+        assertThat(instance.getBorrowedReaders(), equalTo(0));
+        assertThat(instance.getIdleReaders(), equalTo(1));
+    }
+
+    @Test
+    public void testReaderIsReturnedWhenIteratorIsClosed() throws Exception {
+        TabixQueryIterator iterator = instance.query("1:1-1");
+        iterator.close();
+        assertThat(instance.getBorrowedReaders(), equalTo(0));
+        assertThat(instance.getIdleReaders(), equalTo(1));
+        assertThat(iterator.next(), nullValue());
+        //closing again must not return the reader twice
+        iterator.close();
+        assertThat(instance.getIdleReaders(), equalTo(1));
+    }
+
+    @Test
+    public void testReaderIsReturnedWhenCallerThrowsMidIteration() throws Exception {
+        try (TabixQueryIterator iterator = instance.query("1:1-1")) {
+            iterator.next();
+            throw new IllegalStateException("Caller failure");
+        } catch (IllegalStateException expected) {
+            //the reader should be back in the pool
+        }
+        assertThat(instance.getBorrowedReaders(), equalTo(0));
+        assertThat(instance.getIdleReaders(), equalTo(1));
+    }
+
+    @Test
+    public void testSequentialQueriesReuseReturnedReader() throws Exception {
+        assertThat(readAll(instance.query("1:1-1")), equalTo(LINE));
+        assertThat(readAll(instance.query("1:1-1")), equalTo(LINE));
+
+        assertThat(instance.getReadersOpened(), equalTo(1L));
+        assertThat(instance.getQueries(), equalTo(2L));
+    }
+
+    @Test
+    public void testConcurrentQueriesUseDifferentReaders() throws Exception {
+        TabixQueryIterator first = instance.query("1:1-1");
+        TabixQueryIterator second = instance.query("1:1-1");
+
+        assertThat(instance.getReadersOpened(), equalTo(2L));
+        assertThat(instance.getBorrowedReaders(), equalTo(2));
+        assertThat(readAll(first), equalTo(LINE));
+        assertThat(readAll(second), equalTo(LINE));
+    }
+
+    @Test
+    public void testQueryWaitsForReaderWhenAllAreBorrowed() throws Exception {
+        TabixQueryIterator first = instance.query("1:1-1");
+        TabixQueryIterator second = instance.query("1:1-1");
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Future<String> waitingQuery = executorService.submit(() -> readAll(instance.query("1:1-1")));
+        try {
+            waitingQuery.get(200, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException expected) {
+            //no reader available until one of the others is returned
+        }
+        assertThat(waitingQuery.isDone(), is(false));
+
+        readAll(first);
+        assertThat(waitingQuery.get(5, TimeUnit.SECONDS), equalTo(LINE));
+        executorService.shutdown();
+
+        readAll(second);
+        assertThat(instance.getReadersOpened(), equalTo(2L));
+        assertThat(instance.getBorrowedReaders(), equalTo(0));
+        assertThat(instance.getIdleReaders(), equalTo(2));
+    }
+
+    @Test
+    public void testQueriesFromDifferentThreads() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(executorService.submit(() -> readAll(instance.query("1:1-1"))));
+        }
+        for (Future<String> result : results) {
+            assertThat(result.get(), equalTo(LINE));
+        }
+        executorService.shutdown();
+
+        assertThat(instance.getQueries(), equalTo(20L));
+        assertThat(instance.getBorrowedReaders(), equalTo(0));
+        assertThat(openedReaders.size(), equalTo((int) instance.getReadersOpened()));
+        assertThat(instance.getIdleReaders() <= instance.getMaxReaders(), is(true));
+    }
+
+    @Test
+    public void testFailedReadClosesReader() throws Exception {
+        TabixQueryIterator iterator = instance.query("1:1-1");
+        IndexedTabixReader tabixReader = openedReaders.get(0);
+        when(tabixReader.query("2", 0, 1)).thenReturn(() -> {
+            throw new IOException("Test read failure");
+        });
+        readAll(iterator);
+
+        TabixQueryIterator failingIterator = instance.query("2:1-1");
+        try {
+            failingIterator.next();
+        } catch (IOException expected) {
+            //reader should be discarded
+        }
+        verify(tabixReader).close();
+        assertThat(instance.getBorrowedReaders(), equalTo(0));
+        assertThat(instance.getIdleReaders(), equalTo(0));
+    }
+
+    @Test
+    public void testCloseClosesAllReaders() throws Exception {
+        readAll(instance.query("1:1-1"));
+        TabixQueryIterator borrowed = instance.query("1:1-1");
+        TabixQueryIterator alsoBorrowed = instance.query("1:1-1");
+        readAll(alsoBorrowed);
+
+        instance.close();
+        //the borrowed reader is closed once its iterator has been read
+        readAll(borrowed);
+
+        assertThat(openedReaders.size(), equalTo(2));
+        for (IndexedTabixReader tabixReader : openedReaders) {
+            verify(tabixReader).close();
+        }
+        assertThat(instance.getIdleReaders(), equalTo(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testQueryAfterCloseThrowsException() {
+        instance.close();
+        instance.query("1:1-1");
+    }
+}
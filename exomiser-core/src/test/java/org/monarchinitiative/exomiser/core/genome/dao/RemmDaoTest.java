@@ -34,11 +34,16 @@
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.monarchinitiative.exomiser.core.model.Variant;
 import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicityData;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.RemmScore;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -117,4 +122,55 @@ public void testGetPathogenicityData_deletion() {
 
         assertThat(instance.getPathogenicityData(variant(1, 1, "ATTT", "A")), equalTo(PathogenicityData.of(RemmScore.valueOf(1f))));
     }
+
+    @Test
+    public void testWindowedGetPathogenicityData_scoresNearbyVariantsFromOneWindow() {
+        Mockito.when(remmTabixReader.query("1:1-6")).thenReturn(MockTabixIterator.of(
+                "1\t1\t0.0", "1\t2\t0.5", "1\t3\t1.0", "1\t4\t0.0", "1\t6\t0.25"));
+        Mockito.when(remmTabixReader.query("1:30000-30000")).thenReturn(MockTabixIterator.of("1\t30000\t0.75"));
+
+        VariantEvaluation missense = VariantEvaluation.builder(1, 2, "A", "T")
+                .variantEffect(VariantEffect.MISSENSE_VARIANT)
+                .build();
+        List<Variant> variants = Arrays.asList(
+                variant(1, 30000, "C", "G"),
+                variant(1, 1, "ATTT", "A"),
+                variant(1, 4, "A", "T"),
+                variant(1, 5, "A", "T"),
+                variant(1, 5, "A", "AT"),
+                missense
+        );
+
+        Map<Variant, PathogenicityData> results = instance.getPathogenicityData(variants);
+
+        assertThat(results.get(variants.get(0)), equalTo(PathogenicityData.of(RemmScore.valueOf(0.75f))));
+        assertThat(results.get(variants.get(1)), equalTo(PathogenicityData.of(RemmScore.valueOf(1f))));
+        assertThat(results.get(variants.get(2)), equalTo(PathogenicityData.of(RemmScore.valueOf(0f))));
+        assertThat(results.get(variants.get(3)), equalTo(PathogenicityData.empty()));
+        assertThat(results.get(variants.get(4)), equalTo(PathogenicityData.of(RemmScore.valueOf(0.25f))));
+        assertThat(results.get(missense), equalTo(PathogenicityData.empty()));
+        Mockito.verify(remmTabixReader, Mockito.times(2)).query(Mockito.anyString());
+    }
+
+    @Test
+    public void testWindowedGetPathogenicityData_unableToReadFromSource() {
+        Mockito.when(remmTabixReader.query("1:1-1")).thenThrow(IOException.class);
+        Variant variant = variant(1, 1, "A", "T");
+        assertThat(instance.getPathogenicityData(Arrays.asList(variant)).get(variant), equalTo(PathogenicityData.empty()));
+    }
+
+    @Test
+    public void testWindowedGetPathogenicityData_fillsAndUsesCache() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("remm");
+        instance.setCacheManager(cacheManager);
+        Mockito.when(remmTabixReader.query("1:1-1")).thenReturn(MockTabixIterator.of("1\t1\t0.5"));
+
+        Variant variant = variant(1, 1, "A", "T");
+        instance.getPathogenicityData(Arrays.asList(variant));
+        assertThat(cacheManager.getCache("remm").get(VariantCacheKey.of(variant), PathogenicityData.class), equalTo(PathogenicityData.of(RemmScore.valueOf(0.5f))));
+
+        Map<Variant, PathogenicityData> results = instance.getPathogenicityData(Arrays.asList(variant));
+        assertThat(results.get(variant), equalTo(PathogenicityData.of(RemmScore.valueOf(0.5f))));
+        Mockito.verify(remmTabixReader, Mockito.times(1)).query(Mockito.anyString());
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class TabixLineParserTest {
+
+    private static final String LINE = "10\t123256215\tT\tGA\t-0.234\t3.45";
+
+    @Test
+    public void testColumnStart() {
+        assertThat(TabixLineParser.columnStart(LINE, 0), equalTo(0));
+        assertThat(TabixLineParser.columnStart(LINE, 1), equalTo(3));
+        assertThat(TabixLineParser.columnStart(LINE, 5), equalTo(LINE.lastIndexOf('\t') + 1));
+    }
+
+    @Test
+    public void testColumnStartBeyondLastColumn() {
+        assertThat(TabixLineParser.columnStart(LINE, 6), equalTo(-1));
+    }
+
+    @Test
+    public void testColumnEquals() {
+        int refStart = TabixLineParser.columnStart(LINE, 2);
+        int altStart = TabixLineParser.columnStart(LINE, 3);
+        assertThat(TabixLineParser.columnEquals(LINE, refStart, "T"), is(true));
+        assertThat(TabixLineParser.columnEquals(LINE, altStart, "GA"), is(true));
+        assertThat(TabixLineParser.columnEquals(LINE, altStart, "G"), is(false));
+        assertThat(TabixLineParser.columnEquals(LINE, altStart, "GAT"), is(false));
+        assertThat(TabixLineParser.columnEquals(LINE, -1, "T"), is(false));
+    }
+
+    @Test
+    public void testParseInt() {
+        assertThat(TabixLineParser.parseInt(LINE, TabixLineParser.columnStart(LINE, 1)), equalTo(123256215));
+    }
+
+    @Test
+    public void testParseIntNotANumber() {
+        assertThat(TabixLineParser.parseInt(LINE, TabixLineParser.columnStart(LINE, 2)), equalTo(-1));
+        assertThat(TabixLineParser.parseInt("\t\tA", 0), equalTo(-1));
+    }
+
+    @Test
+    public void testParseFloat() {
+        assertThat(TabixLineParser.parseFloat(LINE, TabixLineParser.columnStart(LINE, 4)), equalTo(-0.234f));
+        assertThat(TabixLineParser.parseFloat(LINE, TabixLineParser.columnStart(LINE, 5)), equalTo(3.45f));
+    }
+}
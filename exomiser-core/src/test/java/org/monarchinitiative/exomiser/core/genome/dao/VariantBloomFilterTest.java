@@ -0,0 +1,84 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantBloomFilterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testMightContain() {
+        VariantBloomFilter instance = VariantBloomFilter.create("frequency", "1703", 100, 0.01);
+        instance.put(1, 12345, "A", "T");
+
+        assertThat(instance.mightContain(VariantEvaluation.builder(1, 12345, "A", "T").build()), is(true));
+        assertThat(instance.mightContain(VariantEvaluation.builder(1, 12345, "A", "G").build()), is(false));
+        assertThat(instance.mightContain(VariantEvaluation.builder(2, 12345, "A", "T").build()), is(false));
+        assertThat(instance.getNumVariants(), equalTo(1L));
+    }
+
+    @Test
+    public void testExpectedFppIsWithinConfiguredFppWhenNotOverfilled() {
+        VariantBloomFilter instance = VariantBloomFilter.create("frequency", "1703", 1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            instance.put(1, i, "A", "T");
+        }
+        assertThat(instance.getConfiguredFpp(), equalTo(0.01));
+        assertThat(instance.getExpectedFpp(), lessThan(0.011));
+    }
+
+    @Test
+    public void testWriteAndReadFrom() throws Exception {
+        VariantBloomFilter bloomFilter = VariantBloomFilter.create("pathogenicity", "1703", 100, 0.001);
+        bloomFilter.put(10, 123256215, "T", "G");
+        Path path = temporaryFolder.getRoot().toPath().resolve("pathogenicity.bloom");
+        bloomFilter.writeTo(path);
+
+        VariantBloomFilter instance = VariantBloomFilter.readFrom(path);
+        assertThat(instance.getType(), equalTo("pathogenicity"));
+        assertThat(instance.getRelease(), equalTo("1703"));
+        assertThat(instance.getConfiguredFpp(), equalTo(0.001));
+        assertThat(instance.getNumVariants(), equalTo(1L));
+        assertThat(instance.mightContain(VariantEvaluation.builder(10, 123256215, "T", "G").build()), is(true));
+        assertThat(instance.mightContain(VariantEvaluation.builder(10, 123256215, "T", "C").build()), is(false));
+    }
+
+    @Test(expected = VariantBloomFilter.VariantBloomFilterException.class)
+    public void testReadFromNonBloomFilterFileThrowsException() throws Exception {
+        VariantBloomFilter.readFrom(temporaryFolder.newFile("empty.bloom").toPath());
+    }
+}
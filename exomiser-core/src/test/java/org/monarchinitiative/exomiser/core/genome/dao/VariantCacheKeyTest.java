@@ -0,0 +1,65 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import de.charite.compbio.jannovar.annotation.VariantEffect;
+import org.junit.Test;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantCacheKeyTest {
+
+    @Test
+    public void testKeyHoldsAllelesOfVariant() {
+        VariantCacheKey key = VariantCacheKey.of(VariantEvaluation.builder(10, 123256215, "T", "G").build());
+        assertThat(key.getChromosome(), equalTo(10));
+        assertThat(key.getPosition(), equalTo(123256215));
+        assertThat(key.getRef(), equalTo("T"));
+        assertThat(key.getAlt(), equalTo("G"));
+    }
+
+    @Test
+    public void testKeysForVariantsWithSameAllelesAreEqual() {
+        VariantEvaluation missense = VariantEvaluation.builder(10, 123256215, "T", "G")
+                .variantEffect(VariantEffect.MISSENSE_VARIANT)
+                .geneSymbol("FGFR2")
+                .build();
+        VariantEvaluation unannotated = VariantEvaluation.builder(10, 123256215, "T", "G").build();
+
+        assertThat(VariantCacheKey.of(missense), equalTo(VariantCacheKey.of(unannotated)));
+        assertThat(VariantCacheKey.of(missense).hashCode(), equalTo(VariantCacheKey.of(unannotated).hashCode()));
+        assertThat(VariantCacheKey.of(missense), equalTo(VariantCacheKey.of(10, 123256215, "T", "G")));
+    }
+
+    @Test
+    public void testKeysForDifferentAllelesAreNotEqual() {
+        VariantCacheKey key = VariantCacheKey.of(10, 123256215, "T", "G");
+        assertThat(key, not(equalTo(VariantCacheKey.of(10, 123256215, "T", "A"))));
+        assertThat(key, not(equalTo(VariantCacheKey.of(10, 123256216, "T", "G"))));
+        assertThat(key, not(equalTo(VariantCacheKey.of(1, 123256215, "T", "G"))));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.*;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantDataCacheSnapshotterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path snapshotPath;
+
+    private final VariantEvaluation variant = VariantEvaluation.builder(10, 123256215, "T", "G").build();
+    private final FrequencyData frequencyData = FrequencyData.of(RsId.valueOf(121918506), Frequency.valueOf(0.01f, FrequencySource.THOUSAND_GENOMES), Frequency.valueOf(0.02f, FrequencySource.ESP_ALL));
+    private final PathogenicityData pathogenicityData = PathogenicityData.of(SiftScore.valueOf(0f), PolyPhenScore.valueOf(0.998f), MutationTasterScore.valueOf(1f));
+    private final PathogenicityData caddData = PathogenicityData.of(CaddScore.valueOf(23.4f));
+
+    @Before
+    public void setUp() {
+        snapshotPath = temporaryFolder.getRoot().toPath().resolve("cache.snapshot");
+    }
+
+    private CacheManager populatedCacheManager() {
+        CacheManager cacheManager = new ConcurrentMapCacheManager("frequency", "pathogenicity", "cadd", "remm");
+        cacheManager.getCache("frequency").put(VariantCacheKey.of(variant), frequencyData);
+        cacheManager.getCache("pathogenicity").put(VariantCacheKey.of(variant), pathogenicityData);
+        cacheManager.getCache("cadd").put(VariantCacheKey.of(variant), caddData);
+        cacheManager.getCache("remm").put(VariantCacheKey.of(1, 1000, "A", "T"), PathogenicityData.empty());
+        return cacheManager;
+    }
+
+    @Test
+    public void testLoadWithNoSnapshotLoadsNothing() {
+        VariantDataCacheSnapshotter instance = new VariantDataCacheSnapshotter(new ConcurrentMapCacheManager(), snapshotPath, "1703");
+        assertThat(instance.load(), equalTo(0));
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        VariantDataCacheSnapshotter saver = new VariantDataCacheSnapshotter(populatedCacheManager(), snapshotPath, "1703");
+        assertThat(saver.save(), equalTo(4));
+
+        CacheManager emptyCacheManager = new ConcurrentMapCacheManager("frequency", "pathogenicity", "cadd", "remm");
+        VariantDataCacheSnapshotter instance = new VariantDataCacheSnapshotter(emptyCacheManager, snapshotPath, "1703");
+        assertThat(instance.load(), equalTo(4));
+
+        //a new VariantEvaluation for the same alleles should hit the cache, as it would during an analysis
+        VariantEvaluation sameVariant = VariantEvaluation.builder(10, 123256215, "T", "G").build();
+        assertThat(emptyCacheManager.getCache("frequency").get(VariantCacheKey.of(sameVariant), FrequencyData.class), equalTo(frequencyData));
+        assertThat(emptyCacheManager.getCache("pathogenicity").get(VariantCacheKey.of(sameVariant), PathogenicityData.class), equalTo(pathogenicityData));
+        assertThat(emptyCacheManager.getCache("cadd").get(VariantCacheKey.of(sameVariant), PathogenicityData.class), equalTo(caddData));
+        assertThat(emptyCacheManager.getCache("remm").get(VariantCacheKey.of(1, 1000, "A", "T"), PathogenicityData.class), equalTo(PathogenicityData.empty()));
+    }
+
+    @Test
+    public void testLoadIgnoresSnapshotFromDifferentRelease() {
+        new VariantDataCacheSnapshotter(populatedCacheManager(), snapshotPath, "1703").save();
+
+        CacheManager emptyCacheManager = new ConcurrentMapCacheManager("frequency", "pathogenicity", "cadd", "remm");
+        VariantDataCacheSnapshotter instance = new VariantDataCacheSnapshotter(emptyCacheManager, snapshotPath, "1707");
+        assertThat(instance.load(), equalTo(0));
+        assertThat(emptyCacheManager.getCache("frequency").get(VariantCacheKey.of(variant)), nullValue());
+    }
+
+    @Test
+    public void testCloseSavesSnapshot() {
+        VariantDataCacheSnapshotter saver = new VariantDataCacheSnapshotter(populatedCacheManager(), snapshotPath, "1703");
+        saver.close();
+
+        VariantDataCacheSnapshotter instance = new VariantDataCacheSnapshotter(new ConcurrentMapCacheManager("frequency", "pathogenicity", "cadd", "remm"), snapshotPath, "1703");
+        assertThat(instance.load(), equalTo(4));
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.genome.dao;
+
+import de.charite.compbio.jannovar.annotation.VariantEffect;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.monarchinitiative.exomiser.core.model.VariantEvaluation;
+import org.monarchinitiative.exomiser.core.model.frequency.Frequency;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencyData;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.frequency.RsId;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantStoreTest {
+
+    private static final float NA = Float.NaN;
+
+    private static final List<String> FREQUENCY_COLUMNS = Arrays.asList(FrequencySource.THOUSAND_GENOMES.name(), FrequencySource.EXAC_FINNISH.name());
+    private static final List<String> PATHOGENICITY_COLUMNS = Arrays.asList(PathogenicitySource.SIFT.name(), PathogenicitySource.POLYPHEN.name(), PathogenicitySource.MUTATION_TASTER.name());
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path writeFrequencyStore() throws IOException {
+        Path storePath = temporaryFolder.newFile("frequency.store").toPath();
+        try (VariantStoreWriter writer = new VariantStoreWriter(storePath, "frequency", "1703", FREQUENCY_COLUMNS)) {
+            writer.add(1, 12345, "A", "T", 5678, new float[]{0.1f, NA});
+            writer.add(1, 12345, "A", "TTTC", 0, new float[]{NA, 2.5f});
+            writer.add(1, 20000, "GC", "G", 0, new float[]{NA, NA});
+            writer.add(23, 100, "C", "T", 123, new float[]{33.3f, 0.01f});
+        }
+        return storePath;
+    }
+
+    @Test
+    public void testOpenReadsHeader() throws Exception {
+        try (VariantStore instance = VariantStore.open(writeFrequencyStore())) {
+            assertThat(instance.getType(), equalTo("frequency"));
+            assertThat(instance.getRelease(), equalTo("1703"));
+            assertThat(instance.getColumns(), equalTo(FREQUENCY_COLUMNS));
+            assertThat(instance.size(), equalTo(4L));
+        }
+    }
+
+    @Test
+    public void testGetEntry() throws Exception {
+        try (VariantStore instance = VariantStore.open(writeFrequencyStore())) {
+            VariantStore.Entry entry = instance.get(1, 12345, "A", "TTTC");
+            assertThat(entry.getRsId(), equalTo(0));
+            assertThat(entry.hasValue(0), is(false));
+            assertThat(entry.hasValue(1), is(true));
+            assertThat(entry.getValue(1), equalTo(2.5f));
+
+            VariantStore.Entry xEntry = instance.get(23, 100, "C", "T");
+            assertThat(xEntry.getRsId(), equalTo(123));
+            assertThat(xEntry.getValue(0), equalTo(33.3f));
+            assertThat(xEntry.getValue(1), equalTo(0.01f));
+        }
+    }
+
+    @Test
+    public void testGetAbsentEntryReturnsNull() throws Exception {
+        try (VariantStore instance = VariantStore.open(writeFrequencyStore())) {
+            assertThat(instance.get(1, 12345, "A", "G"), nullValue());
+            assertThat(instance.get(1, 12346, "A", "T"), nullValue());
+            assertThat(instance.get(2, 12345, "A", "T"), nullValue());
+            assertThat(instance.get(25, 1, "A", "T"), nullValue());
+        }
+    }
+
+    @Test
+    public void testGetEntriesAcrossMultipleBlocks() throws Exception {
+        Path storePath = temporaryFolder.newFile("large.store").toPath();
+        int numRecords = VariantStoreWriter.MAX_BLOCK_RECORDS * 3 + 7;
+        try (VariantStoreWriter writer = new VariantStoreWriter(storePath, "frequency", "1703", FREQUENCY_COLUMNS)) {
+            for (int i = 1; i <= numRecords; i++) {
+                writer.add(1, i * 10, "A", "T", i, new float[]{i, NA});
+            }
+        }
+        try (VariantStore instance = VariantStore.open(storePath)) {
+            assertThat(instance.size(), equalTo((long) numRecords));
+            for (int i = 1; i <= numRecords; i++) {
+                VariantStore.Entry entry = instance.get(1, i * 10, "A", "T");
+                assertThat(entry.getRsId(), equalTo(i));
+                assertThat(entry.getValue(0), equalTo((float) i));
+                assertThat(instance.get(1, i * 10 + 1, "A", "T"), nullValue());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddOutOfOrderThrowsException() throws Exception {
+        Path storePath = temporaryFolder.newFile("unordered.store").toPath();
+        try (VariantStoreWriter writer = new VariantStoreWriter(storePath, "frequency", "1703", FREQUENCY_COLUMNS)) {
+            writer.add(2, 100, "A", "T", 0, new float[]{NA, NA});
+            writer.add(1, 100, "A", "T", 0, new float[]{NA, NA});
+        }
+    }
+
+    @Test(expected = VariantStore.VariantStoreException.class)
+    public void testOpenNonStoreFileThrowsException() throws Exception {
+        VariantStore.open(temporaryFolder.newFile("empty.store").toPath());
+    }
+
+    @Test
+    public void testFrequencyDao() throws Exception {
+        try (VariantStore variantStore = VariantStore.open(writeFrequencyStore())) {
+            VariantStoreFrequencyDao instance = new VariantStoreFrequencyDao(variantStore);
+
+            assertThat(instance.getFrequencyData(VariantEvaluation.builder(1, 12345, "A", "T").build()),
+                    equalTo(FrequencyData.of(RsId.valueOf(5678), Frequency.valueOf(0.1f, FrequencySource.THOUSAND_GENOMES))));
+            assertThat(instance.getFrequencyData(VariantEvaluation.builder(1, 20000, "GC", "G").build()), equalTo(FrequencyData.empty()));
+            assertThat(instance.getFrequencyData(VariantEvaluation.builder(1, 20000, "G", "C").build()), equalTo(FrequencyData.empty()));
+        }
+    }
+
+    @Test
+    public void testPathogenicityDaoOnlyScoresMissenseVariants() throws Exception {
+        Path storePath = temporaryFolder.newFile("pathogenicity.store").toPath();
+        try (VariantStoreWriter writer = new VariantStoreWriter(storePath, "pathogenicity", "1703", PATHOGENICITY_COLUMNS)) {
+            writer.add(10, 123256215, "T", "G", 0, new float[]{0.0f, 0.998f, NA});
+        }
+        try (VariantStore variantStore = VariantStore.open(storePath)) {
+            VariantStorePathogenicityDao instance = new VariantStorePathogenicityDao(variantStore);
+
+            VariantEvaluation missense = VariantEvaluation.builder(10, 123256215, "T", "G").variantEffect(VariantEffect.MISSENSE_VARIANT).build();
+            assertThat(instance.getPathogenicityData(missense), equalTo(PathogenicityData.of(SiftScore.valueOf(0.0f), PolyPhenScore.valueOf(0.998f))));
+
+            VariantEvaluation synonymous = VariantEvaluation.builder(10, 123256215, "T", "G").variantEffect(VariantEffect.SYNONYMOUS_VARIANT).build();
+            assertThat(instance.getPathogenicityData(synonymous), equalTo(PathogenicityData.empty()));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.model;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * Compares the heap usage and membership check speed of the {@link GeneIdSet} against the boxed {@code HashSet} and
+ * {@code ImmutableSet} previously used for the gene ids in the EntrezGeneIdFilter and prioritisers. The sets are made
+ * at panel and whole-genome sizes and queried with the gene ids of a genome's worth of variants.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class GeneIdSetIT {
+
+    private static final int GENES_IN_PANEL = 100;
+    private static final int GENES_IN_GENOME = 20000;
+    private static final int VARIANTS_IN_GENOME = 4000000;
+
+    private static final Random random = new Random(42);
+
+    public static void main(String[] args) {
+        int numQueries = args.length > 0 ? Integer.parseInt(args[0]) : VARIANTS_IN_GENOME;
+        int[] genomeGeneIds = makeGenomeGeneIds();
+        int[] queryIds = makeQueryIds(genomeGeneIds, numQueries);
+
+        int[] panelGeneIds = Arrays.copyOf(genomeGeneIds, GENES_IN_PANEL);
+        benchmark("panel", panelGeneIds, queryIds);
+        benchmark("genome", genomeGeneIds, queryIds);
+    }
+
+    /**
+     * Most Entrez gene ids are below 200,000 but the more recently added ones are over 100,000,000, so the genome set
+     * is mostly, but not entirely, dense.
+     */
+    private static int[] makeGenomeGeneIds() {
+        Set<Integer> geneIds = new LinkedHashSet<>(GENES_IN_GENOME);
+        while (geneIds.size() < GENES_IN_GENOME) {
+            if (random.nextInt(20) == 0) {
+                geneIds.add(100000000 + random.nextInt(30000000));
+            } else {
+                geneIds.add(1 + random.nextInt(150000));
+            }
+        }
+        return geneIds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] makeQueryIds(int[] genomeGeneIds, int numQueries) {
+        int[] queryIds = new int[numQueries];
+        for (int i = 0; i < numQueries; i++) {
+            queryIds[i] = genomeGeneIds[random.nextInt(genomeGeneIds.length)];
+        }
+        return queryIds;
+    }
+
+    private static void benchmark(String name, int[] geneIds, int[] queryIds) {
+        System.out.printf("Benchmarking %s set of %d genes with %d queries%n", name, geneIds.length, queryIds.length);
+
+        long usedBefore = usedMemory();
+        Set<Integer> hashSet = new HashSet<>();
+        for (int geneId : geneIds) {
+            hashSet.add(geneId);
+        }
+        long hashSetBytes = usedMemory() - usedBefore;
+
+        usedBefore = usedMemory();
+        Set<Integer> immutableSet = Arrays.stream(geneIds).boxed().collect(ImmutableSet.toImmutableSet());
+        long immutableSetBytes = usedMemory() - usedBefore;
+
+        usedBefore = usedMemory();
+        GeneIdSet geneIdSet = GeneIdSet.of(geneIds);
+        long geneIdSetBytes = usedMemory() - usedBefore;
+
+        //run each a few times to let the JIT warm up - the last run is the one to look at
+        for (int run = 0; run < 3; run++) {
+            timeQueries("HashSet", hashSetBytes, hashSet::contains, queryIds);
+            timeQueries("ImmutableSet", immutableSetBytes, immutableSet::contains, queryIds);
+            timeQueries("GeneIdSet", geneIdSetBytes, geneIdSet::contains, queryIds);
+        }
+    }
+
+    private static void timeQueries(String name, long bytes, IntPredicate contains, int[] queryIds) {
+        long start = System.nanoTime();
+        int found = 0;
+        for (int queryId : queryIds) {
+            if (contains.test(queryId)) {
+                found++;
+            }
+        }
+        long end = System.nanoTime();
+        System.out.printf("%s: %d bytes - took %dms for %d queries (%d found)%n", name, bytes, (end - start) / 1000000, queryIds.length, found);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.model;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class GeneIdSetTest {
+
+    @Test
+    public void testEmpty() {
+        GeneIdSet instance = GeneIdSet.of();
+        assertThat(instance, sameInstance(GeneIdSet.empty()));
+        assertThat(instance.isEmpty(), is(true));
+        assertThat(instance.contains(0), is(false));
+    }
+
+    @Test
+    public void testContainsSparseIds() {
+        //these are too far apart for a bitset
+        GeneIdSet instance = GeneIdSet.of(2263, 100507436, 341640);
+        assertThat(instance.size(), equalTo(3));
+        assertThat(instance.contains(2263), is(true));
+        assertThat(instance.contains(341640), is(true));
+        assertThat(instance.contains(100507436), is(true));
+        assertThat(instance.contains(2264), is(false));
+        assertThat(instance.contains(0), is(false));
+        assertThat(instance.contains(-1), is(false));
+    }
+
+    @Test
+    public void testContainsDenseIds() {
+        int[] ids = new int[200];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1000 + i * 2;
+        }
+        GeneIdSet instance = GeneIdSet.of(ids);
+        assertThat(instance.size(), equalTo(200));
+        for (int i = 0; i < ids.length; i++) {
+            assertThat(instance.contains(1000 + i * 2), is(true));
+            assertThat(instance.contains(1000 + i * 2 + 1), is(false));
+        }
+        assertThat(instance.contains(999), is(false));
+        assertThat(instance.contains(998), is(false));
+        assertThat(instance.contains(Integer.MAX_VALUE), is(false));
+        assertThat(instance.contains(Integer.MIN_VALUE), is(false));
+    }
+
+    @Test
+    public void testContainsObject() {
+        GeneIdSet instance = GeneIdSet.of(1, 2, 3);
+        assertThat(instance.contains(Integer.valueOf(2)), is(true));
+        assertThat(instance.contains((Object) null), is(false));
+        assertThat(instance.contains("2"), is(false));
+    }
+
+    @Test
+    public void testDuplicatesRemoved() {
+        GeneIdSet instance = GeneIdSet.of(3, 1, 3, 2, 1);
+        assertThat(instance.size(), equalTo(3));
+    }
+
+    @Test
+    public void testIteratesInAscendingOrder() {
+        GeneIdSet instance = GeneIdSet.of(30, 10, 20);
+        List<Integer> ids = instance.stream().collect(Collectors.toList());
+        assertThat(ids, equalTo(Arrays.asList(10, 20, 30)));
+        assertThat(instance.intStream().boxed().collect(Collectors.toList()), equalTo(ids));
+    }
+
+    @Test
+    public void testCopyOf() {
+        Set<Integer> geneIds = new HashSet<>(Arrays.asList(1, 5, 1000));
+        GeneIdSet instance = GeneIdSet.copyOf(geneIds);
+        assertThat(instance, equalTo(geneIds));
+        assertThat(GeneIdSet.copyOf(instance), sameInstance(instance));
+    }
+
+    @Test
+    public void testEqualsAndHashCodeSameAsOtherSets() {
+        Set<Integer> other = ImmutableSet.of(12345, 2263, 1);
+        GeneIdSet instance = GeneIdSet.of(1, 2263, 12345);
+        assertThat(instance, equalTo(other));
+        assertThat(other, equalTo(instance));
+        assertThat(instance.hashCode(), equalTo(other.hashCode()));
+        assertThat(instance, equalTo(GeneIdSet.of(12345, 2263, 1)));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCannotAdd() {
+        GeneIdSet.of(1).add(2);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCannotRemoveUsingIterator() {
+        GeneIdSet instance = GeneIdSet.of(1);
+        instance.iterator().next();
+        instance.iterator().remove();
+    }
+
+    @Test
+    public void testToString() {
+        assertThat(GeneIdSet.of(2, 1).toString(), equalTo("[1, 2]"));
+    }
+}
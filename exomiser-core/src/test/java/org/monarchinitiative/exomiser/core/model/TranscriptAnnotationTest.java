@@ -24,6 +24,8 @@
 import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -117,4 +119,68 @@ public void testToString() {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    public void testTranscriptFeatureIsShared() {
+        TranscriptFeature transcriptFeature = TranscriptFeature.of(VariantEffect.MISSENSE_VARIANT, "FGFR2", "uc021pzz.1");
+        TranscriptAnnotation first = TranscriptAnnotation.builder()
+                .transcriptFeature(transcriptFeature)
+                .hgvsCdna("c.1694A>C")
+                .build();
+        TranscriptAnnotation second = TranscriptAnnotation.builder()
+                .transcriptFeature(transcriptFeature)
+                .hgvsCdna("c.1695G>C")
+                .build();
+        assertThat(first.getTranscriptFeature(), sameInstance(second.getTranscriptFeature()));
+        assertThat(first.getVariantEffect(), equalTo(VariantEffect.MISSENSE_VARIANT));
+        assertThat(first.getGeneSymbol(), equalTo("FGFR2"));
+        assertThat(first.getAccession(), equalTo("uc021pzz.1"));
+        assertThat(first.getHgvsCdna(), equalTo("c.1694A>C"));
+        assertThat(second.getHgvsCdna(), equalTo("c.1695G>C"));
+    }
+
+    @Test
+    public void testFieldSetAfterTranscriptFeatureOverridesSharedInstance() {
+        TranscriptFeature transcriptFeature = TranscriptFeature.of(VariantEffect.MISSENSE_VARIANT, "FGFR2", "uc021pzz.1");
+        TranscriptAnnotation annotation = TranscriptAnnotation.builder()
+                .transcriptFeature(transcriptFeature)
+                .geneSymbol("SHH")
+                .build();
+        assertThat(annotation.getTranscriptFeature(), equalTo(TranscriptFeature.of(VariantEffect.MISSENSE_VARIANT, "SHH", "uc021pzz.1")));
+    }
+
+    @Test
+    public void testEqualsWithSharedAndUnsharedFeatures() {
+        TranscriptAnnotation shared = TranscriptAnnotation.builder()
+                .transcriptFeature(TranscriptFeature.of(VariantEffect.MISSENSE_VARIANT, "FGFR2", "uc021pzz.1"))
+                .distanceFromNearestGene(0)
+                .hgvsProtein("p.(Glu565Ala)")
+                .build();
+        TranscriptAnnotation unshared = TranscriptAnnotation.builder()
+                .variantEffect(VariantEffect.MISSENSE_VARIANT)
+                .geneSymbol("FGFR2")
+                .accession("uc021pzz.1")
+                .distanceFromNearestGene(0)
+                .hgvsProtein("p.(Glu565Ala)")
+                .build();
+        assertThat(shared, equalTo(unshared));
+        assertThat(shared.hashCode(), equalTo(unshared.hashCode()));
+    }
+
+    @Test
+    public void testDistanceFromNearestGeneIsNotPartOfSharedFeature() {
+        TranscriptFeature transcriptFeature = TranscriptFeature.of(VariantEffect.UPSTREAM_GENE_VARIANT, "FGFR2", "uc021pzz.1");
+        TranscriptAnnotation near = TranscriptAnnotation.builder()
+                .transcriptFeature(transcriptFeature)
+                .distanceFromNearestGene(100)
+                .build();
+        TranscriptAnnotation far = TranscriptAnnotation.builder()
+                .transcriptFeature(transcriptFeature)
+                .distanceFromNearestGene(2000)
+                .build();
+        assertThat(near.getTranscriptFeature(), sameInstance(far.getTranscriptFeature()));
+        assertThat(near.getDistanceFromNearestGene(), equalTo(100));
+        assertThat(far.getDistanceFromNearestGene(), equalTo(2000));
+        assertThat(near, not(equalTo(far)));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.model.frequency;
+
+import com.google.common.collect.Maps;
+
+import java.util.*;
+
+/**
+ * Compares the heap usage and getMaxFreq() speed of the array-backed {@link FrequencyData} against the EnumMap of
+ * {@link Frequency} objects previously used to hold the data.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class FrequencyDataIT {
+
+    private static final int VARIANTS_IN_EXOME = 40000;
+    private static final int VARIANTS_IN_GENOME = 4000000;
+
+    public static void main(String[] args) {
+        int numVariants = args.length > 0 ? Integer.parseInt(args[0]) : VARIANTS_IN_EXOME;
+        System.out.printf("Benchmarking %d variants with %d frequencies each%n", numVariants, FrequencySource.ALL_EXTERNAL_FREQ_SOURCES.size());
+
+        long usedBefore = usedMemory();
+        List<Map<FrequencySource, Frequency>> frequencyMaps = createFrequencyMaps(numVariants);
+        long mapBytes = usedMemory() - usedBefore;
+        System.out.printf("EnumMap: %d bytes per variant%n", mapBytes / numVariants);
+        timeMaxFrequencyMaps(frequencyMaps);
+        frequencyMaps = null;
+
+        usedBefore = usedMemory();
+        List<FrequencyData> frequencyData = createFrequencyData(numVariants);
+        long arrayBytes = usedMemory() - usedBefore;
+        System.out.printf("FrequencyData: %d bytes per variant%n", arrayBytes / numVariants);
+        timeMaxFrequencyData(frequencyData);
+
+        System.out.printf("Saved %d bytes per variant (%.1f%%) - %d MB for %d variants%n", (mapBytes - arrayBytes) / numVariants, 100d * (mapBytes - arrayBytes) / mapBytes, (mapBytes - arrayBytes) * VARIANTS_IN_GENOME / numVariants / (1024 * 1024), VARIANTS_IN_GENOME);
+    }
+
+    private static List<Map<FrequencySource, Frequency>> createFrequencyMaps(int numVariants) {
+        List<Map<FrequencySource, Frequency>> frequencyMaps = new ArrayList<>(numVariants);
+        for (int i = 0; i < numVariants; i++) {
+            Map<FrequencySource, Frequency> frequencies = new EnumMap<>(FrequencySource.class);
+            for (FrequencySource source : FrequencySource.ALL_EXTERNAL_FREQ_SOURCES) {
+                frequencies.put(source, Frequency.valueOf(getRandomPercentage(), source));
+            }
+            frequencyMaps.add(Maps.immutableEnumMap(frequencies));
+        }
+        return frequencyMaps;
+    }
+
+    private static List<FrequencyData> createFrequencyData(int numVariants) {
+        List<FrequencyData> frequencyData = new ArrayList<>(numVariants);
+        List<Frequency> frequencies = new ArrayList<>();
+        for (int i = 0; i < numVariants; i++) {
+            frequencies.clear();
+            for (FrequencySource source : FrequencySource.ALL_EXTERNAL_FREQ_SOURCES) {
+                frequencies.add(Frequency.valueOf(getRandomPercentage(), source));
+            }
+            frequencyData.add(FrequencyData.of(RsId.valueOf(i + 1), frequencies));
+        }
+        return frequencyData;
+    }
+
+    private static void timeMaxFrequencyMaps(List<Map<FrequencySource, Frequency>> frequencyMaps) {
+        long start = System.nanoTime();
+        float total = 0;
+        for (Map<FrequencySource, Frequency> frequencies : frequencyMaps) {
+            float maxFreq = 0f;
+            for (Frequency frequency : frequencies.values()) {
+                maxFreq = Math.max(maxFreq, frequency.getFrequency());
+            }
+            total += maxFreq;
+        }
+        long end = System.nanoTime();
+        System.out.printf("EnumMap: took %dms to find max frequency for %d variants (%f)%n", (end - start) / 1000000, frequencyMaps.size(), total);
+    }
+
+    private static void timeMaxFrequencyData(List<FrequencyData> frequencyData) {
+        long start = System.nanoTime();
+        float total = 0;
+        for (FrequencyData data : frequencyData) {
+            total += data.getMaxFreq();
+        }
+        long end = System.nanoTime();
+        System.out.printf("FrequencyData: took %dms to find max frequency for %d variants (%f)%n", (end - start) / 1000000, frequencyData.size(), total);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static float getRandomPercentage() {
+        return (float) Math.random() * 100;
+    }
+}
@@ -29,11 +29,13 @@
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.monarchinitiative.exomiser.core.model.frequency.FrequencySource.*;
 
@@ -251,4 +253,25 @@ public void testGetScore_rareVariant() {
         FrequencyData instance = FrequencyData.of(RsId.empty(), maxFrequency);
         assertThat(instance.getScore(), equalTo(0.9857672f));
     }
+
+    @Test
+    public void testGetFrequencyForSourceWithGapsInSources() {
+        Frequency local = Frequency.valueOf(0.5f, LOCAL);
+        Frequency espAll = Frequency.valueOf(2f, ESP_ALL);
+        Frequency exacOther = Frequency.valueOf(0.1f, EXAC_OTHER);
+        FrequencyData instance = FrequencyData.of(RSID, exacOther, local, espAll);
+        assertThat(instance.getFrequencyForSource(LOCAL), equalTo(local));
+        assertThat(instance.getFrequencyForSource(ESP_ALL), equalTo(espAll));
+        assertThat(instance.getFrequencyForSource(EXAC_OTHER), equalTo(exacOther));
+        assertThat(instance.getFrequencyForSource(THOUSAND_GENOMES), nullValue());
+        assertThat(instance.getKnownFrequencies(), equalTo(Arrays.asList(local, espAll, exacOther)));
+    }
+
+    @Test
+    public void testLastFrequencyForSourceIsUsed() {
+        Frequency first = Frequency.valueOf(0.5f, LOCAL);
+        Frequency last = Frequency.valueOf(1.5f, LOCAL);
+        FrequencyData instance = FrequencyData.of(RSID, first, last);
+        assertThat(instance.getKnownFrequencies(), equalTo(Collections.singletonList(last)));
+    }
 }
@@ -0,0 +1,113 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.core.model.pathogenicity;
+
+import java.util.*;
+
+/**
+ * Compares the heap usage and getMostPathogenicScore() speed of the array-backed {@link PathogenicityData} against
+ * the EnumMap of {@link PathogenicityScore} objects previously used to hold the data.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class PathogenicityDataIT {
+
+    private static final int VARIANTS_IN_EXOME = 40000;
+    private static final int VARIANTS_IN_GENOME = 4000000;
+
+    public static void main(String[] args) {
+        int numVariants = args.length > 0 ? Integer.parseInt(args[0]) : VARIANTS_IN_EXOME;
+        System.out.printf("Benchmarking %d variants with SIFT, PolyPhen, MutationTaster and CADD scores%n", numVariants);
+
+        long usedBefore = usedMemory();
+        List<Map<PathogenicitySource, PathogenicityScore>> scoreMaps = createScoreMaps(numVariants);
+        long mapBytes = usedMemory() - usedBefore;
+        System.out.printf("EnumMap: %d bytes per variant%n", mapBytes / numVariants);
+        timeMostPathogenicScoreMaps(scoreMaps);
+        scoreMaps = null;
+
+        usedBefore = usedMemory();
+        List<PathogenicityData> pathogenicityData = createPathogenicityData(numVariants);
+        long arrayBytes = usedMemory() - usedBefore;
+        System.out.printf("PathogenicityData: %d bytes per variant%n", arrayBytes / numVariants);
+        timeMostPathogenicScoreData(pathogenicityData);
+
+        System.out.printf("Saved %d bytes per variant (%.1f%%) - %d MB for %d variants%n", (mapBytes - arrayBytes) / numVariants, 100d * (mapBytes - arrayBytes) / mapBytes, (mapBytes - arrayBytes) * VARIANTS_IN_GENOME / numVariants / (1024 * 1024), VARIANTS_IN_GENOME);
+    }
+
+    private static List<PathogenicityScore> createScores() {
+        return Arrays.asList(SiftScore.valueOf(getRandomScore()), PolyPhenScore.valueOf(getRandomScore()), MutationTasterScore.valueOf(getRandomScore()), CaddScore.valueOf(getRandomScore() * 40));
+    }
+
+    private static List<Map<PathogenicitySource, PathogenicityScore>> createScoreMaps(int numVariants) {
+        List<Map<PathogenicitySource, PathogenicityScore>> scoreMaps = new ArrayList<>(numVariants);
+        for (int i = 0; i < numVariants; i++) {
+            Map<PathogenicitySource, PathogenicityScore> scores = new EnumMap<>(PathogenicitySource.class);
+            for (PathogenicityScore score : createScores()) {
+                scores.put(score.getSource(), score);
+            }
+            scoreMaps.add(scores);
+        }
+        return scoreMaps;
+    }
+
+    private static List<PathogenicityData> createPathogenicityData(int numVariants) {
+        List<PathogenicityData> pathogenicityData = new ArrayList<>(numVariants);
+        for (int i = 0; i < numVariants; i++) {
+            pathogenicityData.add(PathogenicityData.of(createScores()));
+        }
+        return pathogenicityData;
+    }
+
+    private static void timeMostPathogenicScoreMaps(List<Map<PathogenicitySource, PathogenicityScore>> scoreMaps) {
+        long start = System.nanoTime();
+        float total = 0;
+        for (Map<PathogenicitySource, PathogenicityScore> scores : scoreMaps) {
+            List<PathogenicityScore> knownPathScores = new ArrayList<>(scores.values());
+            Collections.sort(knownPathScores);
+            total += knownPathScores.get(0).getScore();
+        }
+        long end = System.nanoTime();
+        System.out.printf("EnumMap: took %dms to find most pathogenic score for %d variants (%f)%n", (end - start) / 1000000, scoreMaps.size(), total);
+    }
+
+    private static void timeMostPathogenicScoreData(List<PathogenicityData> pathogenicityData) {
+        long start = System.nanoTime();
+        float total = 0;
+        for (PathogenicityData data : pathogenicityData) {
+            total += data.getMostPathogenicScore().getScore();
+        }
+        long end = System.nanoTime();
+        System.out.printf("PathogenicityData: took %dms to find most pathogenic score for %d variants (%f)%n", (end - start) / 1000000, pathogenicityData.size(), total);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static float getRandomScore() {
+        return (float) Math.random();
+    }
+}
@@ -85,6 +85,18 @@ public void testPathogenicityData_RemovesNullsUsedInConstructor() {
         assertThat(instance.getPredictedPathogenicityScores().size(), equalTo(1));
     }
     
+    @Test
+    public void testPathogenicityData_AcceptsSourceWithoutScoreType() {
+        PathogenicityScore variantTypeScore = new BasePathogenicityScore(1f, PathogenicitySource.VARIANT_TYPE) {};
+        PathogenicityData instance = PathogenicityData.of(POLYPHEN_FAIL, variantTypeScore);
+
+        PathogenicityScore result = instance.getPredictedScore(PathogenicitySource.VARIANT_TYPE);
+        assertThat(result.getSource(), equalTo(PathogenicitySource.VARIANT_TYPE));
+        assertThat(result.getScore(), equalTo(1f));
+        assertThat(instance.getPredictedPathogenicityScores().size(), equalTo(2));
+        assertThat(instance.getMostPathogenicScore().getSource(), equalTo(PathogenicitySource.VARIANT_TYPE));
+    }
+
     @Test
     public void testGetMostPathogenicScore_ReturnsNullWhenNoScorePresent() {
         PathogenicityScore mostPathogenicScore = PathogenicityData.empty().getMostPathogenicScore();
@@ -272,4 +284,19 @@ public void testToString() {
         PathogenicityData instance = PathogenicityData.of(MTASTER_FAIL, POLYPHEN_PASS, SIFT_PASS);
         System.out.println(instance);
     }
+
+    @Test
+    public void testGetMostPathogenicScoreTiesReturnFirstInSourceOrder() {
+        PathogenicityScore polyPhen = PolyPhenScore.valueOf(0.8f);
+        PathogenicityScore cadd = CaddScore.valueOf(0.8f);
+        PathogenicityData instance = PathogenicityData.of(cadd, polyPhen);
+        assertThat(instance.getMostPathogenicScore(), equalTo(polyPhen));
+    }
+
+    @Test
+    public void testGetPredictedPathogenicityScoresAreInSourceOrder() {
+        PathogenicityScore remm = RemmScore.valueOf(0.2f);
+        PathogenicityData instance = PathogenicityData.of(remm, SIFT_PASS, POLYPHEN_PASS);
+        assertThat(instance.getPredictedPathogenicityScores(), equalTo(Arrays.asList(POLYPHEN_PASS, SIFT_PASS, remm)));
+    }
 }
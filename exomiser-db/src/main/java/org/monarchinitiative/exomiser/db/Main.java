@@ -24,7 +24,10 @@
 import org.monarchinitiative.exomiser.db.config.AppConfig;
 import org.monarchinitiative.exomiser.db.config.DataSourceConfig;
 import org.monarchinitiative.exomiser.db.config.ResourceConfig;
+import org.monarchinitiative.exomiser.db.io.KnownGeneTableBuilder;
 import org.monarchinitiative.exomiser.db.io.PhenodigmDataDumper;
+import org.monarchinitiative.exomiser.db.io.VariantBloomFilterBuilder;
+import org.monarchinitiative.exomiser.db.io.VariantStoreBuilder;
 import org.monarchinitiative.exomiser.db.resources.Resource;
 import org.monarchinitiative.exomiser.db.resources.ResourceDownloadHandler;
 import org.monarchinitiative.exomiser.db.resources.ResourceExtractionHandler;
@@ -119,6 +122,38 @@ public void run(ApplicationArguments applicationArguments) {
             logger.info("Skipping making Phenodigm data dump files.");
         }
 
+        //build the embedded variant stores from the frequency and pathogenicity dump files
+        boolean buildVariantStores = appConfig.buildVariantStores();
+        if (buildVariantStores) {
+            logger.info("Building variant stores...");
+            String release = appConfig.dataRelease();
+            VariantStoreBuilder.buildFrequencyStore(dataPath.resolve("frequency.pg"), dataPath.resolve("frequency.store"), release);
+            VariantStoreBuilder.buildPathogenicityStore(dataPath.resolve("variant.pg"), dataPath.resolve("pathogenicity.store"), release);
+        } else {
+            logger.info("Skipping building variant stores.");
+        }
+
+        //build the bloom filters used to skip queries for variants absent from the frequency and variant tables
+        boolean buildBloomFilters = appConfig.buildBloomFilters();
+        if (buildBloomFilters) {
+            logger.info("Building bloom filters...");
+            String release = appConfig.dataRelease();
+            double fpp = appConfig.bloomFilterFpp();
+            VariantBloomFilterBuilder.buildBloomFilter(dataPath.resolve("frequency.pg"), dataPath.resolve("frequency.bloom"), "frequency", release, fpp);
+            VariantBloomFilterBuilder.buildBloomFilter(dataPath.resolve("variant.pg"), dataPath.resolve("pathogenicity.bloom"), "pathogenicity", release, fpp);
+        } else {
+            logger.info("Skipping building bloom filters.");
+        }
+
+        //build the known gene table read by the exomiser on startup
+        boolean buildKnownGeneTable = appConfig.buildKnownGeneTable();
+        if (buildKnownGeneTable) {
+            logger.info("Building known gene table...");
+            KnownGeneTableBuilder.buildKnownGeneTable(appConfig.transcriptDataPath(), appConfig.dataRelease());
+        } else {
+            logger.info("Skipping building known gene table.");
+        }
+
         logger.info("Migrating exomiser databases...");
         //define where the data import path is otherwise everything will fail
         Map<String, String> propertyPlaceHolders = new HashMap<>();
@@ -178,4 +178,44 @@ public boolean migrateH2() {
         logger.info("Setting application to migrate H2 database: {}", migrateH2);
         return migrateH2;
     }
+
+    @Bean
+    public boolean buildVariantStores() {
+        boolean buildVariantStores = Boolean.parseBoolean(env.getProperty("buildVariantStores"));
+        logger.info("Setting application to build variant stores: {}", buildVariantStores);
+        return buildVariantStores;
+    }
+
+    @Bean
+    public boolean buildBloomFilters() {
+        boolean buildBloomFilters = Boolean.parseBoolean(env.getProperty("buildBloomFilters"));
+        logger.info("Setting application to build bloom filters: {}", buildBloomFilters);
+        return buildBloomFilters;
+    }
+
+    @Bean
+    public double bloomFilterFpp() {
+        double bloomFilterFpp = Double.parseDouble(env.getProperty("bloomFilterFpp", "0.01"));
+        logger.info("Setting bloom filter false-positive probability: {}", bloomFilterFpp);
+        return bloomFilterFpp;
+    }
+
+    @Bean
+    public boolean buildKnownGeneTable() {
+        boolean buildKnownGeneTable = Boolean.parseBoolean(env.getProperty("buildKnownGeneTable"));
+        logger.info("Setting application to build known gene table: {}", buildKnownGeneTable);
+        return buildKnownGeneTable;
+    }
+
+    @Bean
+    public Path transcriptDataPath() {
+        Path transcriptDataPath = Paths.get(env.getProperty("transcriptDataPath", ""));
+        logger.info("Jannovar transcript data file set to: {}", transcriptDataPath.toAbsolutePath());
+        return transcriptDataPath;
+    }
+
+    @Bean
+    public String dataRelease() {
+        return env.getProperty("dataRelease", "");
+    }
 }
@@ -0,0 +1,65 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.db.io;
+
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.JannovarDataSerializer;
+import de.charite.compbio.jannovar.data.SerializationException;
+import org.monarchinitiative.exomiser.core.genome.KnownGeneTable;
+import org.monarchinitiative.exomiser.core.genome.KnownGeneTableIO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+
+/**
+ * Builds the {@link KnownGeneTable} for a Jannovar transcript data file and writes it alongside the transcript data,
+ * tagged with the data release, where it is read by the exomiser on startup.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class KnownGeneTableBuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnownGeneTableBuilder.class);
+
+    private KnownGeneTableBuilder() {
+        //static utility class
+    }
+
+    /**
+     * Builds the known gene table from the transcript data file, e.g. hg19_ucsc.ser, and writes it to the path given
+     * by {@link KnownGeneTableIO#tablePathFor(Path)}, e.g. hg19_ucsc_genes.tsv.
+     *
+     * @return the table written alongside the transcript data
+     */
+    public static KnownGeneTable buildKnownGeneTable(Path transcriptFilePath, String release) {
+        logger.info("Building known gene table from {}", transcriptFilePath);
+        JannovarData jannovarData;
+        try {
+            jannovarData = new JannovarDataSerializer(transcriptFilePath.toString()).load();
+        } catch (SerializationException e) {
+            throw new IllegalStateException("Unable to load Jannovar data from " + transcriptFilePath, e);
+        }
+        KnownGeneTable knownGeneTable = KnownGeneTable.fromJannovarData(jannovarData);
+        KnownGeneTableIO.write(knownGeneTable, KnownGeneTableIO.tablePathFor(transcriptFilePath), release);
+        return knownGeneTable;
+    }
+}
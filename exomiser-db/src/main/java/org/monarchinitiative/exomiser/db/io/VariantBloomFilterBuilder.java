@@ -0,0 +1,88 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.db.io;
+
+import org.monarchinitiative.exomiser.core.genome.dao.VariantBloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Builds a {@link VariantBloomFilter} of the alleles in a pipe-delimited frequency.pg or variant.pg dump file. These
+ * both start with the chromosome, position, ref and alt columns.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantBloomFilterBuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantBloomFilterBuilder.class);
+
+    private static final Pattern PIPE = Pattern.compile("\\|");
+
+    private VariantBloomFilterBuilder() {
+        //static utility class
+    }
+
+    /**
+     * Builds a bloom filter of all the alleles in the dump file and writes it to the output path. The dump file is
+     * read twice - once to count the rows to size the filter and once to fill it.
+     *
+     * @param fpp the desired false-positive probability, e.g. 0.01
+     * @return the filter written to the output path
+     */
+    public static VariantBloomFilter buildBloomFilter(Path dumpFile, Path outputPath, String type, String release, double fpp) {
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("False-positive probability must be between 0 and 1 but was " + fpp);
+        }
+        logger.info("Building {} bloom filter {} from {}", type, outputPath, dumpFile);
+        try {
+            long numRows = countRows(dumpFile);
+            VariantBloomFilter bloomFilter = VariantBloomFilter.create(type, release, numRows, fpp);
+            try (BufferedReader reader = Files.newBufferedReader(dumpFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        String[] fields = PIPE.split(line, 5);
+                        bloomFilter.put(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), fields[2], fields[3]);
+                    }
+                }
+            }
+            bloomFilter.writeTo(outputPath);
+            logger.info("Written {}", bloomFilter);
+            return bloomFilter;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to build bloom filter from " + dumpFile, e);
+        }
+    }
+
+    private static long countRows(Path dumpFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(dumpFile, StandardCharsets.UTF_8)) {
+            return reader.lines().filter(line -> !line.isEmpty()).count();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * The Exomiser - A tool to annotate and prioritize genomic variants
+ *
+ * Copyright (c) 2016-2017 Queen Mary University of London.
+ * Copyright (c) 2012-2016 Charité Universitätsmedizin Berlin and Genome Research Ltd.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.monarchinitiative.exomiser.db.io;
+
+import org.monarchinitiative.exomiser.core.genome.dao.VariantStoreWriter;
+import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
+import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the embedded variant stores read by the exomiser-core VariantStoreFrequencyDao and
+ * VariantStorePathogenicityDao from the pipe-delimited frequency.pg and variant.pg dump files used to populate the
+ * database frequency and variant tables.
+ * <p>
+ * The dump files are first split into one temporary file per chromosome, so that only one chromosome at a time needs
+ * to be held in memory for sorting. Rows for the same alleles are merged in the same way as the database DAOs select
+ * them.
+ *
+ * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
+ */
+public class VariantStoreBuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantStoreBuilder.class);
+
+    private static final Pattern PIPE = Pattern.compile("\\|");
+
+    /**
+     * frequency.pg columns: chromosome|position|ref|alt|rsid|dbSNPmaf|espEA|espAA|espAll|exacAFR|exacAMR|exacEAS|exacFIN|exacNFE|exacOTH|exacSAS
+     */
+    public static final List<String> FREQUENCY_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+            FrequencySource.THOUSAND_GENOMES.name(),
+            FrequencySource.ESP_EUROPEAN_AMERICAN.name(),
+            FrequencySource.ESP_AFRICAN_AMERICAN.name(),
+            FrequencySource.ESP_ALL.name(),
+            FrequencySource.EXAC_AFRICAN_INC_AFRICAN_AMERICAN.name(),
+            FrequencySource.EXAC_AMERICAN.name(),
+            FrequencySource.EXAC_EAST_ASIAN.name(),
+            FrequencySource.EXAC_FINNISH.name(),
+            FrequencySource.EXAC_NON_FINNISH_EUROPEAN.name(),
+            FrequencySource.EXAC_OTHER.name(),
+            FrequencySource.EXAC_SOUTH_ASIAN.name()
+    ));
+
+    /**
+     * variant.pg columns: chromosome|position|ref|alt|sift|polyphen|mut_taster|cadd_raw_rank|cadd_raw
+     */
+    public static final List<String> PATHOGENICITY_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+            PathogenicitySource.SIFT.name(),
+            PathogenicitySource.POLYPHEN.name(),
+            PathogenicitySource.MUTATION_TASTER.name()
+    ));
+
+    private VariantStoreBuilder() {
+        //static utility class
+    }
+
+    /**
+     * Builds a frequency store from a frequency.pg dump file.
+     *
+     * @return the number of records written to the store
+     */
+    public static long buildFrequencyStore(Path frequencyDumpFile, Path storePath, String release) {
+        RowFormat rowFormat = new RowFormat(4, 5, FREQUENCY_COLUMNS.size(), true);
+        return build(frequencyDumpFile, storePath, "frequency", release, FREQUENCY_COLUMNS, rowFormat, VariantStoreBuilder::highestFrequencyRecord);
+    }
+
+    /**
+     * Builds a pathogenicity store from a variant.pg dump file.
+     *
+     * @return the number of records written to the store
+     */
+    public static long buildPathogenicityStore(Path pathogenicityDumpFile, Path storePath, String release) {
+        RowFormat rowFormat = new RowFormat(-1, 4, PATHOGENICITY_COLUMNS.size(), false);
+        return build(pathogenicityDumpFile, storePath, "pathogenicity", release, PATHOGENICITY_COLUMNS, rowFormat, VariantStoreBuilder::mostPathogenicScores);
+    }
+
+    private static long build(Path dumpFile, Path storePath, String type, String release, List<String> columns, RowFormat rowFormat, BinaryOperator<StoreRecord> duplicateMerger) {
+        logger.info("Building {} variant store {} from {}", type, storePath, dumpFile);
+        Path tempDir = null;
+        try {
+            tempDir = Files.createTempDirectory("exomiser-variant-store");
+            SortedMap<Integer, Path> chromosomeFiles = splitByChromosome(dumpFile, tempDir);
+            try (VariantStoreWriter writer = new VariantStoreWriter(storePath, type, release, columns)) {
+                for (Map.Entry<Integer, Path> entry : chromosomeFiles.entrySet()) {
+                    writeChromosome(entry.getKey(), entry.getValue(), rowFormat, duplicateMerger, writer);
+                }
+                logger.info("Written {} records to {} variant store {}", writer.getNumRecords(), type, storePath);
+                return writer.getNumRecords();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to build variant store from " + dumpFile, e);
+        } finally {
+            deleteQuietly(tempDir);
+        }
+    }
+
+    private static SortedMap<Integer, Path> splitByChromosome(Path dumpFile, Path tempDir) throws IOException {
+        SortedMap<Integer, Path> chromosomeFiles = new TreeMap<>();
+        Map<Integer, BufferedWriter> writers = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(dumpFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int chromosome = Integer.parseInt(line.substring(0, line.indexOf('|')));
+                BufferedWriter writer = writers.get(chromosome);
+                if (writer == null) {
+                    Path chromosomeFile = tempDir.resolve("chr" + chromosome + ".pg");
+                    chromosomeFiles.put(chromosome, chromosomeFile);
+                    writer = Files.newBufferedWriter(chromosomeFile, StandardCharsets.UTF_8);
+                    writers.put(chromosome, writer);
+                }
+                writer.write(line);
+                writer.newLine();
+            }
+        } finally {
+            for (BufferedWriter writer : writers.values()) {
+                writer.close();
+            }
+        }
+        return chromosomeFiles;
+    }
+
+    private static void writeChromosome(int chromosome, Path chromosomeFile, RowFormat rowFormat, BinaryOperator<StoreRecord> duplicateMerger, VariantStoreWriter writer) throws IOException {
+        List<StoreRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(chromosomeFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                records.add(parseRecord(line, rowFormat));
+            }
+        }
+        records.sort(StoreRecord.ALLELE_ORDER);
+        logger.info("Writing {} rows for chromosome {}", records.size(), chromosome);
+        StoreRecord current = null;
+        for (StoreRecord record : records) {
+            if (current != null && current.isSameAlleles(record)) {
+                current = duplicateMerger.apply(current, record);
+            } else {
+                if (current != null) {
+                    writer.add(chromosome, current.position, current.ref, current.alt, current.rsId, current.values);
+                }
+                current = record;
+            }
+        }
+        if (current != null) {
+            writer.add(chromosome, current.position, current.ref, current.alt, current.rsId, current.values);
+        }
+    }
+
+    private static StoreRecord parseRecord(String line, RowFormat rowFormat) {
+        String[] fields = PIPE.split(line, -1);
+        int position = Integer.parseInt(fields[1]);
+        int rsId = rowFormat.rsIdField < 0 ? 0 : parseRsId(fields[rowFormat.rsIdField]);
+        float[] values = new float[rowFormat.numValues];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = parseValue(fields[rowFormat.firstValueField + i], rowFormat.zeroIsMissing);
+        }
+        return new StoreRecord(position, fields[2], fields[3], rsId, values);
+    }
+
+    private static int parseRsId(String field) {
+        if (field.isEmpty() || "null".equals(field)) {
+            return 0;
+        }
+        return Integer.parseInt(field);
+    }
+
+    private static float parseValue(String field, boolean zeroIsMissing) {
+        if (field.isEmpty() || "null".equals(field) || "\\N".equals(field)) {
+            return Float.NaN;
+        }
+        float value = Float.parseFloat(field);
+        if (zeroIsMissing && value == 0) {
+            return Float.NaN;
+        }
+        return value;
+    }
+
+    /**
+     * The DefaultFrequencyDao takes the row with the highest dbSNP, then ESP frequencies when there are duplicates.
+     */
+    private static StoreRecord highestFrequencyRecord(StoreRecord a, StoreRecord b) {
+        for (int i = 0; i < 4; i++) {
+            float aValue = Float.isNaN(a.values[i]) ? 0 : a.values[i];
+            float bValue = Float.isNaN(b.values[i]) ? 0 : b.values[i];
+            if (aValue != bValue) {
+                return aValue > bValue ? a : b;
+            }
+        }
+        return a;
+    }
+
+    /**
+     * The DefaultPathogenicityDao takes the lowest SIFT and highest PolyPhen and MutationTaster scores when there are
+     * duplicates.
+     */
+    private static StoreRecord mostPathogenicScores(StoreRecord a, StoreRecord b) {
+        float[] merged = new float[a.values.length];
+        for (int i = 0; i < merged.length; i++) {
+            if (Float.isNaN(a.values[i])) {
+                merged[i] = b.values[i];
+            } else if (Float.isNaN(b.values[i])) {
+                merged[i] = a.values[i];
+            } else if (PATHOGENICITY_COLUMNS.get(i).equals(PathogenicitySource.SIFT.name())) {
+                merged[i] = Math.min(a.values[i], b.values[i]);
+            } else {
+                merged[i] = Math.max(a.values[i], b.values[i]);
+            }
+        }
+        return new StoreRecord(a.position, a.ref, a.alt, a.rsId, merged);
+    }
+
+    private static void deleteQuietly(Path tempDir) {
+        if (tempDir == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(tempDir);
+        } catch (IOException e) {
+            logger.warn("Unable to delete temporary directory {}", tempDir, e);
+        }
+    }
+
+    private static class RowFormat {
+        private final int rsIdField;
+        private final int firstValueField;
+        private final int numValues;
+        private final boolean zeroIsMissing;
+
+        private RowFormat(int rsIdField, int firstValueField, int numValues, boolean zeroIsMissing) {
+            this.rsIdField = rsIdField;
+            this.firstValueField = firstValueField;
+            this.numValues = numValues;
+            this.zeroIsMissing = zeroIsMissing;
+        }
+    }
+
+    private static class StoreRecord {
+
+        private static final Comparator<StoreRecord> ALLELE_ORDER = Comparator.<StoreRecord>comparingInt(record -> record.position)
+                .thenComparing(record -> record.ref)
+                .thenComparing(record -> record.alt);
+
+        private final int position;
+        private final String ref;
+        private final String alt;
+        private final int rsId;
+        private final float[] values;
+
+        private StoreRecord(int position, String ref, String alt, int rsId, float[] values) {
+            this.position = position;
+            this.ref = ref;
+            this.alt = alt;
+            this.rsId = rsId;
+            this.values = values;
+        }
+
+        private boolean isSameAlleles(StoreRecord other) {
+            return position == other.position && ref.equals(other.ref) && alt.equals(other.alt);
+        }
+    }
+}
@@ -20,17 +20,34 @@
 
 package org.monarchinitiative.exomiser.autoconfigure;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import de.charite.compbio.jannovar.data.JannovarData;
 import de.charite.compbio.jannovar.data.JannovarDataSerializer;
 import de.charite.compbio.jannovar.data.SerializationException;
-import htsjdk.tribble.readers.TabixReader;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
 import org.monarchinitiative.exomiser.core.Exomiser;
 import org.monarchinitiative.exomiser.core.analysis.AnalysisFactory;
+import org.monarchinitiative.exomiser.core.cache.CacheStatisticsReporter;
+import org.monarchinitiative.exomiser.core.cache.InstrumentedCacheManager;
+import org.monarchinitiative.exomiser.core.cache.NativeCacheInspector;
+import org.monarchinitiative.exomiser.core.cache.ObjectSizeEstimator;
+import org.monarchinitiative.exomiser.core.genome.KnownGeneTable;
+import org.monarchinitiative.exomiser.core.genome.KnownGeneTableIO;
+import org.monarchinitiative.exomiser.core.genome.PrefetchingVariantDataService;
+import org.monarchinitiative.exomiser.core.genome.VariantDataService;
+import org.monarchinitiative.exomiser.core.genome.VariantDataServiceImpl;
 import org.monarchinitiative.exomiser.core.genome.dao.ErrorThrowingTabixDataSource;
+import org.monarchinitiative.exomiser.core.genome.dao.PooledTabixDataSource;
 import org.monarchinitiative.exomiser.core.genome.dao.TabixDataSource;
-import org.monarchinitiative.exomiser.core.genome.dao.TabixReaderAdaptor;
+import org.monarchinitiative.exomiser.core.genome.dao.VariantDataCacheSnapshotter;
+import org.monarchinitiative.exomiser.core.genome.dao.VariantBloomFilter;
+import org.monarchinitiative.exomiser.core.genome.dao.VariantStore;
+import org.monarchinitiative.exomiser.core.genome.dao.VariantStoreFrequencyDao;
+import org.monarchinitiative.exomiser.core.genome.dao.VariantStorePathogenicityDao;
 import org.monarchinitiative.exomiser.core.model.frequency.FrequencySource;
 import org.monarchinitiative.exomiser.core.model.pathogenicity.PathogenicitySource;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
@@ -39,9 +56,12 @@
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.cache.ehcache.EhCacheCacheManager;
@@ -49,10 +69,12 @@
 import org.springframework.cache.interceptor.CacheResolver;
 import org.springframework.cache.interceptor.NamedCacheResolver;
 import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 
@@ -63,7 +85,14 @@
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
@@ -77,9 +106,16 @@ public class ExomiserAutoConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(ExomiserAutoConfiguration.class);
 
+    private static final List<String> CACHE_NAMES = Arrays.asList("pathogenicity", "frequency", "local", "diseaseHp", "diseases", "hpo", "mpo", "zpo", "cadd", "remm");
+
+    private static final NativeCacheInspector CACHE_INSPECTOR = new ExomiserCacheInspector();
+
     @Autowired
     private ExomiserProperties properties;
 
+    //these guys are relatively small, always accessed and never grow so were using a ConcurrentMap to store them.
+    private final InstrumentedCacheManager modelCacheManager = new InstrumentedCacheManager(new ConcurrentMapCacheManager());
+
     /**
      * This is critical for the application to run as it points to the data
      * directory where all the required resources are found. Without this being
@@ -136,6 +172,26 @@ public JannovarData jannovarData(Path transcriptFilePath) {
         }
     }
 
+    /**
+     * The known genes are pre-computed from the Jannovar data by the exomiser-db build and stored alongside the
+     * transcript data file, e.g. hg19_ucsc.ser will have a hg19_ucsc_genes.tsv. The table is only read here - if it is
+     * missing or was built for a different exomiser.data-release the genes are built in memory from the Jannovar data
+     * for this run and nothing is written to the data directory. Can be overridden by defining your own bean.
+     */
+    @Lazy
+    @Bean
+    @ConditionalOnMissingBean
+    public KnownGeneTable knownGeneTable(Path transcriptFilePath) {
+        Path knownGeneTablePath = KnownGeneTableIO.tablePathFor(transcriptFilePath);
+        String dataRelease = properties.getDataRelease();
+        if (KnownGeneTableIO.isCurrent(knownGeneTablePath, dataRelease)) {
+            logger.info("Reading known gene table {} for data release '{}'", knownGeneTablePath, dataRelease);
+            return KnownGeneTableIO.read(knownGeneTablePath);
+        }
+        logger.info("No known gene table {} found for data release '{}' - building from Jannovar data. Run the exomiser-db buildKnownGeneTable step to create one.", knownGeneTablePath, dataRelease);
+        return KnownGeneTable.fromJannovarData(jannovarData(transcriptFilePath));
+    }
+
     /**
      * Optional full system path to CADD InDels.tsv.gz and InDels.tsv.gz.tbi file pair.
      * These can be downloaded from http://cadd.gs.washington.edu/download - v1.3 has been tested.
@@ -198,6 +254,141 @@ public TabixDataSource localFrequencyTabixDataSource() {
         return getTabixDataSourceOrDefaultForProperty(localFrequencyPath, FrequencySource.LOCAL.name());
     }
 
+    /**
+     * Optional full system path to a frequency variant store built by exomiser-db. When set, this is used for the
+     * frequency data in place of the database frequency table.
+     * <p>
+     * Default is empty and the database will be used.
+     */
+    @Lazy
+    @Bean
+    @ConditionalOnExpression("!'${exomiser.frequency-store-path:}'.isEmpty()")
+    public VariantStore frequencyVariantStore() {
+        Path frequencyStorePath = Paths.get(properties.getFrequencyStorePath());
+        logger.info("Reading frequency data from variant store: {}", frequencyStorePath);
+        return openVariantStore(frequencyStorePath);
+    }
+
+    @Lazy
+    @Bean
+    @ConditionalOnExpression("!'${exomiser.frequency-store-path:}'.isEmpty()")
+    public VariantStoreFrequencyDao variantStoreFrequencyDao() {
+        return new VariantStoreFrequencyDao(frequencyVariantStore());
+    }
+
+    /**
+     * Optional full system path to a pathogenicity variant store built by exomiser-db. When set, this is used for
+     * the SIFT, PolyPhen and MutationTaster scores in place of the database variant table.
+     * <p>
+     * Default is empty and the database will be used.
+     */
+    @Lazy
+    @Bean
+    @ConditionalOnExpression("!'${exomiser.pathogenicity-store-path:}'.isEmpty()")
+    public VariantStore pathogenicityVariantStore() {
+        Path pathogenicityStorePath = Paths.get(properties.getPathogenicityStorePath());
+        logger.info("Reading pathogenicity data from variant store: {}", pathogenicityStorePath);
+        return openVariantStore(pathogenicityStorePath);
+    }
+
+    @Lazy
+    @Bean
+    @ConditionalOnExpression("!'${exomiser.pathogenicity-store-path:}'.isEmpty()")
+    public VariantStorePathogenicityDao variantStorePathogenicityDao() {
+        return new VariantStorePathogenicityDao(pathogenicityVariantStore());
+    }
+
+    private VariantStore openVariantStore(Path variantStorePath) {
+        try {
+            return VariantStore.open(variantStorePath);
+        } catch (VariantStore.VariantStoreException e) {
+            throw new ExomiserAutoConfigurationException(variantStorePath + " is not a valid variant store. Please check exomiser properties file points to a store built by exomiser-db.", e);
+        }
+    }
+
+    /**
+     * Optional decorator for the VariantDataServiceImpl which fetches the frequency and pathogenicity data for the
+     * next chunk of variants on a background pool while the current chunk is being filtered. Enabled by setting
+     * exomiser.prefetch-threads to a value greater than 0.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnExpression("${exomiser.prefetch-threads:0} > 0")
+    public VariantDataService prefetchingVariantDataService(VariantDataServiceImpl variantDataServiceImpl) {
+        int prefetchThreads = properties.getPrefetchThreads();
+        int prefetchChunkSize = properties.getPrefetchChunkSize();
+        logger.info("Prefetching variant data in chunks of {} variants using {} threads", prefetchChunkSize, prefetchThreads);
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("variant-data-prefetch-%d").setDaemon(true).build();
+        ExecutorService executorService = Executors.newFixedThreadPool(prefetchThreads, threadFactory);
+        return new PrefetchingVariantDataService(variantDataServiceImpl, executorService, prefetchChunkSize);
+    }
+
+    /**
+     * Optional pool used by the AnalysisFactory to run the gene filters and the inheritance mode analysis over the genes
+     * concurrently. Enabled by setting exomiser.gene-analysis-threads to a value greater than 0.
+     */
+    @Bean
+    @ConditionalOnExpression("${exomiser.gene-analysis-threads:0} > 0")
+    public ForkJoinPool geneAnalysisPool() {
+        int geneAnalysisThreads = properties.getGeneAnalysisThreads();
+        logger.info("Analysing genes using {} threads", geneAnalysisThreads);
+        return new ForkJoinPool(geneAnalysisThreads);
+    }
+
+    /**
+     * Optional full system path to a bloom filter of the frequency table variants built by exomiser-db. When set,
+     * frequency queries for variants which are definitely not in the database are skipped. The filter must have been
+     * built from the same exomiser.data-release as the database, otherwise it will not be loaded.
+     * <p>
+     * Default is empty and all variants will be queried.
+     */
+    @Bean
+    @ConditionalOnExpression("!'${exomiser.frequency-bloom-filter-path:}'.isEmpty()")
+    public VariantBloomFilter frequencyBloomFilter() {
+        return readBloomFilter(Paths.get(properties.getFrequencyBloomFilterPath()), "frequency");
+    }
+
+    /**
+     * Optional full system path to a bloom filter of the variant table variants built by exomiser-db. When set,
+     * pathogenicity queries for variants which are definitely not in the database are skipped. The filter must have
+     * been built from the same exomiser.data-release as the database, otherwise it will not be loaded.
+     * <p>
+     * Default is empty and all variants will be queried.
+     */
+    @Bean
+    @ConditionalOnExpression("!'${exomiser.pathogenicity-bloom-filter-path:}'.isEmpty()")
+    public VariantBloomFilter pathogenicityBloomFilter() {
+        return readBloomFilter(Paths.get(properties.getPathogenicityBloomFilterPath()), "pathogenicity");
+    }
+
+    /**
+     * A filter built from a different table or data release to the database would report variants which are in the
+     * database as missing, so their scores would be silently dropped. These are refused rather than risk this.
+     */
+    private VariantBloomFilter readBloomFilter(Path bloomFilterPath, String expectedType) {
+        logger.info("Reading {} bloom filter: {}", expectedType, bloomFilterPath);
+        VariantBloomFilter bloomFilter;
+        try {
+            bloomFilter = VariantBloomFilter.readFrom(bloomFilterPath);
+        } catch (VariantBloomFilter.VariantBloomFilterException e) {
+            throw new ExomiserAutoConfigurationException(bloomFilterPath + " is not a valid bloom filter. Please check exomiser properties file points to a filter built by exomiser-db.", e);
+        }
+        if (!expectedType.equals(bloomFilter.getType())) {
+            throw new ExomiserAutoConfigurationException(String.format("%s is a %s bloom filter, expected a %s bloom filter. Please check exomiser properties file points to the correct filter.", bloomFilterPath, bloomFilter.getType(), expectedType));
+        }
+        String dataRelease = properties.getDataRelease();
+        if (dataRelease.isEmpty()) {
+            throw new ExomiserAutoConfigurationException(String.format("Unable to check bloom filter %s built for data release '%s' as exomiser.data-release has not been set. Please set this to the release of the database.", bloomFilterPath, bloomFilter.getRelease()));
+        }
+        if (!dataRelease.equals(bloomFilter.getRelease())) {
+            throw new ExomiserAutoConfigurationException(String.format("Bloom filter %s was built for data release '%s' but exomiser.data-release is '%s'. Please rebuild the filter for this release.", bloomFilterPath, bloomFilter.getRelease(), dataRelease));
+        }
+        if (bloomFilter.getExpectedFpp() > bloomFilter.getConfiguredFpp()) {
+            logger.warn("Bloom filter {} has an expected false-positive rate of {} which exceeds the configured rate of {}", bloomFilterPath, bloomFilter.getExpectedFpp(), bloomFilter.getConfiguredFpp());
+        }
+        return bloomFilter;
+    }
+
     private void logTabixPathIfNotEmpty(String prefixMessage, String tabixPath) {
         if (!tabixPath.isEmpty()) {
             logger.info("{} {}", prefixMessage, tabixPath);
@@ -211,13 +402,12 @@ private TabixDataSource getTabixDataSourceOrDefaultForProperty(String pathToTabi
             String message = "Data for " + dataSourceName + " is not configured. Check the application.properties is pointing to a valid file.";
             return new ErrorThrowingTabixDataSource(message);
         }
-        TabixReader tabixReader;
         try {
-            tabixReader = new TabixReader(tabixGzPathValue);
+            //queries share a bounded pool of readers as a single TabixReader is not safe for concurrent queries
+            return new PooledTabixDataSource(tabixGzPathValue);
         } catch (IOException e) {
             throw new ExomiserAutoConfigurationException(tabixGzPathValue + " file not found. Please check exomiser properties file points to a valid tabix .gz file.", e);
         }
-        return new TabixReaderAdaptor(tabixReader);
     }
 
     //Prioritiser configuration
@@ -314,9 +504,8 @@ private String resolveH2UrlPathPlaceholder(String h2Url, String h2AbsolutePath)
     @Bean
     public CacheResolver modelCacheResolver() {
         NamedCacheResolver modelCacheResolver = new NamedCacheResolver();
-        //these guys are relatively small, always accessed and never grow so were using a ConcurrentMap to store them.
         modelCacheResolver.setCacheNames(Arrays.asList("models"));
-        modelCacheResolver.setCacheManager(new ConcurrentMapCacheManager());
+        modelCacheResolver.setCacheManager(modelCacheManager);
         return modelCacheResolver;
     }
 
@@ -332,20 +521,142 @@ public CacheManager cacheManager() {
                 cacheManager = noOpCacheManager();
                 break;
             case "mem":
-                cacheManager = new ConcurrentMapCacheManager("pathogenicity", "frequency", "diseaseHp", "diseases","hpo", "mpo", "zpo", "cadd", "remm");
+                cacheManager = new ConcurrentMapCacheManager(CACHE_NAMES.toArray(new String[CACHE_NAMES.size()]));
                 cacheNames.addAll(cacheManager.getCacheNames());
                 break;
             case "ehcache":
                 cacheManager = ehCacheCacheManager();
                 cacheNames.addAll(Arrays.asList(ehCacheCacheManager().getCacheManager().getCacheNames()));
                 break;
+            case "caffeine":
+                cacheManager = caffeineCacheManager();
+                cacheNames.addAll(cacheManager.getCacheNames());
+                break;
             default:
-                String message = String.format("Unrecognised value '%s' for exomiser cache option. Please choose 'none', 'mem' or 'ehcache'.", cacheOption);
+                String message = String.format("Unrecognised value '%s' for exomiser cache option. Please choose 'none', 'mem', 'ehcache' or 'caffeine'.", cacheOption);
                 logger.error(message);
                 throw new ExomiserAutoConfigurationException(message);
         }
         logger.info("Set up {} caches: {}", cacheOption, cacheNames);
-        return cacheManager;
+        return new InstrumentedCacheManager(cacheManager, CACHE_INSPECTOR);
+    }
+
+    /**
+     * Reports the hit-rate, load time, entry count and estimated size of the caches to the log on shutdown and every
+     * exomiser.cache-stats-interval-minutes if this is greater than 0. If exomiser.cache-stats-path is set the
+     * statistics are also written to this file as JSON.
+     */
+    @Bean
+    public CacheStatisticsReporter cacheStatisticsReporter(CacheManager cacheManager) {
+        List<InstrumentedCacheManager> instrumentedCacheManagers = new ArrayList<>();
+        if (cacheManager instanceof InstrumentedCacheManager) {
+            instrumentedCacheManagers.add((InstrumentedCacheManager) cacheManager);
+        }
+        instrumentedCacheManagers.add(modelCacheManager);
+        String cacheStatsPath = properties.getCacheStatsPath();
+        Path jsonReportPath = cacheStatsPath.isEmpty() ? null : Paths.get(cacheStatsPath);
+        CacheStatisticsReporter cacheStatisticsReporter = new CacheStatisticsReporter(instrumentedCacheManagers, jsonReportPath);
+        int intervalMinutes = properties.getCacheStatsIntervalMinutes();
+        if (intervalMinutes > 0) {
+            logger.info("Reporting cache statistics every {} minutes", intervalMinutes);
+            cacheStatisticsReporter.scheduleReports(intervalMinutes, TimeUnit.MINUTES);
+        }
+        return cacheStatisticsReporter;
+    }
+
+    /**
+     * Optional snapshot of the frequency, pathogenicity, cadd and remm caches. When exomiser.cache-snapshot-path is
+     * set the caches are loaded from the snapshot at startup, if it was made from the same exomiser.data-release, and
+     * saved to it on shutdown and every exomiser.cache-snapshot-interval-minutes if this is greater than 0.
+     * <p>
+     * This requires the 'mem', 'ehcache' or 'caffeine' cache option.
+     */
+    @Bean
+    @ConditionalOnExpression("!'${exomiser.cache-snapshot-path:}'.isEmpty()")
+    public VariantDataCacheSnapshotter variantDataCacheSnapshotter() {
+        Path cacheSnapshotPath = Paths.get(properties.getCacheSnapshotPath());
+        String dataRelease = properties.getDataRelease();
+        logger.info("Using variant data cache snapshot {} for data release '{}'", cacheSnapshotPath, dataRelease);
+        VariantDataCacheSnapshotter cacheSnapshotter = new VariantDataCacheSnapshotter(cacheManager(), cacheSnapshotPath, dataRelease, this::readCacheEntries);
+        cacheSnapshotter.load();
+        int intervalMinutes = properties.getCacheSnapshotIntervalMinutes();
+        if (intervalMinutes > 0) {
+            cacheSnapshotter.scheduleSaves(intervalMinutes, TimeUnit.MINUTES);
+        }
+        return cacheSnapshotter;
+    }
+
+    private Map<?, ?> readCacheEntries(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof Ehcache || nativeCache instanceof com.github.benmanes.caffeine.cache.Cache) {
+            return CACHE_INSPECTOR.readEntries(cache);
+        }
+        return VariantDataCacheSnapshotter.readMapEntries(cache);
+    }
+
+    /**
+     * Reads the sizes and evictions of ehcache and caffeine caches, which are not backed by a java.util.Map.
+     */
+    private static class ExomiserCacheInspector implements NativeCacheInspector {
+
+        @Override
+        public Map<?, ?> readEntries(Cache cache) {
+            Object nativeCache = cache.getNativeCache();
+            if (nativeCache instanceof Ehcache) {
+                return readEhCacheEntries((Ehcache) nativeCache, Integer.MAX_VALUE);
+            }
+            if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache) {
+                return ((com.github.benmanes.caffeine.cache.Cache<?, ?>) nativeCache).asMap();
+            }
+            return NativeCacheInspector.super.readEntries(cache);
+        }
+
+        @Override
+        public Map<?, ?> sampleEntries(Cache cache, int maxEntries) {
+            Object nativeCache = cache.getNativeCache();
+            if (nativeCache instanceof Ehcache) {
+                return readEhCacheEntries((Ehcache) nativeCache, maxEntries);
+            }
+            return NativeCacheInspector.super.sampleEntries(cache, maxEntries);
+        }
+
+        private Map<?, ?> readEhCacheEntries(Ehcache ehcache, int maxEntries) {
+            Map<Object, Object> entries = new HashMap<>();
+            for (Object key : ehcache.getKeys()) {
+                if (entries.size() == maxEntries) {
+                    break;
+                }
+                Element element = ehcache.getQuiet(key);
+                if (element != null) {
+                    entries.put(key, element.getObjectValue());
+                }
+            }
+            return entries;
+        }
+
+        @Override
+        public long countEntries(Cache cache) {
+            Object nativeCache = cache.getNativeCache();
+            if (nativeCache instanceof Ehcache) {
+                return ((Ehcache) nativeCache).getSize();
+            }
+            if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache) {
+                return ((com.github.benmanes.caffeine.cache.Cache<?, ?>) nativeCache).estimatedSize();
+            }
+            return NativeCacheInspector.super.countEntries(cache);
+        }
+
+        @Override
+        public long countNativeEvictions(Cache cache) {
+            Object nativeCache = cache.getNativeCache();
+            if (nativeCache instanceof Ehcache) {
+                return ((Ehcache) nativeCache).getStatistics().cacheEvictedCount();
+            }
+            if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache) {
+                return ((com.github.benmanes.caffeine.cache.Cache<?, ?>) nativeCache).stats().evictionCount();
+            }
+            return NativeCacheInspector.super.countNativeEvictions(cache);
+        }
     }
 
     private NoOpCacheManager noOpCacheManager() {
@@ -353,6 +664,36 @@ private NoOpCacheManager noOpCacheManager() {
         return new NoOpCacheManager();
     }
 
+    /**
+     * Caffeine caches bounded by the estimated heap size of their entries rather than the number of entries. The
+     * budget for each cache is taken from exomiser.cache-max-mb.[cache-name], falling back to
+     * exomiser.cache-default-max-mb. Once a cache reaches its budget Caffeine evicts the entries least likely to be
+     * used again.
+     */
+    private CacheManager caffeineCacheManager() {
+        Map<String, Integer> cacheMaxMb = properties.getCacheMaxMb();
+        List<Cache> caches = new ArrayList<>();
+        for (String cacheName : CACHE_NAMES) {
+            long maxBytes = cacheMaxMb.getOrDefault(cacheName, properties.getCacheDefaultMaxMb()) * 1024L * 1024L;
+            logger.info("Limiting {} cache to {} MB", cacheName, maxBytes / (1024 * 1024));
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = Caffeine.newBuilder()
+                    .maximumWeight(maxBytes)
+                    .weigher(ExomiserAutoConfiguration::estimateWeight)
+                    .recordStats()
+                    .build();
+            caches.add(new CaffeineCache(cacheName, nativeCache));
+        }
+        SimpleCacheManager caffeineCacheManager = new SimpleCacheManager();
+        caffeineCacheManager.setCaches(caches);
+        caffeineCacheManager.afterPropertiesSet();
+        return caffeineCacheManager;
+    }
+
+    private static int estimateWeight(Object key, Object value) {
+        long bytes = ObjectSizeEstimator.estimate(key) + ObjectSizeEstimator.estimate(value);
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
     private EhCacheCacheManager ehCacheCacheManager() {
         return new EhCacheCacheManager(ehCacheManager().getObject());
     }
@@ -23,6 +23,9 @@
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * @author Jules Jacobsen <jules.jacobsen@sanger.ac.uk>
  */
@@ -43,14 +46,47 @@ public class ExomiserProperties {
 
     private String localFrequencyPath = "";
 
+    //optional embedded variant stores built by exomiser-db, used in place of the database frequency and variant tables
+    private String frequencyStorePath = "";
+    private String pathogenicityStorePath = "";
+
+    //optional bloom filters built by exomiser-db, used to skip database queries for variants absent from the frequency and variant tables
+    private String frequencyBloomFilterPath = "";
+    private String pathogenicityBloomFilterPath = "";
+
+    //number of background threads used to prefetch variant data while filtering. 0 disables prefetching.
+    private int prefetchThreads = 0;
+    private int prefetchChunkSize = 500;
+
+    //number of threads used to filter the genes and check their inheritance modes concurrently. 0 runs these on the calling thread.
+    private int geneAnalysisThreads = 0;
+
+    //data release version used to tag cache snapshots and check bloom filters e.g. 1703
+    private String dataRelease = "";
+    //optional file used to persist the variant data caches between runs. Empty disables snapshots.
+    private String cacheSnapshotPath = "";
+    //interval between snapshots in minutes. 0 will only save a snapshot on shutdown.
+    private int cacheSnapshotIntervalMinutes = 0;
+    //interval between cache statistics reports in minutes. 0 will only report on shutdown.
+    private int cacheStatsIntervalMinutes = 0;
+    //optional file to write the cache statistics to as JSON. Empty will only log the statistics.
+    private String cacheStatsPath = "";
+
     //http://docs.spring.io/spring-boot/docs/current/reference/html/boot-features-caching.html
 //    private CacheType cache = CacheType.NONE;
 
     /**
-     * none/mem/ehcache
+     * none/mem/ehcache/caffeine
      */
     private String cache = "none";
 
+    /**
+     * maximum estimated size in MB of each cache when using the caffeine cache option. Caches not listed here use the
+     * cacheDefaultMaxMb e.g. exomiser.cache-max-mb.frequency=1024
+     */
+    private Map<String, Integer> cacheMaxMb = new HashMap<>();
+    private int cacheDefaultMaxMb = 256;
+
     /**
      * name of transcript data .ser file created from Jannovar for defining known exon locations
      */
@@ -121,6 +157,102 @@ public void setLocalFrequencyPath(String localFrequencyPath) {
         this.localFrequencyPath = localFrequencyPath;
     }
 
+    public String getFrequencyStorePath() {
+        return frequencyStorePath;
+    }
+
+    public void setFrequencyStorePath(String frequencyStorePath) {
+        this.frequencyStorePath = frequencyStorePath;
+    }
+
+    public String getPathogenicityStorePath() {
+        return pathogenicityStorePath;
+    }
+
+    public void setPathogenicityStorePath(String pathogenicityStorePath) {
+        this.pathogenicityStorePath = pathogenicityStorePath;
+    }
+
+    public String getFrequencyBloomFilterPath() {
+        return frequencyBloomFilterPath;
+    }
+
+    public void setFrequencyBloomFilterPath(String frequencyBloomFilterPath) {
+        this.frequencyBloomFilterPath = frequencyBloomFilterPath;
+    }
+
+    public String getPathogenicityBloomFilterPath() {
+        return pathogenicityBloomFilterPath;
+    }
+
+    public void setPathogenicityBloomFilterPath(String pathogenicityBloomFilterPath) {
+        this.pathogenicityBloomFilterPath = pathogenicityBloomFilterPath;
+    }
+
+    public int getPrefetchThreads() {
+        return prefetchThreads;
+    }
+
+    public void setPrefetchThreads(int prefetchThreads) {
+        this.prefetchThreads = prefetchThreads;
+    }
+
+    public int getPrefetchChunkSize() {
+        return prefetchChunkSize;
+    }
+
+    public void setPrefetchChunkSize(int prefetchChunkSize) {
+        this.prefetchChunkSize = prefetchChunkSize;
+    }
+
+    public int getGeneAnalysisThreads() {
+        return geneAnalysisThreads;
+    }
+
+    public void setGeneAnalysisThreads(int geneAnalysisThreads) {
+        this.geneAnalysisThreads = geneAnalysisThreads;
+    }
+
+    public String getDataRelease() {
+        return dataRelease;
+    }
+
+    public void setDataRelease(String dataRelease) {
+        this.dataRelease = dataRelease;
+    }
+
+    public String getCacheSnapshotPath() {
+        return cacheSnapshotPath;
+    }
+
+    public void setCacheSnapshotPath(String cacheSnapshotPath) {
+        this.cacheSnapshotPath = cacheSnapshotPath;
+    }
+
+    public int getCacheSnapshotIntervalMinutes() {
+        return cacheSnapshotIntervalMinutes;
+    }
+
+    public void setCacheSnapshotIntervalMinutes(int cacheSnapshotIntervalMinutes) {
+        this.cacheSnapshotIntervalMinutes = cacheSnapshotIntervalMinutes;
+    }
+
+    public int getCacheStatsIntervalMinutes() {
+        return cacheStatsIntervalMinutes;
+    }
+
+    public void setCacheStatsIntervalMinutes(int cacheStatsIntervalMinutes) {
+        this.cacheStatsIntervalMinutes = cacheStatsIntervalMinutes;
+    }
+
+    public String getCacheStatsPath() {
+        return cacheStatsPath;
+    }
+
+    public void setCacheStatsPath(String cacheStatsPath) {
+        this.cacheStatsPath = cacheStatsPath;
+    }
+
     public String getCache() {
         return cache;
     }
@@ -129,6 +261,22 @@ public void setCache(String cache) {
         this.cache = cache;
     }
 
+    public Map<String, Integer> getCacheMaxMb() {
+        return cacheMaxMb;
+    }
+
+    public void setCacheMaxMb(Map<String, Integer> cacheMaxMb) {
+        this.cacheMaxMb = cacheMaxMb;
+    }
+
+    public int getCacheDefaultMaxMb() {
+        return cacheDefaultMaxMb;
+    }
+
+    public void setCacheDefaultMaxMb(int cacheDefaultMaxMb) {
+        this.cacheDefaultMaxMb = cacheDefaultMaxMb;
+    }
+
     public String getTranscriptDataFileName() {
         return transcriptDataFileName;
     }
@@ -25,10 +25,13 @@
 import de.charite.compbio.jannovar.data.JannovarData;
 import de.charite.compbio.jannovar.reference.HG19RefDictBuilder;
 import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.monarchinitiative.exomiser.core.genome.dao.ErrorThrowingTabixDataSource;
 import org.monarchinitiative.exomiser.core.genome.dao.TabixDataSource;
+import org.monarchinitiative.exomiser.core.genome.dao.VariantBloomFilter;
 import org.monarchinitiative.exomiser.core.prioritisers.util.DataMatrix;
 import org.springframework.boot.test.util.EnvironmentTestUtils;
 import org.springframework.cache.CacheManager;
@@ -40,6 +43,7 @@
 import javax.sql.DataSource;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.core.IsEqual.equalTo;
@@ -55,6 +59,9 @@ public class ExomiserAutoConfigurationTest {
     private static final Path TEST_DATA = Paths.get("src/test/resources/data");
     private static final String TEST_DATA_ENV = "exomiser.data-directory=" + TEST_DATA;
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @After
     public void tearDown() {
         if (this.context != null) {
@@ -331,6 +338,19 @@ public void cachingDisabledByDefault() {
         assertThat(cache.getCacheNames().isEmpty(), is(true));
     }
 
+    @Test
+    public void geneAnalysisPoolNotDefinedByDefault() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV);
+        assertThat(context.containsBean("geneAnalysisPool"), is(false));
+    }
+
+    @Test
+    public void geneAnalysisPoolUsesDefinedNumberOfThreads() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.gene-analysis-threads=3");
+        ForkJoinPool geneAnalysisPool = (ForkJoinPool) context.getBean("geneAnalysisPool");
+        assertThat(geneAnalysisPool.getParallelism(), equalTo(3));
+    }
+
     @Test(expected = RuntimeException.class)
     public void cachingThrowsExceptionWhenNameNotRecognised() {
         load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.cache=wibble");
@@ -347,7 +367,7 @@ public void cachingCanBeDisabledExplicitly() {
     public void cachingInMemCanBeDefined() {
         load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.cache=mem");
         CacheManager cache = context.getBean(CacheManager.class);
-        assertThat(cache.getCacheNames(), hasItems("pathogenicity", "frequency", "diseaseHp", "diseases","hpo", "mpo", "zpo", "cadd", "remm"));
+        assertThat(cache.getCacheNames(), hasItems("pathogenicity", "frequency", "local", "diseaseHp", "diseases","hpo", "mpo", "zpo", "cadd", "remm"));
     }
 
     @Test
@@ -357,6 +377,15 @@ public void cachingEhCacheCanBeDefined() {
         assertThat(cache.getCacheNames(), hasItems("pathogenicity", "frequency", "diseaseHp", "diseases","hpo", "mpo", "zpo", "cadd", "remm"));
     }
 
+    @Test
+    public void cachingCaffeineCanBeDefined() {
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.cache=caffeine", "exomiser.cache-max-mb.frequency=10");
+        CacheManager cache = context.getBean(CacheManager.class);
+        assertThat(cache.getCacheNames(), hasItems("pathogenicity", "frequency", "local", "diseaseHp", "diseases","hpo", "mpo", "zpo", "cadd", "remm"));
+        com.github.benmanes.caffeine.cache.Cache<?, ?> frequencyCache = (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getCache("frequency").getNativeCache();
+        assertThat(frequencyCache.policy().eviction().get().getMaximum(), equalTo(10L * 1024 * 1024));
+    }
+
     @Test
     public void cachingCanBeOverridden() {
         load(BeanOverrideConfiguration.class, TEST_DATA_ENV, "exomiser.cache=ehcache");
@@ -364,6 +393,38 @@ public void cachingCanBeOverridden() {
         assertThat(cache.getCacheNames(), hasItems("wibble"));
     }
 
+    private String writeBloomFilter(String type, String release) throws Exception {
+        Path bloomFilterPath = temporaryFolder.newFile(type + ".bloom").toPath();
+        VariantBloomFilter.create(type, release, 10, 0.01).writeTo(bloomFilterPath);
+        return bloomFilterPath.toAbsolutePath().toString();
+    }
+
+    @Test
+    public void frequencyBloomFilterLoadedWhenReleaseMatchesDataRelease() throws Exception {
+        String bloomFilterPath = writeBloomFilter("frequency", "1703");
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.data-release=1703", "exomiser.frequency-bloom-filter-path=" + bloomFilterPath);
+        VariantBloomFilter bloomFilter = (VariantBloomFilter) this.context.getBean("frequencyBloomFilter");
+        assertThat(bloomFilter.getRelease(), equalTo("1703"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void frequencyBloomFilterRefusedWhenReleaseDiffersFromDataRelease() throws Exception {
+        String bloomFilterPath = writeBloomFilter("frequency", "1703");
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.data-release=1707", "exomiser.frequency-bloom-filter-path=" + bloomFilterPath);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void frequencyBloomFilterRefusedWhenDataReleaseNotSet() throws Exception {
+        String bloomFilterPath = writeBloomFilter("frequency", "1703");
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.frequency-bloom-filter-path=" + bloomFilterPath);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void pathogenicityBloomFilterRefusedWhenBuiltForFrequencies() throws Exception {
+        String bloomFilterPath = writeBloomFilter("frequency", "1703");
+        load(EmptyConfiguration.class, TEST_DATA_ENV, "exomiser.data-release=1703", "exomiser.pathogenicity-bloom-filter-path=" + bloomFilterPath);
+    }
+
     @Configuration
     static class NoJannovarOverrideConfiguration {
         /*